@@ -3,13 +3,16 @@ package com.tradermind;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * TraderMind 主启动类
  * 启用异步支持，用于 AI 交易教练的异步分析
+ * 启用定时任务，用于收盘后的每日权益快照
  */
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class TraderMindApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,37 @@
+package com.tradermind.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 按接口放宽 MVC 异步超时
+ * StreamingResponseBody 没有自己的超时参数，统一使用 spring.mvc.async.request-timeout；全局调大会连带 Mono / SSE 接口。
+ * 控制器在请求属性 {@link #TIMEOUT_ATTRIBUTE} 中写入毫秒数，异步开始前由拦截器设置到本次请求上
+ */
+@Configuration
+public class AsyncTimeoutConfig implements WebMvcConfigurer {
+
+    /** 本次请求的异步超时（毫秒，Long） */
+    public static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutConfig.class.getName() + ".timeout";
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // 异步处理开始前传入的就是本次请求的 AsyncWebRequest，此时设置的超时会用于 startAsync
+                if (request instanceof AsyncWebRequest asyncRequest
+                        && request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long timeout) {
+                    asyncRequest.setTimeout(timeout);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package com.tradermind.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * 大模型 HTTP 客户端配置：所有 AI 调用共用一个连接池
+ * - 连接池上限与获取连接的排队超时，突发请求不会无限建连
+ * - 连接超时与响应超时，上游卡住时及时失败而不是无限等待
+ */
+@Configuration
+public class LlmClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider llmConnectionProvider(
+            @Value("${ai.http.max-connections:50}") int maxConnections,
+            @Value("${ai.http.pending-acquire-timeout-ms:5000}") long pendingAcquireTimeoutMs,
+            @Value("${ai.http.max-idle-ms:30000}") long maxIdleMs) {
+        return ConnectionProvider.builder("llm")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .evictInBackground(Duration.ofMillis(maxIdleMs))
+                .build();
+    }
+
+    @Bean
+    public WebClient llmWebClient(
+            ConnectionProvider llmConnectionProvider,
+            @Value("${ai.http.connect-timeout-ms:3000}") int connectTimeoutMs,
+            @Value("${ai.http.response-timeout-ms:60000}") long responseTimeoutMs) {
+        HttpClient httpClient = HttpClient.create(llmConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(c -> c.defaultCodecs().maxInMemorySize(2 * 1024 * 1024))
+                .build();
+    }
+}
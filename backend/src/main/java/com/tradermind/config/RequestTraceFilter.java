@@ -0,0 +1,117 @@
+package com.tradermind.config;
+
+import com.tradermind.service.RequestTrace;
+import com.tradermind.service.SlowRequestLog;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * 请求耗时分解过滤器
+ * 请求进入时创建 RequestTrace 并绑定到线程；同步请求在过滤链返回时结束，
+ * 异步请求（Mono / Flux / StreamingResponseBody）在 AsyncContext 完成时结束，异步派发期间重新绑定同一 trace。
+ * 结束时超过阈值的请求写入 SlowRequestLog。
+ * Server-Timing 头由 JSON 转换器在写响应体前设置（此时已知序列化耗时）；非 JSON 且未提交的响应在此补上
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class RequestTraceFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING = "Server-Timing";
+    /** 客户端按需请求 Server-Timing 头 */
+    private static final String REQUEST_HEADER = "X-Server-Timing";
+    private static final String TRACE_ATTRIBUTE = RequestTrace.class.getName();
+
+    private final SlowRequestLog slowRequestLog;
+
+    /** true 时所有响应都带 Server-Timing；否则仅对带 X-Server-Timing: 1 请求头的请求输出 */
+    @Value("${trace.server-timing:false}")
+    private boolean serverTimingAlways;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTrace trace = (RequestTrace) request.getAttribute(TRACE_ATTRIBUTE);
+        boolean initial = trace == null;
+        if (initial) {
+            trace = new RequestTrace(request.getMethod(), request.getRequestURI(),
+                    serverTimingAlways || "1".equals(request.getHeader(REQUEST_HEADER)));
+            request.setAttribute(TRACE_ATTRIBUTE, trace);
+        }
+
+        RequestTrace.bind(trace);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestTrace.unbind();
+        }
+
+        if (request.isAsyncStarted()) {
+            if (initial) {
+                RequestTrace asyncTrace = trace;
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        finish(asyncTrace, request, response);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            }
+            return;
+        }
+        if (initial) {
+            if (trace.serverTimingRequested() && !response.isCommitted()) {
+                response.setHeader(SERVER_TIMING, trace.serverTimingHeader());
+            }
+            finish(trace, request, response);
+        }
+    }
+
+    private void finish(RequestTrace trace, HttpServletRequest request, HttpServletResponse response) {
+        long total = trace.elapsedNanos();
+        if (slowRequestLog.isSlow(total)) {
+            slowRequestLog.add(trace.snapshot(endpoint(request), response.getStatus(), total));
+        }
+    }
+
+    /**
+     * 与 http.server.requests 的 endpoint 标签一致：控制器.方法，未匹配时为 none
+     */
+    private static String endpoint(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return "none";
+    }
+}
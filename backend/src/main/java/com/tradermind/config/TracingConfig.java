@@ -0,0 +1,92 @@
+package com.tradermind.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradermind.service.RequestTrace;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * 请求耗时分解的接入点（配合 RequestTraceFilter）
+ * - 数据源包装为 TracingDataSource，JPA 与 JdbcTemplate 的 JDBC 耗时计入 DB 环节
+ * - JSON 转换器替换为计时版本：序列化耗时计入 SERIALIZATION；需要 Server-Timing 的请求先序列化到内存，
+ *   设置响应头后再写出，普通请求仍直接写入响应流（此时计时含写出耗时）
+ */
+@Configuration
+public class TracingConfig implements WebMvcConfigurer {
+
+    @Bean
+    public static BeanPostProcessor tracingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)) {
+                    return new TracingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter jackson) {
+                converters.set(i, new TimedJacksonConverter(jackson.getObjectMapper()));
+            }
+        }
+    }
+
+    private static class TimedJacksonConverter extends MappingJackson2HttpMessageConverter {
+
+        TimedJacksonConverter(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+            RequestTrace trace = RequestTrace.current();
+            if (trace == null) {
+                super.writeInternal(object, type, outputMessage);
+                return;
+            }
+            long start = System.nanoTime();
+            if (!trace.serverTimingRequested()) {
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    trace.add(RequestTrace.Phase.SERIALIZATION, System.nanoTime() - start);
+                }
+                return;
+            }
+
+            FastByteArrayOutputStream buffer = new FastByteArrayOutputStream();
+            super.writeInternal(object, type, new HttpOutputMessage() {
+                @Override
+                public OutputStream getBody() {
+                    return buffer;
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return outputMessage.getHeaders();
+                }
+            });
+            trace.add(RequestTrace.Phase.SERIALIZATION, System.nanoTime() - start);
+            outputMessage.getHeaders().set(RequestTraceFilter.SERVER_TIMING, trace.serverTimingHeader());
+            buffer.writeTo(outputMessage.getBody());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.tradermind.config;
+
+import com.tradermind.service.RequestTrace;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 为 RequestTrace 计时的数据源包装
+ * 取连接（含连接池等待）与语句 execute* 的耗时计入当前请求的 DB 环节；
+ * 当前线程未绑定 trace 时直接返回原连接，定时任务与后台队列不受影响。
+ * 结果集按 PostgreSQL 驱动默认行为在 execute 时已全部取回，遍历开销归入计算
+ */
+public class TracingDataSource extends DelegatingDataSource {
+
+    public TracingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (RequestTrace.current() == null) {
+            return super.getConnection();
+        }
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        RequestTrace.record(RequestTrace.Phase.DB, System.nanoTime() - start);
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (RequestTrace.current() == null) {
+            return super.getConnection(username, password);
+        }
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        RequestTrace.record(RequestTrace.Phase.DB, System.nanoTime() - start);
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * equals / hashCode 按代理自身的身份判断：Hibernate 以 Statement 为键登记资源，委托给目标对象会导致找不到
+     */
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            default -> {
+            }
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * 连接代理：创建出的 Statement / PreparedStatement / CallableStatement 再包一层计时代理
+     */
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = TracingDataSource.invoke(proxy, target, method, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return proxy(method.getReturnType(), new StatementHandler(statement));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 语句代理：execute、executeQuery、executeUpdate、executeBatch 等计入 DB 环节
+     */
+    private record StatementHandler(Statement target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return TracingDataSource.invoke(proxy, target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return TracingDataSource.invoke(proxy, target, method, args);
+            } finally {
+                RequestTrace.record(RequestTrace.Phase.DB, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -1,16 +1,31 @@
 package com.tradermind.controller;
 
+import com.tradermind.dto.AIBackfillReport;
+import com.tradermind.dto.AICallDailyStatsDTO;
+import com.tradermind.dto.AIChallengeCacheStatsDTO;
 import com.tradermind.dto.AIChallengeRequest;
+import com.tradermind.dto.AIReviewCostDTO;
+import com.tradermind.dto.AIReviewQueueStatsDTO;
+import com.tradermind.service.AICallTelemetry;
 import com.tradermind.service.AIChallengeService;
+import com.tradermind.service.AIReviewBackfillService;
+import com.tradermind.service.AIReviewQueueService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * AI 相关 REST API 控制器
- * 提供交易前置质询等 AI 能力
+ * 提供交易前置质询、复盘任务队列管理、调用遥测等 AI 能力
  */
 @RestController
 @RequestMapping("/api/ai")
@@ -19,23 +34,116 @@ import java.util.List;
 public class AIController {
 
     private final AIChallengeService aiChallengeService;
+    private final AIReviewQueueService aiReviewQueueService;
+    private final AIReviewBackfillService aiReviewBackfillService;
+    private final AICallTelemetry aiCallTelemetry;
 
     /**
      * AI 交易前置质询
      * 作为对手盘，指出买入逻辑中可能忽略的风险点
      *
      * @param request 股票代码、当前价格、买入逻辑
-     * @return 风险点列表（通常 3 条）
+     * @return 风险点列表（通常 3 条）；异步返回，等待大模型期间释放请求线程
      */
     @PostMapping("/challenge")
-    public List<String> challenge(@Valid @RequestBody AIChallengeRequest request) {
+    public Mono<List<String>> challenge(@Valid @RequestBody AIChallengeRequest request) {
         String price = request.currentPrice() != null
                 ? request.currentPrice().toPlainString()
                 : null;
         return aiChallengeService.challenge(
                 request.stockSymbol(),
                 price,
-                request.logic()
+                request.logic(),
+                Boolean.TRUE.equals(request.bypassCache())
         );
     }
+
+    /**
+     * 流式 AI 交易前置质询（SSE）
+     * 每解析出一条完整的风险点即推送 event: risk，全部结束后推送 event: done
+     */
+    @PostMapping(value = "/challenge/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> challengeStream(@Valid @RequestBody AIChallengeRequest request) {
+        String price = request.currentPrice() != null
+                ? request.currentPrice().toPlainString()
+                : null;
+        return aiChallengeService.challengeStream(request.stockSymbol(), price, request.logic(),
+                        Boolean.TRUE.equals(request.bypassCache()))
+                .map(risk -> ServerSentEvent.builder(risk).event("risk").build())
+                .concatWithValues(ServerSentEvent.builder("").event("done").build());
+    }
+
+    /**
+     * AI 质询缓存统计：命中率、节省的耗时与 token
+     */
+    @GetMapping("/challenge/cache-stats")
+    public AIChallengeCacheStatsDTO challengeCacheStats() {
+        return aiChallengeService.getCacheStats();
+    }
+
+    /**
+     * AI 复盘任务队列状态：各状态任务数、并发与速率上限
+     */
+    @GetMapping("/review-queue")
+    public AIReviewQueueStatsDTO reviewQueueStats() {
+        return aiReviewQueueService.getStats();
+    }
+
+    /**
+     * AI 复盘调用代价：单笔与批量模式下每笔交易平摊的耗时与 token
+     */
+    @GetMapping("/review-queue/cost")
+    public AIReviewCostDTO reviewCost() {
+        return aiReviewQueueService.getCostStats();
+    }
+
+    /**
+     * 死信任务（重试耗尽）全部重新入队
+     */
+    @PostMapping("/review-queue/retry-dead")
+    public Map<String, Object> retryDead() {
+        return Map.of("requeued", aiReviewQueueService.requeueDead());
+    }
+
+    /**
+     * 发起 AI 复盘批量回填：补评分为空的执行记录，rescoreAll=true 时全部重新评分
+     */
+    @PostMapping("/review-backfill")
+    public AIBackfillReport startBackfill(@RequestParam(defaultValue = "false") boolean rescoreAll) {
+        return aiReviewBackfillService.start(rescoreAll);
+    }
+
+    /**
+     * 最近一次回填的进度与吞吐
+     */
+    @GetMapping("/review-backfill/latest")
+    public AIBackfillReport latestBackfill() {
+        return aiReviewBackfillService.getLatestReport();
+    }
+
+    @GetMapping("/review-backfill/{runId}")
+    public AIBackfillReport backfillReport(@PathVariable("runId") Long runId) {
+        return aiReviewBackfillService.getReport(runId);
+    }
+
+    /**
+     * 取消回填：停止扫描，已入队的任务照常执行
+     */
+    @PostMapping("/review-backfill/{runId}/cancel")
+    public AIBackfillReport cancelBackfill(@PathVariable("runId") Long runId) {
+        return aiReviewBackfillService.cancel(runId);
+    }
+
+    /**
+     * 大模型调用按 (日期, 模型) 汇总：调用数、各结果次数、平均与 P95 耗时、token 与费用
+     * 默认最近 30 天
+     */
+    @GetMapping("/calls/daily")
+    public List<AICallDailyStatsDTO> callDailyStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        return aiCallTelemetry.dailyStats(start, end);
+    }
 }
@@ -0,0 +1,37 @@
+package com.tradermind.controller;
+
+import com.tradermind.dto.SlowRequestDTO;
+import com.tradermind.service.SlowRequestLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 运维诊断 REST API 控制器
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AdminController {
+
+    private final SlowRequestLog slowRequestLog;
+
+    /**
+     * 最近的慢请求（超过 trace.slow-requests.threshold-ms）按总耗时降序，
+     * 每条含 DB、行情、AI、序列化与计算的耗时分解
+     */
+    @GetMapping("/slow-requests")
+    public List<SlowRequestDTO> getSlowRequests(@RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return slowRequestLog.slowest(limit);
+    }
+
+    /**
+     * 清空慢请求缓冲（如调整后重新观察）
+     */
+    @DeleteMapping("/slow-requests")
+    public void clearSlowRequests() {
+        slowRequestLog.clear();
+    }
+}
@@ -0,0 +1,51 @@
+package com.tradermind.controller;
+
+import com.tradermind.dto.DailyEquityDTO;
+import com.tradermind.dto.EquityBackfillReport;
+import com.tradermind.service.DailyEquityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 每日权益快照 REST API 控制器
+ */
+@RestController
+@RequestMapping("/api/equity/daily")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class DailyEquityController {
+
+    private final DailyEquityService dailyEquityService;
+
+    /**
+     * 按日期范围读取每日权益（权益曲线、盈亏日历）
+     */
+    @GetMapping
+    public List<DailyEquityDTO> list(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return dailyEquityService.getDailyEquity(from, to);
+    }
+
+    /**
+     * 立即生成今日快照（通常由收盘后的日终任务自动执行）
+     */
+    @PostMapping("/snapshot")
+    public DailyEquityDTO snapshot() {
+        return dailyEquityService.snapshotToday();
+    }
+
+    /**
+     * 从交易流水回填区间内的每日快照
+     */
+    @PostMapping("/backfill")
+    public EquityBackfillReport backfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return dailyEquityService.backfill(from, to);
+    }
+}
@@ -0,0 +1,55 @@
+package com.tradermind.controller;
+
+import com.tradermind.config.AsyncTimeoutConfig;
+import com.tradermind.service.JournalExportService;
+import com.tradermind.service.JournalExportService.JournalTable;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * 交易日志导出 REST API 控制器
+ * 流式输出，不在内存中构建完整列表
+ */
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final JournalExportService journalExportService;
+
+    @Value("${journal.export.timeout-ms:600000}")
+    private long exportTimeoutMs;
+
+    /**
+     * 导出 CSV：plans / transactions / executions
+     * 例如 GET /api/export/plans.csv
+     * 异步超时只对导出请求放宽（见 AsyncTimeoutConfig），不影响其他异步接口
+     */
+    @GetMapping("/{table}.csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv(@PathVariable("table") String table,
+                                                           HttpServletRequest request) {
+        JournalTable journalTable = JournalTable.fromPath(table);
+        String filename = journalTable.getTableName() + "_" + LocalDate.now() + ".csv";
+
+        request.setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE, exportTimeoutMs);
+        StreamingResponseBody body = out -> journalExportService.exportCsv(journalTable, out);
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
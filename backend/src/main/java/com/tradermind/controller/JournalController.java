@@ -0,0 +1,36 @@
+package com.tradermind.controller;
+
+import com.tradermind.dto.JournalSearchResultDTO;
+import com.tradermind.service.JournalSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 交易日志检索 REST API 控制器
+ */
+@RestController
+@RequestMapping("/api/journal")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class JournalController {
+
+    private final JournalSearchService journalSearchService;
+
+    /**
+     * 全文检索买入逻辑、平仓逻辑、加减仓备注与 AI 点评
+     * 例如 GET /api/journal/search?q=止损 追高&page=0&size=20
+     *
+     * @param q      空白分隔的关键词，全部命中才返回
+     * @param symbol 可选，限定股票代码
+     * @param sort   relevance（默认，按相关度）/ recent（按时间倒序）
+     */
+    @GetMapping("/search")
+    public JournalSearchResultDTO search(
+            @RequestParam("q") String q,
+            @RequestParam(value = "symbol", required = false) String symbol,
+            @RequestParam(value = "sort", defaultValue = "relevance") String sort,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return journalSearchService.search(q, symbol, JournalSearchService.SortOrder.fromParam(sort), page, size);
+    }
+}
@@ -0,0 +1,38 @@
+package com.tradermind.controller;
+
+import com.tradermind.dto.LedgerRebuildReport;
+import com.tradermind.dto.PositionLedgerDTO;
+import com.tradermind.service.PositionLedgerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 持仓账本 REST API 控制器
+ * 由交易流水重建持仓状态，并校验 trade_plan 上存储的派生字段
+ */
+@RestController
+@RequestMapping("/api/ledger")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class LedgerController {
+
+    private final PositionLedgerService positionLedgerService;
+
+    /**
+     * 单个计划的账本状态（快照 + 尾部流水回放）
+     */
+    @GetMapping("/{planId}")
+    public PositionLedgerDTO getLedger(@PathVariable("planId") Long planId) {
+        return positionLedgerService.project(planId);
+    }
+
+    /**
+     * 全量并行重建并校验
+     *
+     * @param repair 为 true 时用账本结果修复不一致的存储字段，默认只报告
+     */
+    @PostMapping("/rebuild")
+    public LedgerRebuildReport rebuild(@RequestParam(value = "repair", defaultValue = "false") boolean repair) {
+        return positionLedgerService.rebuildAll(repair);
+    }
+}
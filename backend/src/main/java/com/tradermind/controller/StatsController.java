@@ -0,0 +1,45 @@
+package com.tradermind.controller;
+
+import com.tradermind.dto.EquityCurvePointDTO;
+import com.tradermind.dto.PortfolioStatsDTO;
+import com.tradermind.service.PerformanceStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 组合绩效统计 REST API 控制器
+ */
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class StatsController {
+
+    private final PerformanceStatsService performanceStatsService;
+
+    /**
+     * 胜率、期望值、盈利因子、平均 R、最大回撤等汇总指标（读取增量维护的汇总行）
+     */
+    @GetMapping
+    public PortfolioStatsDTO getStats() {
+        return performanceStatsService.getStats();
+    }
+
+    /**
+     * 权益曲线：每笔平仓后的累计已实现盈亏与回撤
+     */
+    @GetMapping("/equity-curve")
+    public List<EquityCurvePointDTO> getEquityCurve() {
+        return performanceStatsService.getEquityCurve();
+    }
+
+    /**
+     * 从执行记录全量并行重建统计
+     */
+    @PostMapping("/rebuild")
+    public PortfolioStatsDTO rebuild() {
+        return performanceStatsService.rebuild();
+    }
+}
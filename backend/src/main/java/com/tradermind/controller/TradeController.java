@@ -1,10 +1,12 @@
 package com.tradermind.controller;
 
 import com.tradermind.dto.*;
+import com.tradermind.service.SimilarTradeService;
 import com.tradermind.service.StockMarketService;
 import com.tradermind.service.TradeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -25,6 +27,7 @@ public class TradeController {
 
     private final TradeService tradeService;
     private final StockMarketService stockMarketService;
+    private final SimilarTradeService similarTradeService;
 
     /**
      * 创建交易计划
@@ -36,6 +39,23 @@ public class TradeController {
         return tradeService.createTradePlan(request);
     }
 
+    /**
+     * 买入逻辑相似的历史已平仓交易及其结果（盈亏、AI 评分），用于填写新计划时参考
+     */
+    @PostMapping("/similar")
+    public List<SimilarTradeDTO> findSimilarTrades(@Valid @RequestBody SimilarTradesRequest request) {
+        return similarTradeService.findSimilar(request.entryLogic(), request.k());
+    }
+
+    /**
+     * 与指定计划买入逻辑相似的历史已平仓交易（不含自身）
+     */
+    @GetMapping("/{id}/similar")
+    public List<SimilarTradeDTO> findSimilarToPlan(@PathVariable("id") Long id,
+                                                   @RequestParam(value = "k", required = false) Integer k) {
+        return similarTradeService.findSimilarToPlan(id, k);
+    }
+
     /**
      * 获取所有 PENDING 状态的计划（待成交）
      */
@@ -158,6 +178,18 @@ public class TradeController {
         return tradeService.closePlan(id, request);
     }
 
+    /**
+     * 批量交易（调仓日）：多个建仓 / 加仓 / 减仓 / 平仓 / 撤单在同一事务内执行，全部成功才提交
+     * 任一项校验失败时整批回滚，返回 400 及逐项结果
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchTradeResponse> executeBatch(@Valid @RequestBody BatchTradeRequest request) {
+        BatchTradeResponse response = tradeService.executeBatch(request);
+        return response.applied()
+                ? ResponseEntity.ok(response)
+                : ResponseEntity.badRequest().body(response);
+    }
+
     /**
      * 删除交易计划
      * 根据股票代码删除对应的交易计划
@@ -0,0 +1,11 @@
+package com.tradermind.domain;
+
+/**
+ * AI 复盘回填运行状态
+ */
+public enum AIBackfillStatus {
+    RUNNING,     // 正在扫描并入队，重启后自动从检查点继续
+    COMPLETED,   // 全部候选已入队（复盘本身由任务队列继续执行）
+    CANCELLED,   // 手动取消
+    FAILED       // 扫描过程出错，可重新发起
+}
@@ -0,0 +1,10 @@
+package com.tradermind.domain;
+
+/**
+ * 大模型调用结果
+ */
+public enum AICallOutcome {
+    OK,              // 返回内容解析成功
+    PARSE_FALLBACK,  // 调用成功但内容无法解析（或批量结果部分无效），使用默认值或回退路径
+    ERROR            // 调用失败（重试耗尽、超时、4xx）
+}
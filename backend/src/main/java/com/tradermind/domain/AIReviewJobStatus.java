@@ -0,0 +1,11 @@
+package com.tradermind.domain;
+
+/**
+ * AI 复盘任务状态
+ */
+public enum AIReviewJobStatus {
+    PENDING,   // 等待执行（含退避等待重试）
+    RUNNING,   // 已被工作线程领取
+    DONE,      // 复盘完成
+    DEAD       // 重试耗尽，进入死信，需人工重新入队
+}
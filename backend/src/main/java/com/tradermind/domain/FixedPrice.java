@@ -0,0 +1,67 @@
+package com.tradermind.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 定点价格：以 long 表示 1/10000 元，与价格列 NUMERIC(19,4) 的精度一致
+ * 供逐笔行情重算等高频路径做纯整数运算，避免每次计算分配 BigDecimal；
+ * 只在 API 与持久化边界通过 {@link #of} / {@link #toBigDecimal} 与 BigDecimal 互转。
+ * 舍入与 BigDecimal 的 HALF_UP 一致（.5 远离零），溢出抛 ArithmeticException
+ */
+public final class FixedPrice {
+
+    /** 小数位数 */
+    public static final int SCALE = 4;
+    /** 1 元对应的定点值 */
+    public static final long ONE = 10_000L;
+
+    private FixedPrice() {
+    }
+
+    /**
+     * BigDecimal 转定点值；超过 4 位小数的部分按 HALF_UP 舍入
+     */
+    public static long of(BigDecimal price) {
+        return price.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * 定点值转 BigDecimal（保留 4 位）
+     */
+    public static BigDecimal toBigDecimal(long fixed) {
+        return BigDecimal.valueOf(fixed, SCALE);
+    }
+
+    /**
+     * 定点值转 BigDecimal 并按 HALF_UP 保留 scale 位（scale ≤ 4）
+     */
+    public static BigDecimal toBigDecimal(long fixed, int scale) {
+        return BigDecimal.valueOf(roundHalfUp(fixed, pow10(SCALE - scale)), scale);
+    }
+
+    /**
+     * 整数除法，按 HALF_UP 舍入到整数
+     *
+     * @param divisor 必须为正
+     */
+    public static long roundHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    private static long pow10(int exponent) {
+        if (exponent < 0 || exponent > SCALE) {
+            throw new IllegalArgumentException("小数位数超出范围: " + (SCALE - exponent));
+        }
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,159 @@
+package com.tradermind.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * 绩效统计累加器
+ * - 胜负次数、总盈利、总亏损：直接累加
+ * - 单笔盈亏与 R 倍数的均值/方差：Welford 在线算法，合并时使用 Chan 并行公式
+ * - 权益曲线与最大回撤：记录累计盈亏、历史峰值、历史谷值与最大回撤，
+ *   四元组可按时间顺序结合（associative），因此分块并行计算后可按顺序合并
+ * 可变对象，非线程安全；每个线程各自累加后再 merge
+ */
+public class PerformanceAggregate {
+
+    private long tradeCount;
+    private long winCount;
+    private long lossCount;
+    private BigDecimal grossProfit = BigDecimal.ZERO;
+    private BigDecimal grossLoss = BigDecimal.ZERO;   // 亏损绝对值之和
+
+    private double pnlMean;
+    private double pnlM2;
+
+    private long rCount;
+    private double rMean;
+    private double rM2;
+
+    private BigDecimal cumulativePnL = BigDecimal.ZERO;
+    private BigDecimal peakPnL = BigDecimal.ZERO;     // 累计盈亏的历史最高（含起点 0）
+    private BigDecimal troughPnL = BigDecimal.ZERO;   // 累计盈亏的历史最低（含起点 0）
+    private BigDecimal maxDrawdown = BigDecimal.ZERO; // 峰值到其后谷值的最大跌幅
+
+    public PerformanceAggregate() {
+    }
+
+    /**
+     * 从持久化的字段恢复
+     */
+    public PerformanceAggregate(long tradeCount, long winCount, long lossCount,
+                                BigDecimal grossProfit, BigDecimal grossLoss,
+                                double pnlMean, double pnlM2,
+                                long rCount, double rMean, double rM2,
+                                BigDecimal cumulativePnL, BigDecimal peakPnL, BigDecimal troughPnL,
+                                BigDecimal maxDrawdown) {
+        this.tradeCount = tradeCount;
+        this.winCount = winCount;
+        this.lossCount = lossCount;
+        this.grossProfit = grossProfit;
+        this.grossLoss = grossLoss;
+        this.pnlMean = pnlMean;
+        this.pnlM2 = pnlM2;
+        this.rCount = rCount;
+        this.rMean = rMean;
+        this.rM2 = rM2;
+        this.cumulativePnL = cumulativePnL;
+        this.peakPnL = peakPnL;
+        this.troughPnL = troughPnL;
+        this.maxDrawdown = maxDrawdown;
+    }
+
+    /**
+     * 追加一笔已平仓交易
+     *
+     * @param pnl     本笔实现盈亏
+     * @param rMultiple 本笔 R 倍数（盈亏 / 初始风险），无法计算时传 null
+     */
+    public void add(BigDecimal pnl, Double rMultiple) {
+        tradeCount++;
+        int sign = pnl.signum();
+        if (sign > 0) {
+            winCount++;
+            grossProfit = grossProfit.add(pnl);
+        } else if (sign < 0) {
+            lossCount++;
+            grossLoss = grossLoss.add(pnl.negate());
+        }
+
+        double x = pnl.doubleValue();
+        double delta = x - pnlMean;
+        pnlMean += delta / tradeCount;
+        pnlM2 += delta * (x - pnlMean);
+
+        if (rMultiple != null) {
+            rCount++;
+            double rDelta = rMultiple - rMean;
+            rMean += rDelta / rCount;
+            rM2 += rDelta * (rMultiple - rMean);
+        }
+
+        cumulativePnL = cumulativePnL.add(pnl);
+        peakPnL = peakPnL.max(cumulativePnL);
+        troughPnL = troughPnL.min(cumulativePnL);
+        maxDrawdown = maxDrawdown.max(peakPnL.subtract(cumulativePnL));
+    }
+
+    /**
+     * 将时间上紧随其后的一段合并进来（this 在前，later 在后）
+     */
+    public void merge(PerformanceAggregate later) {
+        if (later.tradeCount == 0) {
+            return;
+        }
+        long n = tradeCount + later.tradeCount;
+        double delta = later.pnlMean - pnlMean;
+        pnlM2 = pnlM2 + later.pnlM2 + delta * delta * tradeCount * later.tradeCount / n;
+        pnlMean = pnlMean + delta * later.tradeCount / n;
+
+        if (later.rCount > 0) {
+            long rn = rCount + later.rCount;
+            double rDelta = later.rMean - rMean;
+            rM2 = rM2 + later.rM2 + rDelta * rDelta * rCount * later.rCount / rn;
+            rMean = rMean + rDelta * later.rCount / rn;
+            rCount = rn;
+        }
+
+        // 后一段的峰值/谷值/回撤都相对其起点 0，平移 cumulativePnL 后与前段结合
+        BigDecimal shiftedPeak = cumulativePnL.add(later.peakPnL);
+        BigDecimal shiftedTrough = cumulativePnL.add(later.troughPnL);
+        maxDrawdown = maxDrawdown.max(later.maxDrawdown).max(peakPnL.subtract(shiftedTrough));
+        peakPnL = peakPnL.max(shiftedPeak);
+        troughPnL = troughPnL.min(shiftedTrough);
+        cumulativePnL = cumulativePnL.add(later.cumulativePnL);
+
+        tradeCount = n;
+        winCount += later.winCount;
+        lossCount += later.lossCount;
+        grossProfit = grossProfit.add(later.grossProfit);
+        grossLoss = grossLoss.add(later.grossLoss);
+    }
+
+    /** 样本方差（n-1），不足 2 笔时为 0 */
+    public double pnlVariance() {
+        return tradeCount > 1 ? pnlM2 / (tradeCount - 1) : 0.0;
+    }
+
+    public double rVariance() {
+        return rCount > 1 ? rM2 / (rCount - 1) : 0.0;
+    }
+
+    /** 当前回撤：峰值 - 当前累计盈亏 */
+    public BigDecimal currentDrawdown() {
+        return peakPnL.subtract(cumulativePnL);
+    }
+
+    public long getTradeCount() { return tradeCount; }
+    public long getWinCount() { return winCount; }
+    public long getLossCount() { return lossCount; }
+    public BigDecimal getGrossProfit() { return grossProfit; }
+    public BigDecimal getGrossLoss() { return grossLoss; }
+    public double getPnlMean() { return pnlMean; }
+    public double getPnlM2() { return pnlM2; }
+    public long getRCount() { return rCount; }
+    public double getRMean() { return rMean; }
+    public double getRM2() { return rM2; }
+    public BigDecimal getCumulativePnL() { return cumulativePnL; }
+    public BigDecimal getPeakPnL() { return peakPnL; }
+    public BigDecimal getTroughPnL() { return troughPnL; }
+    public BigDecimal getMaxDrawdown() { return maxDrawdown; }
+}
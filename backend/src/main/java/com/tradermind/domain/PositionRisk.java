@@ -0,0 +1,74 @@
+package com.tradermind.domain;
+
+/**
+ * 持仓盈亏与风险的定点计算核（价格均为 {@link FixedPrice} 定点值）
+ * 纯 long 运算、无对象分配，适合逐笔行情对大量持仓重算；
+ * 结果与 TradeService 原 BigDecimal 口径逐位一致：
+ * - 盈亏金额 = 价差 × 剩余数量，展示时保留 2 位
+ * - 盈亏百分比 = 价差 / 均价，先按 HALF_UP 保留 4 位再 × 100，即以基点（0.01%）为单位的整数
+ * - 距止损 = 现价 - 止损（做空取反），保留 2 位后判断风险：≤ 0 已触发，或小于均价的 2% 为 DANGER
+ */
+public final class PositionRisk {
+
+    /** 距止损小于均价的该比例（基点）视为危险：2% */
+    public static final long DANGER_THRESHOLD_BP = 200;
+
+    private static final long BP_PER_UNIT = 10_000L;
+    /** 定点值（4 位）到 2 位小数的除数 */
+    private static final long CENT = 100L;
+
+    private PositionRisk() {
+    }
+
+    /**
+     * 每股价差（定点）：做多 现价 - 均价，做空 均价 - 现价
+     */
+    public static long priceDiff(TradeDirection direction, long currentPrice, long avgEntryPrice) {
+        return direction == TradeDirection.LONG
+                ? Math.subtractExact(currentPrice, avgEntryPrice)
+                : Math.subtractExact(avgEntryPrice, currentPrice);
+    }
+
+    /**
+     * 持仓盈亏（定点，1/10000 元），正数为盈利
+     */
+    public static long pnlAmount(TradeDirection direction, long currentPrice, long avgEntryPrice, int quantity) {
+        return Math.multiplyExact(priceDiff(direction, currentPrice, avgEntryPrice), (long) quantity);
+    }
+
+    /**
+     * 盈亏百分比，单位基点（12.34% 返回 1234）；均价 ≤ 0 时返回 0
+     */
+    public static long pnlPercentBp(TradeDirection direction, long currentPrice, long avgEntryPrice) {
+        if (avgEntryPrice <= 0) {
+            return 0;
+        }
+        long diff = priceDiff(direction, currentPrice, avgEntryPrice);
+        return FixedPrice.roundHalfUp(Math.multiplyExact(diff, BP_PER_UNIT), avgEntryPrice);
+    }
+
+    /**
+     * 距止损价差（定点）：做多 现价 - 止损，做空 止损 - 现价；负数表示已触发止损
+     */
+    public static long distanceToStop(TradeDirection direction, long currentPrice, long stopLoss) {
+        return direction == TradeDirection.LONG
+                ? Math.subtractExact(currentPrice, stopLoss)
+                : Math.subtractExact(stopLoss, currentPrice);
+    }
+
+    /**
+     * 风险判断：距止损按 0.01 元舍入后 ≤ 0（已触发），或小于均价的 DANGER_THRESHOLD_BP；均价 ≤ 0 时恒为安全
+     *
+     * @param distanceToStop {@link #distanceToStop} 的结果
+     */
+    public static boolean isDanger(long distanceToStop, long avgEntryPrice) {
+        if (avgEntryPrice <= 0) {
+            return false;
+        }
+        long rounded = FixedPrice.roundHalfUp(distanceToStop, CENT) * CENT;
+        if (rounded <= 0) {
+            return true;
+        }
+        return Math.multiplyExact(rounded, BP_PER_UNIT) < Math.multiplyExact(avgEntryPrice, DANGER_THRESHOLD_BP);
+    }
+}
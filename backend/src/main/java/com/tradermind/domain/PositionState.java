@@ -0,0 +1,61 @@
+package com.tradermind.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 持仓状态：由交易流水折叠（fold）得到的派生值
+ * 与 TradePlan 上的 avgEntryPrice / totalQuantity / currentQuantity / realizedPnL 一一对应，
+ * 建仓、加仓、减仓、清仓以及账本重建都经由 {@link #apply} 计算，保证口径一致
+ */
+public record PositionState(
+        BigDecimal avgEntryPrice,   // 加权平均成本，未建仓时为 null
+        int totalQuantity,          // 历史总买入量
+        int currentQuantity,        // 当前剩余持仓
+        BigDecimal realizedPnL      // 累计已实现盈亏
+) {
+
+    /** 未建仓的初始状态 */
+    public static final PositionState EMPTY = new PositionState(null, 0, 0, BigDecimal.ZERO);
+
+    /**
+     * 在当前状态上应用一笔流水，返回新状态
+     * - INITIAL_ENTRY：均价 = 成交价，总量 = 剩余 = 成交量
+     * - ADD_POSITION：均价按剩余持仓加权 ((avg * cur) + (price * qty)) / (cur + qty)，保留 4 位
+     * - PARTIAL_EXIT / FULL_EXIT：落袋 (price - avg) * qty（做空取反），保留 4 位，均价不变
+     */
+    public PositionState apply(TradeDirection direction, TransactionType type, BigDecimal price, int quantity) {
+        return switch (type) {
+            case INITIAL_ENTRY -> new PositionState(price, quantity, quantity, BigDecimal.ZERO);
+            case ADD_POSITION -> {
+                BigDecimal newAvg;
+                int newCurrent = currentQuantity + quantity;
+                if (avgEntryPrice == null || currentQuantity <= 0) {
+                    newAvg = price;
+                } else {
+                    BigDecimal totalCost = avgEntryPrice.multiply(BigDecimal.valueOf(currentQuantity))
+                            .add(price.multiply(BigDecimal.valueOf(quantity)));
+                    newAvg = totalCost.divide(BigDecimal.valueOf(newCurrent), 4, RoundingMode.HALF_UP);
+                }
+                yield new PositionState(newAvg, totalQuantity + quantity, newCurrent, realizedPnL);
+            }
+            case PARTIAL_EXIT, FULL_EXIT -> {
+                BigDecimal chunk = exitPnL(direction, price, quantity);
+                yield new PositionState(avgEntryPrice, totalQuantity, currentQuantity - quantity, realizedPnL.add(chunk));
+            }
+        };
+    }
+
+    /**
+     * 以当前均价卖出 quantity 的盈亏，保留 4 位
+     */
+    public BigDecimal exitPnL(TradeDirection direction, BigDecimal exitPrice, int quantity) {
+        if (avgEntryPrice == null) {
+            throw new IllegalStateException("持仓均价缺失，无法计算盈亏");
+        }
+        BigDecimal priceDiff = direction == TradeDirection.SHORT
+                ? avgEntryPrice.subtract(exitPrice)
+                : exitPrice.subtract(avgEntryPrice);
+        return priceDiff.multiply(BigDecimal.valueOf(quantity)).setScale(4, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,162 @@
+package com.tradermind.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 本地规则预评分：平仓事务内同步计算，纯内存、确定性，不依赖外部服务
+ * 满分 100，按纪律问题扣分，结果随平仓立即落库；大模型复盘在此基础上修正
+ * 检查项：
+ * - 止损：平仓价越过止损价（做多低于、做空高于）视为止损执行滞后
+ * - 止盈：达到止盈价；盈利但未达 1R 即离场视为过早止盈
+ * - 实现 R（按创建计划时的初始止损计算）与计划盈亏比对比；亏损超过 1.2R 扣分
+ * - 持仓时间过短（默认 30 分钟内）
+ * - 逆势加仓：加仓价劣于当时持仓均价（摊平亏损）
+ * - 减仓模式：减仓后又加仓（计划反复）；盈利减仓后剩余仓位亏损离场
+ */
+public record TradeRuleReview(int score, List<String> findings) {
+
+    /** 持仓短于该时长视为冲动交易 */
+    private static final Duration MIN_HOLDING = Duration.ofMinutes(30);
+
+    /** 一笔流水的最小描述 */
+    public record Fill(TransactionType type, BigDecimal price, int quantity, LocalDateTime time) {}
+
+    /**
+     * @param direction   方向
+     * @param initialRiskPerShare 每股初始风险 |计划入场 - 初始止损|，不随移动止损变化；为 null 或 0 时不计算 R
+     * @param stopLoss    当前止损价（减仓时可能已上移），用于判断止损执行
+     * @param takeProfit  止盈价
+     * @param plannedRR   计划盈亏比，可为 null
+     * @param fills       该计划全部流水（按时间顺序，含本次清仓）
+     * @param realizedPnL 累计已实现盈亏
+     */
+    public static TradeRuleReview evaluate(TradeDirection direction, BigDecimal initialRiskPerShare, BigDecimal stopLoss,
+                                           BigDecimal takeProfit, BigDecimal plannedRR, List<Fill> fills,
+                                           BigDecimal realizedPnL) {
+        int score = 100;
+        List<String> findings = new ArrayList<>();
+        if (fills.isEmpty()) {
+            return new TradeRuleReview(score, findings);
+        }
+        boolean isShort = direction == TradeDirection.SHORT;
+        Fill last = fills.get(fills.size() - 1);
+        BigDecimal exitPrice = last.price();
+
+        // 止损执行
+        if (stopLoss != null) {
+            boolean beyondStop = isShort ? exitPrice.compareTo(stopLoss) > 0 : exitPrice.compareTo(stopLoss) < 0;
+            if (beyondStop) {
+                score -= 25;
+                findings.add("止损执行滞后：平仓价 " + plain(exitPrice) + " 越过止损价 " + plain(stopLoss));
+            } else if (exitPrice.compareTo(stopLoss) == 0) {
+                findings.add("按计划在止损价离场");
+            }
+        }
+
+        // 实现 R：累计盈亏 / 初始风险（|计划入场 - 初始止损| * 总买入量）；移动止损后的当前止损会缩小分母，不能用
+        int totalQty = fills.stream()
+                .filter(f -> f.type() == TransactionType.INITIAL_ENTRY || f.type() == TransactionType.ADD_POSITION)
+                .mapToInt(Fill::quantity).sum();
+        BigDecimal realizedR = null;
+        if (initialRiskPerShare != null && initialRiskPerShare.signum() > 0 && totalQty > 0) {
+            BigDecimal risk = initialRiskPerShare.multiply(BigDecimal.valueOf(totalQty));
+            realizedR = realizedPnL.divide(risk, 2, RoundingMode.HALF_UP);
+        }
+
+        // 止盈与 R
+        boolean reachedTarget = takeProfit != null
+                && (isShort ? exitPrice.compareTo(takeProfit) <= 0 : exitPrice.compareTo(takeProfit) >= 0);
+        if (reachedTarget) {
+            findings.add("达到止盈目标 " + plain(takeProfit));
+        }
+        if (realizedR != null) {
+            if (plannedRR != null && realizedR.compareTo(plannedRR) >= 0) {
+                findings.add("实现 " + plain(realizedR) + "R，达到计划盈亏比 " + plain(plannedRR));
+            } else if (realizedR.signum() > 0 && realizedR.compareTo(BigDecimal.ONE) < 0 && !reachedTarget) {
+                score -= 10;
+                findings.add("过早止盈：仅实现 " + plain(realizedR) + "R"
+                        + (plannedRR != null ? "，计划盈亏比 " + plain(plannedRR) : ""));
+            } else if (realizedR.compareTo(new BigDecimal("-1.2")) < 0) {
+                score -= 15;
+                findings.add("亏损 " + plain(realizedR.negate()) + "R，超出计划的 1R 风险");
+            }
+        }
+
+        // 持仓时间
+        Duration holding = Duration.between(fills.get(0).time(), last.time());
+        if (holding.compareTo(MIN_HOLDING) < 0) {
+            score -= 5;
+            findings.add("持仓仅 " + holding.toMinutes() + " 分钟，疑似冲动交易");
+        }
+
+        // 加仓与减仓模式：按顺序回放持仓均价
+        BigDecimal avg = null;
+        int current = 0;
+        boolean trimmedBefore = false;
+        boolean trimmedInProfit = false;
+        int adverseAdds = 0;
+        boolean addAfterTrim = false;
+        for (Fill f : fills) {
+            switch (f.type()) {
+                case INITIAL_ENTRY -> {
+                    avg = f.price();
+                    current = f.quantity();
+                }
+                case ADD_POSITION -> {
+                    if (avg != null && (isShort ? f.price().compareTo(avg) > 0 : f.price().compareTo(avg) < 0)) {
+                        adverseAdds++;
+                    }
+                    if (trimmedBefore) {
+                        addAfterTrim = true;
+                    }
+                    if (avg != null && current > 0) {
+                        avg = avg.multiply(BigDecimal.valueOf(current)).add(f.price().multiply(BigDecimal.valueOf(f.quantity())))
+                                .divide(BigDecimal.valueOf(current + f.quantity()), 4, RoundingMode.HALF_UP);
+                    } else {
+                        avg = f.price();
+                    }
+                    current += f.quantity();
+                }
+                case PARTIAL_EXIT -> {
+                    trimmedBefore = true;
+                    if (avg != null && (isShort ? f.price().compareTo(avg) < 0 : f.price().compareTo(avg) > 0)) {
+                        trimmedInProfit = true;
+                    }
+                    current -= f.quantity();
+                }
+                case FULL_EXIT -> current -= f.quantity();
+            }
+        }
+        if (adverseAdds > 0) {
+            score -= 15;
+            findings.add("逆势加仓 " + adverseAdds + " 次：在浮亏时摊低成本");
+        }
+        if (addAfterTrim) {
+            score -= 10;
+            findings.add("减仓后再次加仓，计划反复");
+        }
+        if (trimmedInProfit && realizedPnL.signum() < 0) {
+            score -= 10;
+            findings.add("盈利时减仓，剩余仓位最终亏损离场");
+        }
+
+        if (findings.isEmpty()) {
+            findings.add("未发现明显纪律问题");
+        }
+        return new TradeRuleReview(Math.max(0, Math.min(100, score)), findings);
+    }
+
+    /** 落库格式：每行一条 */
+    public String findingsText() {
+        return String.join("\n", findings);
+    }
+
+    private static String plain(BigDecimal v) {
+        return v.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.tradermind.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * AI 复盘回填进度与吞吐
+ */
+public record AIBackfillReport(
+        Long runId,
+        String status,
+        boolean rescoreAll,
+        long lastExecutionId,       // 检查点
+        long maxExecutionId,
+        int scanned,                // 已扫描候选数
+        int enqueued,
+        int skipped,                // 已在队列中而跳过
+        long reviewed,              // 本次回填入队且已完成复盘的任务数
+        long dead,                  // 本次回填入队且进入死信的任务数
+        long pending,               // 本次回填入队尚未完成的任务数
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        long elapsedSeconds,
+        double reviewsPerMinute,    // 复盘完成吞吐
+        String lastError
+) {}
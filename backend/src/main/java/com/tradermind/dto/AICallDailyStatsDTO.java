@@ -0,0 +1,21 @@
+package com.tradermind.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 大模型调用按 (日期, 模型) 汇总
+ */
+public record AICallDailyStatsDTO(
+        LocalDate day,
+        String model,
+        long calls,
+        long okCalls,
+        long parseFallbackCalls,
+        long errorCalls,
+        double avgLatencyMs,
+        double p95LatencyMs,
+        long promptTokens,
+        long completionTokens,
+        BigDecimal cost
+) {}
@@ -0,0 +1,15 @@
+package com.tradermind.dto;
+
+/**
+ * AI 质询缓存统计（进程启动以来）
+ */
+public record AIChallengeCacheStatsDTO(
+        long memoryHits,
+        long databaseHits,
+        long misses,
+        double hitRate,               // (内存命中 + 数据库命中) / 总请求
+        long savedLatencyMs,          // 命中所节省的大模型耗时之和
+        long savedPromptTokens,
+        long savedCompletionTokens,
+        int memoryEntries             // 当前内存 LRU 条目数
+) {}
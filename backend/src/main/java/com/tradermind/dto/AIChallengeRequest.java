@@ -6,10 +6,11 @@ import java.math.BigDecimal;
 
 /**
  * AI 交易前置质询请求 DTO
- * 输入：股票代码、当前价格、买入逻辑
+ * 输入：股票代码、当前价格、买入逻辑；bypassCache 为 true 时强制重新调用大模型
  */
 public record AIChallengeRequest(
         @NotBlank(message = "股票代码不能为空") String stockSymbol,
         BigDecimal currentPrice,  // 可选，用于上下文
-        @NotBlank(message = "买入逻辑不能为空") String logic
+        @NotBlank(message = "买入逻辑不能为空") String logic,
+        Boolean bypassCache       // 可选，默认 false
 ) {}
@@ -0,0 +1,17 @@
+package com.tradermind.dto;
+
+/**
+ * AI 复盘调用代价：单笔模式与批量模式分别统计每笔交易平摊的耗时与 token（进程启动以来）
+ */
+public record AIReviewCostDTO(
+        Mode single,
+        Mode batch
+) {
+    public record Mode(
+            long calls,                        // 大模型调用次数
+            long trades,                       // 覆盖的交易笔数
+            double latencyMsPerTrade,
+            double promptTokensPerTrade,
+            double completionTokensPerTrade
+    ) {}
+}
@@ -0,0 +1,13 @@
+package com.tradermind.dto;
+
+/**
+ * AI 复盘任务队列状态
+ */
+public record AIReviewQueueStatsDTO(
+        long pending,
+        long running,
+        long done,
+        long dead,            // 死信：重试耗尽，可调用 retry-dead 重新入队
+        int concurrency,      // 工作线程上限
+        int ratePerMinute     // 调用速率上限
+) {}
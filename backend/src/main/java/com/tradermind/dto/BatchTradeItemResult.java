@@ -0,0 +1,21 @@
+package com.tradermind.dto;
+
+/**
+ * 批量交易单项结果
+ */
+public record BatchTradeItemResult(
+        int index,                          // 在请求列表中的位置（从 0 开始）
+        BatchTradeOperation.Type type,
+        Long planId,
+        Status status,
+        String error,                       // FAILED 时的原因
+        TradePlanResponse plan,             // APPLIED 时该项执行后的计划
+        TradeExecutionResponse execution    // CLOSE 成功时的平仓结果
+) {
+
+    public enum Status {
+        APPLIED,       // 已生效
+        FAILED,        // 本项校验失败
+        ROLLED_BACK    // 本项可执行，但因其他项失败随整批回滚
+    }
+}
@@ -0,0 +1,37 @@
+package com.tradermind.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * 批量交易中的单项操作
+ * 按 type 填写对应的请求体（与单项接口相同），CANCEL 无请求体
+ */
+public record BatchTradeOperation(
+        @NotNull
+        Type type,
+
+        @NotNull
+        Long planId,
+
+        @Valid
+        ExecutePlanRequest execute,   // type = EXECUTE
+
+        @Valid
+        AddPositionRequest add,       // type = ADD
+
+        @Valid
+        TrimPositionRequest trim,     // type = TRIM
+
+        @Valid
+        CloseTradeRequest close       // type = CLOSE
+) {
+
+    public enum Type {
+        EXECUTE,   // 首次建仓（/execute）
+        ADD,       // 加仓（/add）
+        TRIM,      // 减仓（/trim）
+        CLOSE,     // 平仓（/close）
+        CANCEL     // 撤单（/cancel）
+    }
+}
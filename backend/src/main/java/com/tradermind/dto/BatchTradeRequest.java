@@ -0,0 +1,16 @@
+package com.tradermind.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * 批量交易请求（调仓日一次提交多笔建仓、加仓、减仓、平仓、撤单）
+ * 按列表顺序执行，同一计划可出现多次（如先加仓再减仓）
+ */
+public record BatchTradeRequest(
+        @NotEmpty
+        @Valid
+        List<BatchTradeOperation> operations
+) {}
@@ -0,0 +1,11 @@
+package com.tradermind.dto;
+
+import java.util.List;
+
+/**
+ * 批量交易结果：全部成功才提交（applied = true），任一项失败则整批回滚
+ */
+public record BatchTradeResponse(
+        boolean applied,
+        List<BatchTradeItemResult> results
+) {}
@@ -0,0 +1,19 @@
+package com.tradermind.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 每日权益快照 DTO
+ */
+public record DailyEquityDTO(
+        LocalDate tradeDate,
+        BigDecimal realizedPnL,            // 当日已实现盈亏
+        BigDecimal cumulativeRealizedPnL,  // 累计已实现盈亏
+        BigDecimal unrealizedPnL,          // 收盘浮动盈亏
+        BigDecimal openRisk,               // 收盘风险敞口
+        Integer openPositions,
+        BigDecimal capital,
+        BigDecimal equity,
+        String markSource                  // CLOSE / LAST_FILL
+) {}
@@ -0,0 +1,14 @@
+package com.tradermind.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 每日权益回填报告
+ */
+public record EquityBackfillReport(
+        LocalDate from,
+        LocalDate to,
+        int tradingDays,        // 写入的交易日数
+        int transactions,       // 参与回放的流水条数
+        long elapsedMs
+) {}
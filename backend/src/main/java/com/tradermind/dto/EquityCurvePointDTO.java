@@ -0,0 +1,15 @@
+package com.tradermind.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 权益曲线点 DTO
+ */
+public record EquityCurvePointDTO(
+        Long executionId,
+        LocalDateTime closedAt,
+        BigDecimal realizedPnL,
+        BigDecimal cumulativePnL,
+        BigDecimal drawdown
+) {}
@@ -0,0 +1,27 @@
+package com.tradermind.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 交易日志全文检索结果（一页）
+ */
+public record JournalSearchResultDTO(
+        String query,
+        String sort,               // relevance：按相关度；recent：按时间倒序
+        int page,
+        int size,
+        long total,
+        long tookMs,
+        List<Hit> hits
+) {
+    public record Hit(
+            String sourceType,         // ENTRY_LOGIC / EXIT_LOGIC / AI_COMMENT / LOGIC_SNAPSHOT
+            Long sourceId,             // 计划 / 执行 / 流水的 id
+            Long planId,
+            String stockSymbol,
+            double rank,
+            String snippet,            // 命中片段，关键词以 <mark></mark> 包裹，其余内容已做 HTML 转义
+            LocalDateTime createdAt
+    ) {}
+}
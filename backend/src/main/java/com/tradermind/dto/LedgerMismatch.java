@@ -0,0 +1,12 @@
+package com.tradermind.dto;
+
+/**
+ * 账本校验差异：计划上存储的派生字段与流水重建结果不一致
+ */
+public record LedgerMismatch(
+        Long planId,
+        String stockSymbol,
+        String field,        // avgEntryPrice / totalQuantity / currentQuantity / realizedPnL / status
+        String storedValue,  // trade_plan 上的存储值
+        String ledgerValue   // 由流水重建的值
+) {}
@@ -0,0 +1,15 @@
+package com.tradermind.dto;
+
+import java.util.List;
+
+/**
+ * 全量账本重建与校验报告
+ */
+public record LedgerRebuildReport(
+        int plansScanned,
+        long transactionsReplayed,
+        int mismatchedPlans,
+        int repairedPlans,
+        List<LedgerMismatch> mismatches,
+        long elapsedMs
+) {}
@@ -0,0 +1,12 @@
+package com.tradermind.dto;
+
+/**
+ * 大模型单次补全结果
+ */
+public record LlmCompletion(
+        String content,          // choices[0].message.content 原文
+        String model,            // 实际响应的模型
+        int promptTokens,        // usage.prompt_tokens，上游未返回时为 0
+        int completionTokens,    // usage.completion_tokens
+        long latencyMs           // 含重试的总耗时
+) {}
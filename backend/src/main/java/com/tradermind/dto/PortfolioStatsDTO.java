@@ -0,0 +1,25 @@
+package com.tradermind.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 组合绩效统计 DTO
+ */
+public record PortfolioStatsDTO(
+        long tradeCount,              // 已平仓笔数
+        long winCount,
+        long lossCount,
+        BigDecimal winRate,           // 胜率（0-1）
+        BigDecimal expectancy,        // 期望值：平均每笔盈亏
+        BigDecimal pnlStdDev,         // 单笔盈亏标准差
+        BigDecimal profitFactor,      // 盈利因子 = 总盈利 / 总亏损，无亏损时为 null
+        BigDecimal averageWin,
+        BigDecimal averageLoss,       // 平均亏损（正数）
+        BigDecimal averageR,          // 平均 R 倍数，无可计算样本时为 null
+        BigDecimal totalRealizedPnL,  // 累计已实现盈亏
+        BigDecimal peakPnL,
+        BigDecimal maxDrawdown,       // 最大回撤（金额）
+        BigDecimal currentDrawdown,
+        LocalDateTime updatedAt
+) {}
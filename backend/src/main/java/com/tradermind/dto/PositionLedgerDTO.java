@@ -0,0 +1,17 @@
+package com.tradermind.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 由交易流水折叠得到的持仓账本视图
+ */
+public record PositionLedgerDTO(
+        Long planId,
+        BigDecimal avgEntryPrice,
+        Integer totalQuantity,
+        Integer currentQuantity,
+        BigDecimal realizedPnL,
+        Integer transactionCount,     // 账本包含的流水总数
+        Integer replayedTransactions, // 本次实际回放的流水条数（快照之后的尾部）
+        boolean fromSnapshot          // 是否从快照继续回放
+) {}
@@ -0,0 +1,19 @@
+package com.tradermind.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 买入逻辑相似的历史已平仓交易
+ */
+public record SimilarTradeDTO(
+        Long planId,
+        Long executionId,
+        String stockSymbol,
+        double similarity,           // 买入逻辑字符 n-gram 的 Jaccard 相似度
+        String entryLogic,
+        BigDecimal realizedPnL,
+        Integer aiAnalysisScore,
+        Integer ruleScore,
+        LocalDateTime closedAt
+) {}
@@ -0,0 +1,11 @@
+package com.tradermind.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * 相似历史交易查询请求：k 可选，默认取配置值
+ */
+public record SimilarTradesRequest(
+        @NotBlank(message = "买入逻辑不能为空") String entryLogic,
+        Integer k
+) {}
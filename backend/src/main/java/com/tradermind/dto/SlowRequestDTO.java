@@ -0,0 +1,24 @@
+package com.tradermind.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 慢请求耗时分解（/api/admin/slow-requests）
+ * computeMs = totalMs 减去 DB、行情、AI、序列化之和（各环节并行时取 0）
+ */
+public record SlowRequestDTO(
+        LocalDateTime startedAt,
+        String method,
+        String path,
+        String endpoint,
+        int status,
+        double totalMs,
+        double dbMs,
+        long dbCalls,
+        double marketMs,
+        long marketCalls,
+        double aiMs,
+        long aiCalls,
+        double serializationMs,
+        double computeMs
+) {}
@@ -25,5 +25,6 @@ public record TradeDashboardDTO(
         BigDecimal distanceToSL,      // 距离止损的价格差
         String riskLevel,             // 风险等级: "SAFE" 或 "DANGER"
         String entryLogic,            // 买入逻辑
-        BigDecimal riskRewardRatio    // 盈亏比 RR
+        BigDecimal riskRewardRatio,   // 盈亏比 RR
+        boolean stale                 // 行情未在时限内返回：currentPrice 为最近一次报价，无历史报价时为持仓均价
 ) {}
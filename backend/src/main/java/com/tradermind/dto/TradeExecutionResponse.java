@@ -1,6 +1,7 @@
 package com.tradermind.dto;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * 平仓后返回的执行结果
@@ -11,5 +12,7 @@ public record TradeExecutionResponse(
         BigDecimal exitPrice,
         BigDecimal realizedPnL,
         Integer aiAnalysisScore,
-        String aiAnalysisComment
+        String aiAnalysisComment,
+        Integer ruleScore,            // 本地规则预评分，平仓即有
+        List<String> ruleFindings
 ) {}
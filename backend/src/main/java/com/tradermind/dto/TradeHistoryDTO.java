@@ -3,6 +3,7 @@ package com.tradermind.dto;
 import com.tradermind.domain.TradeDirection;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 历史交易记录 DTO
@@ -28,6 +29,8 @@ public record TradeHistoryDTO(
         String emotionalState,       // 情绪状态
         Integer aiAnalysisScore,     // AI 分析得分
         String aiAnalysisComment,    // AI 分析评论
+        Integer ruleScore,           // 本地规则预评分
+        List<String> ruleFindings,   // 规则发现
         LocalDateTime createdAt,     // 开仓时间
         LocalDateTime closedAt        // 平仓时间（执行时间）
 ) {}
@@ -0,0 +1,69 @@
+package com.tradermind.entity;
+
+import com.tradermind.domain.AIBackfillStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * AI 复盘回填运行记录：按执行记录 ID 键集分页扫描候选并写入复盘任务队列
+ * lastExecutionId 为检查点，与每页的入队在同一事务内推进
+ * 扫描线程与取消接口会并发修改同一行，以乐观锁版本号防止互相覆盖
+ */
+@Entity
+@Table(name = "ai_backfill_run")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIBackfillRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private AIBackfillStatus status;
+
+    /** true：全部执行记录重新评分（如更换模型）；false：仅补评分为空的记录 */
+    @Column(name = "rescore_all", nullable = false)
+    private Boolean rescoreAll;
+
+    /** 检查点：已扫描到的最大执行记录 ID */
+    @Column(name = "last_execution_id", nullable = false)
+    private Long lastExecutionId;
+
+    /** 发起时的最大执行记录 ID，之后新平仓的记录由正常流程入队，不在本次范围内 */
+    @Column(name = "max_execution_id", nullable = false)
+    private Long maxExecutionId;
+
+    @Column(name = "scanned_count", nullable = false)
+    private Integer scannedCount;
+
+    @Column(name = "enqueued_count", nullable = false)
+    private Integer enqueuedCount;
+
+    /** 已有未完成任务而跳过的数量 */
+    @Column(name = "skipped_count", nullable = false)
+    private Integer skippedCount;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    /** 乐观锁版本号：取消与页提交并发时，后提交者因版本不匹配而失败 */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+}
@@ -0,0 +1,56 @@
+package com.tradermind.entity;
+
+import com.tradermind.domain.AIReviewJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * AI 复盘任务（outbox）：与 TradeExecution 在同一事务内写入，由工作线程池领取执行
+ */
+@Entity
+@Table(name = "ai_review_job")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIReviewJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "execution_id", nullable = false)
+    private Long executionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private AIReviewJobStatus status;
+
+    /** 已尝试次数（领取时递增） */
+    @Column(nullable = false)
+    private Integer attempts;
+
+    /** 最早可执行时间：退避重试时推后 */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "enqueued_at", nullable = false, updatable = false)
+    private LocalDateTime enqueuedAt;
+
+    /** 最近一次领取时间，超过租约未完成视为工作线程丢失 */
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    /** 由批量回填入队时记录所属回填运行，正常平仓入队为 null */
+    @Column(name = "backfill_run_id")
+    private Long backfillRunId;
+}
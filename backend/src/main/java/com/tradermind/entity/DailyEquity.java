@@ -0,0 +1,61 @@
+package com.tradermind.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 每日权益快照：收盘后由日终任务写入，或由回填从交易流水重建
+ * 每个交易日一行，供权益曲线与盈亏日历直接读取
+ */
+@Entity
+@Table(name = "daily_equity")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyEquity {
+
+    @Id
+    @Column(name = "trade_date")
+    private LocalDate tradeDate;
+
+    /** 当日已实现盈亏 */
+    @Column(name = "realized_pnl", nullable = false, precision = 19, scale = 4)
+    private BigDecimal realizedPnL;
+
+    /** 截至当日的累计已实现盈亏 */
+    @Column(name = "cumulative_realized_pnl", nullable = false, precision = 19, scale = 4)
+    private BigDecimal cumulativeRealizedPnL;
+
+    /** 收盘时持仓浮动盈亏 */
+    @Column(name = "unrealized_pnl", nullable = false, precision = 19, scale = 4)
+    private BigDecimal unrealizedPnL;
+
+    /** 收盘时持仓风险敞口：Σ max(0, 均价 - 止损) * 剩余持仓 */
+    @Column(name = "open_risk", nullable = false, precision = 19, scale = 4)
+    private BigDecimal openRisk;
+
+    /** 收盘时持仓数 */
+    @Column(name = "open_positions", nullable = false)
+    private Integer openPositions;
+
+    /** 总资金（取自 AppSettings） */
+    @Column(nullable = false, precision = 20, scale = 2)
+    private BigDecimal capital;
+
+    /** 权益 = 总资金 + 累计已实现 + 浮动盈亏 */
+    @Column(nullable = false, precision = 20, scale = 4)
+    private BigDecimal equity;
+
+    /** 浮动盈亏的定价来源：CLOSE（收盘行情）/ LAST_FILL（回填时取最近成交价） */
+    @Column(name = "mark_source", nullable = false, length = 10)
+    private String markSource;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,39 @@
+package com.tradermind.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 权益曲线点：每笔平仓一条，记录平仓后的累计已实现盈亏与回撤
+ */
+@Entity
+@Table(name = "equity_curve_point")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EquityCurvePoint {
+
+    @Id
+    @Column(name = "execution_id")
+    private Long executionId;
+
+    @Column(name = "closed_at", nullable = false)
+    private LocalDateTime closedAt;
+
+    /** 本笔实现盈亏 */
+    @Column(name = "realized_pnl", nullable = false, precision = 19, scale = 4)
+    private BigDecimal realizedPnL;
+
+    /** 平仓后累计已实现盈亏 */
+    @Column(name = "cumulative_pnl", nullable = false, precision = 19, scale = 4)
+    private BigDecimal cumulativePnL;
+
+    /** 平仓后距历史峰值的回撤 */
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal drawdown;
+}
@@ -0,0 +1,102 @@
+package com.tradermind.entity;
+
+import com.tradermind.domain.PerformanceAggregate;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 组合绩效汇总实体
+ * 单例模式：仅一条记录（id=1），每次写入 TradeExecution 时增量更新，
+ * 读取统计只需查这一行
+ */
+@Entity
+@Table(name = "portfolio_stats")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioStats {
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long tradeCount;
+
+    @Column(nullable = false)
+    private Long winCount;
+
+    @Column(nullable = false)
+    private Long lossCount;
+
+    /** 盈利交易的盈利之和 */
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal grossProfit;
+
+    /** 亏损交易的亏损绝对值之和 */
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal grossLoss;
+
+    /** 单笔盈亏均值（Welford） */
+    @Column(nullable = false)
+    private Double pnlMean;
+
+    /** 单笔盈亏离差平方和（Welford M2） */
+    @Column(name = "pnl_m2", nullable = false)
+    private Double pnlM2;
+
+    @Column(nullable = false)
+    private Long rCount;
+
+    @Column(nullable = false)
+    private Double rMean;
+
+    @Column(name = "r_m2", nullable = false)
+    private Double rM2;
+
+    /** 累计已实现盈亏（权益曲线当前值） */
+    @Column(name = "cumulative_pnl", nullable = false, precision = 19, scale = 4)
+    private BigDecimal cumulativePnL;
+
+    /** 累计盈亏历史峰值 */
+    @Column(name = "peak_pnl", nullable = false, precision = 19, scale = 4)
+    private BigDecimal peakPnL;
+
+    /** 累计盈亏历史谷值 */
+    @Column(name = "trough_pnl", nullable = false, precision = 19, scale = 4)
+    private BigDecimal troughPnL;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal maxDrawdown;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public PerformanceAggregate toAggregate() {
+        return new PerformanceAggregate(tradeCount, winCount, lossCount, grossProfit, grossLoss,
+                pnlMean, pnlM2, rCount, rMean, rM2, cumulativePnL, peakPnL, troughPnL, maxDrawdown);
+    }
+
+    public void applyAggregate(PerformanceAggregate agg) {
+        this.tradeCount = agg.getTradeCount();
+        this.winCount = agg.getWinCount();
+        this.lossCount = agg.getLossCount();
+        this.grossProfit = agg.getGrossProfit();
+        this.grossLoss = agg.getGrossLoss();
+        this.pnlMean = agg.getPnlMean();
+        this.pnlM2 = agg.getPnlM2();
+        this.rCount = agg.getRCount();
+        this.rMean = agg.getRMean();
+        this.rM2 = agg.getRM2();
+        this.cumulativePnL = agg.getCumulativePnL();
+        this.peakPnL = agg.getPeakPnL();
+        this.troughPnL = agg.getTroughPnL();
+        this.maxDrawdown = agg.getMaxDrawdown();
+        this.updatedAt = LocalDateTime.now();
+    }
+}
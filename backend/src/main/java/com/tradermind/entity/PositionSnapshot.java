@@ -0,0 +1,50 @@
+package com.tradermind.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 持仓账本快照
+ * 每个计划仅保留最新一份：记录折叠到 lastTransactionId 为止的持仓状态，
+ * 重建时只需从快照之后的流水继续回放
+ */
+@Entity
+@Table(name = "position_snapshot")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PositionSnapshot {
+
+    @Id
+    @Column(name = "plan_id")
+    private Long planId;
+
+    /** 快照包含的最后一条流水 ID */
+    @Column(name = "last_transaction_id", nullable = false)
+    private Long lastTransactionId;
+
+    /** 快照包含的流水条数 */
+    @Column(name = "transaction_count", nullable = false)
+    private Integer transactionCount;
+
+    @Column(name = "avg_entry_price", precision = 19, scale = 4)
+    private BigDecimal avgEntryPrice;
+
+    @Column(name = "total_quantity", nullable = false)
+    private Integer totalQuantity;
+
+    @Column(name = "current_quantity", nullable = false)
+    private Integer currentQuantity;
+
+    @Column(name = "realized_pnl", nullable = false, precision = 19, scale = 4)
+    private BigDecimal realizedPnL;
+
+    /** 快照生成时间 */
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
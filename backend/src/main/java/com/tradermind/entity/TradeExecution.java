@@ -52,6 +52,14 @@ public class TradeExecution {
     @Column(columnDefinition = "TEXT")
     private String aiAnalysisComment;
 
+    // 本地规则预评分（0-100），平仓事务内计算，大模型复盘在此基础上修正
+    @Column(name = "rule_score")
+    private Integer ruleScore;
+
+    // 规则发现，每行一条
+    @Column(name = "rule_findings", columnDefinition = "TEXT")
+    private String ruleFindings;
+
     // 创建时间（平仓时间）
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -1,5 +1,6 @@
 package com.tradermind.entity;
 
+import com.tradermind.domain.PositionState;
 import com.tradermind.domain.TradeDirection;
 import com.tradermind.domain.TradeStatus;
 import jakarta.persistence.*;
@@ -59,6 +60,10 @@ public class TradePlan {
     @Column(nullable = false, precision = 19, scale = 4)
     private BigDecimal stopLoss;
 
+    /** 创建计划时的止损价，不随移动止损改变；R 倍数等按初始风险计算的口径以此为准 */
+    @Column(name = "initial_stop_loss", nullable = false, updatable = false, precision = 19, scale = 4)
+    private BigDecimal initialStopLoss;
+
     // 止盈价格
     @Column(nullable = false, precision = 19, scale = 4)
     private BigDecimal takeProfit;
@@ -84,4 +89,39 @@ public class TradePlan {
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    /** 乐观锁版本号：并发修改同一计划时，后提交者因版本不匹配而失败并重试 */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * 每股初始风险 = |计划入场价 - 初始止损|，缺失时返回 null
+     */
+    public BigDecimal initialRiskPerShare() {
+        if (entryPrice == null || initialStopLoss == null) {
+            return null;
+        }
+        return entryPrice.subtract(initialStopLoss).abs();
+    }
+
+    /**
+     * 当前存储的派生持仓状态（旧数据缺失字段按建仓前口径兜底）
+     */
+    public PositionState positionState() {
+        int total = totalQuantity != null ? totalQuantity : 0;
+        int current = currentQuantity != null ? currentQuantity : total;
+        BigDecimal realized = realizedPnL != null ? realizedPnL : BigDecimal.ZERO;
+        return new PositionState(avgEntryPrice, total, current, realized);
+    }
+
+    /**
+     * 将持仓状态写回派生字段
+     */
+    public void applyPositionState(PositionState state) {
+        this.avgEntryPrice = state.avgEntryPrice();
+        this.totalQuantity = state.totalQuantity();
+        this.currentQuantity = state.currentQuantity();
+        this.realizedPnL = state.realizedPnL();
+    }
 }
@@ -0,0 +1,14 @@
+package com.tradermind.exception;
+
+/**
+ * 并发修改异常：同一计划的并发操作在重试后仍冲突，或等待计划锁超时
+ */
+public class ConcurrentTradeModificationException extends RuntimeException {
+    public ConcurrentTradeModificationException(String message) {
+        super(message);
+    }
+
+    public ConcurrentTradeModificationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
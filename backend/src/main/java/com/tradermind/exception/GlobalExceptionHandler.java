@@ -39,4 +39,13 @@ public class GlobalExceptionHandler {
                         "message", ex.getMessage()
                 ));
     }
+
+    @ExceptionHandler(ConcurrentTradeModificationException.class)
+    public ResponseEntity<Map<String, Object>> handleConcurrentModification(ConcurrentTradeModificationException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of(
+                        "error", "CONCURRENT_MODIFICATION",
+                        "message", ex.getMessage()
+                ));
+    }
 }
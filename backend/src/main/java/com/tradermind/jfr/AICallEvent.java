@@ -0,0 +1,34 @@
+package com.tradermind.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次大模型调用（LlmClient），持续时间从发起请求到响应结束；在完成回调线程上提交
+ */
+@Name("com.tradermind.AICall")
+@Label("AI Call")
+@Category({"TraderMind", "AI"})
+@Description("大模型调用")
+@StackTrace(false)
+public class AICallEvent extends Event {
+
+    @Label("Model")
+    public String model;
+
+    @Label("Streaming")
+    public boolean streaming;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+    @Label("Prompt Tokens")
+    public int promptTokens;
+
+    @Label("Completion Tokens")
+    public int completionTokens;
+}
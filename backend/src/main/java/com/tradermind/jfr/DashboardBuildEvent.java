@@ -0,0 +1,22 @@
+package com.tradermind.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次持仓仪表盘构建（TradeService.getActiveTradesWithMarketData），含查库与行情
+ */
+@Name("com.tradermind.DashboardBuild")
+@Label("Dashboard Build")
+@Category({"TraderMind", "Trading"})
+@Description("持仓仪表盘构建")
+@StackTrace(false)
+public class DashboardBuildEvent extends Event {
+
+    @Label("Positions")
+    public int positions;
+}
@@ -0,0 +1,116 @@
+package com.tradermind.jfr;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 进程内 JFR 事件流：把 TraderMind 自定义事件转成 Micrometer 指标（jfr.*）
+ * - 只启用本项目的四类事件、不采堆栈，其余 JDK 事件保持关闭，常驻开销仅为事件提交与每秒一次的批量回调
+ * - 事件在线程本地缓冲中累积，由 JFR 约每秒刷新一次后在流线程上回调，不占用业务线程
+ * - 流只保留最近 maxAge 的数据，内存占用有界
+ * 同时开启 -XX:StartFlightRecording 时，这些事件也会出现在 .jfr 文件中，可在 JMC 里与 GC、锁等事件对照
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JfrMetricsStream {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jfr.streaming.enabled:true}")
+    private boolean enabled;
+
+    /** 流内数据保留时长（秒） */
+    @Value("${jfr.streaming.max-age-seconds:30}")
+    private long maxAgeSeconds;
+
+    private RecordingStream stream;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("JFR 事件流已关闭（jfr.streaming.enabled=false）");
+            return;
+        }
+        RecordingStream rs = new RecordingStream();
+        rs.enable(QuoteFetchEvent.class).withoutStackTrace();
+        rs.enable(DashboardBuildEvent.class).withoutStackTrace();
+        rs.enable(TradeMutationEvent.class).withoutStackTrace();
+        rs.enable(AICallEvent.class).withoutStackTrace();
+        rs.setMaxAge(Duration.ofSeconds(maxAgeSeconds));
+        rs.setReuse(true);
+        rs.setOrdered(false);
+
+        rs.onEvent("com.tradermind.QuoteFetch", this::onQuoteFetch);
+        rs.onEvent("com.tradermind.DashboardBuild", this::onDashboardBuild);
+        rs.onEvent("com.tradermind.TradeMutation", this::onTradeMutation);
+        rs.onEvent("com.tradermind.AICall", this::onAICall);
+        rs.onError(e -> log.warn("JFR 事件流回调异常: {}", e.toString()));
+        rs.startAsync();
+        stream = rs;
+        log.info("JFR 事件流已启动");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onQuoteFetch(RecordedEvent event) {
+        String provider = event.getString("provider");
+        Timer.builder("jfr.quote.fetch")
+                .tag("provider", provider)
+                .tag("operation", event.getString("operation"))
+                .tag("outcome", event.getString("outcome"))
+                .register(meterRegistry)
+                .record(event.getDuration());
+        long bytes = event.getLong("bytes");
+        if (bytes >= 0) {
+            DistributionSummary.builder("jfr.quote.bytes")
+                    .baseUnit("bytes")
+                    .tag("provider", provider)
+                    .register(meterRegistry)
+                    .record(bytes);
+        }
+    }
+
+    private void onDashboardBuild(RecordedEvent event) {
+        Timer.builder("jfr.dashboard.build")
+                .register(meterRegistry)
+                .record(event.getDuration());
+        DistributionSummary.builder("jfr.dashboard.positions")
+                .register(meterRegistry)
+                .record(event.getInt("positions"));
+    }
+
+    private void onTradeMutation(RecordedEvent event) {
+        Timer.builder("jfr.trade.mutation")
+                .tag("operation", event.getString("operation"))
+                .tag("outcome", event.getBoolean("succeeded") ? "success" : "failure")
+                .register(meterRegistry)
+                .record(event.getDuration());
+    }
+
+    private void onAICall(RecordedEvent event) {
+        Timer.builder("jfr.ai.call")
+                .tag("model", String.valueOf(event.getString("model")))
+                .tag("streaming", String.valueOf(event.getBoolean("streaming")))
+                .tag("outcome", event.getBoolean("succeeded") ? "success" : "failure")
+                .register(meterRegistry)
+                .record(event.getDuration());
+    }
+}
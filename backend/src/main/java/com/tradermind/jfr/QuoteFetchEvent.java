@@ -0,0 +1,36 @@
+package com.tradermind.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次外部行情请求（StockMarketService），持续时间即请求往返
+ */
+@Name("com.tradermind.QuoteFetch")
+@Label("Quote Fetch")
+@Category({"TraderMind", "Market"})
+@Description("外部行情接口请求")
+@StackTrace(false)
+public class QuoteFetchEvent extends Event {
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("Provider")
+    public String provider;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Response Size")
+    @DataAmount
+    public long bytes;
+}
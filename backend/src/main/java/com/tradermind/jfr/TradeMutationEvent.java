@@ -0,0 +1,29 @@
+package com.tradermind.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次持仓修改（建仓、加仓、减仓、平仓，或一次批量交易），持续时间含等待计划锁与乐观锁重试
+ * 批量交易的 operation 为 batch、planId 为 0
+ */
+@Name("com.tradermind.TradeMutation")
+@Label("Trade Mutation")
+@Category({"TraderMind", "Trading"})
+@Description("持仓修改")
+@StackTrace(false)
+public class TradeMutationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Plan ID")
+    public long planId;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,18 @@
+package com.tradermind.repository;
+
+import com.tradermind.domain.AIBackfillStatus;
+import com.tradermind.entity.AIBackfillRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * AI 复盘回填运行记录 Repository
+ */
+public interface AIBackfillRunRepository extends JpaRepository<AIBackfillRun, Long> {
+
+    List<AIBackfillRun> findByStatus(AIBackfillStatus status);
+
+    Optional<AIBackfillRun> findTopByOrderByIdDesc();
+}
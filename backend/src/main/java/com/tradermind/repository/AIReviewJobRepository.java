@@ -0,0 +1,45 @@
+package com.tradermind.repository;
+
+import com.tradermind.domain.AIReviewJobStatus;
+import com.tradermind.entity.AIReviewJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * AI 复盘任务 Repository
+ * 领取任务（FOR UPDATE SKIP LOCKED）在 AIReviewQueueService 中用 JdbcTemplate 完成
+ */
+public interface AIReviewJobRepository extends JpaRepository<AIReviewJob, Long> {
+
+    long countByStatus(AIReviewJobStatus status);
+
+    long countByBackfillRunIdAndStatus(Long backfillRunId, AIReviewJobStatus status);
+
+    /**
+     * 同一执行记录是否已有未完成的任务，避免重复入队
+     */
+    @Query("SELECT COUNT(j) > 0 FROM AIReviewJob j WHERE j.executionId = :executionId " +
+            "AND j.status IN (com.tradermind.domain.AIReviewJobStatus.PENDING, com.tradermind.domain.AIReviewJobStatus.RUNNING)")
+    boolean existsActiveForExecution(@Param("executionId") Long executionId);
+
+    /**
+     * 租约过期的 RUNNING 任务放回队列（工作线程或进程在执行中退出）
+     */
+    @Modifying
+    @Query("UPDATE AIReviewJob j SET j.status = com.tradermind.domain.AIReviewJobStatus.PENDING, j.nextAttemptAt = :now " +
+            "WHERE j.status = com.tradermind.domain.AIReviewJobStatus.RUNNING AND j.startedAt < :expiredBefore")
+    int releaseExpired(@Param("expiredBefore") LocalDateTime expiredBefore, @Param("now") LocalDateTime now);
+
+    /**
+     * 死信任务重新入队，重置尝试次数
+     */
+    @Modifying
+    @Query("UPDATE AIReviewJob j SET j.status = com.tradermind.domain.AIReviewJobStatus.PENDING, j.attempts = 0, " +
+            "j.nextAttemptAt = :now, j.lastError = NULL " +
+            "WHERE j.status = com.tradermind.domain.AIReviewJobStatus.DEAD")
+    int requeueDead(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,21 @@
+package com.tradermind.repository;
+
+import com.tradermind.entity.DailyEquity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 每日权益快照 Repository
+ */
+public interface DailyEquityRepository extends JpaRepository<DailyEquity, LocalDate> {
+
+    List<DailyEquity> findByTradeDateBetweenOrderByTradeDateAsc(LocalDate from, LocalDate to);
+
+    /**
+     * 指定日期之前最近的一条快照
+     */
+    Optional<DailyEquity> findTopByTradeDateBeforeOrderByTradeDateDesc(LocalDate date);
+}
@@ -0,0 +1,23 @@
+package com.tradermind.repository;
+
+import com.tradermind.entity.EquityCurvePoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+/**
+ * 权益曲线 Repository
+ */
+public interface EquityCurvePointRepository extends JpaRepository<EquityCurvePoint, Long> {
+
+    /**
+     * 按平仓顺序返回整条曲线
+     */
+    List<EquityCurvePoint> findAllByOrderByExecutionIdAsc();
+
+    @Modifying
+    @Query("DELETE FROM EquityCurvePoint")
+    void deleteAllPoints();
+}
@@ -0,0 +1,23 @@
+package com.tradermind.repository;
+
+import com.tradermind.entity.PortfolioStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+/**
+ * 组合绩效汇总 Repository
+ */
+public interface PortfolioStatsRepository extends JpaRepository<PortfolioStats, Integer> {
+
+    /**
+     * 行锁读取（SELECT ... FOR UPDATE），串行化并发平仓对汇总行的增量更新
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM PortfolioStats s WHERE s.id = :id")
+    Optional<PortfolioStats> findForUpdate(@Param("id") Integer id);
+}
@@ -0,0 +1,10 @@
+package com.tradermind.repository;
+
+import com.tradermind.entity.PositionSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * 持仓账本快照 Repository（主键即 planId）
+ */
+public interface PositionSnapshotRepository extends JpaRepository<PositionSnapshot, Long> {
+}
@@ -2,9 +2,13 @@ package com.tradermind.repository;
 
 import com.tradermind.entity.TradeExecution;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -17,4 +21,39 @@ public interface TradeExecutionRepository extends JpaRepository<TradeExecution,
      */
     @Query("SELECT e FROM TradeExecution e JOIN FETCH e.plan WHERE e.id = :id")
     Optional<TradeExecution> findByIdWithPlan(@Param("id") Long id);
+
+    @Query("SELECT e FROM TradeExecution e JOIN FETCH e.plan WHERE e.id IN :ids")
+    List<TradeExecution> findAllByIdWithPlan(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 全部执行记录（含 plan），按平仓时间倒序；用于交易历史
+     * 自带只读事务，历史接口在事务外取行情
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT e FROM TradeExecution e JOIN FETCH e.plan ORDER BY e.createdAt DESC")
+    List<TradeExecution> findAllWithPlanOrderByCreatedAtDesc();
+
+    /**
+     * 已平仓计划的执行记录（含 plan），按平仓时间倒序；用于相似交易结果展示
+     */
+    @Query("SELECT e FROM TradeExecution e JOIN FETCH e.plan p WHERE p.id IN :planIds "
+            + "AND p.status = com.tradermind.domain.TradeStatus.CLOSED ORDER BY e.createdAt DESC")
+    List<TradeExecution> findClosedByPlanIdIn(@Param("planIds") Collection<Long> planIds);
+
+    @Query("SELECT e.id FROM TradeExecution e WHERE e.plan.id IN :planIds")
+    List<Long> findIdsByPlanIdIn(@Param("planIds") Collection<Long> planIds);
+
+    /**
+     * 删除计划前先删除其执行记录（复盘任务与权益曲线点由外键级联删除）
+     */
+    @Modifying
+    @Query("DELETE FROM TradeExecution e WHERE e.plan.id IN :planIds")
+    int deleteByPlanIdIn(@Param("planIds") Collection<Long> planIds);
+
+    /**
+     * 写入 AI 复盘结果（只更新两列，不合并整个实体）
+     */
+    @Modifying
+    @Query("UPDATE TradeExecution e SET e.aiAnalysisScore = :score, e.aiAnalysisComment = :comment WHERE e.id = :id")
+    int updateAiAnalysis(@Param("id") Long id, @Param("score") Integer score, @Param("comment") String comment);
 }
@@ -3,6 +3,7 @@ package com.tradermind.repository;
 import com.tradermind.domain.TradeStatus;
 import com.tradermind.entity.TradePlan;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,6 +14,8 @@ public interface TradePlanRepository extends JpaRepository<TradePlan, Long> {
 
     /**
      * 根据状态查询交易计划
+     * 自带只读事务：仪表盘在事务外调用，查询结束即归还连接，不在等待行情期间占用连接池
      */
+    @Transactional(readOnly = true)
     List<TradePlan> findByStatus(TradeStatus status);
 }
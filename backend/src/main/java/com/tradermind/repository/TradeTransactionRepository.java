@@ -2,7 +2,10 @@ package com.tradermind.repository;
 
 import com.tradermind.entity.TradeTransaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -14,4 +17,21 @@ public interface TradeTransactionRepository extends JpaRepository<TradeTransacti
      * 按计划 ID 查询流水，按时间正序
      */
     List<TradeTransaction> findByPlanIdOrderByTransactionTimeAsc(Long planId);
+
+    /**
+     * 按计划 ID 查询某条流水之后的流水，按 ID 正序（账本从快照继续回放）
+     */
+    List<TradeTransaction> findByPlanIdAndIdGreaterThanOrderByIdAsc(Long planId, Long afterId);
+
+    /**
+     * 批量查询多个计划的流水，按计划、ID 正序（账本全量重建）
+     */
+    @Query("SELECT t FROM TradeTransaction t WHERE t.plan.id IN :planIds ORDER BY t.plan.id, t.id")
+    List<TradeTransaction> findByPlanIdsOrdered(@Param("planIds") Collection<Long> planIds);
+
+    /**
+     * 所有存在流水的计划 ID
+     */
+    @Query("SELECT DISTINCT t.plan.id FROM TradeTransaction t ORDER BY t.plan.id")
+    List<Long> findDistinctPlanIds();
 }
@@ -0,0 +1,243 @@
+package com.tradermind.service;
+
+import com.tradermind.domain.AICallOutcome;
+import com.tradermind.dto.AICallDailyStatsDTO;
+import com.tradermind.dto.LlmCompletion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 大模型调用遥测
+ * - 每次调用记录：操作、模型、结果（OK / PARSE_FALLBACK / ERROR）、耗时、usage 中的 token 数与按单价折算的费用
+ * - Micrometer：ai.call.latency（带百分位直方图）、ai.call.tokens{type}、ai.call.cost，
+ *   均带 provider（ai.api.url 的主机名）、operation、model 标签
+ * - 明细先进入有界内存缓冲，由定时任务批量写入 ai_call_log；缓冲满时丢弃并计数，不阻塞调用方
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AICallTelemetry {
+
+    private static final BigDecimal MILLION = BigDecimal.valueOf(1_000_000);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ai.model:deepseek-chat}")
+    private String defaultModel;
+
+    @Value("${ai.api.url:}")
+    private String apiUrl;
+
+    /** 输入单价（元 / 百万 token） */
+    @Value("${ai.cost.prompt-per-million-tokens:2.0}")
+    private BigDecimal promptPricePerMillion;
+
+    /** 输出单价（元 / 百万 token） */
+    @Value("${ai.cost.completion-per-million-tokens:8.0}")
+    private BigDecimal completionPricePerMillion;
+
+    /** 待写入明细的缓冲上限 */
+    @Value("${ai.telemetry.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    /** 单次批量写入的最大行数 */
+    @Value("${ai.telemetry.batch-size:500}")
+    private int batchSize;
+
+    /** 明细保留天数 */
+    @Value("${ai.telemetry.retention-days:180}")
+    private int retentionDays;
+
+    private BlockingQueue<CallRecord> buffer;
+    private Counter droppedCounter;
+    private String provider;
+
+    @PostConstruct
+    void init() {
+        String host = apiUrl.isBlank() ? null : URI.create(apiUrl).getHost();
+        provider = host != null ? host : "unknown";
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        droppedCounter = Counter.builder("ai.call.log.dropped").register(meterRegistry);
+        Gauge.builder("ai.call.log.buffered", buffer, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * 记录一次成功返回的调用（结果为 OK 或 PARSE_FALLBACK）
+     */
+    public void record(String operation, LlmCompletion completion, AICallOutcome outcome) {
+        record(operation, completion.model(), outcome, completion.latencyMs(),
+                completion.promptTokens(), completion.completionTokens(), null);
+    }
+
+    /**
+     * 记录一次失败的调用
+     */
+    public void recordError(String operation, long latencyMs, Throwable error) {
+        record(operation, defaultModel, AICallOutcome.ERROR, latencyMs, 0, 0, error.toString());
+    }
+
+    /**
+     * 记录一次调用；流式调用无 usage，token 记 0
+     */
+    public void record(String operation, String model, AICallOutcome outcome, long latencyMs,
+                       int promptTokens, int completionTokens, String error) {
+        String m = model != null && !model.isBlank() ? model : defaultModel;
+        BigDecimal cost = cost(promptTokens, completionTokens);
+
+        Timer.builder("ai.call.latency")
+                .tag("provider", provider).tag("operation", operation).tag("model", m).tag("outcome", outcome.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofMillis(latencyMs));
+        if (promptTokens > 0) {
+            Counter.builder("ai.call.tokens").baseUnit("tokens")
+                    .tag("provider", provider).tag("operation", operation).tag("model", m).tag("type", "prompt")
+                    .register(meterRegistry).increment(promptTokens);
+        }
+        if (completionTokens > 0) {
+            Counter.builder("ai.call.tokens").baseUnit("tokens")
+                    .tag("provider", provider).tag("operation", operation).tag("model", m).tag("type", "completion")
+                    .register(meterRegistry).increment(completionTokens);
+        }
+        if (cost.signum() > 0) {
+            Counter.builder("ai.call.cost").baseUnit("cny")
+                    .tag("provider", provider).tag("operation", operation).tag("model", m)
+                    .register(meterRegistry).increment(cost.doubleValue());
+        }
+
+        CallRecord row = new CallRecord(LocalDateTime.now(), operation, m, outcome,
+                (int) Math.min(latencyMs, Integer.MAX_VALUE), promptTokens, completionTokens, cost,
+                error != null && error.length() > 200 ? error.substring(0, 200) : error);
+        if (!buffer.offer(row)) {
+            droppedCounter.increment();
+        }
+    }
+
+    /**
+     * 按单价折算费用（元），保留 6 位小数
+     */
+    public BigDecimal cost(int promptTokens, int completionTokens) {
+        return promptPricePerMillion.multiply(BigDecimal.valueOf(promptTokens))
+                .add(completionPricePerMillion.multiply(BigDecimal.valueOf(completionTokens)))
+                .divide(MILLION, 6, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 将缓冲中的明细批量写入 ai_call_log；写入失败的批次丢弃并计数，不回灌缓冲
+     */
+    @Scheduled(fixedDelayString = "${ai.telemetry.flush-interval-ms:2000}")
+    public void flush() {
+        List<CallRecord> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                jdbcTemplate.batchUpdate("""
+                                INSERT INTO ai_call_log (called_at, operation, model, outcome, latency_ms,
+                                                         prompt_tokens, completion_tokens, cost, error)
+                                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                                """,
+                        batch, batch.size(), (ps, r) -> {
+                            ps.setTimestamp(1, Timestamp.valueOf(r.calledAt()));
+                            ps.setString(2, r.operation());
+                            ps.setString(3, r.model());
+                            ps.setString(4, r.outcome().name());
+                            ps.setInt(5, r.latencyMs());
+                            ps.setInt(6, r.promptTokens());
+                            ps.setInt(7, r.completionTokens());
+                            ps.setBigDecimal(8, r.cost());
+                            ps.setString(9, r.error());
+                        });
+            } catch (Exception e) {
+                droppedCounter.increment(batch.size());
+                log.warn("写入大模型调用明细失败，丢弃 {} 条: {}", batch.size(), e.toString());
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    /**
+     * 定时清理超过保留期的明细
+     */
+    @Scheduled(cron = "${ai.telemetry.cleanup-cron:0 30 3 * * *}")
+    public void purgeExpired() {
+        try {
+            int n = jdbcTemplate.update("DELETE FROM ai_call_log WHERE called_at < ?",
+                    Timestamp.valueOf(LocalDate.now().minusDays(retentionDays).atStartOfDay()));
+            if (n > 0) {
+                log.info("清理过期大模型调用明细: {} 条", n);
+            }
+        } catch (Exception e) {
+            log.warn("清理大模型调用明细失败: {}", e.toString());
+        }
+    }
+
+    /**
+     * 按 (日期, 模型) 汇总 [from, to] 内的调用
+     */
+    public List<AICallDailyStatsDTO> dailyStats(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("开始日期不能晚于结束日期");
+        }
+        return jdbcTemplate.query("""
+                        SELECT CAST(called_at AS DATE) AS day,
+                               model,
+                               COUNT(*) AS calls,
+                               COUNT(*) FILTER (WHERE outcome = 'OK') AS ok_calls,
+                               COUNT(*) FILTER (WHERE outcome = 'PARSE_FALLBACK') AS fallback_calls,
+                               COUNT(*) FILTER (WHERE outcome = 'ERROR') AS error_calls,
+                               AVG(latency_ms) AS avg_latency,
+                               PERCENTILE_CONT(0.95) WITHIN GROUP (ORDER BY latency_ms) AS p95_latency,
+                               SUM(prompt_tokens) AS prompt_tokens,
+                               SUM(completion_tokens) AS completion_tokens,
+                               SUM(cost) AS cost
+                        FROM ai_call_log
+                        WHERE called_at >= ? AND called_at < ?
+                        GROUP BY CAST(called_at AS DATE), model
+                        ORDER BY day, model
+                        """,
+                (rs, i) -> new AICallDailyStatsDTO(
+                        rs.getDate("day").toLocalDate(),
+                        rs.getString("model"),
+                        rs.getLong("calls"),
+                        rs.getLong("ok_calls"),
+                        rs.getLong("fallback_calls"),
+                        rs.getLong("error_calls"),
+                        rs.getDouble("avg_latency"),
+                        rs.getDouble("p95_latency"),
+                        rs.getLong("prompt_tokens"),
+                        rs.getLong("completion_tokens"),
+                        rs.getBigDecimal("cost").setScale(6, RoundingMode.HALF_UP)),
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+    }
+
+    private record CallRecord(LocalDateTime calledAt, String operation, String model, AICallOutcome outcome,
+                              int latencyMs, int promptTokens, int completionTokens, BigDecimal cost,
+                              String error) {}
+}
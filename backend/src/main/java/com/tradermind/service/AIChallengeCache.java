@@ -0,0 +1,283 @@
+package com.tradermind.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradermind.dto.AIChallengeCacheStatsDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AI 质询结果缓存（内容寻址）
+ * - 键：SHA-256(模型, 规范化代码, 价格档位, 规范化逻辑)，同一计划反复提交、只改数量等参数时命中
+ * - 两级：进程内 LRU（按访问顺序淘汰）+ Postgres 表 ai_challenge_cache（跨重启、跨实例共享）
+ * - 条目带 TTL，过期即视为未命中，定时清理数据库中的过期行
+ * - 命中时累计节省的大模型耗时与 token，用于评估缓存收益
+ * 数据库访问为阻塞 JDBC，响应式调用方需切换到 boundedElastic 线程
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AIChallengeCache {
+
+    /** 缓存键中“未提供价格”的档位：非数字，不会与价格低于 1 时的负数档位混淆 */
+    private static final String NO_PRICE = "none";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${ai.model:deepseek-chat}")
+    private String model;
+
+    /** 缓存有效期（小时） */
+    @Value("${ai.challenge.cache.ttl-hours:24}")
+    private long ttlHours;
+
+    /** 进程内 LRU 最大条目数 */
+    @Value("${ai.challenge.cache.memory-max-entries:500}")
+    private int memoryMaxEntries;
+
+    /** 价格档位宽度（百分比）：价格按对数分档，档内视为同一价格 */
+    @Value("${ai.challenge.cache.price-bucket-pct:2}")
+    private double priceBucketPct;
+
+    private final ReentrantLock lruLock = new ReentrantLock();
+    private Map<String, CachedChallenge> lru;
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder dbHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder savedLatencyMs = new LongAdder();
+    private final LongAdder savedPromptTokens = new LongAdder();
+    private final LongAdder savedCompletionTokens = new LongAdder();
+
+    private Counter memoryHitCounter;
+    private Counter dbHitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    void init() {
+        lru = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedChallenge> eldest) {
+                return size() > memoryMaxEntries;
+            }
+        };
+        memoryHitCounter = Counter.builder("ai.challenge.cache").tag("result", "memory").register(meterRegistry);
+        dbHitCounter = Counter.builder("ai.challenge.cache").tag("result", "db").register(meterRegistry);
+        missCounter = Counter.builder("ai.challenge.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * 计算缓存键：代码大写去空白，逻辑折叠空白并转小写，价格取对数档位
+     */
+    public String key(String stockSymbol, String currentPrice, String logic) {
+        String normalized = String.join("\n",
+                model,
+                stockSymbol.strip().toUpperCase(),
+                priceBucket(currentPrice),
+                logic.strip().replaceAll("\\s+", " ").toLowerCase());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 查找未过期的缓存：先内存后数据库，数据库命中回填内存
+     */
+    public Optional<List<String>> get(String key) {
+        LocalDateTime now = LocalDateTime.now();
+        CachedChallenge cached = getFromMemory(key, now);
+        if (cached != null) {
+            memoryHits.increment();
+            memoryHitCounter.increment();
+            recordSaving(cached);
+            return Optional.of(cached.risks());
+        }
+
+        cached = getFromDatabase(key, now);
+        if (cached != null) {
+            dbHits.increment();
+            dbHitCounter.increment();
+            recordSaving(cached);
+            putInMemory(key, cached);
+            return Optional.of(cached.risks());
+        }
+
+        misses.increment();
+        missCounter.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * 写入两级缓存；latencyMs 与 token 数记录本次真实调用的代价，命中时计为节省量
+     */
+    public void put(String key, String stockSymbol, List<String> risks, long latencyMs, int promptTokens, int completionTokens) {
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(ttlHours);
+        CachedChallenge cached = new CachedChallenge(List.copyOf(risks), expiresAt, latencyMs, promptTokens, completionTokens);
+        putInMemory(key, cached);
+        try {
+            jdbcTemplate.update("""
+                            INSERT INTO ai_challenge_cache (cache_key, stock_symbol, risks, latency_ms, prompt_tokens,
+                                                            completion_tokens, created_at, expires_at)
+                            VALUES (?, ?, ?, ?, ?, ?, now(), ?)
+                            ON CONFLICT (cache_key) DO UPDATE SET
+                                risks = EXCLUDED.risks,
+                                latency_ms = EXCLUDED.latency_ms,
+                                prompt_tokens = EXCLUDED.prompt_tokens,
+                                completion_tokens = EXCLUDED.completion_tokens,
+                                created_at = EXCLUDED.created_at,
+                                expires_at = EXCLUDED.expires_at
+                            """,
+                    key, stockSymbol.strip().toUpperCase(), objectMapper.writeValueAsString(risks),
+                    latencyMs, promptTokens, completionTokens, Timestamp.valueOf(expiresAt));
+        } catch (Exception e) {
+            // 数据库层写失败不影响本次响应，内存层已写入
+            log.warn("写入 AI 质询缓存失败: {}", e.toString());
+        }
+    }
+
+    public AIChallengeCacheStatsDTO getStats() {
+        long mem = memoryHits.sum();
+        long db = dbHits.sum();
+        long miss = misses.sum();
+        long total = mem + db + miss;
+        int entries;
+        lruLock.lock();
+        try {
+            entries = lru.size();
+        } finally {
+            lruLock.unlock();
+        }
+        return new AIChallengeCacheStatsDTO(
+                mem,
+                db,
+                miss,
+                total > 0 ? (double) (mem + db) / total : 0.0,
+                savedLatencyMs.sum(),
+                savedPromptTokens.sum(),
+                savedCompletionTokens.sum(),
+                entries
+        );
+    }
+
+    /**
+     * 定时清理数据库中过期的缓存行
+     */
+    @Scheduled(fixedDelayString = "${ai.challenge.cache.cleanup-interval-ms:3600000}")
+    public void evictExpired() {
+        try {
+            int n = jdbcTemplate.update("DELETE FROM ai_challenge_cache WHERE expires_at < now()");
+            if (n > 0) {
+                log.info("清理过期 AI 质询缓存: {} 条", n);
+            }
+        } catch (Exception e) {
+            log.warn("清理 AI 质询缓存失败: {}", e.toString());
+        }
+    }
+
+    private CachedChallenge getFromMemory(String key, LocalDateTime now) {
+        lruLock.lock();
+        try {
+            CachedChallenge cached = lru.get(key);
+            if (cached != null && cached.expiresAt().isBefore(now)) {
+                lru.remove(key);
+                return null;
+            }
+            return cached;
+        } finally {
+            lruLock.unlock();
+        }
+    }
+
+    private void putInMemory(String key, CachedChallenge cached) {
+        lruLock.lock();
+        try {
+            lru.put(key, cached);
+        } finally {
+            lruLock.unlock();
+        }
+    }
+
+    private CachedChallenge getFromDatabase(String key, LocalDateTime now) {
+        try {
+            List<CachedChallenge> rows = jdbcTemplate.query("""
+                            UPDATE ai_challenge_cache SET hit_count = hit_count + 1
+                            WHERE cache_key = ? AND expires_at > ?
+                            RETURNING risks, expires_at, latency_ms, prompt_tokens, completion_tokens
+                            """,
+                    (rs, i) -> new CachedChallenge(
+                            parseRisks(rs.getString("risks")),
+                            rs.getTimestamp("expires_at").toLocalDateTime(),
+                            rs.getLong("latency_ms"),
+                            rs.getInt("prompt_tokens"),
+                            rs.getInt("completion_tokens")),
+                    key, Timestamp.valueOf(now));
+            return rows.isEmpty() ? null : rows.get(0);
+        } catch (Exception e) {
+            log.warn("读取 AI 质询缓存失败，按未命中处理: {}", e.toString());
+            return null;
+        }
+    }
+
+    private List<String> parseRisks(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<List<String>>() {});
+        } catch (Exception e) {
+            throw new IllegalStateException("缓存内容损坏", e);
+        }
+    }
+
+    private void recordSaving(CachedChallenge cached) {
+        savedLatencyMs.add(cached.latencyMs());
+        savedPromptTokens.add(cached.promptTokens());
+        savedCompletionTokens.add(cached.completionTokens());
+    }
+
+    /**
+     * 价格对数档位：floor(ln(price) / ln(1 + pct%))，相邻档位价格相差约 pct%
+     * 价格低于 1 时档位为负数；未提供或无法解析的价格用非数字的 {@link #NO_PRICE}，不与任何档位冲突
+     */
+    private String priceBucket(String currentPrice) {
+        if (currentPrice == null || currentPrice.isBlank()) {
+            return NO_PRICE;
+        }
+        try {
+            double price = new BigDecimal(currentPrice.strip()).doubleValue();
+            if (price <= 0) {
+                return NO_PRICE;
+            }
+            return Long.toString((long) Math.floor(Math.log(price) / Math.log1p(priceBucketPct / 100.0)));
+        } catch (NumberFormatException e) {
+            return NO_PRICE;
+        }
+    }
+
+    private record CachedChallenge(List<String> risks, LocalDateTime expiresAt, long latencyMs,
+                                   int promptTokens, int completionTokens) {}
+}
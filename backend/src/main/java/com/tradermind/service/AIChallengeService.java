@@ -1,120 +1,202 @@
 package com.tradermind.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradermind.domain.AICallOutcome;
+import com.tradermind.dto.AIChallengeCacheStatsDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * AI 交易前置质询服务
  * 调用 DeepSeek 作为「对手盘」，无情指出买入逻辑中的风险点
  * 返回格式：JSON list of strings
+ * 结果按内容寻址缓存（AIChallengeCache），重复提交同一计划不再重复调用大模型
+ * 每次真实调用（缓存未命中）经 AICallTelemetry 记录耗时、token、费用与结果
+ * 提示中附带买入逻辑相似的历史交易结果（SimilarTradeService），让对手盘结合用户自己的历史发问；
+ * 缓存键不含该上下文，命中时返回的是写入缓存时的历史视角
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AIChallengeService {
 
+    private final LlmClient llmClient;
+    private final AIChallengeCache aiChallengeCache;
+    private final AICallTelemetry aiCallTelemetry;
+    private final SimilarTradeService similarTradeService;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final WebClient webClient = WebClient.builder().build();
 
-    @Value("${ai.api.url:https://api.deepseek.com/v1/chat/completions}")
-    private String aiApiUrl;
-
-    @Value("${ai.api.key:dummy-key}")
-    private String aiApiKey;
-
-    @Value("${ai.model:deepseek-chat}")
-    private String model;
+    /** 提示中附带的相似历史交易条数，0 表示不附带 */
+    @Value("${ai.challenge.similar-trades:3}")
+    private int similarTrades;
 
     /**
      * 获取 DeepSeek 对买入逻辑的 3 条风险质询
+     * 返回 Mono，大模型往返期间不占用请求线程；相同 (代码, 价格档位, 逻辑) 优先读缓存
      *
      * @param stockSymbol 股票代码
      * @param currentPrice 当前价格（可选，用于上下文）
      * @param logic 买入逻辑
+     * @param bypassCache 为 true 时跳过缓存读取，强制调用大模型（结果仍会写入缓存）
      * @return 风险点列表，通常为 3 条
      */
-    public List<String> challenge(String stockSymbol, String currentPrice, String logic) {
-        String userPrompt = buildPrompt(stockSymbol, currentPrice, logic);
-
-        JsonNode requestBody = objectMapper.createObjectNode()
-                .put("model", model)
-                .set("messages", objectMapper.createArrayNode()
-                        .add(objectMapper.createObjectNode()
-                                .put("role", "user")
-                                .put("content", userPrompt))
-                );
-
-        String responseText = webClient.post()
-                .uri(aiApiUrl)
-                .header("Authorization", "Bearer " + aiApiKey)
-                .header("Content-Type", "application/json")
-                .bodyValue(requestBody.toString())
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
-
-        return parseRisks(responseText);
+    public Mono<List<String>> challenge(String stockSymbol, String currentPrice, String logic, boolean bypassCache) {
+        String cacheKey = aiChallengeCache.key(stockSymbol, currentPrice, logic);
+
+        Mono<List<String>> fromLlm = userPrompt(stockSymbol, currentPrice, logic).flatMap(userPrompt -> {
+            long start = System.nanoTime();
+            return llmClient.complete(null, userPrompt)
+                    .doOnError(e -> aiCallTelemetry.recordError("challenge", elapsedMs(start), e))
+                    .flatMap(completion -> {
+                        List<String> risks = parseRisks(completion.content());
+                        if (risks == null) {
+                            aiCallTelemetry.record("challenge", completion, AICallOutcome.PARSE_FALLBACK);
+                            return Mono.just(fallbackRisks());
+                        }
+                        aiCallTelemetry.record("challenge", completion, AICallOutcome.OK);
+                        return blocking(() -> aiChallengeCache.put(cacheKey, stockSymbol, risks, completion.latencyMs(),
+                                completion.promptTokens(), completion.completionTokens()))
+                                .thenReturn(risks);
+                    });
+        });
+        if (bypassCache) {
+            return fromLlm.contextWrite(RequestTrace.captureContext());
+        }
+        return blocking(() -> aiChallengeCache.get(cacheKey))
+                .flatMap(cached -> cached.map(Mono::just).orElseGet(() -> fromLlm))
+                .contextWrite(RequestTrace.captureContext());
+    }
+
+    /**
+     * 流式质询：大模型以 stream 模式输出，每条风险点在其 JSON 字符串闭合时立即推送，
+     * 无需等待整段补全结束。未解析出任何风险点（或出错且尚未输出）时推送默认提示
+     * 缓存命中时直接推送缓存结果；完整结束的流式结果写入缓存（流式响应无 token 用量，记为 0）
+     */
+    public Flux<String> challengeStream(String stockSymbol, String currentPrice, String logic, boolean bypassCache) {
+        String cacheKey = aiChallengeCache.key(stockSymbol, currentPrice, logic);
+
+        Flux<String> fromLlm = userPrompt(stockSymbol, currentPrice, logic).flatMapMany(userPrompt -> {
+            JsonStringArrayStreamParser parser = new JsonStringArrayStreamParser();
+            List<String> collected = new ArrayList<>();
+            AtomicBoolean failed = new AtomicBoolean();
+            long start = System.nanoTime();
+            return llmClient.stream(null, userPrompt)
+                    .concatMapIterable(parser::feed)
+                    .doOnNext(risk -> {
+                        collected.add(risk);
+                        if (parser.emitted() == 1) {
+                            log.info("流式质询首条风险点耗时 {}ms: {}", (System.nanoTime() - start) / 1_000_000, stockSymbol);
+                        }
+                    })
+                    .concatWith(Flux.defer(() -> collected.isEmpty()
+                            ? Flux.empty()
+                            : blocking(() -> aiChallengeCache.put(cacheKey, stockSymbol, collected,
+                                    (System.nanoTime() - start) / 1_000_000, 0, 0)).thenMany(Flux.empty())))
+                    .onErrorResume(e -> {
+                        log.warn("流式质询中断，已输出 {} 条: {}", parser.emitted(), e.toString());
+                        failed.set(true);
+                        return Flux.empty();
+                    })
+                    .concatWith(Flux.defer(() -> {
+                        // 流式响应不含 usage，token 与费用记 0
+                        AICallOutcome outcome = failed.get() ? AICallOutcome.ERROR
+                                : parser.emitted() == 0 ? AICallOutcome.PARSE_FALLBACK
+                                : AICallOutcome.OK;
+                        aiCallTelemetry.record("challenge.stream", null, outcome, elapsedMs(start), 0, 0, null);
+                        return parser.emitted() == 0 ? Flux.fromIterable(fallbackRisks()) : Flux.empty();
+                    }));
+        });
+        if (bypassCache) {
+            return fromLlm.contextWrite(RequestTrace.captureContext());
+        }
+        return blocking(() -> aiChallengeCache.get(cacheKey))
+                .flatMapMany(cached -> cached.map(Flux::fromIterable).orElseGet(() -> fromLlm))
+                .contextWrite(RequestTrace.captureContext());
+    }
+
+    public AIChallengeCacheStatsDTO getCacheStats() {
+        return aiChallengeCache.getStats();
+    }
+
+    /**
+     * 缓存读写是阻塞 JDBC，放到 boundedElastic 线程执行，避免占用 Netty 事件循环；
+     * 执行期间绑定 Reactor Context 中的请求 trace，JDBC 耗时计入发起请求
+     */
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.deferContextual(ctx -> Mono.fromCallable(() -> RequestTrace.callWith(RequestTrace.fromContext(ctx), call)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Void> blocking(Runnable call) {
+        return blocking(() -> {
+            call.run();
+            return Boolean.TRUE;
+        }).then();
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * 构建提示：相似交易查询访问数据库，在 boundedElastic 线程执行；查询失败时不附带历史上下文
+     */
+    private Mono<String> userPrompt(String stockSymbol, String currentPrice, String logic) {
+        return blocking(() -> {
+            String history = null;
+            if (similarTrades > 0) {
+                try {
+                    history = similarTradeService.promptContext(logic, similarTrades);
+                } catch (Exception e) {
+                    log.warn("查询相似历史交易失败，质询不附带历史结果: {}", e.toString());
+                }
+            }
+            return buildPrompt(stockSymbol, currentPrice, logic, history);
+        });
     }
 
     /**
      * 构建 DeepSeek 质询 Prompt
      */
-    private String buildPrompt(String stockSymbol, String currentPrice, String logic) {
+    private String buildPrompt(String stockSymbol, String currentPrice, String logic, String history) {
         String priceInfo = (currentPrice != null && !currentPrice.isBlank())
                 ? "，当前价格约 " + currentPrice + " 元"
                 : "";
+        String historyInfo = history != null
+                ? "\n该用户过往买入逻辑相似的交易及结果：\n" + history + "如果历史结果不佳，请指出这次逻辑重复了哪些失败模式。\n"
+                : "";
         return """
-            用户计划买入 [%s]%s，逻辑是: '%s'。
+            用户计划买入 [%s]%s，逻辑是: '%s'。%s
             请作为该用户的'对手盘' (Short Seller)，不仅不要附和，还要**无情地**指出该逻辑中可能忽略的 3 个风险点。
             必须简短、犀利。
             返回格式: 只返回一个 JSON 数组，例如 ["风险点1", "风险点2", "风险点3"]，不要有其他文字。
-            """.formatted(stockSymbol, priceInfo, logic);
+            """.formatted(stockSymbol, priceInfo, logic, historyInfo);
     }
 
     /**
      * 解析 AI 返回的 JSON list
-     * 兼容 markdown 代码块包裹的 JSON
+     * 兼容 markdown 代码块包裹的 JSON；解析失败或为空时返回 null（调用方改用默认提示，且不写缓存）
      */
-    private List<String> parseRisks(String responseText) {
+    private List<String> parseRisks(String content) {
         try {
-            JsonNode root = objectMapper.readTree(responseText);
-            String contentJson = root
-                    .path("choices").get(0)
-                    .path("message")
-                    .path("content")
-                    .asText();
-
-            String cleanJson = stripMarkdownJsonBlock(contentJson);
+            String cleanJson = LlmClient.stripMarkdownJsonBlock(content);
             List<String> risks = objectMapper.readValue(cleanJson, new TypeReference<List<String>>() {});
-            return risks != null && !risks.isEmpty() ? risks : fallbackRisks();
+            return risks != null && !risks.isEmpty() ? risks : null;
         } catch (Exception e) {
             log.warn("解析 AI 质询响应失败，返回默认风险提示", e);
-            return fallbackRisks();
-        }
-    }
-
-    /**
-     * 剥离 markdown 代码块包裹（```json ... ``` 或 ``` ... ```）
-     */
-    private String stripMarkdownJsonBlock(String content) {
-        if (content == null) return "[]";
-        String s = content.strip();
-        var pattern = Pattern.compile("^```(?:json)?\\s*\\n?(.*?)\\n?```\\s*$", Pattern.DOTALL);
-        var matcher = pattern.matcher(s);
-        if (matcher.matches()) {
-            return matcher.group(1).strip();
+            return null;
         }
-        return s;
     }
 
     /**
@@ -0,0 +1,313 @@
+package com.tradermind.service;
+
+import com.tradermind.domain.AIBackfillStatus;
+import com.tradermind.domain.AIReviewJobStatus;
+import com.tradermind.dto.AIBackfillReport;
+import com.tradermind.entity.AIBackfillRun;
+import com.tradermind.repository.AIBackfillRunRepository;
+import com.tradermind.repository.AIReviewJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * AI 复盘批量回填
+ * - 按执行记录 ID 键集分页（id > 检查点 ORDER BY id LIMIT n）扫描候选，不使用 OFFSET，深翻页无退化
+ * - 候选写入 ai_review_job，由任务队列的并发上限、令牌桶与退避重试完成实际调用
+ * - 每页候选一条 INSERT ... SELECT 批量入队，与检查点推进在同一事务内提交；进程重启后 RUNNING 的回填从检查点继续
+ * - 队列中本次回填未完成的任务超过上限时暂停扫描，避免一次性灌入全部候选
+ * 同一时刻只允许一个回填运行（RUNNING 上的唯一部分索引兜底并发发起）；可通过接口或启动参数 --ai-backfill[=all] 发起
+ * 取消与页提交并发时由乐观锁裁决：页事务冲突则整页回滚并重读状态，取消冲突则重读后重试
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AIReviewBackfillService {
+
+    private final AIBackfillRunRepository aiBackfillRunRepository;
+    private final AIReviewJobRepository aiReviewJobRepository;
+    private final AIReviewQueueService aiReviewQueueService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationArguments applicationArguments;
+
+    /** 启动参数：--ai-backfill 补评分为空的记录，--ai-backfill=all 全部重新评分 */
+    private static final String CLI_OPTION = "ai-backfill";
+
+    /** 取消时遇到版本冲突的最大尝试次数 */
+    private static final int CANCEL_MAX_ATTEMPTS = 3;
+
+    /** 每页扫描的执行记录数 */
+    @Value("${ai.backfill.page-size:100}")
+    private int pageSize;
+
+    /** 本次回填在队列中未完成任务的上限，超过则等待 */
+    @Value("${ai.backfill.max-in-flight:50}")
+    private int maxInFlight;
+
+    /** 等待队列消化时的轮询间隔（毫秒） */
+    @Value("${ai.backfill.throttle-poll-ms:2000}")
+    private long throttlePollMs;
+
+    private ExecutorService runner;
+
+    @PostConstruct
+    void init() {
+        runner = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("ai-backfill").factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // 检查点已随每页提交，中断后重启即可继续
+        runner.shutdownNow();
+    }
+
+    /**
+     * 应用启动后恢复未完成的回填；命令行带 --ai-backfill[=all] 时发起新的回填
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        try {
+            List<AIBackfillRun> unfinished = aiBackfillRunRepository.findByStatus(AIBackfillStatus.RUNNING);
+            for (AIBackfillRun run : unfinished) {
+                log.info("恢复 AI 复盘回填: runId={}, 检查点={}", run.getId(), run.getLastExecutionId());
+                runner.submit(() -> runLoop(run.getId()));
+            }
+            if (applicationArguments.containsOption(CLI_OPTION)) {
+                if (!unfinished.isEmpty()) {
+                    log.warn("已有未完成的回填在恢复中，忽略 --{}", CLI_OPTION);
+                    return;
+                }
+                List<String> values = applicationArguments.getOptionValues(CLI_OPTION);
+                start(values != null && values.contains("all"));
+            }
+        } catch (Exception e) {
+            log.error("恢复 AI 复盘回填失败", e);
+        }
+    }
+
+    /**
+     * 发起回填
+     *
+     * @param rescoreAll true 时对全部执行记录重新评分（如更换模型），否则仅补评分为空的记录
+     */
+    public AIBackfillReport start(boolean rescoreAll) {
+        AIBackfillRun run;
+        try {
+            run = transactionTemplate.execute(status -> {
+                if (!aiBackfillRunRepository.findByStatus(AIBackfillStatus.RUNNING).isEmpty()) {
+                    throw new IllegalStateException("已有 AI 复盘回填正在运行");
+                }
+                Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM trade_execution", Long.class);
+                LocalDateTime now = LocalDateTime.now();
+                return aiBackfillRunRepository.save(AIBackfillRun.builder()
+                        .status(AIBackfillStatus.RUNNING)
+                        .rescoreAll(rescoreAll)
+                        .lastExecutionId(0L)
+                        .maxExecutionId(maxId)
+                        .scannedCount(0)
+                        .enqueuedCount(0)
+                        .skippedCount(0)
+                        .startedAt(now)
+                        .updatedAt(now)
+                        .build());
+            });
+        } catch (DataIntegrityViolationException e) {
+            // 并发发起时两者都通过了上面的检查，由唯一部分索引拒绝后插入者
+            throw new IllegalStateException("已有 AI 复盘回填正在运行", e);
+        }
+        log.info("发起 AI 复盘回填: runId={}, 全量重评={}, 范围 ID <= {}", run.getId(), rescoreAll, run.getMaxExecutionId());
+        runner.submit(() -> runLoop(run.getId()));
+        return toReport(run);
+    }
+
+    /**
+     * 取消回填：扫描在下一页前停止，已入队的任务照常执行
+     */
+    public AIBackfillReport cancel(Long runId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                AIBackfillRun run = transactionTemplate.execute(status -> {
+                    AIBackfillRun r = findRun(runId);
+                    if (r.getStatus() == AIBackfillStatus.RUNNING) {
+                        r.setStatus(AIBackfillStatus.CANCELLED);
+                        r.setFinishedAt(LocalDateTime.now());
+                        r.setUpdatedAt(LocalDateTime.now());
+                        aiBackfillRunRepository.save(r);
+                    }
+                    return r;
+                });
+                return toReport(run);
+            } catch (OptimisticLockingFailureException e) {
+                // 扫描线程刚提交了一页，重读后再取消
+                if (attempt >= CANCEL_MAX_ATTEMPTS) {
+                    throw new IllegalStateException("回填 " + runId + " 正在提交，请稍后重试取消", e);
+                }
+                log.info("取消回填时版本冲突，第 {} 次重试: runId={}", attempt, runId);
+            }
+        }
+    }
+
+    public AIBackfillReport getReport(Long runId) {
+        return toReport(findRun(runId));
+    }
+
+    public AIBackfillReport getLatestReport() {
+        return aiBackfillRunRepository.findTopByOrderByIdDesc()
+                .map(this::toReport)
+                .orElseThrow(() -> new IllegalArgumentException("尚未发起过 AI 复盘回填"));
+    }
+
+    /**
+     * 扫描主循环：每页一个事务，入队与检查点一起提交
+     */
+    private void runLoop(Long runId) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (!awaitQueueCapacity(runId)) {
+                    return;
+                }
+                Boolean more;
+                try {
+                    more = transactionTemplate.execute(status -> processPage(runId));
+                } catch (OptimisticLockingFailureException e) {
+                    // 页事务提交前回填被取消：本页入队与检查点整体回滚，下一轮重读状态后退出
+                    log.info("AI 复盘回填页提交时版本冲突，重读状态: runId={}", runId);
+                    continue;
+                }
+                if (!Boolean.TRUE.equals(more)) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.info("AI 复盘回填线程中断，重启后从检查点继续: runId={}", runId);
+                return;
+            }
+            log.error("AI 复盘回填失败: runId={}", runId, e);
+            transactionTemplate.executeWithoutResult(status -> {
+                AIBackfillRun run = findRun(runId);
+                run.setStatus(AIBackfillStatus.FAILED);
+                run.setLastError(e.toString());
+                run.setFinishedAt(LocalDateTime.now());
+                run.setUpdatedAt(LocalDateTime.now());
+                aiBackfillRunRepository.save(run);
+            });
+        }
+    }
+
+    /**
+     * 处理一页候选
+     *
+     * @return 是否还需继续扫描
+     */
+    private boolean processPage(Long runId) {
+        AIBackfillRun run = findRun(runId);
+        if (run.getStatus() != AIBackfillStatus.RUNNING) {
+            log.info("AI 复盘回填已结束: runId={}, 状态={}", runId, run.getStatus());
+            return false;
+        }
+
+        String sql = run.getRescoreAll()
+                ? "SELECT id FROM trade_execution WHERE id > ? AND id <= ? ORDER BY id LIMIT ?"
+                : "SELECT id FROM trade_execution WHERE id > ? AND id <= ? AND ai_analysis_score IS NULL ORDER BY id LIMIT ?";
+        List<Long> ids = jdbcTemplate.queryForList(sql, Long.class, run.getLastExecutionId(), run.getMaxExecutionId(), pageSize);
+
+        int enqueued = aiReviewQueueService.enqueueAll(ids, runId);
+        run.setScannedCount(run.getScannedCount() + ids.size());
+        run.setEnqueuedCount(run.getEnqueuedCount() + enqueued);
+        run.setSkippedCount(run.getSkippedCount() + ids.size() - enqueued);
+        run.setUpdatedAt(LocalDateTime.now());
+
+        boolean more = ids.size() == pageSize;
+        if (more) {
+            run.setLastExecutionId(ids.get(ids.size() - 1));
+        } else {
+            run.setLastExecutionId(run.getMaxExecutionId());
+            run.setStatus(AIBackfillStatus.COMPLETED);
+            run.setFinishedAt(LocalDateTime.now());
+            log.info("AI 复盘回填扫描完成: runId={}, 扫描={}, 入队={}, 跳过={}",
+                    runId, run.getScannedCount(), run.getEnqueuedCount(), run.getSkippedCount());
+        }
+        aiBackfillRunRepository.save(run);
+        return more;
+    }
+
+    /**
+     * 本次回填未完成的任务过多时等待队列消化
+     *
+     * @return false 表示等待期间线程被中断
+     */
+    private boolean awaitQueueCapacity(Long runId) {
+        while (inFlight(runId) >= maxInFlight) {
+            try {
+                Thread.sleep(throttlePollMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long inFlight(Long runId) {
+        return aiReviewJobRepository.countByBackfillRunIdAndStatus(runId, AIReviewJobStatus.PENDING)
+                + aiReviewJobRepository.countByBackfillRunIdAndStatus(runId, AIReviewJobStatus.RUNNING);
+    }
+
+    private AIBackfillRun findRun(Long runId) {
+        return aiBackfillRunRepository.findById(runId)
+                .orElseThrow(() -> new IllegalArgumentException("未找到回填记录: " + runId));
+    }
+
+    private AIBackfillReport toReport(AIBackfillRun run) {
+        long reviewed = aiReviewJobRepository.countByBackfillRunIdAndStatus(run.getId(), AIReviewJobStatus.DONE);
+        long dead = aiReviewJobRepository.countByBackfillRunIdAndStatus(run.getId(), AIReviewJobStatus.DEAD);
+        long pending = inFlight(run.getId());
+        // 扫描结束后复盘仍在进行：未全部完成时按到现在为止计算，全部完成后按最后一个任务的完成时间
+        LocalDateTime end = LocalDateTime.now();
+        if (pending == 0 && run.getStatus() != AIBackfillStatus.RUNNING) {
+            Timestamp lastFinished = jdbcTemplate.queryForObject(
+                    "SELECT MAX(finished_at) FROM ai_review_job WHERE backfill_run_id = ?", Timestamp.class, run.getId());
+            end = lastFinished != null ? lastFinished.toLocalDateTime()
+                    : (run.getFinishedAt() != null ? run.getFinishedAt() : end);
+        }
+        long elapsedSeconds = Math.max(0, Duration.between(run.getStartedAt(), end).toSeconds());
+        double perMinute = elapsedSeconds > 0 ? reviewed * 60.0 / elapsedSeconds : 0.0;
+        return new AIBackfillReport(
+                run.getId(),
+                run.getStatus().name(),
+                run.getRescoreAll(),
+                run.getLastExecutionId(),
+                run.getMaxExecutionId(),
+                run.getScannedCount(),
+                run.getEnqueuedCount(),
+                run.getSkippedCount(),
+                reviewed,
+                dead,
+                pending,
+                run.getStartedAt(),
+                run.getFinishedAt(),
+                elapsedSeconds,
+                Math.round(perMinute * 100) / 100.0,
+                run.getLastError()
+        );
+    }
+}
@@ -0,0 +1,486 @@
+package com.tradermind.service;
+
+import com.tradermind.domain.AIReviewJobStatus;
+import com.tradermind.dto.AIReviewCostDTO;
+import com.tradermind.dto.AIReviewQueueStatsDTO;
+import com.tradermind.entity.AIReviewJob;
+import com.tradermind.entity.TradeExecution;
+import com.tradermind.repository.AIReviewJobRepository;
+import com.tradermind.repository.TradeExecutionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * AI 复盘任务队列
+ * - 入队：与 TradeExecution 在同一事务内写入 ai_review_job（outbox），平仓提交即任务落库，进程重启不丢
+ * - 调度：定时轮询，按空闲工作线程数领取到期任务（FOR UPDATE SKIP LOCKED，多实例不会重复领取）
+ * - 执行：固定大小线程池限制并发，令牌桶限制调用速率；失败按指数退避重试，超过上限进入 DEAD
+ * - 批量：积压时多笔合并为一次调用（AIReviewService.reviewBatch），无效项回退单笔
+ * - 租约：RUNNING 超时未完成的任务（进程退出、线程卡死）放回队列
+ * - 指标：ai.review.queue.depth（按状态）、ai.review.latency（入队到完成的端到端耗时）、ai.review.attempts
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AIReviewQueueService {
+
+    private final AIReviewJobRepository aiReviewJobRepository;
+    private final TradeExecutionRepository tradeExecutionRepository;
+    private final AIReviewService aiReviewService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    /** 同时执行的复盘调用数上限 */
+    @Value("${ai.review.concurrency:2}")
+    private int concurrency;
+
+    /** 最大尝试次数（含首次），超过进入 DEAD */
+    @Value("${ai.review.max-attempts:5}")
+    private int maxAttempts;
+
+    /** 退避基数（毫秒），第 n 次失败后等待 base * 2^(n-1)，带 ±20% 抖动 */
+    @Value("${ai.review.backoff-base-ms:5000}")
+    private long backoffBaseMs;
+
+    /** 退避上限（毫秒） */
+    @Value("${ai.review.backoff-max-ms:600000}")
+    private long backoffMaxMs;
+
+    /** 每分钟最多发起的复盘调用数 */
+    @Value("${ai.review.rate-per-minute:30}")
+    private int ratePerMinute;
+
+    /** 令牌桶容量（允许的突发调用数） */
+    @Value("${ai.review.burst:5}")
+    private int burst;
+
+    /** 批量模式：一次领取多笔，按 token 预算合并为一次调用 */
+    @Value("${ai.review.batch.enabled:true}")
+    private boolean batchEnabled;
+
+    /** RUNNING 租约（毫秒），超时视为执行者丢失 */
+    @Value("${ai.review.lease-timeout-ms:300000}")
+    private long leaseTimeoutMs;
+
+    private final AtomicLong pendingDepth = new AtomicLong();
+    private final AtomicLong runningDepth = new AtomicLong();
+    private final AtomicLong deadDepth = new AtomicLong();
+
+    private ExecutorService workers;
+    private Semaphore slots;
+    private TokenBucket rateLimiter;
+    private Timer latencyTimer;
+
+    @PostConstruct
+    void init() {
+        // executor.* 指标：活跃线程、排队任务、任务耗时
+        workers = ExecutorServiceMetrics.monitor(meterRegistry,
+                Executors.newFixedThreadPool(concurrency, Thread.ofPlatform().name("ai-review-", 0).factory()),
+                "ai-review");
+        slots = new Semaphore(concurrency);
+        rateLimiter = new TokenBucket(burst, ratePerMinute / 60.0);
+
+        Gauge.builder("ai.review.queue.depth", pendingDepth, AtomicLong::get)
+                .description("AI 复盘任务数").tag("status", "pending").register(meterRegistry);
+        Gauge.builder("ai.review.queue.depth", runningDepth, AtomicLong::get)
+                .description("AI 复盘任务数").tag("status", "running").register(meterRegistry);
+        Gauge.builder("ai.review.queue.depth", deadDepth, AtomicLong::get)
+                .description("AI 复盘任务数").tag("status", "dead").register(meterRegistry);
+        latencyTimer = Timer.builder("ai.review.latency")
+                .description("AI 复盘端到端耗时（入队到结果写入）")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // 执行中的任务不等待：租约到期后会被重新领取
+        workers.shutdownNow();
+    }
+
+    /**
+     * 入队：必须在写入 TradeExecution 的事务内调用，与平仓一起提交或回滚
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long executionId) {
+        if (aiReviewJobRepository.existsActiveForExecution(executionId)) {
+            log.debug("AI 复盘任务已在队列中，跳过: executionId={}", executionId);
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        aiReviewJobRepository.save(AIReviewJob.builder()
+                .executionId(executionId)
+                .status(AIReviewJobStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .enqueuedAt(now)
+                .build());
+    }
+
+    /**
+     * 批量入队（批量交易中的多笔平仓）：一条 INSERT ... SELECT 写入全部任务，已有未完成任务的执行记录跳过
+     * 与 enqueue 相同，必须在写入 TradeExecution 的事务内调用
+     *
+     * @return 实际入队数
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int enqueueAll(Collection<Long> executionIds) {
+        return enqueueAll(executionIds, null);
+    }
+
+    /**
+     * 批量入队并记录所属回填运行（回填一页候选一条语句）
+     *
+     * @param backfillRunId 所属回填运行，非回填时为 null
+     * @return 实际入队数，其余为已有未完成任务而跳过的
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int enqueueAll(Collection<Long> executionIds, Long backfillRunId) {
+        if (executionIds.isEmpty()) {
+            return 0;
+        }
+        Long[] ids = executionIds.stream().distinct().toArray(Long[]::new);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.update("""
+                        INSERT INTO ai_review_job (execution_id, status, attempts, next_attempt_at, enqueued_at, backfill_run_id)
+                        SELECT e.id, 'PENDING', 0, ?, ?, ?
+                        FROM unnest(?::bigint[]) AS e(id)
+                        WHERE NOT EXISTS (
+                            SELECT 1 FROM ai_review_job j
+                            WHERE j.execution_id = e.id AND j.status IN ('PENDING', 'RUNNING')
+                        )
+                        """,
+                ps -> {
+                    ps.setTimestamp(1, now);
+                    ps.setTimestamp(2, now);
+                    ps.setObject(3, backfillRunId, Types.BIGINT);
+                    ps.setArray(4, ps.getConnection().createArrayOf("bigint", ids));
+                });
+    }
+
+    /**
+     * 调度：按空闲工作线程数领取到期任务并提交执行
+     * 批量模式下每个空闲线程最多领取一批，按 token 预算装箱后一批占用一个线程与一个令牌
+     */
+    @Scheduled(fixedDelayString = "${ai.review.poll-interval-ms:1000}")
+    public void dispatch() {
+        try {
+            refreshDepth();
+            int free = slots.availablePermits();
+            if (free == 0) {
+                return;
+            }
+            int limit = batchEnabled ? free * aiReviewService.getBatchMaxSize() : free;
+            List<ClaimedJob> claimed = transactionTemplate.execute(status -> claim(limit));
+            if (claimed.isEmpty()) {
+                return;
+            }
+
+            Map<Long, TradeExecution> executions = tradeExecutionRepository
+                    .findAllByIdWithPlan(claimed.stream().map(ClaimedJob::executionId).toList()).stream()
+                    .collect(Collectors.toMap(TradeExecution::getId, Function.identity()));
+            for (List<List<ClaimedJob>> lane : assignLanes(groupIntoUnits(claimed, executions), free)) {
+                slots.acquireUninterruptibly();
+                workers.submit(() -> {
+                    try {
+                        for (List<ClaimedJob> unit : lane) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                return;
+                            }
+                            runUnit(unit, executions);
+                        }
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            log.error("AI 复盘任务调度失败", e);
+        }
+    }
+
+    /**
+     * 回收租约过期的 RUNNING 任务
+     */
+    @Scheduled(fixedDelayString = "${ai.review.lease-check-interval-ms:60000}")
+    public void releaseExpiredLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer released = transactionTemplate.execute(status ->
+                aiReviewJobRepository.releaseExpired(now.minus(Duration.ofMillis(leaseTimeoutMs)), now));
+        if (released != null && released > 0) {
+            log.warn("回收租约过期的 AI 复盘任务: {} 个", released);
+        }
+    }
+
+    /**
+     * 死信任务全部重新入队
+     */
+    @Transactional
+    public int requeueDead() {
+        int n = aiReviewJobRepository.requeueDead(LocalDateTime.now());
+        log.info("死信 AI 复盘任务重新入队: {} 个", n);
+        return n;
+    }
+
+    public AIReviewCostDTO getCostStats() {
+        return aiReviewService.getCostStats();
+    }
+
+    public AIReviewQueueStatsDTO getStats() {
+        return new AIReviewQueueStatsDTO(
+                aiReviewJobRepository.countByStatus(AIReviewJobStatus.PENDING),
+                aiReviewJobRepository.countByStatus(AIReviewJobStatus.RUNNING),
+                aiReviewJobRepository.countByStatus(AIReviewJobStatus.DONE),
+                aiReviewJobRepository.countByStatus(AIReviewJobStatus.DEAD),
+                concurrency,
+                ratePerMinute
+        );
+    }
+
+    /**
+     * 领取至多 limit 个到期任务：SKIP LOCKED 跳过其他事务正在领取的行
+     */
+    private List<ClaimedJob> claim(int limit) {
+        return jdbcTemplate.query("""
+                        UPDATE ai_review_job SET status = 'RUNNING', attempts = attempts + 1, started_at = now()
+                        WHERE id IN (
+                            SELECT id FROM ai_review_job
+                            WHERE status = 'PENDING' AND next_attempt_at <= now()
+                            ORDER BY next_attempt_at, id
+                            LIMIT ?
+                            FOR UPDATE SKIP LOCKED
+                        )
+                        RETURNING id, execution_id, attempts, enqueued_at
+                        """,
+                (rs, i) -> new ClaimedJob(
+                        rs.getLong("id"),
+                        rs.getLong("execution_id"),
+                        rs.getInt("attempts"),
+                        rs.getTimestamp("enqueued_at").toLocalDateTime()),
+                limit);
+    }
+
+    /**
+     * 将领取的任务分成执行单元（每单元一次大模型调用或逐笔回退）
+     * - 重试中的任务（attempts > 1）与找不到执行记录的任务单独成单元
+     * - 其余任务按 token 预算装箱
+     */
+    private List<List<ClaimedJob>> groupIntoUnits(List<ClaimedJob> claimed, Map<Long, TradeExecution> executions) {
+        List<List<ClaimedJob>> units = new ArrayList<>();
+        List<TradeExecution> batchable = new ArrayList<>();
+        Map<Long, ClaimedJob> jobByExecution = new HashMap<>();
+        for (ClaimedJob job : claimed) {
+            TradeExecution exec = executions.get(job.executionId());
+            if (!batchEnabled || exec == null || job.attempts() > 1) {
+                units.add(List.of(job));
+            } else {
+                batchable.add(exec);
+                jobByExecution.put(exec.getId(), job);
+            }
+        }
+        for (List<TradeExecution> batch : aiReviewService.planBatches(batchable)) {
+            units.add(batch.stream().map(e -> jobByExecution.get(e.getId())).toList());
+        }
+        return units;
+    }
+
+    /**
+     * 将执行单元分配到至多 free 个工作线程：单元数超过空闲线程时轮流分配，同一线程内逐个单元串行执行
+     * 单元之间不合并，每次调用仍受 token 预算与批量上限约束，重试任务仍单笔调用
+     */
+    private static List<List<List<ClaimedJob>>> assignLanes(List<List<ClaimedJob>> units, int free) {
+        int laneCount = Math.min(free, units.size());
+        List<List<List<ClaimedJob>>> lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (int i = 0; i < units.size(); i++) {
+            lanes.get(i % laneCount).add(units.get(i));
+        }
+        return lanes;
+    }
+
+    /**
+     * 执行一个单元：多笔时先整批调用一次，无效或缺失的项回退为单笔调用
+     */
+    private void runUnit(List<ClaimedJob> unit, Map<Long, TradeExecution> executions) {
+        List<ClaimedJob> singles = unit;
+        if (unit.size() > 1 && unit.stream().allMatch(j -> executions.containsKey(j.executionId()))) {
+            try {
+                rateLimiter.acquire();
+                Map<Long, AIReviewService.ReviewResult> results = aiReviewService.reviewBatch(
+                        unit.stream().map(j -> executions.get(j.executionId())).toList());
+                singles = new ArrayList<>();
+                for (ClaimedJob job : unit) {
+                    AIReviewService.ReviewResult result = results.get(job.executionId());
+                    if (result != null) {
+                        complete(job, result);
+                    } else {
+                        singles.add(job);
+                    }
+                }
+                if (!singles.isEmpty()) {
+                    log.warn("批量复盘 {} 笔中有 {} 笔无效，回退单笔调用", unit.size(), singles.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("AI 批量复盘被中断，等待租约到期后重新领取: {} 笔", unit.size());
+                return;
+            } catch (Exception e) {
+                log.warn("AI 批量复盘失败，{} 笔全部回退单笔调用: {}", unit.size(), e.toString());
+            }
+        }
+        for (ClaimedJob job : singles) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            runJob(job, executions.get(job.executionId()));
+        }
+    }
+
+    /**
+     * 执行单个任务：大模型调用在事务外，结果写入与任务完成在同一事务
+     */
+    private void runJob(ClaimedJob job, TradeExecution execution) {
+        try {
+            if (execution == null) {
+                throw new IllegalArgumentException("未找到执行记录: " + job.executionId());
+            }
+            rateLimiter.acquire();
+            complete(job, aiReviewService.review(execution));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("AI 复盘任务被中断，等待租约到期后重新领取: jobId={}", job.id());
+        } catch (Exception e) {
+            fail(job, e);
+        }
+    }
+
+    private void complete(ClaimedJob job, AIReviewService.ReviewResult result) {
+        transactionTemplate.executeWithoutResult(status -> {
+            tradeExecutionRepository.updateAiAnalysis(job.executionId(), result.score(), result.comment());
+            jdbcTemplate.update("""
+                    UPDATE ai_review_job SET status = 'DONE', finished_at = now(), last_error = NULL
+                    WHERE id = ?
+                    """, job.id());
+        });
+        latencyTimer.record(Duration.between(job.enqueuedAt(), LocalDateTime.now()));
+        countAttempt("success");
+        log.info("AI 交易复盘完成，执行ID: {}, 评分: {}, 尝试: {}", job.executionId(), result.score(), job.attempts());
+    }
+
+    /**
+     * 失败处理：未达上限则按指数退避放回队列，否则进入死信
+     */
+    private void fail(ClaimedJob job, Exception e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        if (job.attempts() >= maxAttempts) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("""
+                    UPDATE ai_review_job SET status = 'DEAD', finished_at = now(), last_error = ?
+                    WHERE id = ?
+                    """, error, job.id()));
+            countAttempt("dead");
+            log.error("AI 复盘重试耗尽，进入死信: executionId={}, 尝试={}", job.executionId(), job.attempts(), e);
+            return;
+        }
+        long delayMs = backoffDelayMs(job.attempts());
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("""
+                UPDATE ai_review_job SET status = 'PENDING', next_attempt_at = ?, last_error = ?
+                WHERE id = ?
+                """, LocalDateTime.now().plus(Duration.ofMillis(delayMs)), error, job.id()));
+        countAttempt("retry");
+        log.warn("AI 复盘失败，{}ms 后重试: executionId={}, 尝试={}, 原因={}",
+                delayMs, job.executionId(), job.attempts(), error);
+    }
+
+    private long backoffDelayMs(int attempts) {
+        long exp = backoffBaseMs << Math.min(attempts - 1, 20);
+        long capped = Math.min(exp, backoffMaxMs);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return (long) (capped * jitter);
+    }
+
+    private void refreshDepth() {
+        pendingDepth.set(aiReviewJobRepository.countByStatus(AIReviewJobStatus.PENDING));
+        runningDepth.set(aiReviewJobRepository.countByStatus(AIReviewJobStatus.RUNNING));
+        deadDepth.set(aiReviewJobRepository.countByStatus(AIReviewJobStatus.DEAD));
+    }
+
+    private void countAttempt(String outcome) {
+        Counter.builder("ai.review.attempts").tag("outcome", outcome).register(meterRegistry).increment();
+    }
+
+    private record ClaimedJob(long id, long executionId, int attempts, LocalDateTime enqueuedAt) {}
+
+    /**
+     * 令牌桶：容量 capacity，每秒补充 refillPerSecond 个；取不到令牌时阻塞等待
+     */
+    private static class TokenBucket {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final double capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, double refillPerSecond) {
+            this.capacity = Math.max(1, capacity);
+            this.refillPerNano = Math.max(refillPerSecond, 1e-6) / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = this.capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        void acquire() throws InterruptedException {
+            while (true) {
+                long waitNanos;
+                lock.lock();
+                try {
+                    long now = System.nanoTime();
+                    tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+                    lastRefill = now;
+                    if (tokens >= 1) {
+                        tokens -= 1;
+                        return;
+                    }
+                    waitNanos = (long) Math.ceil((1 - tokens) / refillPerNano);
+                } finally {
+                    lock.unlock();
+                }
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+}
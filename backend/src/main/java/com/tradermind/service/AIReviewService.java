@@ -2,134 +2,226 @@ package com.tradermind.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradermind.domain.AICallOutcome;
+import com.tradermind.dto.AIReviewCostDTO;
+import com.tradermind.dto.LlmCompletion;
 import com.tradermind.entity.TradeExecution;
 import com.tradermind.entity.TradePlan;
-import com.tradermind.repository.TradeExecutionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import java.math.BigDecimal;
-import java.util.regex.Pattern;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 /**
  * AI 交易教练服务：
- * - 使用 WebClient 调用大模型 API（OpenAI/Dify 兼容）
+ * - 通过共享的 LlmClient 调用大模型 API（OpenAI/Dify 兼容）
  * - 要求返回 JSON: { "score": int, "comment": string }
- * - 异步执行，不阻塞用户请求
+ * - 批量模式：多笔交易装入一次请求（受 token 预算约束），返回 [{executionId, score, comment}]，
+ *   系统提示只发送一次，摊薄每笔的固定开销
+ * - 由持久化任务队列（ai_review_job）的工作线程调用，不阻塞用户请求
+ * - 每次调用经 AICallTelemetry 记录耗时、token、费用与结果
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AIReviewService {
 
-    private final TradeExecutionRepository tradeExecutionRepository;
+    private static final String SYSTEM_PROMPT = """
+            你是一个严厉的职业交易教练。对比用户的初始计划和最终执行。
+            分析：
+            1. 是否遵守了止损/止盈？
+            2. 是否有情绪化操作（恐惧/贪婪）？
+            3. 给出 0-100 的评分和简短的犀利点评。
+            输入中附有本地规则预评分与规则发现，请在其基础上修正评分，并补充规则无法识别的问题。
+            只返回 JSON：
+            { "score": int, "comment": string }
+            """;
+
+    private static final String BATCH_SYSTEM_PROMPT = """
+            你是一个严厉的职业交易教练。下面有多笔交易，每笔都给出了初始计划和最终执行。
+            对每一笔分别分析：
+            1. 是否遵守了止损/止盈？
+            2. 是否有情绪化操作（恐惧/贪婪）？
+            3. 给出 0-100 的评分和简短的犀利点评。
+            每笔附有本地规则预评分与规则发现，请在其基础上修正评分，并补充规则无法识别的问题。
+            只返回一个 JSON 数组，每笔交易一个元素，executionId 必须与输入一致：
+            [{ "executionId": int, "score": int, "comment": string }]
+            """;
+
+    private final LlmClient llmClient;
+    private final MeterRegistry meterRegistry;
+    private final AICallTelemetry aiCallTelemetry;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final WebClient webClient = WebClient.builder().build();
 
-    @Value("${ai.api.url:https://api.openai.com/v1/chat/completions}")
-    private String aiApiUrl;
+    /** 单次复盘调用超时（毫秒） */
+    @Value("${ai.review.timeout-ms:60000}")
+    private long timeoutMs;
+
+    /** 批量调用超时（毫秒），输出随笔数增长，需长于单笔 */
+    @Value("${ai.review.batch.timeout-ms:180000}")
+    private long batchTimeoutMs;
+
+    /** 单批最多笔数 */
+    @Value("${ai.review.batch.max-size:8}")
+    private int batchMaxSize;
 
-    @Value("${ai.api.key:dummy-key}")
-    private String aiApiKey;
+    /** 单批 token 预算（估算的输入 + 预留的输出） */
+    @Value("${ai.review.batch.token-budget:6000}")
+    private int batchTokenBudget;
 
-    @Value("${ai.model:gpt-4.1-mini}")
-    private String model;
+    /** 每笔预留的输出 token */
+    @Value("${ai.review.batch.completion-tokens-per-trade:200}")
+    private int completionTokensPerTrade;
+
+    private final CostStats singleStats = new CostStats();
+    private final CostStats batchStats = new CostStats();
 
     /**
-     * 平仓后异步复盘，不阻塞用户请求
+     * 调用大模型复盘一笔交易，同步返回评分与点评
      * 分析交易是否遵守纪律，是否有情绪化操作
-     * 注意：async 在独立线程运行，原事务已关闭。需在方法内重新加载实体，避免懒加载时 ResultSet 已关闭
+     * 由 AIReviewQueueService 的工作线程调用：失败直接抛出，由队列负责退避重试与死信；
+     * execution 需已加载 plan（findByIdWithPlan），本方法不访问数据库
      */
-    @Async
-    @Transactional
-    public void reviewTradeAsync(TradeExecution execution) {
-        Long executionId = execution.getId();
+    public ReviewResult review(TradeExecution execution) throws Exception {
+        String userContent = buildUserContent(execution.getPlan(), execution);
+
+        // 工作线程中阻塞获取结果，超时视为失败交由队列重试
+        LlmCompletion completion = call("review", SYSTEM_PROMPT, userContent, timeoutMs);
+        record("single", singleStats, completion, 1);
+
+        // AI 可能返回 markdown 代码块包裹的 JSON（```json ... ```），需剥离后再解析
+        String cleanJson = LlmClient.stripMarkdownJsonBlock(completion.content());
+
+        JsonNode aiResult;
         try {
-            // 在 async 线程内重新加载（JOIN FETCH plan），避免跨事务访问已关闭的懒加载
-            TradeExecution fresh = tradeExecutionRepository.findByIdWithPlan(executionId)
-                    .orElseThrow(() -> new IllegalArgumentException("未找到执行记录: " + executionId));
-            TradePlan plan = fresh.getPlan();
-
-            String systemPrompt = """
-                    你是一个严厉的职业交易教练。对比用户的初始计划和最终执行。
-                    分析：
-                    1. 是否遵守了止损/止盈？
-                    2. 是否有情绪化操作（恐惧/贪婪）？
-                    3. 给出 0-100 的评分和简短的犀利点评。
-                    只返回 JSON：
-                    { "score": int, "comment": string }
-                    """;
-
-            String userContent = buildUserContent(plan, fresh);
-
-            // 构建 OpenAI 风格的请求体
-            JsonNode requestBody = objectMapper.createObjectNode()
-                    .put("model", model)
-                    .set("messages", objectMapper.createArrayNode()
-                            .add(objectMapper.createObjectNode()
-                                    .put("role", "system")
-                                    .put("content", systemPrompt))
-                            .add(objectMapper.createObjectNode()
-                                    .put("role", "user")
-                                    .put("content", userContent))
-                    );
-
-            // 异步线程中阻塞获取结果即可
-            String responseText = webClient.post()
-                    .uri(aiApiUrl)
-                    .header("Authorization", "Bearer " + aiApiKey)
-                    .header("Content-Type", "application/json")
-                    .bodyValue(requestBody.toString())
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            JsonNode root = objectMapper.readTree(responseText);
-            // 这里以 OpenAI 风格结构为例：choices[0].message.content
-            String contentJson = root
-                    .path("choices").get(0)
-                    .path("message")
-                    .path("content")
-                    .asText();
-
-            // AI 可能返回 markdown 代码块包裹的 JSON（```json ... ```），需剥离后再解析
-            String cleanJson = stripMarkdownJsonBlock(contentJson);
-
-            JsonNode aiResult = objectMapper.readTree(cleanJson);
-
-            Integer score = aiResult.path("score").asInt();
-            String comment = aiResult.path("comment").asText();
-
-            fresh.setAiAnalysisScore(score);
-            fresh.setAiAnalysisComment(comment);
-            tradeExecutionRepository.save(fresh);
-
-            log.info("AI 交易复盘完成，执行ID: {}, 评分: {}", executionId, score);
+            aiResult = objectMapper.readTree(cleanJson);
+        } catch (Exception e) {
+            aiCallTelemetry.record("review", completion, AICallOutcome.PARSE_FALLBACK);
+            throw e;
+        }
+        if (!aiResult.path("score").isNumber()) {
+            aiCallTelemetry.record("review", completion, AICallOutcome.PARSE_FALLBACK);
+            throw new IllegalStateException("AI 返回缺少 score 字段: " + cleanJson);
+        }
+        aiCallTelemetry.record("review", completion, AICallOutcome.OK);
 
+        return new ReviewResult(aiResult.path("score").asInt(), aiResult.path("comment").asText());
+    }
+
+    /**
+     * 一次请求复盘多笔交易
+     * 逐项校验返回：executionId 属于本批且不重复、score 为 0-100 的整数、comment 为字符串；
+     * 不合格或缺失的项不出现在结果中，由调用方回退为单笔调用
+     *
+     * @return executionId -> 复盘结果（仅包含校验通过的项）
+     */
+    public Map<Long, ReviewResult> reviewBatch(List<TradeExecution> executions) throws Exception {
+        StringBuilder userContent = new StringBuilder();
+        for (TradeExecution exec : executions) {
+            userContent.append("### executionId=").append(exec.getId()).append('\n')
+                    .append(buildUserContent(exec.getPlan(), exec)).append('\n');
+        }
+
+        LlmCompletion completion = call("review.batch", BATCH_SYSTEM_PROMPT, userContent.toString(), batchTimeoutMs);
+        record("batch", batchStats, completion, executions.size());
+
+        JsonNode array;
+        try {
+            array = objectMapper.readTree(LlmClient.stripMarkdownJsonBlock(completion.content()));
         } catch (Exception e) {
-            log.error("AI 交易复盘调用失败，执行ID: {}", executionId, e);
+            aiCallTelemetry.record("review.batch", completion, AICallOutcome.PARSE_FALLBACK);
+            throw e;
+        }
+        if (!array.isArray()) {
+            aiCallTelemetry.record("review.batch", completion, AICallOutcome.PARSE_FALLBACK);
+            throw new IllegalStateException("批量复盘返回的不是 JSON 数组");
+        }
+
+        Set<Long> expected = executions.stream().map(TradeExecution::getId).collect(Collectors.toSet());
+        Map<Long, ReviewResult> results = new HashMap<>();
+        for (JsonNode item : array) {
+            JsonNode id = item.path("executionId");
+            JsonNode score = item.path("score");
+            JsonNode comment = item.path("comment");
+            if (!id.canConvertToLong() || !score.isIntegralNumber() || !comment.isTextual()) {
+                continue;
+            }
+            long executionId = id.asLong();
+            int s = score.asInt();
+            if (!expected.contains(executionId) || results.containsKey(executionId) || s < 0 || s > 100) {
+                continue;
+            }
+            results.put(executionId, new ReviewResult(s, comment.asText()));
+        }
+        // 部分项无效时调用方会回退为单笔调用，记为 PARSE_FALLBACK
+        if (results.size() < executions.size()) {
+            log.warn("批量复盘部分结果无效: 请求={}, 有效={}", executions.size(), results.size());
+            aiCallTelemetry.record("review.batch", completion, AICallOutcome.PARSE_FALLBACK);
+        } else {
+            aiCallTelemetry.record("review.batch", completion, AICallOutcome.OK);
+        }
+        return results;
+    }
+
+    /**
+     * 阻塞调用大模型；失败（重试耗尽、超时）记为 ERROR 后原样抛出
+     */
+    private LlmCompletion call(String operation, String systemPrompt, String userContent, long timeout) {
+        long start = System.nanoTime();
+        try {
+            return llmClient.complete(systemPrompt, userContent).block(Duration.ofMillis(timeout));
+        } catch (RuntimeException e) {
+            aiCallTelemetry.recordError(operation, (System.nanoTime() - start) / 1_000_000, e);
+            throw e;
         }
     }
 
     /**
-     * 剥离 AI 返回的 markdown 代码块包裹（```json ... ``` 或 ``` ... ```）
-     * 大模型常返回带格式的 JSON，直接解析会报 JsonParseException
+     * 按 token 预算与笔数上限将待复盘交易装箱（保持原顺序）
+     * token 数为估算值：ASCII 约 4 字符 1 token，中文等非 ASCII 约 1 字符 0.7 token
      */
-    private String stripMarkdownJsonBlock(String content) {
-        if (content == null) return "";
-        String s = content.strip();
-        // 匹配 ```json ... ``` 或 ``` ... ```
-        var pattern = Pattern.compile("^```(?:json)?\\s*\\n?(.*?)\\n?```\\s*$", Pattern.DOTALL);
-        var matcher = pattern.matcher(s);
-        if (matcher.matches()) {
-            return matcher.group(1).strip();
+    public List<List<TradeExecution>> planBatches(List<TradeExecution> executions) {
+        int base = estimateTokens(BATCH_SYSTEM_PROMPT);
+        List<List<TradeExecution>> batches = new ArrayList<>();
+        List<TradeExecution> current = new ArrayList<>();
+        int used = base;
+        for (TradeExecution exec : executions) {
+            int cost = estimateTokens(buildUserContent(exec.getPlan(), exec)) + completionTokensPerTrade;
+            if (!current.isEmpty() && (current.size() >= batchMaxSize || used + cost > batchTokenBudget)) {
+                batches.add(current);
+                current = new ArrayList<>();
+                used = base;
+            }
+            current.add(exec);
+            used += cost;
         }
-        return s;
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    public int getBatchMaxSize() {
+        return batchMaxSize;
+    }
+
+    /**
+     * 单笔与批量模式的每笔平均耗时与 token，对比批量带来的节省
+     */
+    public AIReviewCostDTO getCostStats() {
+        return new AIReviewCostDTO(singleStats.toMode(), batchStats.toMode());
     }
 
     /**
@@ -154,6 +246,10 @@ public class AIReviewService {
                 - 平仓价：%s
                 - 卖出逻辑/心态记录：%s
                 - 情绪标签：%s
+
+                本地规则预评分：%s
+                规则发现：
+                %s
                 """.formatted(
                 plan.getStockSymbol(),
                 plan.getDirection(),
@@ -163,7 +259,64 @@ public class AIReviewService {
                 plan.getEntryLogic(),
                 exitPrice,
                 exec.getExitLogic(),
-                exec.getEmotionalState() != null ? exec.getEmotionalState() : "未填写"
+                exec.getEmotionalState() != null ? exec.getEmotionalState() : "未填写",
+                exec.getRuleScore() != null ? exec.getRuleScore() : "无",
+                exec.getRuleFindings() != null ? "- " + exec.getRuleFindings().replace("\n", "\n- ") : "无"
         );
     }
+
+    private int estimateTokens(String text) {
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 128) ascii++;
+            else other++;
+        }
+        return (int) Math.ceil(ascii / 4.0 + other * 0.7);
+    }
+
+    /**
+     * 记录一次调用的每笔耗时与 token（按本次调用包含的笔数平摊）
+     */
+    private void record(String mode, CostStats stats, LlmCompletion completion, int trades) {
+        stats.calls.increment();
+        stats.trades.add(trades);
+        stats.latencyMs.add(completion.latencyMs());
+        stats.promptTokens.add(completion.promptTokens());
+        stats.completionTokens.add(completion.completionTokens());
+
+        DistributionSummary.builder("ai.review.per_trade.latency").baseUnit("milliseconds").tag("mode", mode)
+                .register(meterRegistry).record((double) completion.latencyMs() / trades);
+        DistributionSummary.builder("ai.review.per_trade.tokens").baseUnit("tokens").tag("mode", mode)
+                .register(meterRegistry).record((double) (completion.promptTokens() + completion.completionTokens()) / trades);
+        DistributionSummary.builder("ai.review.batch.size").tag("mode", mode)
+                .register(meterRegistry).record(trades);
+    }
+
+    /**
+     * 复盘结果
+     */
+    public record ReviewResult(int score, String comment) {}
+
+    /**
+     * 单一模式的累计调用代价
+     */
+    private static class CostStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder trades = new LongAdder();
+        private final LongAdder latencyMs = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+
+        AIReviewCostDTO.Mode toMode() {
+            long n = trades.sum();
+            return new AIReviewCostDTO.Mode(
+                    calls.sum(),
+                    n,
+                    n > 0 ? (double) latencyMs.sum() / n : 0.0,
+                    n > 0 ? (double) promptTokens.sum() / n : 0.0,
+                    n > 0 ? (double) completionTokens.sum() / n : 0.0
+            );
+        }
+    }
 }
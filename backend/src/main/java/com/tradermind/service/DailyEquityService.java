@@ -0,0 +1,359 @@
+package com.tradermind.service;
+
+import com.tradermind.domain.PositionState;
+import com.tradermind.domain.TradeDirection;
+import com.tradermind.domain.TradeStatus;
+import com.tradermind.domain.TransactionType;
+import com.tradermind.dto.DailyEquityDTO;
+import com.tradermind.dto.EquityBackfillReport;
+import com.tradermind.entity.DailyEquity;
+import com.tradermind.entity.TradePlan;
+import com.tradermind.repository.DailyEquityRepository;
+import com.tradermind.repository.TradePlanRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 每日权益快照服务
+ * - 日终任务：交易日收盘后按收盘行情为当日写一行（已实现、浮动盈亏、风险敞口、权益），
+ *   之后权益曲线与盈亏日历只需按日期范围读取，不再从交易流水实时推算
+ * - 回填：从 trade_transaction 流水按时间顺序折叠（PositionState，与账本同一口径），
+ *   交易日按区间切分后并行计算，每个线程先快进到区间起点再逐日推进
+ * 历史收盘价不可得，回填时浮动盈亏按当日及之前最近一次成交价定价（mark_source = LAST_FILL）
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DailyEquityService {
+
+    private static final String MARK_CLOSE = "CLOSE";
+    private static final String MARK_LAST_FILL = "LAST_FILL";
+
+    private final DailyEquityRepository dailyEquityRepository;
+    private final TradePlanRepository tradePlanRepository;
+    private final StockMarketService stockMarketService;
+    private final AppSettingsService appSettingsService;
+    private final TradingCalendar tradingCalendar;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /** 回填并行度 */
+    @Value("${equity.backfill.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * 日终任务：交易日收盘后执行
+     * 若上一次快照之后有遗漏的交易日（如服务停机），先回填缺口，保证"当日已实现"只包含当天
+     */
+    @Scheduled(cron = "${equity.eod.cron:0 10 15 * * MON-FRI}", zone = "Asia/Shanghai")
+    public void runEndOfDay() {
+        LocalDate today = tradingCalendar.today();
+        if (!tradingCalendar.isTradingDay(today)) {
+            log.info("今日休市，跳过日终权益快照: {}", today);
+            return;
+        }
+        try {
+            DailyEquityDTO row = snapshotToday();
+            log.info("日终权益快照完成: date={}, equity={}, realized={}, unrealized={}",
+                    row.tradeDate(), row.equity(), row.realizedPnL(), row.unrealizedPnL());
+        } catch (Exception e) {
+            log.error("日终权益快照失败: {}", today, e);
+        }
+    }
+
+    /**
+     * 为今天写入快照：已实现盈亏取 trade_plan 上的累计值与前一快照之差，浮动盈亏按实时行情定价
+     */
+    public DailyEquityDTO snapshotToday() {
+        LocalDate today = tradingCalendar.today();
+        if (!tradingCalendar.isTradingDay(today)) {
+            throw new IllegalArgumentException("今日休市，无需生成权益快照: " + today);
+        }
+        fillGapBefore(today);
+
+        List<TradePlan> openPlans = tradePlanRepository.findByStatus(TradeStatus.OPEN);
+        // 同一标的只请求一次行情；行情请求在事务外完成，不占用数据库连接
+        Map<String, BigDecimal> quotes = new HashMap<>();
+        for (TradePlan plan : openPlans) {
+            quotes.computeIfAbsent(plan.getStockSymbol(), stockMarketService::getCurrentPrice);
+        }
+
+        return transactionTemplate.execute(status -> {
+            BigDecimal cumulative = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(realized_pnl), 0) FROM trade_plan", BigDecimal.class);
+            BigDecimal previous = dailyEquityRepository.findTopByTradeDateBeforeOrderByTradeDateDesc(today)
+                    .map(DailyEquity::getCumulativeRealizedPnL)
+                    .orElse(BigDecimal.ZERO);
+
+            DayAccumulator day = new DayAccumulator();
+            for (TradePlan plan : openPlans) {
+                int qty = plan.getCurrentQuantity() != null ? plan.getCurrentQuantity() : 0;
+                BigDecimal quote = quotes.get(plan.getStockSymbol());
+                BigDecimal mark = quote != null && quote.signum() > 0 ? quote : null;
+                if (mark == null) {
+                    log.warn("收盘行情获取失败，浮动盈亏按成本计: {}", plan.getStockSymbol());
+                }
+                day.addPosition(plan.getDirection(), plan.getAvgEntryPrice(), plan.getStopLoss(), qty, mark);
+            }
+
+            DailyEquity row = day.toRow(today, cumulative.subtract(previous), cumulative,
+                    appSettingsService.getTotalCapital(), MARK_CLOSE);
+            upsert(List.of(row));
+            return toDTO(row);
+        });
+    }
+
+    /**
+     * 从交易流水回填 [from, to] 区间内每个交易日的快照（已存在的行会被覆盖）
+     */
+    public EquityBackfillReport backfill(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("起始日期不能晚于结束日期");
+        }
+        long start = System.currentTimeMillis();
+        List<LocalDate> days = tradingCalendar.tradingDaysBetween(from, to);
+        if (days.isEmpty()) {
+            return new EquityBackfillReport(from, to, 0, 0, 0);
+        }
+
+        List<Fill> fills = loadFillsUntil(to);
+        BigDecimal capital = appSettingsService.getTotalCapital();
+
+        // 交易日切分为连续区间，每个线程独立折叠：先快进到区间起点，再逐日推进
+        int workers = Math.max(1, Math.min(parallelism, days.size()));
+        int segmentSize = (days.size() + workers - 1) / workers;
+        List<List<LocalDate>> segments = new ArrayList<>();
+        for (int i = 0; i < days.size(); i += segmentSize) {
+            segments.add(days.subList(i, Math.min(i + segmentSize, days.size())));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(segments.size());
+        List<DailyEquity> rows = new ArrayList<>(days.size());
+        try {
+            List<Future<List<DailyEquity>>> futures = segments.stream()
+                    .map(segment -> pool.submit(() -> replaySegment(fills, segment, capital)))
+                    .toList();
+            for (Future<List<DailyEquity>> f : futures) {
+                rows.addAll(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("权益回填被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("权益回填失败: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        transactionTemplate.executeWithoutResult(status -> upsert(rows));
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("每日权益回填完成: {} ~ {}, 交易日={}, 流水={}, 耗时={}ms", from, to, rows.size(), fills.size(), elapsed);
+        return new EquityBackfillReport(from, to, rows.size(), fills.size(), elapsed);
+    }
+
+    public List<DailyEquityDTO> getDailyEquity(LocalDate from, LocalDate to) {
+        return dailyEquityRepository.findByTradeDateBetweenOrderByTradeDateAsc(from, to).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    /**
+     * 若最近一条快照与 date 之间有遗漏的交易日，先从流水回填；从未生成过快照时从第一笔流水开始
+     */
+    private void fillGapBefore(LocalDate date) {
+        LocalDate from = dailyEquityRepository.findTopByTradeDateBeforeOrderByTradeDateDesc(date)
+                .map(row -> row.getTradeDate().plusDays(1))
+                .orElseGet(() -> {
+                    Timestamp first = jdbcTemplate.queryForObject(
+                            "SELECT MIN(transaction_time) FROM trade_transaction", Timestamp.class);
+                    return first != null ? first.toLocalDateTime().toLocalDate() : null;
+                });
+        LocalDate to = date.minusDays(1);
+        if (from != null && !from.isAfter(to) && !tradingCalendar.tradingDaysBetween(from, to).isEmpty()) {
+            log.info("检测到每日权益缺口，先行回填: {} ~ {}", from, to);
+            backfill(from, to);
+        }
+    }
+
+    /**
+     * 单个区间的回放：fills 按成交时间有序，游标只前进不回退
+     */
+    private List<DailyEquity> replaySegment(List<Fill> fills, List<LocalDate> segment, BigDecimal capital) {
+        Map<Long, Holding> holdings = new HashMap<>();
+        BigDecimal cumulative = BigDecimal.ZERO;
+        int cursor = 0;
+
+        // 快进到区间第一天之前，得到前一日的累计已实现
+        LocalDate first = segment.get(0);
+        while (cursor < fills.size() && fills.get(cursor).date().isBefore(first)) {
+            cumulative = cumulative.add(applyFill(holdings, fills.get(cursor++)));
+        }
+
+        List<DailyEquity> rows = new ArrayList<>(segment.size());
+        for (LocalDate day : segment) {
+            BigDecimal previous = cumulative;
+            while (cursor < fills.size() && !fills.get(cursor).date().isAfter(day)) {
+                cumulative = cumulative.add(applyFill(holdings, fills.get(cursor++)));
+            }
+            DayAccumulator acc = new DayAccumulator();
+            for (Holding h : holdings.values()) {
+                acc.addPosition(h.direction, h.state.avgEntryPrice(), h.stopLoss, h.state.currentQuantity(), h.lastPrice);
+            }
+            rows.add(acc.toRow(day, cumulative.subtract(previous), cumulative, capital, MARK_LAST_FILL));
+        }
+        return rows;
+    }
+
+    /**
+     * 应用一笔流水，返回本笔带来的已实现盈亏增量
+     */
+    private BigDecimal applyFill(Map<Long, Holding> holdings, Fill fill) {
+        Holding h = holdings.computeIfAbsent(fill.planId(), id -> new Holding(fill.direction(), fill.stopLoss()));
+        BigDecimal before = h.state.realizedPnL();
+        h.state = h.state.apply(fill.direction(), fill.type(), fill.price(), fill.quantity());
+        h.lastPrice = fill.price();
+        return h.state.realizedPnL().subtract(before);
+    }
+
+    /**
+     * 一次查询取回截至 to 的全部流水，按成交时间排序（同一时间按 ID）
+     */
+    private List<Fill> loadFillsUntil(LocalDate to) {
+        return jdbcTemplate.query("""
+                        SELECT t.plan_id, t.type, t.price, t.quantity, t.transaction_time, p.direction, p.stop_loss
+                        FROM trade_transaction t JOIN trade_plan p ON p.id = t.plan_id
+                        WHERE t.transaction_time < ?
+                        ORDER BY t.transaction_time, t.id
+                        """,
+                (rs, i) -> new Fill(
+                        rs.getLong("plan_id"),
+                        TransactionType.valueOf(rs.getString("type")),
+                        rs.getBigDecimal("price"),
+                        rs.getInt("quantity"),
+                        rs.getTimestamp("transaction_time").toLocalDateTime().toLocalDate(),
+                        TradeDirection.valueOf(rs.getString("direction")),
+                        rs.getBigDecimal("stop_loss")),
+                Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+    }
+
+    private void upsert(List<DailyEquity> rows) {
+        jdbcTemplate.batchUpdate("""
+                        INSERT INTO daily_equity (trade_date, realized_pnl, cumulative_realized_pnl, unrealized_pnl,
+                                                  open_risk, open_positions, capital, equity, mark_source, created_at)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                        ON CONFLICT (trade_date) DO UPDATE SET
+                            realized_pnl = EXCLUDED.realized_pnl,
+                            cumulative_realized_pnl = EXCLUDED.cumulative_realized_pnl,
+                            unrealized_pnl = EXCLUDED.unrealized_pnl,
+                            open_risk = EXCLUDED.open_risk,
+                            open_positions = EXCLUDED.open_positions,
+                            capital = EXCLUDED.capital,
+                            equity = EXCLUDED.equity,
+                            mark_source = EXCLUDED.mark_source,
+                            created_at = EXCLUDED.created_at
+                        """,
+                rows.stream().map(r -> new Object[]{
+                        Date.valueOf(r.getTradeDate()), r.getRealizedPnL(), r.getCumulativeRealizedPnL(),
+                        r.getUnrealizedPnL(), r.getOpenRisk(), r.getOpenPositions(), r.getCapital(),
+                        r.getEquity(), r.getMarkSource(), Timestamp.valueOf(r.getCreatedAt())
+                }).toList());
+    }
+
+    private DailyEquityDTO toDTO(DailyEquity row) {
+        return new DailyEquityDTO(
+                row.getTradeDate(),
+                row.getRealizedPnL(),
+                row.getCumulativeRealizedPnL(),
+                row.getUnrealizedPnL(),
+                row.getOpenRisk(),
+                row.getOpenPositions(),
+                row.getCapital(),
+                row.getEquity(),
+                row.getMarkSource()
+        );
+    }
+
+    private record Fill(long planId, TransactionType type, BigDecimal price, int quantity, LocalDate date,
+                        TradeDirection direction, BigDecimal stopLoss) {}
+
+    /**
+     * 回放中的单个计划持仓
+     */
+    private static class Holding {
+        private final TradeDirection direction;
+        private final BigDecimal stopLoss;
+        private PositionState state = PositionState.EMPTY;
+        private BigDecimal lastPrice;
+
+        private Holding(TradeDirection direction, BigDecimal stopLoss) {
+            this.direction = direction;
+            this.stopLoss = stopLoss;
+        }
+    }
+
+    /**
+     * 汇总某一日收盘时的持仓：浮动盈亏与风险敞口
+     */
+    private static class DayAccumulator {
+        private BigDecimal unrealized = BigDecimal.ZERO;
+        private BigDecimal openRisk = BigDecimal.ZERO;
+        private int openPositions;
+
+        /**
+         * @param mark 定价；为 null 时按成本计（浮动盈亏为 0）
+         */
+        void addPosition(TradeDirection direction, BigDecimal avgPrice, BigDecimal stopLoss, int quantity, BigDecimal mark) {
+            if (quantity <= 0 || avgPrice == null) {
+                return;
+            }
+            openPositions++;
+            BigDecimal qty = BigDecimal.valueOf(quantity);
+            boolean isShort = direction == TradeDirection.SHORT;
+            if (mark != null) {
+                BigDecimal diff = isShort ? avgPrice.subtract(mark) : mark.subtract(avgPrice);
+                unrealized = unrealized.add(diff.multiply(qty));
+            }
+            if (stopLoss != null) {
+                BigDecimal stopDistance = isShort ? stopLoss.subtract(avgPrice) : avgPrice.subtract(stopLoss);
+                openRisk = openRisk.add(stopDistance.max(BigDecimal.ZERO).multiply(qty));
+            }
+        }
+
+        DailyEquity toRow(LocalDate date, BigDecimal realized, BigDecimal cumulative, BigDecimal capital, String markSource) {
+            BigDecimal cap = capital != null ? capital : BigDecimal.ZERO;
+            BigDecimal unrealizedScaled = unrealized.setScale(4, RoundingMode.HALF_UP);
+            return DailyEquity.builder()
+                    .tradeDate(date)
+                    .realizedPnL(realized.setScale(4, RoundingMode.HALF_UP))
+                    .cumulativeRealizedPnL(cumulative.setScale(4, RoundingMode.HALF_UP))
+                    .unrealizedPnL(unrealizedScaled)
+                    .openRisk(openRisk.setScale(4, RoundingMode.HALF_UP))
+                    .openPositions(openPositions)
+                    .capital(cap)
+                    .equity(cap.add(cumulative).add(unrealizedScaled).setScale(4, RoundingMode.HALF_UP))
+                    .markSource(markSource)
+                    .createdAt(LocalDateTime.now())
+                    .build();
+        }
+    }
+}
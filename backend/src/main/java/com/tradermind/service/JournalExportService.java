@@ -0,0 +1,172 @@
+package com.tradermind.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+
+/**
+ * 交易日志导出服务
+ * 使用只进游标（forward-only + fetchSize）逐行读取并直接写入输出流，
+ * 内存占用与日志规模无关，不经过 JPA 实体与 DTO 列表
+ */
+@Service
+@Slf4j
+public class JournalExportService {
+
+    /** 每次从 PostgreSQL 游标拉取的行数；PG 驱动仅在非自动提交事务中启用游标 */
+    private static final int FETCH_SIZE = 500;
+    /** 输出缓冲区大小 */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** UTF-8 BOM，保证 Excel 直接打开中文不乱码 */
+    private static final char UTF8_BOM = '\uFEFF';
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+
+    public JournalExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * 可导出的日志表及其列（导出列顺序即 CSV 列顺序）
+     */
+    public enum JournalTable {
+        PLANS("trade_plan",
+                "id", "stock_symbol", "direction", "status", "entry_price", "avg_entry_price",
+                "stop_loss", "take_profit", "position_size", "total_quantity", "current_quantity",
+                "realized_pnl", "risk_reward_ratio", "entry_logic", "created_at"),
+        TRANSACTIONS("trade_transaction",
+                "id", "plan_id", "type", "price", "quantity", "transaction_time", "logic_snapshot"),
+        EXECUTIONS("trade_execution",
+                "id", "plan_id", "exit_price", "realized_pnl", "exit_logic", "emotional_state",
+                "ai_analysis_score", "ai_analysis_comment", "created_at");
+
+        private final String tableName;
+        private final String[] columns;
+
+        JournalTable(String tableName, String... columns) {
+            this.tableName = tableName;
+            this.columns = columns;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        private String selectSql() {
+            return "SELECT " + String.join(", ", columns) + " FROM " + tableName + " ORDER BY id";
+        }
+
+        /**
+         * 按路径参数解析，支持 plans / trade_plan 两种写法
+         */
+        public static JournalTable fromPath(String value) {
+            return Arrays.stream(values())
+                    .filter(t -> t.name().equalsIgnoreCase(value) || t.tableName.equalsIgnoreCase(value))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("不支持导出的表: " + value));
+        }
+    }
+
+    /**
+     * 以 CSV 格式流式导出指定表
+     * 首行为列名；调用方负责关闭输出流
+     *
+     * @return 导出行数
+     */
+    public long exportCsv(JournalTable table, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        int columnCount = table.columns.length;
+        long[] rows = {0};
+        long start = System.currentTimeMillis();
+
+        try {
+            writer.write(UTF8_BOM);
+            writeRow(writer, table.columns);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        String[] values = new String[columnCount];
+        readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(table.selectSql(),
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(FETCH_SIZE);
+                    return ps;
+                },
+                rs -> {
+                    for (int i = 0; i < columnCount; i++) {
+                        values[i] = rs.getString(i + 1);
+                    }
+                    try {
+                        writeRow(writer, values);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows[0]++;
+                }
+        ));
+
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("导出日志表完成: table={}, rows={}, 耗时={}ms", table.getTableName(), rows[0], System.currentTimeMillis() - start);
+        return rows[0];
+    }
+
+    private void writeRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            writeCsvValue(writer, values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * RFC 4180 转义：包含逗号、引号、换行时用双引号包裹，内部引号加倍
+     * NULL 输出为空字段
+     */
+    private void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean needsQuote = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuote = true;
+                break;
+            }
+        }
+        if (!needsQuote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') writer.write('"');
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,206 @@
+package com.tradermind.service;
+
+import com.tradermind.dto.JournalSearchResultDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 交易日志全文检索
+ * - 索引与分词在数据库侧（V16）：journal_document.search_vector 由触发器维护，汉字按重叠二元组切分，GIN 索引
+ * - 查询：journal_to_tsquery 用同样的切分构造短语查询，GIN 索引取出全部命中，分页返回，total 为精确命中数
+ * - 排序：relevance 对全部命中按 ts_rank（字段权重与词频）排序；recent 按时间倒序，省去逐条打分。
+ *   ts_rank_cd 需逐条计算短语覆盖，全量打分时耗时约翻倍，故用 ts_rank
+ * - 高亮在应用侧完成：ts_headline 按原文解析，无法识别二元组命中，故对本页结果在原文中定位关键词截取片段
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JournalSearchService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** 单页最大条数 */
+    @Value("${journal.search.max-page-size:100}")
+    private int maxPageSize;
+
+    /** 片段长度（字符） */
+    @Value("${journal.search.snippet-chars:120}")
+    private int snippetChars;
+
+    /** 超过该耗时的检索记 WARN 日志 */
+    @Value("${journal.search.slow-query-ms:50}")
+    private long slowQueryMs;
+
+    /**
+     * 结果排序方式
+     */
+    public enum SortOrder {
+        /** 相关度降序，同分按时间倒序 */
+        RELEVANCE("rank DESC, created_at DESC, id DESC"),
+        /** 时间倒序 */
+        RECENT("created_at DESC, id DESC");
+
+        private final String orderBy;
+
+        SortOrder(String orderBy) {
+            this.orderBy = orderBy;
+        }
+
+        /**
+         * 按请求参数解析（relevance / recent，不区分大小写）
+         */
+        public static SortOrder fromParam(String value) {
+            return Arrays.stream(values())
+                    .filter(s -> s.name().equalsIgnoreCase(value))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("不支持的排序方式: " + value + "（relevance / recent）"));
+        }
+    }
+
+    public JournalSearchResultDTO search(String q, String symbol, SortOrder sort, int page, int size) {
+        if (q == null || q.isBlank()) {
+            throw new IllegalArgumentException("检索关键词不能为空");
+        }
+        if (page < 0 || size <= 0 || size > maxPageSize) {
+            throw new IllegalArgumentException("分页参数无效：page >= 0，1 <= size <= " + maxPageSize);
+        }
+        String query = q.strip();
+        String symbolFilter = symbol != null && !symbol.isBlank() ? symbol.strip().toUpperCase() : null;
+
+        long start = System.nanoTime();
+        List<Object> args = new ArrayList<>();
+        args.add(query);
+        // q：关键词只解析一次；matched：全部命中只扫描一遍，计数与分页共用；相关度只在 relevance 时对全部命中计算，
+        // 返回的 rank 在外层只对本页重新计算
+        String sql = """
+                WITH q AS MATERIALIZED (SELECT journal_to_tsquery(?) AS query),
+                matched AS MATERIALIZED (
+                    SELECT d.id, d.created_at%s
+                    FROM journal_document d, q
+                    WHERE d.search_vector @@ q.query%s
+                ),
+                page AS (
+                    SELECT id, created_at FROM matched
+                    ORDER BY %s
+                    LIMIT ? OFFSET ?
+                )
+                SELECT d.source_type, d.source_id, d.plan_id, d.stock_symbol, d.body, created_at, id,
+                       ts_rank(d.search_vector, q.query) AS rank,
+                       (SELECT COUNT(*) FROM matched) AS total
+                FROM page JOIN journal_document d USING (id, created_at), q
+                ORDER BY %s
+                """.formatted(
+                sort == SortOrder.RELEVANCE ? ", ts_rank(d.search_vector, q.query) AS rank" : "",
+                symbolFilter != null ? " AND d.stock_symbol = ?" : "",
+                sort.orderBy, sort.orderBy);
+        if (symbolFilter != null) {
+            args.add(symbolFilter);
+        }
+        args.add(size);
+        args.add((long) page * size);
+
+        long[] total = {0};
+        List<String> terms = terms(query);
+        List<JournalSearchResultDTO.Hit> hits = jdbcTemplate.query(sql, (rs, i) -> {
+            total[0] = rs.getLong("total");
+            return new JournalSearchResultDTO.Hit(
+                    rs.getString("source_type"),
+                    rs.getLong("source_id"),
+                    rs.getLong("plan_id"),
+                    rs.getString("stock_symbol"),
+                    rs.getDouble("rank"),
+                    snippet(rs.getString("body"), terms),
+                    rs.getTimestamp("created_at").toLocalDateTime());
+        }, args.toArray());
+
+        // 越过末页时拿不到计数，单独计数
+        if (hits.isEmpty() && page > 0) {
+            total[0] = countMatches(query, symbolFilter);
+        }
+
+        long tookMs = (System.nanoTime() - start) / 1_000_000;
+        if (tookMs > slowQueryMs) {
+            log.warn("日志检索较慢: q='{}', symbol={}, 排序 {}, 命中 {} 条, 耗时 {}ms",
+                    query, symbolFilter, sort, total[0], tookMs);
+        }
+        return new JournalSearchResultDTO(query, sort.name().toLowerCase(Locale.ROOT), page, size, total[0], tookMs, hits);
+    }
+
+    private long countMatches(String query, String symbolFilter) {
+        if (symbolFilter == null) {
+            return jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM journal_document WHERE search_vector @@ journal_to_tsquery(?)",
+                    Long.class, query);
+        }
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM journal_document WHERE search_vector @@ journal_to_tsquery(?) AND stock_symbol = ?",
+                Long.class, query, symbolFilter);
+    }
+
+    private static List<String> terms(String query) {
+        return Arrays.stream(query.split("\\s+"))
+                .filter(t -> !t.isEmpty())
+                .map(t -> t.toLowerCase(Locale.ROOT))
+                .toList();
+    }
+
+    /**
+     * 以第一个命中词为中心截取片段，HTML 转义后用 <mark> 包裹所有命中词
+     * 命中词在原文中找不到（如中间夹有标点的短语命中）时取开头
+     */
+    private String snippet(String body, List<String> terms) {
+        String lower = body.toLowerCase(Locale.ROOT);
+        if (lower.length() != body.length()) {
+            // 极少数字符小写后长度变化，位置无法对齐，退化为区分大小写匹配
+            lower = body;
+        }
+        int first = -1;
+        for (String term : terms) {
+            int idx = lower.indexOf(term);
+            if (idx >= 0 && (first < 0 || idx < first)) {
+                first = idx;
+            }
+        }
+        int from = first < 0 ? 0 : Math.max(0, first - snippetChars / 3);
+        int to = Math.min(body.length(), from + snippetChars);
+        if (to - from < snippetChars) {
+            from = Math.max(0, to - snippetChars);
+        }
+
+        // 在窗口内标记命中区间（重叠区间合并），再逐段转义输出
+        boolean[] marked = new boolean[to - from];
+        String window = lower.substring(from, to);
+        for (String term : terms) {
+            for (int idx = window.indexOf(term); idx >= 0; idx = window.indexOf(term, idx + 1)) {
+                Arrays.fill(marked, idx, idx + term.length(), true);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        if (from > 0) sb.append("…");
+        for (int i = 0; i < marked.length; i++) {
+            if (marked[i] && (i == 0 || !marked[i - 1])) sb.append("<mark>");
+            appendEscaped(sb, body.charAt(from + i));
+            if (marked[i] && (i == marked.length - 1 || !marked[i + 1])) sb.append("</mark>");
+        }
+        if (to < body.length()) sb.append("…");
+        return sb.toString();
+    }
+
+    private static void appendEscaped(StringBuilder sb, char c) {
+        switch (c) {
+            case '<' -> sb.append("&lt;");
+            case '>' -> sb.append("&gt;");
+            case '&' -> sb.append("&amp;");
+            case '"' -> sb.append("&quot;");
+            default -> sb.append(c);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.tradermind.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 增量解析 JSON 字符串数组：["风险点1", "风险点2", ...]
+ * 大模型流式输出按任意位置切片，每喂入一段文本，返回本段内完整结束的元素
+ * - 第一个 '[' 之前的内容（如 ```json 前缀）忽略，顶层数组闭合后的内容忽略
+ * - 支持 JSON 字符串转义（含 \\uXXXX，可跨片段）
+ * 有状态、非线程安全，每次流式请求新建一个实例
+ */
+public class JsonStringArrayStreamParser {
+
+    private enum State { BEFORE_ARRAY, IN_ARRAY, IN_STRING, ESCAPE, UNICODE, DONE }
+
+    private State state = State.BEFORE_ARRAY;
+    private final StringBuilder current = new StringBuilder();
+    private final StringBuilder unicode = new StringBuilder(4);
+    private int emitted;
+
+    /**
+     * 喂入一段文本，返回其中完整结束的数组元素
+     */
+    public List<String> feed(String chunk) {
+        List<String> completed = new ArrayList<>(1);
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            switch (state) {
+                case BEFORE_ARRAY -> {
+                    if (c == '[') state = State.IN_ARRAY;
+                }
+                case IN_ARRAY -> {
+                    if (c == '"') {
+                        state = State.IN_STRING;
+                        current.setLength(0);
+                    } else if (c == ']') {
+                        state = State.DONE;
+                    }
+                }
+                case IN_STRING -> {
+                    if (c == '\\') {
+                        state = State.ESCAPE;
+                    } else if (c == '"') {
+                        String value = current.toString().strip();
+                        if (!value.isEmpty()) {
+                            completed.add(value);
+                            emitted++;
+                        }
+                        state = State.IN_ARRAY;
+                    } else {
+                        current.append(c);
+                    }
+                }
+                case ESCAPE -> {
+                    state = State.IN_STRING;
+                    switch (c) {
+                        case 'n' -> current.append('\n');
+                        case 't' -> current.append('\t');
+                        case 'r' -> current.append('\r');
+                        case 'b' -> current.append('\b');
+                        case 'f' -> current.append('\f');
+                        case 'u' -> {
+                            unicode.setLength(0);
+                            state = State.UNICODE;
+                        }
+                        default -> current.append(c);  // \" \\ \/
+                    }
+                }
+                case UNICODE -> {
+                    unicode.append(c);
+                    if (unicode.length() == 4) {
+                        try {
+                            current.append((char) Integer.parseInt(unicode.toString(), 16));
+                        } catch (NumberFormatException e) {
+                            current.append("\\u").append(unicode);
+                        }
+                        state = State.IN_STRING;
+                    }
+                }
+                case DONE -> {
+                    return completed;
+                }
+            }
+        }
+        return completed;
+    }
+
+    /** 已输出的元素数 */
+    public int emitted() {
+        return emitted;
+    }
+}
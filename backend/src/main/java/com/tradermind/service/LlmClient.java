@@ -0,0 +1,219 @@
+package com.tradermind.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tradermind.dto.LlmCompletion;
+import com.tradermind.jfr.AICallEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * 大模型客户端（OpenAI 兼容 chat/completions）
+ * - 基于共享的 llmWebClient（连接池 + 超时），返回 Mono，不阻塞调用线程
+ * - 5xx、429、连接失败与超时按指数退避重试；4xx 直接失败
+ * - 支持 stream: true 的流式补全，逐片段返回增量文本
+ * - 每次调用提交 JFR 事件 AICallEvent（JfrMetricsStream 转为 jfr.ai.call 指标）
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LlmClient {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_STRING = new ParameterizedTypeReference<>() {};
+
+    private static final Pattern MARKDOWN_JSON_BLOCK = Pattern.compile("^```(?:json)?\\s*\\n?(.*?)\\n?```\\s*$", Pattern.DOTALL);
+
+    private final WebClient llmWebClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${ai.api.url:https://api.deepseek.com/v1/chat/completions}")
+    private String aiApiUrl;
+
+    @Value("${ai.api.key:dummy-key}")
+    private String aiApiKey;
+
+    @Value("${ai.model:deepseek-chat}")
+    private String model;
+
+    /** 可重试错误的最大重试次数 */
+    @Value("${ai.http.max-retries:2}")
+    private int maxRetries;
+
+    /** 重试退避基数（毫秒） */
+    @Value("${ai.http.retry-backoff-ms:300}")
+    private long retryBackoffMs;
+
+    /**
+     * 发起一次补全
+     *
+     * @param systemPrompt 系统提示，可为 null
+     * @param userPrompt   用户内容
+     */
+    public Mono<LlmCompletion> complete(String systemPrompt, String userPrompt) {
+        ObjectNode body = objectMapper.createObjectNode().put("model", model);
+        ArrayNode messages = body.putArray("messages");
+        if (systemPrompt != null) {
+            messages.addObject().put("role", "system").put("content", systemPrompt);
+        }
+        messages.addObject().put("role", "user").put("content", userPrompt);
+
+        return Mono.deferContextual(ctx -> {
+            RequestTrace trace = RequestTrace.fromContext(ctx);
+            long start = System.nanoTime();
+            AICallEvent event = new AICallEvent();
+            event.begin();
+            return llmWebClient.post()
+                    .uri(aiApiUrl)
+                    .header("Authorization", "Bearer " + aiApiKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(body.toString())
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(retryBackoffMs))
+                            .filter(LlmClient::isRetryable)
+                            .doBeforeRetry(s -> log.warn("大模型调用失败，第 {} 次重试: {}",
+                                    s.totalRetries() + 1, s.failure().toString()))
+                            .onRetryExhaustedThrow((spec, s) -> s.failure()))
+                    .map(text -> toCompletion(text, (System.nanoTime() - start) / 1_000_000))
+                    .doOnSuccess(completion -> commitEvent(event, false, true, completion))
+                    .doOnError(e -> commitEvent(event, false, false, null))
+                    .doFinally(signal -> recordTrace(trace, start));
+        });
+    }
+
+    /**
+     * 流式补全（stream: true）：逐个返回 choices[0].delta.content 片段，收到 [DONE] 结束
+     * 只在尚未收到任何数据的失败（连接失败、5xx、429）上重试，已开始输出后不重放
+     */
+    public Flux<String> stream(String systemPrompt, String userPrompt) {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("model", model)
+                .put("stream", true);
+        ArrayNode messages = body.putArray("messages");
+        if (systemPrompt != null) {
+            messages.addObject().put("role", "system").put("content", systemPrompt);
+        }
+        messages.addObject().put("role", "user").put("content", userPrompt);
+
+        return Flux.deferContextual(ctx -> {
+            RequestTrace trace = RequestTrace.fromContext(ctx);
+            long start = System.nanoTime();
+            AICallEvent event = new AICallEvent();
+            event.begin();
+            AtomicBoolean failed = new AtomicBoolean();
+            return llmWebClient.post()
+                    .uri(aiApiUrl)
+                    .header("Authorization", "Bearer " + aiApiKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .bodyValue(body.toString())
+                    .retrieve()
+                    .bodyToFlux(SSE_STRING)
+                    .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(retryBackoffMs))
+                            .filter(LlmClient::isRetryable)
+                            .onRetryExhaustedThrow((spec, s) -> s.failure()))
+                    .mapNotNull(ServerSentEvent::data)
+                    .takeWhile(data -> !"[DONE]".equals(data.strip()))
+                    .mapNotNull(this::deltaContent)
+                    .doOnError(e -> failed.set(true))
+                    .doFinally(signal -> {
+                        recordTrace(trace, start);
+                        commitEvent(event, true, !failed.get(), null);
+                    });
+        });
+    }
+
+    /**
+     * 提交 JFR 事件 AICallEvent；流式响应无 usage，token 记 0
+     */
+    private void commitEvent(AICallEvent event, boolean streaming, boolean succeeded, LlmCompletion completion) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.model = completion != null && completion.model() != null ? completion.model() : model;
+            event.streaming = streaming;
+            event.succeeded = succeeded;
+            if (completion != null) {
+                event.promptTokens = completion.promptTokens();
+                event.completionTokens = completion.completionTokens();
+            }
+            event.commit();
+        }
+    }
+
+    /**
+     * 大模型往返耗时计入发起请求的 RequestTrace（由调用方 contextWrite 传入；后台复盘等无 trace 时忽略）
+     */
+    private static void recordTrace(RequestTrace trace, long startNanos) {
+        if (trace != null) {
+            trace.add(RequestTrace.Phase.AI, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * 剥离大模型返回的 markdown 代码块包裹（```json ... ``` 或 ``` ... ```）
+     * 大模型常返回带格式的 JSON，直接解析会报 JsonParseException
+     */
+    public static String stripMarkdownJsonBlock(String content) {
+        if (content == null) return "";
+        String s = content.strip();
+        var matcher = MARKDOWN_JSON_BLOCK.matcher(s);
+        if (matcher.matches()) {
+            return matcher.group(1).strip();
+        }
+        return s;
+    }
+
+    /**
+     * 取出流式片段中的增量文本，无文本的片段（如仅含 role 或 finish_reason）返回 null
+     */
+    private String deltaContent(String data) {
+        try {
+            JsonNode content = objectMapper.readTree(data).path("choices").path(0).path("delta").path("content");
+            return content.isTextual() && !content.asText().isEmpty() ? content.asText() : null;
+        } catch (Exception e) {
+            log.debug("忽略无法解析的流式片段: {}", data);
+            return null;
+        }
+    }
+
+    private LlmCompletion toCompletion(String responseText, long latencyMs) {
+        try {
+            JsonNode root = objectMapper.readTree(responseText);
+            JsonNode usage = root.path("usage");
+            return new LlmCompletion(
+                    root.path("choices").path(0).path("message").path("content").asText(),
+                    root.path("model").asText(model),
+                    usage.path("prompt_tokens").asInt(0),
+                    usage.path("completion_tokens").asInt(0),
+                    latencyMs
+            );
+        } catch (Exception e) {
+            throw new IllegalStateException("大模型响应不是合法 JSON", e);
+        }
+    }
+
+    private static boolean isRetryable(Throwable t) {
+        if (t instanceof WebClientResponseException e) {
+            return e.getStatusCode().is5xxServerError() || e.getStatusCode().value() == 429;
+        }
+        return t instanceof WebClientRequestException || t instanceof TimeoutException;
+    }
+}
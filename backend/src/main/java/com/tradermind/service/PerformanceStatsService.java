@@ -0,0 +1,314 @@
+package com.tradermind.service;
+
+import com.tradermind.domain.PerformanceAggregate;
+import com.tradermind.dto.EquityCurvePointDTO;
+import com.tradermind.dto.PortfolioStatsDTO;
+import com.tradermind.entity.EquityCurvePoint;
+import com.tradermind.entity.PortfolioStats;
+import com.tradermind.entity.TradeExecution;
+import com.tradermind.entity.TradePlan;
+import com.tradermind.repository.EquityCurvePointRepository;
+import com.tradermind.repository.PortfolioStatsRepository;
+import com.tradermind.repository.TradeExecutionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 组合绩效统计服务
+ * - 每次写入 TradeExecution（平仓 / 减仓清仓）时，在同一事务内增量更新 portfolio_stats 汇总行
+ *   并追加一条权益曲线点，读取统计为单行查询，与历史交易笔数无关
+ * - 支持全量重建：按执行记录 ID 分块并行加载与累加，再按时间顺序合并各块结果
+ * - 删除计划时连带删除的执行记录：峰值、回撤与其后各点的累计盈亏无法逆向扣减，在删除所在事务内重算
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PerformanceStatsService {
+
+    private static final int STATS_ID = 1;
+
+    private final PortfolioStatsRepository portfolioStatsRepository;
+    private final EquityCurvePointRepository equityCurvePointRepository;
+    private final TradeExecutionRepository tradeExecutionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /** 全量重建并行度 */
+    @Value("${stats.rebuild.parallelism:4}")
+    private int parallelism;
+
+    /** 全量重建时每块的执行记录数 */
+    @Value("${stats.rebuild.chunk-size:2000}")
+    private int chunkSize;
+
+    /**
+     * 记录一笔新平仓：必须在写入该 TradeExecution 的事务内调用
+     * 对汇总行加行锁，多笔并发平仓依次累加
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExecution(TradeExecution execution) {
+        TradePlan plan = execution.getPlan();
+        BigDecimal pnl = execution.getRealizedPnL() != null ? execution.getRealizedPnL() : BigDecimal.ZERO;
+        int totalQty = plan.getTotalQuantity() != null ? plan.getTotalQuantity() : plan.getPositionSize();
+
+        PortfolioStats stats = portfolioStatsRepository.findForUpdate(STATS_ID).orElseGet(this::newStats);
+        PerformanceAggregate agg = stats.toAggregate();
+        agg.add(pnl, rMultiple(pnl, plan.initialRiskPerShare(), totalQty));
+        stats.applyAggregate(agg);
+        portfolioStatsRepository.save(stats);
+
+        equityCurvePointRepository.save(EquityCurvePoint.builder()
+                .executionId(execution.getId())
+                .closedAt(execution.getCreatedAt() != null ? execution.getCreatedAt() : LocalDateTime.now())
+                .realizedPnL(pnl)
+                .cumulativePnL(agg.getCumulativePnL())
+                .drawdown(agg.currentDrawdown())
+                .build());
+    }
+
+    /**
+     * 移除已删除执行记录的贡献：必须在删除这些记录的同一事务内、删除之后调用
+     * 在当前事务内串行重算汇总行与权益曲线（并行加载使用其他连接，看不到本事务未提交的删除）；
+     * 与删除一起提交或回滚，不会留下与执行记录不一致的统计
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeExecutions(Collection<Long> executionIds) {
+        if (executionIds.isEmpty()) {
+            return;
+        }
+        PortfolioStats stats = portfolioStatsRepository.findForUpdate(STATS_ID).orElseGet(this::newStats);
+        PerformanceAggregate total = applyChunks(stats, List.of(loadChunk(0, Long.MAX_VALUE)));
+        log.info("删除 {} 条执行记录后重算绩效统计: 笔数={}", executionIds.size(), total.getTradeCount());
+    }
+
+    /**
+     * 读取统计汇总（单行查询）
+     */
+    @Transactional(readOnly = true)
+    public PortfolioStatsDTO getStats() {
+        PortfolioStats stats = portfolioStatsRepository.findById(STATS_ID).orElse(null);
+        if (stats == null) {
+            return toDTO(new PerformanceAggregate(), null);
+        }
+        return toDTO(stats.toAggregate(), stats.getUpdatedAt());
+    }
+
+    /**
+     * 权益曲线（按平仓顺序）
+     */
+    @Transactional(readOnly = true)
+    public List<EquityCurvePointDTO> getEquityCurve() {
+        return equityCurvePointRepository.findAllByOrderByExecutionIdAsc().stream()
+                .map(p -> new EquityCurvePointDTO(p.getExecutionId(), p.getClosedAt(), p.getRealizedPnL(),
+                        p.getCumulativePnL(), p.getDrawdown()))
+                .toList();
+    }
+
+    /**
+     * 启动时校验汇总行与执行记录条数是否一致（例如迁移前已有历史平仓），不一致则全量重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureConsistent() {
+        try {
+            long executions = tradeExecutionRepository.count();
+            long recorded = portfolioStatsRepository.findById(STATS_ID).map(PortfolioStats::getTradeCount).orElse(-1L);
+            if (executions != recorded) {
+                log.info("绩效汇总与执行记录不一致（汇总 {} 笔，实际 {} 笔），开始全量重建", recorded, executions);
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("启动时校验绩效统计失败，可稍后调用 /api/stats/rebuild 手动重建", e);
+        }
+    }
+
+    /**
+     * 全量重建：持有汇总行锁期间并行加载各块并累加，合并后重写汇总行与权益曲线
+     * 重建期间提交的新平仓会等待行锁，随后在重建结果上继续累加
+     */
+    public PortfolioStatsDTO rebuild() {
+        long start = System.currentTimeMillis();
+        PortfolioStatsDTO result = transactionTemplate.execute(status -> {
+            PortfolioStats stats = portfolioStatsRepository.findForUpdate(STATS_ID).orElseGet(this::newStats);
+
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM trade_execution ORDER BY id", Long.class);
+            PerformanceAggregate total = applyChunks(stats, loadChunksInParallel(ids));
+            return toDTO(total, stats.getUpdatedAt());
+        });
+        log.info("绩效统计全量重建完成: 笔数={}, 耗时={}ms", result.tradeCount(), System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * 按顺序合并各块，重写汇总行与权益曲线（调用方已持有汇总行锁）
+     */
+    private PerformanceAggregate applyChunks(PortfolioStats stats, List<ChunkResult> chunks) {
+        PerformanceAggregate total = new PerformanceAggregate();
+        for (ChunkResult chunk : chunks) {
+            total.merge(chunk.aggregate);
+        }
+        stats.applyAggregate(total);
+        portfolioStatsRepository.save(stats);
+        rewriteEquityCurve(chunks);
+        return total;
+    }
+
+    private List<ChunkResult> loadChunksInParallel(List<Long> ids) {
+        List<List<Long>> ranges = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            ranges.add(ids.subList(i, Math.min(i + chunkSize, ids.size())));
+        }
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, ranges.size())));
+        try {
+            List<Future<ChunkResult>> futures = ranges.stream()
+                    .map(range -> pool.submit(() -> loadChunk(range.get(0), range.get(range.size() - 1))))
+                    .toList();
+            List<ChunkResult> results = new ArrayList<>(futures.size());
+            for (Future<ChunkResult> f : futures) {
+                results.add(f.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("绩效统计重建被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("绩效统计重建失败: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 加载 [fromId, toId] 范围内的执行记录并按 ID 顺序累加
+     */
+    private ChunkResult loadChunk(long fromId, long toId) {
+        ChunkResult result = new ChunkResult();
+        jdbcTemplate.query("""
+                        SELECT e.id, e.created_at, e.realized_pnl,
+                               ABS(p.entry_price - p.initial_stop_loss) AS risk_per_share,
+                               COALESCE(p.total_quantity, p.position_size) AS qty
+                        FROM trade_execution e JOIN trade_plan p ON p.id = e.plan_id
+                        WHERE e.id BETWEEN ? AND ?
+                        ORDER BY e.id
+                        """,
+                rs -> {
+                    BigDecimal pnl = rs.getBigDecimal("realized_pnl");
+                    if (pnl == null) pnl = BigDecimal.ZERO;
+                    Timestamp closedAt = rs.getTimestamp("created_at");
+                    result.aggregate.add(pnl, rMultiple(pnl, rs.getBigDecimal("risk_per_share"), rs.getInt("qty")));
+                    result.rows.add(new CurveRow(rs.getLong("id"), closedAt.toLocalDateTime(), pnl));
+                },
+                fromId, toId);
+        return result;
+    }
+
+    /**
+     * 按顺序重算每个点的累计盈亏与回撤并批量写入
+     */
+    private void rewriteEquityCurve(List<ChunkResult> chunks) {
+        equityCurvePointRepository.deleteAllPoints();
+        BigDecimal cumulative = BigDecimal.ZERO;
+        BigDecimal peak = BigDecimal.ZERO;
+        List<Object[]> batch = new ArrayList<>();
+        for (ChunkResult chunk : chunks) {
+            for (CurveRow row : chunk.rows) {
+                cumulative = cumulative.add(row.pnl);
+                peak = peak.max(cumulative);
+                batch.add(new Object[]{row.executionId, Timestamp.valueOf(row.closedAt), row.pnl, cumulative, peak.subtract(cumulative)});
+                if (batch.size() >= 1000) {
+                    insertPoints(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertPoints(batch);
+        }
+    }
+
+    private void insertPoints(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO equity_curve_point (execution_id, closed_at, realized_pnl, cumulative_pnl, drawdown)
+                VALUES (?, ?, ?, ?, ?)
+                """, batch);
+    }
+
+    /**
+     * R 倍数 = 实现盈亏 / 初始风险，初始风险 = |计划入场价 - 初始止损| * 总买入量
+     * 按创建计划时的止损计算：之后的移动止损（如上移至成本价之上）不改变本笔交易承担的风险
+     *
+     * @param riskPerShare 每股初始风险，见 TradePlan#initialRiskPerShare
+     */
+    private Double rMultiple(BigDecimal pnl, BigDecimal riskPerShare, int quantity) {
+        if (riskPerShare == null || quantity <= 0) {
+            return null;
+        }
+        BigDecimal risk = riskPerShare.multiply(BigDecimal.valueOf(quantity));
+        if (risk.signum() == 0) {
+            return null;
+        }
+        return pnl.divide(risk, 6, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    private PortfolioStatsDTO toDTO(PerformanceAggregate agg, LocalDateTime updatedAt) {
+        long n = agg.getTradeCount();
+        BigDecimal total = agg.getCumulativePnL();
+        return new PortfolioStatsDTO(
+                n,
+                agg.getWinCount(),
+                agg.getLossCount(),
+                n > 0 ? ratio(BigDecimal.valueOf(agg.getWinCount()), BigDecimal.valueOf(n)) : BigDecimal.ZERO,
+                n > 0 ? ratio(total, BigDecimal.valueOf(n)) : BigDecimal.ZERO,
+                BigDecimal.valueOf(Math.sqrt(agg.pnlVariance())).setScale(4, RoundingMode.HALF_UP),
+                agg.getGrossLoss().signum() > 0 ? ratio(agg.getGrossProfit(), agg.getGrossLoss()) : null,
+                agg.getWinCount() > 0 ? ratio(agg.getGrossProfit(), BigDecimal.valueOf(agg.getWinCount())) : BigDecimal.ZERO,
+                agg.getLossCount() > 0 ? ratio(agg.getGrossLoss(), BigDecimal.valueOf(agg.getLossCount())) : BigDecimal.ZERO,
+                agg.getRCount() > 0 ? BigDecimal.valueOf(agg.getRMean()).setScale(4, RoundingMode.HALF_UP) : null,
+                total,
+                agg.getPeakPnL(),
+                agg.getMaxDrawdown(),
+                agg.currentDrawdown(),
+                updatedAt
+        );
+    }
+
+    private BigDecimal ratio(BigDecimal a, BigDecimal b) {
+        return a.divide(b, 4, RoundingMode.HALF_UP);
+    }
+
+    private PortfolioStats newStats() {
+        PortfolioStats stats = PortfolioStats.builder().id(STATS_ID).build();
+        stats.applyAggregate(new PerformanceAggregate());
+        return stats;
+    }
+
+    private record CurveRow(long executionId, LocalDateTime closedAt, BigDecimal pnl) {}
+
+    private static class ChunkResult {
+        private final PerformanceAggregate aggregate = new PerformanceAggregate();
+        private final List<CurveRow> rows = new ArrayList<>();
+    }
+}
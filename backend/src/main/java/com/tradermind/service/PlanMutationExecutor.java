@@ -0,0 +1,137 @@
+package com.tradermind.service;
+
+import com.tradermind.exception.ConcurrentTradeModificationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 计划修改执行器：串行化同一计划上的读-改-写
+ * - 进程内按 planId 加锁：同一计划的操作排队，不同计划各自持有独立的锁，互不竞争
+ *   （锁按引用计数创建与回收，不使用固定条带，避免不同计划哈希到同一条带）
+ * - 每次尝试在独立事务中执行；多实例部署时由 TradePlan 的 @Version 兜底，
+ *   版本冲突时重新读取并有限次重试
+ * - 批量修改按 planId 升序依次加锁，多个批量请求之间不会互相死锁
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PlanMutationExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+
+    /** planId -> 锁，无人持有时移除 */
+    private final ConcurrentHashMap<Long, LockEntry> locks = new ConcurrentHashMap<>();
+
+    /** 乐观锁冲突时的最大尝试次数（含首次） */
+    @Value("${trade.mutation.max-attempts:3}")
+    private int maxAttempts;
+
+    /** 重试退避基数（毫秒），第 n 次重试等待 n * backoff */
+    @Value("${trade.mutation.retry-backoff-ms:20}")
+    private long retryBackoffMs;
+
+    /** 等待计划锁的超时时间（毫秒） */
+    @Value("${trade.mutation.lock-timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    /**
+     * 在计划锁与事务内执行修改，乐观锁冲突时自动重试
+     * mutation 每次尝试都会重新执行，必须从数据库重新读取计划
+     */
+    public <T> T execute(Long planId, Supplier<T> mutation) {
+        LockEntry entry = reference(planId);
+        try {
+            if (!entry.lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ConcurrentTradeModificationException("计划 " + planId + " 正在被其他操作修改，请稍后重试");
+            }
+            try {
+                return executeWithRetry(planId, mutation);
+            } finally {
+                entry.lock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentTradeModificationException("等待计划锁时被中断: " + planId, e);
+        } finally {
+            release(planId);
+        }
+    }
+
+    /**
+     * 同时持有多个计划的锁，在同一事务内执行修改（批量交易）
+     * 按 planId 升序加锁，等待时间合计不超过 lockTimeoutMs；冲突重试时整批重新执行
+     */
+    public <T> T executeAll(Collection<Long> planIds, Supplier<T> mutation) {
+        List<Long> ordered = planIds.stream().distinct().sorted().toList();
+        List<Long> referenced = new ArrayList<>(ordered.size());
+        List<ReentrantLock> held = new ArrayList<>(ordered.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lockTimeoutMs);
+        try {
+            for (Long planId : ordered) {
+                LockEntry entry = reference(planId);
+                referenced.add(planId);
+                if (!entry.lock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    throw new ConcurrentTradeModificationException("计划 " + planId + " 正在被其他操作修改，请稍后重试");
+                }
+                held.add(entry.lock);
+            }
+            return executeWithRetry(ordered, mutation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentTradeModificationException("等待计划锁时被中断: " + ordered, e);
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+            referenced.forEach(this::release);
+        }
+    }
+
+    private LockEntry reference(Long planId) {
+        return locks.compute(planId, (id, existing) -> {
+            LockEntry e = existing != null ? existing : new LockEntry();
+            e.refs++;
+            return e;
+        });
+    }
+
+    private void release(Long planId) {
+        locks.computeIfPresent(planId, (id, e) -> --e.refs == 0 ? null : e);
+    }
+
+    /**
+     * @param planId 单个计划 id 或批量时的 id 列表，仅用于日志与异常信息
+     */
+    private <T> T executeWithRetry(Object planId, Supplier<T> mutation) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> mutation.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("计划并发修改冲突，重试 {} 次后放弃: planId={}", attempt, planId);
+                    throw new ConcurrentTradeModificationException("计划 " + planId + " 被并发修改，请刷新后重试", e);
+                }
+                log.info("计划版本冲突，第 {} 次重试: planId={}", attempt, planId);
+                Thread.sleep(retryBackoffMs * attempt);
+            }
+        }
+    }
+
+    private static class LockEntry {
+        private final ReentrantLock lock = new ReentrantLock();
+        /** 持有或等待该锁的线程数，仅在 ConcurrentHashMap.compute 内修改 */
+        private int refs;
+    }
+}
@@ -0,0 +1,249 @@
+package com.tradermind.service;
+
+import com.tradermind.domain.PositionState;
+import com.tradermind.domain.TradeStatus;
+import com.tradermind.dto.LedgerMismatch;
+import com.tradermind.dto.LedgerRebuildReport;
+import com.tradermind.dto.PositionLedgerDTO;
+import com.tradermind.entity.PositionSnapshot;
+import com.tradermind.entity.TradePlan;
+import com.tradermind.entity.TradeTransaction;
+import com.tradermind.repository.PositionSnapshotRepository;
+import com.tradermind.repository.TradePlanRepository;
+import com.tradermind.repository.TradeTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 持仓账本服务（事件溯源）
+ * - 将 trade_transaction 流水按 ID 顺序折叠为持仓状态（PositionState）
+ * - 每个计划保留一份快照，单计划重建只回放快照之后的尾部流水
+ * - 全量重建按计划分块并行执行，对比 trade_plan 上存储的派生字段并可选修复
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PositionLedgerService {
+
+    private final TradePlanRepository tradePlanRepository;
+    private final TradeTransactionRepository tradeTransactionRepository;
+    private final PositionSnapshotRepository positionSnapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /** 尾部流水达到该条数时刷新快照 */
+    @Value("${ledger.snapshot-interval:20}")
+    private int snapshotInterval;
+
+    /** 全量重建并行度（受数据库连接池大小约束） */
+    @Value("${ledger.rebuild.parallelism:4}")
+    private int parallelism;
+
+    /** 全量重建时每个事务处理的计划数 */
+    @Value("${ledger.rebuild.chunk-size:200}")
+    private int chunkSize;
+
+    /**
+     * 单计划账本：从最新快照继续回放尾部流水
+     * 尾部过长时顺带刷新快照，下次只需回放更少的流水
+     */
+    @Transactional
+    public PositionLedgerDTO project(Long planId) {
+        TradePlan plan = tradePlanRepository.findById(planId)
+                .orElseThrow(() -> new IllegalArgumentException("未找到交易计划: " + planId));
+
+        PositionSnapshot snapshot = positionSnapshotRepository.findById(planId).orElse(null);
+        PositionState state = PositionState.EMPTY;
+        long afterId = 0L;
+        int baseCount = 0;
+        if (snapshot != null) {
+            state = new PositionState(snapshot.getAvgEntryPrice(), snapshot.getTotalQuantity(),
+                    snapshot.getCurrentQuantity(), snapshot.getRealizedPnL());
+            afterId = snapshot.getLastTransactionId();
+            baseCount = snapshot.getTransactionCount();
+        }
+
+        List<TradeTransaction> tail = tradeTransactionRepository.findByPlanIdAndIdGreaterThanOrderByIdAsc(planId, afterId);
+        for (TradeTransaction t : tail) {
+            state = state.apply(plan.getDirection(), t.getType(), t.getPrice(), t.getQuantity());
+        }
+
+        int totalCount = baseCount + tail.size();
+        if (tail.size() >= snapshotInterval) {
+            saveSnapshot(planId, state, tail.get(tail.size() - 1).getId(), totalCount);
+            log.debug("刷新持仓快照: planId={}, 回放={}, 累计={}", planId, tail.size(), totalCount);
+        }
+
+        return new PositionLedgerDTO(
+                planId,
+                state.avgEntryPrice(),
+                state.totalQuantity(),
+                state.currentQuantity(),
+                state.realizedPnL(),
+                totalCount,
+                tail.size(),
+                snapshot != null
+        );
+    }
+
+    /**
+     * 全量重建：所有有流水的计划从头回放，重写快照，并与存储字段逐项比对
+     *
+     * @param repair 为 true 时用账本结果覆盖 trade_plan 上不一致的派生字段
+     */
+    public LedgerRebuildReport rebuildAll(boolean repair) {
+        long start = System.currentTimeMillis();
+        List<Long> planIds = tradeTransactionRepository.findDistinctPlanIds();
+
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < planIds.size(); i += chunkSize) {
+            chunks.add(planIds.subList(i, Math.min(i + chunkSize, planIds.size())));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, chunks.size())));
+        List<ChunkResult> results = new ArrayList<>();
+        try {
+            List<Future<ChunkResult>> futures = chunks.stream()
+                    .map(chunk -> pool.submit(() -> transactionTemplate.execute(status -> rebuildChunk(chunk, repair))))
+                    .toList();
+            for (Future<ChunkResult> f : futures) {
+                results.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("账本重建被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("账本重建失败: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        List<LedgerMismatch> mismatches = results.stream().flatMap(r -> r.mismatches.stream()).toList();
+        long replayed = results.stream().mapToLong(r -> r.transactions).sum();
+        int mismatchedPlans = (int) mismatches.stream().map(LedgerMismatch::planId).distinct().count();
+        int repaired = results.stream().mapToInt(r -> r.repaired).sum();
+        long elapsed = System.currentTimeMillis() - start;
+
+        if (mismatches.isEmpty()) {
+            log.info("账本全量重建完成: 计划={}, 流水={}, 无差异, 耗时={}ms", planIds.size(), replayed, elapsed);
+        } else {
+            log.warn("账本全量重建完成: 计划={}, 流水={}, 差异计划={}, 已修复={}, 耗时={}ms",
+                    planIds.size(), replayed, mismatchedPlans, repaired, elapsed);
+        }
+        return new LedgerRebuildReport(planIds.size(), replayed, mismatchedPlans, repaired, mismatches, elapsed);
+    }
+
+    /**
+     * 在单个事务内重建一批计划：一次查询取回这批计划的全部流水
+     */
+    private ChunkResult rebuildChunk(List<Long> planIds, boolean repair) {
+        Map<Long, TradePlan> plans = tradePlanRepository.findAllById(planIds).stream()
+                .collect(Collectors.toMap(TradePlan::getId, Function.identity()));
+        Map<Long, List<TradeTransaction>> txnsByPlan = tradeTransactionRepository.findByPlanIdsOrdered(planIds).stream()
+                .collect(Collectors.groupingBy(t -> t.getPlan().getId()));
+
+        ChunkResult result = new ChunkResult();
+        for (Long planId : planIds) {
+            TradePlan plan = plans.get(planId);
+            List<TradeTransaction> txns = txnsByPlan.getOrDefault(planId, List.of());
+            if (plan == null || txns.isEmpty()) {
+                continue;
+            }
+
+            PositionState ledger = PositionState.EMPTY;
+            for (TradeTransaction t : txns) {
+                ledger = ledger.apply(plan.getDirection(), t.getType(), t.getPrice(), t.getQuantity());
+            }
+            result.transactions += txns.size();
+            saveSnapshot(planId, ledger, txns.get(txns.size() - 1).getId(), txns.size());
+
+            List<LedgerMismatch> diff = compare(plan, ledger);
+            if (!diff.isEmpty()) {
+                result.mismatches.addAll(diff);
+                if (repair) {
+                    plan.applyPositionState(ledger);
+                    tradePlanRepository.save(plan);
+                    result.repaired++;
+                    log.warn("已按流水修复持仓派生字段: planId={}, stock={}", planId, plan.getStockSymbol());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 逐项比对存储字段与账本结果；金额用 compareTo 忽略 scale 差异
+     */
+    private List<LedgerMismatch> compare(TradePlan plan, PositionState ledger) {
+        PositionState stored = plan.positionState();
+        List<LedgerMismatch> diff = new ArrayList<>();
+        if (!sameAmount(stored.avgEntryPrice(), ledger.avgEntryPrice())) {
+            diff.add(mismatch(plan, "avgEntryPrice", stored.avgEntryPrice(), ledger.avgEntryPrice()));
+        }
+        if (stored.totalQuantity() != ledger.totalQuantity()) {
+            diff.add(mismatch(plan, "totalQuantity", stored.totalQuantity(), ledger.totalQuantity()));
+        }
+        if (stored.currentQuantity() != ledger.currentQuantity()) {
+            diff.add(mismatch(plan, "currentQuantity", stored.currentQuantity(), ledger.currentQuantity()));
+        }
+        if (!sameAmount(stored.realizedPnL(), ledger.realizedPnL())) {
+            diff.add(mismatch(plan, "realizedPnL", stored.realizedPnL(), ledger.realizedPnL()));
+        }
+        // 状态与剩余持仓必须一致：CLOSED 无持仓，OPEN 有持仓
+        boolean closed = plan.getStatus() == TradeStatus.CLOSED;
+        if ((closed && ledger.currentQuantity() != 0) || (plan.getStatus() == TradeStatus.OPEN && ledger.currentQuantity() <= 0)) {
+            diff.add(mismatch(plan, "status", plan.getStatus(), "currentQuantity=" + ledger.currentQuantity()));
+        }
+        return diff;
+    }
+
+    private boolean sameAmount(BigDecimal a, BigDecimal b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.compareTo(b) == 0;
+    }
+
+    private LedgerMismatch mismatch(TradePlan plan, String field, Object stored, Object ledger) {
+        return new LedgerMismatch(plan.getId(), plan.getStockSymbol(), field,
+                Objects.toString(stored, null), Objects.toString(ledger, null));
+    }
+
+    private void saveSnapshot(Long planId, PositionState state, Long lastTransactionId, int transactionCount) {
+        positionSnapshotRepository.save(PositionSnapshot.builder()
+                .planId(planId)
+                .lastTransactionId(lastTransactionId)
+                .transactionCount(transactionCount)
+                .avgEntryPrice(state.avgEntryPrice())
+                .totalQuantity(state.totalQuantity())
+                .currentQuantity(state.currentQuantity())
+                .realizedPnL(state.realizedPnL())
+                .takenAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * 单个分块的重建结果
+     */
+    private static class ChunkResult {
+        private final List<LedgerMismatch> mismatches = new ArrayList<>();
+        private long transactions;
+        private int repaired;
+    }
+}
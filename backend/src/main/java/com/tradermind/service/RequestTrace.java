@@ -0,0 +1,188 @@
+package com.tradermind.service;
+
+import com.tradermind.dto.SlowRequestDTO;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * 单个 HTTP 请求的耗时分解
+ * 由 RequestTraceFilter 在请求进入时创建并绑定到当前线程（异步请求同时挂在 request 属性上，异步派发时重新绑定），
+ * 各环节在自身计时处调用 record 累加：
+ * - DB：JDBC 取连接与语句执行（TracingDataSource，覆盖 JPA 与 JdbcTemplate）
+ * - MARKET：外部行情接口（StockMarketService）
+ * - AI：大模型调用（LlmClient；响应式链不在请求线程上执行，trace 经 Reactor Context 传递）
+ * - SERIALIZATION：JSON 响应序列化（Jackson 消息转换器）
+ * 总耗时减去以上各项即为应用自身计算（compute）。各环节可能并行（如 AI 调用期间），此时 compute 取 0
+ * 未绑定 trace 的线程（定时任务、复盘队列）上 record 为空操作
+ */
+public final class RequestTrace {
+
+    public enum Phase {
+        DB("db", "JDBC"),
+        MARKET("market", "Market data"),
+        AI("ai", "LLM"),
+        SERIALIZATION("ser", "Serialization");
+
+        private final String metricName;
+        private final String description;
+
+        Phase(String metricName, String description) {
+            this.metricName = metricName;
+            this.description = description;
+        }
+    }
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final Phase[] PHASES = Phase.values();
+
+    private final String method;
+    private final String path;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startNanos = System.nanoTime();
+    private final boolean serverTimingRequested;
+    /** 各环节累计纳秒与次数，可能由请求线程与响应式回调线程同时写入 */
+    private final AtomicLongArray nanos = new AtomicLongArray(PHASES.length);
+    private final AtomicLongArray counts = new AtomicLongArray(PHASES.length);
+
+    public RequestTrace(String method, String path, boolean serverTimingRequested) {
+        this.method = method;
+        this.path = path;
+        this.serverTimingRequested = serverTimingRequested;
+    }
+
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    public static void bind(RequestTrace trace) {
+        CURRENT.set(trace);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 供响应式链 contextWrite：把当前线程的 trace 写入 Reactor Context，未绑定时不变
+     */
+    public static Function<Context, Context> captureContext() {
+        RequestTrace trace = CURRENT.get();
+        return ctx -> trace != null ? ctx.put(RequestTrace.class, trace) : ctx;
+    }
+
+    public static RequestTrace fromContext(ContextView ctx) {
+        return ctx.getOrDefault(RequestTrace.class, null);
+    }
+
+    /**
+     * 在绑定 trace 的线程上执行（响应式链中 boundedElastic 上的阻塞调用），结束后恢复原绑定
+     */
+    public static <T> T callWith(RequestTrace trace, Callable<T> call) throws Exception {
+        if (trace == null) {
+            return call.call();
+        }
+        RequestTrace previous = CURRENT.get();
+        CURRENT.set(trace);
+        try {
+            return call.call();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * 累加到当前线程绑定的 trace；未绑定时忽略
+     */
+    public static void record(Phase phase, long elapsedNanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.add(phase, elapsedNanos);
+        }
+    }
+
+    public void add(Phase phase, long elapsedNanos) {
+        add(phase, elapsedNanos, 1);
+    }
+
+    /**
+     * 并发执行的一组调用按整体墙钟时间计入，次数为调用数
+     */
+    public void add(Phase phase, long elapsedNanos, int calls) {
+        nanos.addAndGet(phase.ordinal(), elapsedNanos);
+        counts.addAndGet(phase.ordinal(), calls);
+    }
+
+    public boolean serverTimingRequested() {
+        return serverTimingRequested;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 截至当前的 Server-Timing 头，如 db;dur=12.3;desc="JDBC x5", ..., app;dur=3.1, total;dur=20.4
+     */
+    public String serverTimingHeader() {
+        long total = elapsedNanos();
+        StringBuilder sb = new StringBuilder(160);
+        for (Phase phase : PHASES) {
+            long count = counts.get(phase.ordinal());
+            if (count == 0) {
+                continue;
+            }
+            sb.append(phase.metricName).append(";dur=").append(millis(nanos.get(phase.ordinal())))
+                    .append(";desc=\"").append(phase.description).append(" x").append(count).append("\", ");
+        }
+        sb.append("app;dur=").append(millis(computeNanos(total))).append(";desc=\"Compute\", ");
+        sb.append("total;dur=").append(millis(total));
+        return sb.toString();
+    }
+
+    /**
+     * 请求结束时的快照
+     *
+     * @param endpoint 控制器.方法，未匹配时为 none
+     */
+    public SlowRequestDTO snapshot(String endpoint, int status, long totalNanos) {
+        return new SlowRequestDTO(
+                startedAt,
+                method,
+                path,
+                endpoint,
+                status,
+                millis(totalNanos),
+                millis(nanos.get(Phase.DB.ordinal())),
+                counts.get(Phase.DB.ordinal()),
+                millis(nanos.get(Phase.MARKET.ordinal())),
+                counts.get(Phase.MARKET.ordinal()),
+                millis(nanos.get(Phase.AI.ordinal())),
+                counts.get(Phase.AI.ordinal()),
+                millis(nanos.get(Phase.SERIALIZATION.ordinal())),
+                millis(computeNanos(totalNanos)));
+    }
+
+    private long computeNanos(long totalNanos) {
+        long attributed = 0;
+        for (Phase phase : PHASES) {
+            attributed += nanos.get(phase.ordinal());
+        }
+        return Math.max(0, totalNanos - attributed);
+    }
+
+    /**
+     * 纳秒转毫秒，保留一位小数
+     */
+    private static double millis(long nanos) {
+        return Math.round(nanos / 100_000.0) / 10.0;
+    }
+}
@@ -0,0 +1,273 @@
+package com.tradermind.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 买入逻辑相似度索引（进程内 MinHash + LSH）
+ * - 文本规范化（小写、只保留字母数字与汉字）后取字符 n-gram，哈希为 int 集合
+ * - MinHash 签名：numHashes 个独立哈希函数下的最小值，两签名相同位置相等的比例估计 Jaccard 相似度
+ * - LSH：签名切成 bands 段，任一段完全相同即成为候选；阈值约 (1/bands)^(1/rows)
+ * - 候选按精确 Jaccard（排序 int 数组归并）重排，过滤低于 minSimilarity 的结果
+ * 启动时从 trade_plan 全量构建，新建计划时增量加入；读多写少，使用读写锁
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SimilarTradeIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** 字符 n-gram 长度；中文二元组即可区分大部分词 */
+    @Value("${similar.shingle-size:2}")
+    private int shingleSize;
+
+    /** MinHash 签名长度，必须能被 bands 整除 */
+    @Value("${similar.num-hashes:128}")
+    private int numHashes;
+
+    /** LSH 段数；128/64 即每段 2 行，阈值约 0.125，偏向召回，由精确重排保证精度 */
+    @Value("${similar.bands:64}")
+    private int bands;
+
+    /** 结果的最低 Jaccard 相似度 */
+    @Value("${similar.min-similarity:0.15}")
+    private double minSimilarity;
+
+    private int rows;
+    private int[] seeds;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private List<Map<Long, List<Long>>> buckets;
+
+    @PostConstruct
+    void init() {
+        if (numHashes % bands != 0) {
+            throw new IllegalStateException("similar.num-hashes 必须能被 similar.bands 整除");
+        }
+        rows = numHashes / bands;
+        // 固定种子：重启后签名一致，便于排查
+        SplittableRandom random = new SplittableRandom(0x5EED_7EADL);
+        seeds = new int[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            seeds[i] = random.nextInt();
+        }
+        buckets = new ArrayList<>(bands);
+        for (int b = 0; b < bands; b++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * 启动后全量构建；构建期间新建的计划经 add 直接进入索引，重复加入会覆盖
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        int[] count = {0};
+        jdbcTemplate.query("SELECT id, entry_logic FROM trade_plan", rs -> {
+            add(rs.getLong("id"), rs.getString("entry_logic"));
+            count[0]++;
+        });
+        log.info("相似交易索引构建完成: {} 个计划, 耗时 {}ms", count[0], System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 加入或替换一个计划的买入逻辑
+     */
+    public void add(Long planId, String entryLogic) {
+        int[] shingles = shingles(entryLogic);
+        if (shingles.length == 0) {
+            remove(planId);
+            return;
+        }
+        Entry entry = new Entry(shingles, signature(shingles));
+        lock.writeLock().lock();
+        try {
+            Entry old = entries.put(planId, entry);
+            if (old != null) {
+                unindex(planId, old);
+            }
+            for (int b = 0; b < bands; b++) {
+                buckets.get(b).computeIfAbsent(bandKey(entry.signature(), b), k -> new ArrayList<>(2)).add(planId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long planId) {
+        lock.writeLock().lock();
+        try {
+            Entry old = entries.remove(planId);
+            if (old != null) {
+                unindex(planId, old);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查找与给定文本相似的计划，按相似度降序
+     *
+     * @param excludePlanId 排除的计划（按已有计划查相似时排除自身），可为 null
+     * @param limit         最多返回条数
+     */
+    public List<Match> query(String text, Long excludePlanId, int limit) {
+        int[] shingles = shingles(text);
+        if (shingles.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        int[] signature = signature(shingles);
+
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            HashSet<Long> candidates = new HashSet<>();
+            for (int b = 0; b < bands; b++) {
+                List<Long> bucket = buckets.get(b).get(bandKey(signature, b));
+                if (bucket != null) {
+                    candidates.addAll(bucket);
+                }
+            }
+            candidates.remove(excludePlanId);
+            for (Long planId : candidates) {
+                double similarity = jaccard(shingles, entries.get(planId).shingles());
+                if (similarity >= minSimilarity) {
+                    matches.add(new Match(planId, similarity));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingDouble(Match::similarity).reversed());
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    private void unindex(Long planId, Entry entry) {
+        for (int b = 0; b < bands; b++) {
+            Map<Long, List<Long>> band = buckets.get(b);
+            long key = bandKey(entry.signature(), b);
+            List<Long> bucket = band.get(key);
+            if (bucket != null) {
+                bucket.remove(planId);
+                if (bucket.isEmpty()) {
+                    band.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * 规范化后的字符 n-gram 哈希集合（排序去重）；短于 n 的文本整体作为一个片段
+     */
+    private int[] shingles(String text) {
+        if (text == null) {
+            return new int[0];
+        }
+        int[] cps = text.toLowerCase(Locale.ROOT).codePoints()
+                .filter(Character::isLetterOrDigit)
+                .toArray();
+        if (cps.length == 0) {
+            return new int[0];
+        }
+        int n = Math.min(shingleSize, cps.length);
+        int[] hashes = new int[cps.length - n + 1];
+        for (int i = 0; i + n <= cps.length; i++) {
+            int h = 0x9747b28c;
+            for (int j = i; j < i + n; j++) {
+                h = mix(h ^ cps[j]);
+            }
+            hashes[i] = h;
+        }
+        return Arrays.stream(hashes).sorted().distinct().toArray();
+    }
+
+    private int[] signature(int[] shingles) {
+        int[] signature = new int[numHashes];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int x : shingles) {
+            for (int i = 0; i < numHashes; i++) {
+                int h = mix(x ^ seeds[i]);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * 一段签名（rows 个 int）的 FNV-1a 哈希，作为该段桶键
+     */
+    private long bandKey(int[] signature, int band) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = band * rows; i < (band + 1) * rows; i++) {
+            h = (h ^ signature[i]) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * 两个排序去重 int 数组的 Jaccard 相似度
+     */
+    private static double jaccard(int[] a, int[] b) {
+        int i = 0, j = 0, common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    /**
+     * murmur3 fmix32
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private record Entry(int[] shingles, int[] signature) {}
+
+    public record Match(long planId, double similarity) {}
+}
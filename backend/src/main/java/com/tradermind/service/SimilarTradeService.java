@@ -0,0 +1,131 @@
+package com.tradermind.service;
+
+import com.tradermind.dto.SimilarTradeDTO;
+import com.tradermind.entity.TradeExecution;
+import com.tradermind.entity.TradePlan;
+import com.tradermind.repository.TradeExecutionRepository;
+import com.tradermind.repository.TradePlanRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 相似历史交易查询
+ * 先在 SimilarTradeIndex 中按买入逻辑取候选，再一次查询加载其中已平仓的计划与执行结果（盈亏、AI 评分）；
+ * 结果会随平仓与复盘变化，因此不放进索引
+ */
+@Service
+@RequiredArgsConstructor
+public class SimilarTradeService {
+
+    /** 候选放大倍数：部分候选是未平仓计划，会被过滤 */
+    private static final int CANDIDATE_FACTOR = 4;
+
+    private final SimilarTradeIndex similarTradeIndex;
+    private final TradePlanRepository tradePlanRepository;
+    private final TradeExecutionRepository tradeExecutionRepository;
+
+    @Value("${similar.default-k:5}")
+    private int defaultK;
+
+    @Value("${similar.max-k:50}")
+    private int maxK;
+
+    /**
+     * 与给定买入逻辑相似的已平仓交易，按相似度降序
+     */
+    @Transactional(readOnly = true)
+    public List<SimilarTradeDTO> findSimilar(String entryLogic, Integer k) {
+        return findSimilar(entryLogic, null, resolveK(k));
+    }
+
+    /**
+     * 与已有计划的买入逻辑相似的已平仓交易（不含自身）
+     */
+    @Transactional(readOnly = true)
+    public List<SimilarTradeDTO> findSimilarToPlan(Long planId, Integer k) {
+        TradePlan plan = tradePlanRepository.findById(planId)
+                .orElseThrow(() -> new IllegalArgumentException("未找到 ID 为 " + planId + " 的交易计划"));
+        return findSimilar(plan.getEntryLogic(), planId, resolveK(k));
+    }
+
+    /**
+     * 供质询提示使用的历史结果摘要；没有相似交易时返回 null
+     */
+    @Transactional(readOnly = true)
+    public String promptContext(String entryLogic, int k) {
+        List<SimilarTradeDTO> similar = findSimilar(entryLogic, null, k);
+        if (similar.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (SimilarTradeDTO t : similar) {
+            sb.append("- ").append(t.stockSymbol())
+                    .append("，相似度 ").append(String.format("%.2f", t.similarity()))
+                    .append("，已实现盈亏 ").append(t.realizedPnL() != null ? t.realizedPnL().setScale(2, RoundingMode.HALF_UP) : "未知")
+                    .append("，AI 评分 ").append(t.aiAnalysisScore() != null ? t.aiAnalysisScore() : "无")
+                    .append("，当时逻辑：").append(abbreviate(t.entryLogic(), 60))
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+
+    private List<SimilarTradeDTO> findSimilar(String entryLogic, Long excludePlanId, int k) {
+        List<SimilarTradeIndex.Match> matches = similarTradeIndex.query(entryLogic, excludePlanId, k * CANDIDATE_FACTOR);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        // 每个计划取最近一次平仓的执行记录
+        Map<Long, TradeExecution> latest = new HashMap<>();
+        for (TradeExecution e : tradeExecutionRepository.findClosedByPlanIdIn(
+                matches.stream().map(SimilarTradeIndex.Match::planId).toList())) {
+            latest.putIfAbsent(e.getPlan().getId(), e);
+        }
+
+        List<SimilarTradeDTO> result = new ArrayList<>(k);
+        for (SimilarTradeIndex.Match m : matches) {
+            TradeExecution e = latest.get(m.planId());
+            if (e == null) {
+                continue;
+            }
+            TradePlan plan = e.getPlan();
+            result.add(new SimilarTradeDTO(
+                    plan.getId(),
+                    e.getId(),
+                    plan.getStockSymbol(),
+                    m.similarity(),
+                    plan.getEntryLogic(),
+                    e.getRealizedPnL(),
+                    e.getAiAnalysisScore(),
+                    e.getRuleScore(),
+                    e.getCreatedAt()));
+            if (result.size() == k) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private int resolveK(Integer k) {
+        if (k == null) {
+            return defaultK;
+        }
+        if (k <= 0 || k > maxK) {
+            throw new IllegalArgumentException("k 必须在 1 到 " + maxK + " 之间");
+        }
+        return k;
+    }
+
+    private static String abbreviate(String s, int max) {
+        String oneLine = s.replaceAll("\\s+", " ").strip();
+        return oneLine.length() > max ? oneLine.substring(0, max) + "…" : oneLine;
+    }
+}
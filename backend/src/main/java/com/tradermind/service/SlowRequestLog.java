@@ -0,0 +1,87 @@
+package com.tradermind.service;
+
+import com.tradermind.dto.SlowRequestDTO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 慢请求环形缓冲
+ * 耗时不低于阈值的请求按到达顺序写入定长数组，满后覆盖最旧的一条；查询时按总耗时降序返回，
+ * 即最近 capacity 条慢请求中最慢的若干条。只在请求结束时写一次，锁竞争可忽略
+ */
+@Component
+public class SlowRequestLog {
+
+    @Value("${trace.slow-requests.capacity:100}")
+    private int capacity;
+
+    /** 低于该耗时的请求不进入缓冲 */
+    @Value("${trace.slow-requests.threshold-ms:200}")
+    private long thresholdMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private SlowRequestDTO[] ring;
+    private int next;
+    private int size;
+
+    @PostConstruct
+    void init() {
+        if (capacity <= 0) {
+            throw new IllegalStateException("trace.slow-requests.capacity 必须大于 0");
+        }
+        ring = new SlowRequestDTO[capacity];
+    }
+
+    public boolean isSlow(long totalNanos) {
+        return totalNanos >= thresholdMs * 1_000_000;
+    }
+
+    public void add(SlowRequestDTO request) {
+        lock.lock();
+        try {
+            ring[next] = request;
+            next = (next + 1) % ring.length;
+            size = Math.min(size + 1, ring.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 缓冲中最慢的 limit 条，按总耗时降序
+     */
+    public List<SlowRequestDTO> slowest(int limit) {
+        if (limit <= 0 || limit > capacity) {
+            throw new IllegalArgumentException("limit 必须在 1 到 " + capacity + " 之间");
+        }
+        List<SlowRequestDTO> all = new ArrayList<>(size);
+        lock.lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                all.add(ring[i]);
+            }
+        } finally {
+            lock.unlock();
+        }
+        all.sort(Comparator.comparingDouble(SlowRequestDTO::totalMs).reversed());
+        return all.size() > limit ? all.subList(0, limit) : all;
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            Arrays.fill(ring, null);
+            next = 0;
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
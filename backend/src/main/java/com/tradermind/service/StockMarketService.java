@@ -1,32 +1,83 @@
 package com.tradermind.service;
 
+import com.tradermind.jfr.QuoteFetchEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * 股票行情服务
  * 接入新浪财经接口获取实时股票价格
+ * 每次外部接口调用记入 market.provider.requests 计时器，
+ * 标签：provider（sina / tencent / sina-suggest / eastmoney）、operation（quote / info / batch / search）、
+ * market（sh / sz / hk / us，批量请求为市场组 cn / hk / us，搜索为 none）、outcome（success / empty / parse_error / http_error / error）；
+ * 同一耗时计入当前请求 RequestTrace 的行情环节；新浪行情请求另提交 JFR 事件 QuoteFetchEvent
  */
 @Service
 @Slf4j
 public class StockMarketService {
 
-    private final RestTemplate restTemplate;
-    private static final String SINA_API_URL = "http://hq.sinajs.cn/list=";
+    private final MeterRegistry meterRegistry;
+    private RestTemplate restTemplate;
+
+    /** HttpClient 回调与批量行情请求共用的虚拟线程执行器 */
+    private final ExecutorService quoteExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    /** 进行中的批量行情请求，键为排序后的带前缀代码列表；同一组代码的并发请求共享一次外呼 */
+    private final ConcurrentHashMap<String, CompletableFuture<Map<String, Quote>>> inFlightBatches = new ConcurrentHashMap<>();
+    /** 每个代码最近一次成功的批量报价（键为带前缀代码），超时时作为过期报价返回；规模以持仓涉及的代码数为上限 */
+    private final ConcurrentHashMap<String, Quote> lastKnownQuotes = new ConcurrentHashMap<>();
+
+    /** 行情 HTTP 连接超时 */
+    @Value("${market.http.connect-timeout-ms:3000}")
+    private long connectTimeoutMs;
+
+    /** 行情 HTTP 读超时；无超时时上游挂起会一直占住请求线程 */
+    @Value("${market.http.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    /** 批量取行情时单次请求内的最大并发外呼数 */
+    @Value("${market.fanout.max-concurrency:16}")
+    private int fanOutConcurrency = 16;
+
+    /** 新浪行情接口地址（代码直接拼在末尾）；压测时指向本地桩服务 */
+    @Value("${market.sina.url:http://hq.sinajs.cn/list=}")
+    private String sinaApiUrl;
     /** 东方财富搜索 API，支持按股票名称/代码搜索 */
     private static final String EASTMONEY_SEARCH_URL = "https://searchapi.eastmoney.com/api/suggest/get";
     /** 腾讯财经搜索 API */
@@ -34,14 +85,255 @@ public class StockMarketService {
     /** 新浪财经搜索 API（备用） */
     private static final String SINA_SEARCH_URL = "http://suggest3.sinajs.cn/suggest/type=&key=";
     
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_EMPTY = "empty";
+    private static final String OUTCOME_PARSE_ERROR = "parse_error";
+    private static final String OUTCOME_HTTP_ERROR = "http_error";
+    private static final String OUTCOME_ERROR = "error";
+
     // 匹配新浪返回的格式: var hq_str_sh600519="茅台,1700.00,..."
     private static final Pattern RESPONSE_PATTERN = Pattern.compile("var\\s+hq_str_[^=]+=\"([^\"]+)\"");
+    // 批量响应逐行匹配，同时取出带前缀代码: var hq_str_sh600519="..."; var hq_str_sz000001="...";
+    private static final Pattern BATCH_RESPONSE_PATTERN = Pattern.compile("var\\s+hq_str_([^=\\s]+)=\"([^\"]*)\"");
+
+    public StockMarketService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * RestTemplate 基于 JDK HttpClient：自带连接池与超时，阻塞等待时只挂起虚拟线程；
+     * 默认的 HttpURLConnection 在 synchronized 块内做 I/O，会把虚拟线程钉在载体线程上
+     */
+    @PostConstruct
+    void init() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                // 默认执行器是无界平台线程池，高并发时反复创建线程；响应回调改在虚拟线程上执行
+                .executor(quoteExecutor)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        quoteExecutor.shutdownNow();
+    }
+
+    /**
+     * 带时限的批量行情（持仓仪表盘）
+     * 代码按市场组（A股 cn / 港股 hk / 美股 us）各发一次新浪批量请求（list=a,b,...），各组并发，
+     * 调用线程最多等待 deadline：
+     * - 时限内返回的代码取实时报价（名称与现价同一次请求取得）
+     * - 超时或失败的代码取该代码上次成功的报价并标记 stale；从未取到过时名称为 null、价格为 -1
+     * 超时的请求不取消，完成后仍刷新最近报价；同一组代码的并发请求共享同一次外呼，慢市场不会被重复请求。
+     * 等待的墙钟时间计入 RequestTrace 的行情环节，次数为市场组数
+     *
+     * @return 代码 -> 报价，每个入参代码都有值
+     */
+    public Map<String, Quote> getQuotes(Collection<String> stockCodes, Duration deadline) {
+        Map<String, String> prefixedByCode = new HashMap<>();
+        Map<String, TreeSet<String>> groups = new HashMap<>();
+        for (String code : stockCodes) {
+            if (prefixedByCode.containsKey(code)) {
+                continue;
+            }
+            try {
+                String prefixed = addPrefix(code);
+                prefixedByCode.put(code, prefixed);
+                groups.computeIfAbsent(marketGroup(prefixed), g -> new TreeSet<>()).add(prefixed);
+            } catch (IllegalArgumentException e) {
+                prefixedByCode.put(code, null);
+            }
+        }
+
+        long start = System.nanoTime();
+        Map<String, CompletableFuture<Map<String, Quote>>> batches = new HashMap<>(groups.size() * 2);
+        groups.forEach((group, codes) -> batches.put(group, batch(group, List.copyOf(codes))));
+        try {
+            CompletableFuture.allOf(batches.values().toArray(CompletableFuture[]::new))
+                    .get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // 超时或个别组失败：已完成的组照常使用，其余回退到最近报价
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null && !batches.isEmpty()) {
+            trace.add(RequestTrace.Phase.MARKET, System.nanoTime() - start, batches.size());
+        }
+
+        Map<String, Quote> result = new HashMap<>(prefixedByCode.size() * 2);
+        prefixedByCode.forEach((code, prefixed) -> {
+            Quote fresh = null;
+            if (prefixed != null) {
+                CompletableFuture<Map<String, Quote>> batch = batches.get(marketGroup(prefixed));
+                if (batch.isDone() && !batch.isCompletedExceptionally()) {
+                    fresh = batch.join().get(prefixed);
+                }
+            }
+            result.put(code, fresh != null ? fresh : staleQuote(prefixed));
+        });
+        return result;
+    }
+
+    /**
+     * 单飞：同一组代码已有进行中的请求时直接复用，否则提交新请求，完成后移除登记
+     */
+    private CompletableFuture<Map<String, Quote>> batch(String group, List<String> prefixedCodes) {
+        String key = String.join(",", prefixedCodes);
+        CompletableFuture<Map<String, Quote>> existing = inFlightBatches.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<Map<String, Quote>> created = new CompletableFuture<>();
+        existing = inFlightBatches.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            quoteExecutor.execute(() -> {
+                try {
+                    created.complete(fetchBatch(group, prefixedCodes));
+                } catch (Throwable t) {
+                    created.completeExceptionally(t);
+                } finally {
+                    inFlightBatches.remove(key, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlightBatches.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private Quote staleQuote(String prefixedCode) {
+        Quote last = prefixedCode != null ? lastKnownQuotes.get(prefixedCode) : null;
+        meterRegistry.counter("market.quotes.stale",
+                "market", prefixedCode != null ? marketGroup(prefixedCode) : "unknown",
+                "fallback", last != null ? "last_known" : "none").increment();
+        return last != null ? new Quote(last.name(), last.price(), true) : new Quote(null, BigDecimal.valueOf(-1), true);
+    }
+
+    /**
+     * 一次新浪批量请求：list=代码1,代码2,...，响应每个代码一行，名称为字段 [0]
+     * 异常不外抛，失败的代码不出现在结果中；成功的报价同时写入最近报价
+     *
+     * @return 带前缀代码 -> 报价
+     */
+    private Map<String, Quote> fetchBatch(String group, List<String> prefixedCodes) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        long bytes = -1;
+        QuoteFetchEvent event = new QuoteFetchEvent();
+        event.begin();
+        Map<String, Quote> quotes = new HashMap<>(prefixedCodes.size() * 2);
+        try {
+            String url = sinaApiUrl + String.join(",", prefixedCodes);
+            log.debug("请求新浪财经批量行情: {}", url);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36");
+            headers.set("Referer", "http://finance.sina.com.cn");
+            headers.set("Accept", "*/*");
+            ResponseEntity<String> responseEntity = restTemplate.exchange(
+                    url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+            String response = responseEntity.getBody();
+            bytes = responseBytes(responseEntity);
+            if (response == null || response.isBlank()) {
+                log.warn("新浪财经批量行情返回空响应，代码: {}", prefixedCodes);
+                outcome = OUTCOME_EMPTY;
+                return quotes;
+            }
+
+            Matcher matcher = BATCH_RESPONSE_PATTERN.matcher(response);
+            while (matcher.find()) {
+                String prefixed = matcher.group(1);
+                String data = matcher.group(2);
+                if (data.isBlank() || data.contains("FAILED") || data.contains("不存在")) {
+                    continue;
+                }
+                String[] fields = data.split(",");
+                BigDecimal price = priceFromFields(fields, prefixed, prefixed);
+                if (price.compareTo(BigDecimal.ZERO) <= 0) {
+                    continue;
+                }
+                Quote quote = new Quote(fields[0].trim(), price, false);
+                quotes.put(prefixed, quote);
+                lastKnownQuotes.put(prefixed, quote);
+            }
+            if (quotes.size() < prefixedCodes.size()) {
+                log.warn("新浪财经批量行情部分代码无有效报价: {}/{}，代码: {}", quotes.size(), prefixedCodes.size(), prefixedCodes);
+            }
+            outcome = quotes.isEmpty() ? OUTCOME_PARSE_ERROR : OUTCOME_SUCCESS;
+            return quotes;
+
+        } catch (HttpClientErrorException e) {
+            log.warn("新浪财经批量行情返回 HTTP 错误，代码: {}，状态码: {}", prefixedCodes, e.getStatusCode());
+            outcome = OUTCOME_HTTP_ERROR;
+            return quotes;
+        } catch (Exception e) {
+            log.error("获取新浪财经批量行情异常，代码: {}", prefixedCodes, e);
+            return quotes;
+        } finally {
+            recordProviderCall("sina", "batch", group, outcome, start);
+            commitQuoteEvent(event, String.join(",", prefixedCodes), "sina", "batch", outcome, bytes);
+        }
+    }
 
     /**
-     * 构造函数：配置 RestTemplate 请求头
+     * 批量请求的市场组：沪深合为 cn，港股 hk，美股 us
      */
-    public StockMarketService() {
-        this.restTemplate = new RestTemplate();
+    private static String marketGroup(String prefixedCode) {
+        return prefixedCode.startsWith("rt_hk") ? "hk" : prefixedCode.startsWith("gb_") ? "us" : "cn";
+    }
+
+    /**
+     * 批量取股票信息：去重后在虚拟线程上并发请求（单次最多 market.fanout.max-concurrency 路）
+     *
+     * @return 代码 -> 股票信息，获取失败的代码值为 null
+     */
+    public Map<String, StockInfo> getStockInfos(Collection<String> stockCodes) {
+        return fanOut(stockCodes, this::getStockInfo);
+    }
+
+    /**
+     * 外呼扇出：min(代码数, 并发上限) 个虚拟线程从同一下标取任务，全部完成后返回
+     * 单个代码时直接在调用线程执行。扇出期间的外呼不在请求线程上，整体墙钟时间一次性计入 RequestTrace 的行情环节
+     */
+    private <T> Map<String, T> fanOut(Collection<String> stockCodes, Function<String, T> fetch) {
+        List<String> codes = stockCodes.stream().distinct().toList();
+        Map<String, T> result = new HashMap<>(codes.size() * 2);
+        if (codes.size() <= 1) {
+            codes.forEach(code -> result.put(code, fetch.apply(code)));
+            return result;
+        }
+
+        long start = System.nanoTime();
+        List<T> values = new ArrayList<>(Collections.nCopies(codes.size(), null));
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.min(codes.size(), Math.max(1, fanOutConcurrency));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < workers; w++) {
+                executor.execute(() -> {
+                    for (int i = next.getAndIncrement(); i < codes.size(); i = next.getAndIncrement()) {
+                        values.set(i, fetch.apply(codes.get(i)));
+                    }
+                });
+            }
+        }
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null) {
+            trace.add(RequestTrace.Phase.MARKET, System.nanoTime() - start, codes.size());
+        }
+        for (int i = 0; i < codes.size(); i++) {
+            result.put(codes.get(i), values.get(i));
+        }
+        return result;
     }
 
     /**
@@ -51,9 +343,14 @@ public class StockMarketService {
      * @return 当前价格，如果获取失败返回 -1
      */
     public BigDecimal getCurrentPrice(String stockCode) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        long bytes = -1;
+        QuoteFetchEvent event = new QuoteFetchEvent();
+        event.begin();
         try {
             String prefixedCode = addPrefix(stockCode);
-            String url = SINA_API_URL + prefixedCode;
+            String url = sinaApiUrl + prefixedCode;
             
             log.debug("请求新浪财经接口: {}", url);
             
@@ -72,9 +369,11 @@ public class StockMarketService {
             );
             
             String response = responseEntity.getBody();
+            bytes = responseBytes(responseEntity);
             
             if (response == null || response.trim().isEmpty()) {
                 log.warn("新浪财经接口返回空响应，股票代码: {}", stockCode);
+                outcome = OUTCOME_EMPTY;
                 return BigDecimal.valueOf(-1);
             }
 
@@ -83,8 +382,10 @@ public class StockMarketService {
             
             if (price.compareTo(BigDecimal.ZERO) < 0) {
                 log.warn("解析价格失败，股票代码: {}, 响应: {}", stockCode, response);
+                outcome = OUTCOME_PARSE_ERROR;
             } else {
                 log.debug("获取股票 {} 实时价格成功: {}", stockCode, price);
+                outcome = OUTCOME_SUCCESS;
             }
             
             return price;
@@ -92,14 +393,83 @@ public class StockMarketService {
         } catch (HttpClientErrorException.Forbidden e) {
             // 403 Forbidden：可能是接口限制或需要验证
             log.warn("新浪财经接口返回 403 Forbidden，股票代码: {}，可能原因：接口限制或需要验证", stockCode);
+            outcome = OUTCOME_HTTP_ERROR;
             return BigDecimal.valueOf(-1);
         } catch (HttpClientErrorException e) {
             // 其他 HTTP 错误
             log.warn("新浪财经接口返回 HTTP 错误，股票代码: {}，状态码: {}", stockCode, e.getStatusCode());
+            outcome = OUTCOME_HTTP_ERROR;
             return BigDecimal.valueOf(-1);
         } catch (Exception e) {
             log.error("获取股票实时价格异常，股票代码: {}", stockCode, e);
             return BigDecimal.valueOf(-1);
+        } finally {
+            recordProviderCall("sina", "quote", symbolMarket(stockCode), outcome, start);
+            commitQuoteEvent(event, stockCode, "sina", "quote", outcome, bytes);
+        }
+    }
+
+    /**
+     * 搜索接口内部吞掉异常、失败时返回空列表，因此只区分有结果与无结果
+     */
+    private List<StockInfo> timedSearch(String provider, Supplier<List<StockInfo>> search) {
+        long start = System.nanoTime();
+        List<StockInfo> results = search.get();
+        recordProviderCall(provider, "search", "none", results.isEmpty() ? OUTCOME_EMPTY : OUTCOME_SUCCESS, start);
+        return results;
+    }
+
+    /**
+     * 响应体大小：优先取 Content-Length，缺失时按解码后的字符数近似
+     */
+    private static long responseBytes(ResponseEntity<String> responseEntity) {
+        long length = responseEntity.getHeaders().getContentLength();
+        if (length >= 0) {
+            return length;
+        }
+        return responseEntity.getBody() != null ? responseEntity.getBody().length() : 0;
+    }
+
+    /**
+     * 提交 JFR 行情事件；未开启记录时 shouldCommit 为 false，不填充字段
+     */
+    private static void commitQuoteEvent(QuoteFetchEvent event, String symbol, String provider, String operation,
+                                         String outcome, long bytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.symbol = symbol;
+            event.provider = provider;
+            event.operation = operation;
+            event.outcome = outcome;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    private void recordProviderCall(String provider, String operation, String market, String outcome, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        RequestTrace.record(RequestTrace.Phase.MARKET, elapsed);
+        Timer.builder("market.provider.requests")
+                .tag("provider", provider)
+                .tag("operation", operation)
+                .tag("market", market)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 代码所属市场（sh / sz / hk / us），作为指标标签；无法识别时为 unknown
+     */
+    private String symbolMarket(String stockCode) {
+        try {
+            String prefixed = addPrefix(stockCode);
+            return prefixed.startsWith("sh") ? "sh"
+                    : prefixed.startsWith("sz") ? "sz"
+                    : prefixed.startsWith("rt_hk") ? "hk"
+                    : "us";
+        } catch (IllegalArgumentException e) {
+            return "unknown";
         }
     }
 
@@ -192,34 +562,40 @@ public class StockMarketService {
                 return BigDecimal.valueOf(-1);
             }
 
-            // 判断是A股还是美股
-            String prefixedCode = addPrefix(stockCode);
-            BigDecimal price;
+            return priceFromFields(fields, addPrefix(stockCode), stockCode);
             
-            if (prefixedCode.startsWith("gb_")) {
-                // 美股：当前价在索引 [1]
-                price = parseDecimal(fields[1]);
-            } else {
-                // A股：当前价在索引 [3]
-                if (fields.length < 4) {
-                    log.warn("A股数据字段不足，股票代码: {}, 字段数: {}", stockCode, fields.length);
-                    return BigDecimal.valueOf(-1);
-                }
-                price = parseDecimal(fields[3]);
-            }
+        } catch (Exception e) {
+            log.error("解析新浪财经响应异常，股票代码: {}", stockCode, e);
+            return BigDecimal.valueOf(-1);
+        }
+    }
 
-            // 验证价格有效性
-            if (price.compareTo(BigDecimal.ZERO) <= 0) {
-                log.warn("解析出的价格无效，股票代码: {}, 价格: {}", stockCode, price);
+    /**
+     * 从已按逗号拆分的行情字段中取当前价（美股 [1]，A股 / 港股 [3]）
+     *
+     * @return 当前价，字段不足或价格无效返回 -1
+     */
+    private BigDecimal priceFromFields(String[] fields, String prefixedCode, String stockCode) {
+        BigDecimal price;
+        if (prefixedCode.startsWith("gb_")) {
+            // 美股：当前价在索引 [1]
+            price = fields.length > 1 ? parseDecimal(fields[1]) : BigDecimal.valueOf(-1);
+        } else {
+            // A股：当前价在索引 [3]
+            if (fields.length < 4) {
+                log.warn("A股数据字段不足，股票代码: {}, 字段数: {}", stockCode, fields.length);
                 return BigDecimal.valueOf(-1);
             }
+            price = parseDecimal(fields[3]);
+        }
 
-            return price.setScale(2, RoundingMode.HALF_UP);
-            
-        } catch (Exception e) {
-            log.error("解析新浪财经响应异常，股票代码: {}", stockCode, e);
+        // 验证价格有效性
+        if (price.compareTo(BigDecimal.ZERO) <= 0) {
+            log.warn("解析出的价格无效，股票代码: {}, 价格: {}", stockCode, price);
             return BigDecimal.valueOf(-1);
         }
+
+        return price.setScale(2, RoundingMode.HALF_UP);
     }
 
     /**
@@ -248,9 +624,14 @@ public class StockMarketService {
      * @return 股票信息，包含代码和名称，如果获取失败返回 null
      */
     public StockInfo getStockInfo(String stockCode) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        long bytes = -1;
+        QuoteFetchEvent event = new QuoteFetchEvent();
+        event.begin();
         try {
             String prefixedCode = addPrefix(stockCode);
-            String url = SINA_API_URL + prefixedCode;
+            String url = sinaApiUrl + prefixedCode;
             
             log.debug("请求新浪财经接口获取股票信息: {}", url);
             
@@ -269,9 +650,11 @@ public class StockMarketService {
             );
             
             String response = responseEntity.getBody();
+            bytes = responseBytes(responseEntity);
             
             if (response == null || response.trim().isEmpty()) {
                 log.warn("新浪财经接口返回空响应，股票代码: {}", stockCode);
+                outcome = OUTCOME_EMPTY;
                 return null;
             }
 
@@ -280,6 +663,7 @@ public class StockMarketService {
             
             if (!matcher.find()) {
                 log.warn("无法匹配新浪财经响应格式，股票代码: {}", stockCode);
+                outcome = OUTCOME_PARSE_ERROR;
                 return null;
             }
 
@@ -288,6 +672,7 @@ public class StockMarketService {
             // 检查是否返回错误信息
             if (data.contains("FAILED") || data.contains("不存在") || data.trim().isEmpty()) {
                 log.warn("新浪财经返回错误信息，股票代码: {}, 响应: {}", stockCode, data);
+                outcome = OUTCOME_EMPTY;
                 return null;
             }
 
@@ -296,6 +681,7 @@ public class StockMarketService {
             
             if (fields.length < 1 || fields[0].trim().isEmpty()) {
                 log.warn("无法获取股票名称，股票代码: {}", stockCode);
+                outcome = OUTCOME_PARSE_ERROR;
                 return null;
             }
 
@@ -304,17 +690,23 @@ public class StockMarketService {
                            prefixedCode.startsWith("sz") ? "sz" : 
                            prefixedCode.startsWith("rt_hk") ? "hk" : "us";
             
+            outcome = OUTCOME_SUCCESS;
             return new StockInfo(stockCode, stockName, market);
             
         } catch (HttpClientErrorException.Forbidden e) {
             log.warn("新浪财经接口返回 403 Forbidden，股票代码: {}", stockCode);
+            outcome = OUTCOME_HTTP_ERROR;
             return null;
         } catch (HttpClientErrorException e) {
             log.warn("新浪财经接口返回 HTTP 错误，股票代码: {}，状态码: {}", stockCode, e.getStatusCode());
+            outcome = OUTCOME_HTTP_ERROR;
             return null;
         } catch (Exception e) {
             log.error("获取股票信息异常，股票代码: {}", stockCode, e);
             return null;
+        } finally {
+            recordProviderCall("sina", "info", symbolMarket(stockCode), outcome, start);
+            commitQuoteEvent(event, stockCode, "sina", "info", outcome, bytes);
         }
     }
 
@@ -334,7 +726,7 @@ public class StockMarketService {
         String trimmed = keyword.trim();
         
         // 方法1：使用腾讯财经搜索 API
-        results = tryTencentSearch(trimmed);
+        results = timedSearch("tencent", () -> tryTencentSearch(trimmed));
         if (!results.isEmpty()) {
             log.info("使用腾讯财经搜索成功，找到 {} 个结果", results.size());
             return results;
@@ -342,7 +734,7 @@ public class StockMarketService {
         
         // 方法2：使用新浪财经搜索 API
         log.info("腾讯财经搜索未找到结果，尝试新浪财经");
-        results = trySinaSearch(trimmed);
+        results = timedSearch("sina-suggest", () -> trySinaSearch(trimmed));
         if (!results.isEmpty()) {
             log.info("使用新浪财经搜索成功，找到 {} 个结果", results.size());
             return results;
@@ -350,7 +742,7 @@ public class StockMarketService {
         
         // 方法3：尝试东方财富 API（最后备用）
         log.info("外部 API 搜索未找到结果，尝试东方财富 API");
-        results = trySearchStocks(trimmed, 14);
+        results = timedSearch("eastmoney", () -> trySearchStocks(trimmed, 14));
         
         return results;
     }
@@ -694,6 +1086,16 @@ public class StockMarketService {
         return results;
     }
 
+    /**
+     * 批量行情中的单个报价
+     *
+     * @param name  股票名称，未取到时为 null
+     * @param price 当前价，未取到时为 -1
+     * @param stale 未在时限内取得实时报价，name / price 为最近一次成功的报价
+     */
+    public record Quote(String name, BigDecimal price, boolean stale) {
+    }
+
     /**
      * 股票信息内部类
      */
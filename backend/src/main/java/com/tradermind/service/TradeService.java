@@ -1,6 +1,10 @@
 package com.tradermind.service;
 
+import com.tradermind.domain.FixedPrice;
+import com.tradermind.domain.PositionRisk;
+import com.tradermind.domain.PositionState;
 import com.tradermind.domain.TradeDirection;
+import com.tradermind.domain.TradeRuleReview;
 import com.tradermind.domain.TradeStatus;
 import com.tradermind.domain.TransactionType;
 import com.tradermind.dto.*;
@@ -8,17 +12,28 @@ import com.tradermind.entity.TradeExecution;
 import com.tradermind.entity.TradePlan;
 import com.tradermind.entity.TradeTransaction;
 import com.tradermind.exception.DisciplineException;
+import com.tradermind.jfr.DashboardBuildEvent;
+import com.tradermind.jfr.TradeMutationEvent;
 import com.tradermind.repository.TradeExecutionRepository;
 import com.tradermind.repository.TradePlanRepository;
 import com.tradermind.repository.TradeTransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -26,6 +41,8 @@ import java.util.stream.Collectors;
  * - 仓位计算器
  * - 纪律守门员（盈亏比校验）
  * - 平仓逻辑
+ * 建仓、加仓、减仓、平仓、撤单均经 PlanMutationExecutor 按计划串行执行，
+ * 事务由执行器开启，版本冲突时自动重试
  */
 @Service
 @RequiredArgsConstructor
@@ -41,8 +58,19 @@ public class TradeService {
     private final AppSettingsService appSettingsService;
     private final TradeExecutionRepository tradeExecutionRepository;
     private final TradeTransactionRepository tradeTransactionRepository;
-    private final AIReviewService aiReviewService;
+    private final AIReviewQueueService aiReviewQueueService;
     private final StockMarketService stockMarketService;
+    private final PlanMutationExecutor planMutationExecutor;
+    private final PerformanceStatsService performanceStatsService;
+    private final SimilarTradeIndex similarTradeIndex;
+
+    /** 仪表盘等待行情的总时限，超时的持仓用最近报价并标记 stale */
+    @Value("${market.dashboard.deadline-ms:300}")
+    private long dashboardQuoteDeadlineMs;
+
+    /** 单次批量交易的最大操作数 */
+    @Value("${trade.batch.max-operations:50}")
+    private int maxBatchOperations;
 
     /**
      * 仓位计算器：
@@ -123,6 +151,7 @@ public class TradeService {
                 .direction(request.direction())
                 .entryPrice(request.entryPrice())
                 .stopLoss(request.stopLoss())
+                .initialStopLoss(request.stopLoss())
                 .takeProfit(request.takeProfit())
                 .positionSize(positionSize)
                 .riskRewardRatio(rr)
@@ -131,6 +160,8 @@ public class TradeService {
                 .build();
 
         TradePlan saved = tradePlanRepository.save(plan);
+        // 提交后再加入相似交易索引：回滚的计划不进索引，也不会占用 LSH 候选名额
+        afterCommit(() -> similarTradeIndex.add(saved.getId(), saved.getEntryLogic()));
         return toPlanResponse(saved);
     }
 
@@ -161,8 +192,12 @@ public class TradeService {
      * - 设置 avgEntryPrice、totalQuantity
      * - 记录 INITIAL_ENTRY 流水
      */
-    @Transactional
     public TradePlanResponse executePlan(Long planId, ExecutePlanRequest request) {
+        TradePlan plan = traced("executePlan", planId, () -> applyExecutePlan(planId, request));
+        return toPlanResponse(plan);
+    }
+
+    private TradePlan applyExecutePlan(Long planId, ExecutePlanRequest request) {
         TradePlan plan = tradePlanRepository.findById(planId)
                 .orElseThrow(() -> new IllegalArgumentException("未找到交易计划: " + planId));
 
@@ -174,10 +209,8 @@ public class TradeService {
             throw new DisciplineException("买入股数必须为正100股（一手）的整数倍");
         }
 
-        plan.setAvgEntryPrice(request.actualPrice());
-        plan.setTotalQuantity(request.quantity());
-        plan.setCurrentQuantity(request.quantity());
-        plan.setRealizedPnL(BigDecimal.ZERO);
+        plan.applyPositionState(PositionState.EMPTY.apply(
+                plan.getDirection(), TransactionType.INITIAL_ENTRY, request.actualPrice(), request.quantity()));
         plan.setStatus(TradeStatus.OPEN);
         tradePlanRepository.save(plan);
 
@@ -191,15 +224,20 @@ public class TradeService {
         tradeTransactionRepository.save(txn);
 
         log.info("建仓成功: planId={}, stock={}, price={}, qty={}", planId, plan.getStockSymbol(), request.actualPrice(), request.quantity());
-        return toPlanResponse(plan);
+        return plan;
     }
 
     /**
      * 加仓：在 OPEN 持仓上增加数量，重新计算加权平均价
-     * NewAvgPrice = ((OldAvgPrice * OldQty) + (AddPrice * AddQty)) / (OldQty + AddQty)
+     * NewAvgPrice = ((OldAvgPrice * CurrentQty) + (AddPrice * AddQty)) / (CurrentQty + AddQty)
+     * 以剩余持仓加权：减仓后再加仓时，已卖出部分不参与成本计算
      */
-    @Transactional
     public TradePlanResponse addPosition(Long planId, AddPositionRequest request) {
+        TradePlan plan = traced("addPosition", planId, () -> applyAddPosition(planId, request));
+        return toPlanResponse(plan);
+    }
+
+    private TradePlan applyAddPosition(Long planId, AddPositionRequest request) {
         TradePlan plan = tradePlanRepository.findById(planId)
                 .orElseThrow(() -> new IllegalArgumentException("未找到交易计划: " + planId));
 
@@ -211,23 +249,15 @@ public class TradeService {
             throw new DisciplineException("加仓股数必须为正100股（一手）的整数倍");
         }
 
-        BigDecimal oldAvg = plan.getAvgEntryPrice();
-        int oldQty = plan.getTotalQuantity();
         BigDecimal addPrice = request.addPrice();
         int addQty = request.addQuantity();
 
-        // 加权平均：((OldAvg * OldQty) + (AddPrice * AddQty)) / (OldQty + AddQty)
-        BigDecimal totalCost = oldAvg.multiply(BigDecimal.valueOf(oldQty))
-                .add(addPrice.multiply(BigDecimal.valueOf(addQty)));
-        int newQty = oldQty + addQty;
-        BigDecimal newAvg = totalCost.divide(BigDecimal.valueOf(newQty), 4, RoundingMode.HALF_UP);
+        PositionState newState = plan.positionState()
+                .apply(plan.getDirection(), TransactionType.ADD_POSITION, addPrice, addQty);
+        BigDecimal newAvg = newState.avgEntryPrice();
+        int newQty = newState.currentQuantity();
 
-        plan.setAvgEntryPrice(newAvg);
-        plan.setTotalQuantity(newQty);
-        plan.setCurrentQuantity(newQty);
-        if (plan.getRealizedPnL() == null) {
-            plan.setRealizedPnL(BigDecimal.ZERO);
-        }
+        plan.applyPositionState(newState);
         tradePlanRepository.save(plan);
 
         TradeTransaction txn = TradeTransaction.builder()
@@ -240,7 +270,7 @@ public class TradeService {
         tradeTransactionRepository.save(txn);
 
         log.info("加仓成功: planId={}, stock={}, newAvg={}, newQty={}", planId, plan.getStockSymbol(), newAvg, newQty);
-        return toPlanResponse(plan);
+        return plan;
     }
 
     /**
@@ -252,8 +282,16 @@ public class TradeService {
      * - avgEntryPrice 保持不变（符合会计准则）
      * - 若 currentQuantity == 0，状态变为 CLOSED，并创建 TradeExecution 触发 AI 分析
      */
-    @Transactional
     public TradePlanResponse executePartialExit(Long planId, TrimPositionRequest request) {
+        TradePlan plan = traced("executePartialExit", planId,
+                () -> applyPartialExit(planId, request, aiReviewQueueService::enqueue));
+        return toPlanResponse(plan);
+    }
+
+    /**
+     * @param enqueueReview 清仓产生的执行记录如何入队 AI 复盘（单项直接入队，批量时先收集再统一入队）
+     */
+    private TradePlan applyPartialExit(Long planId, TrimPositionRequest request, Consumer<Long> enqueueReview) {
         TradePlan plan = tradePlanRepository.findById(planId)
                 .orElseThrow(() -> new IllegalArgumentException("未找到交易计划: " + planId));
 
@@ -261,7 +299,8 @@ public class TradeService {
             throw new IllegalStateException("仅 OPEN 状态的持仓可减仓");
         }
 
-        int currentQty = plan.getCurrentQuantity() != null ? plan.getCurrentQuantity() : plan.getTotalQuantity();
+        PositionState state = plan.positionState();
+        int currentQty = state.currentQuantity();
         if (currentQty <= 0) {
             throw new IllegalStateException("当前无剩余持仓，无法减仓");
         }
@@ -274,24 +313,12 @@ public class TradeService {
             throw new DisciplineException("卖出股数必须为正100股（一手）的整数倍");
         }
 
-        BigDecimal avgEntry = plan.getAvgEntryPrice();
-        if (avgEntry == null) {
-            throw new IllegalStateException("持仓均价缺失，无法计算盈亏");
-        }
-
-        // 计算本次减仓盈亏（做多：exitPrice - avgEntry）
-        BigDecimal priceDiff = request.exitPrice().subtract(avgEntry);
-        BigDecimal chunkPnL = priceDiff
-                .multiply(BigDecimal.valueOf(request.exitQuantity()))
-                .setScale(4, RoundingMode.HALF_UP);
-
-        // 更新 realizedPnL
-        BigDecimal prevRealized = plan.getRealizedPnL() != null ? plan.getRealizedPnL() : BigDecimal.ZERO;
-        plan.setRealizedPnL(prevRealized.add(chunkPnL));
-
-        // 更新 currentQuantity
-        int newCurrentQty = currentQty - request.exitQuantity();
-        plan.setCurrentQuantity(newCurrentQty);
+        // 计算本次减仓盈亏（做多：exitPrice - avgEntry），累加 realizedPnL 并扣减 currentQuantity
+        BigDecimal chunkPnL = state.exitPnL(plan.getDirection(), request.exitPrice(), request.exitQuantity());
+        PositionState newState = state.apply(
+                plan.getDirection(), TransactionType.PARTIAL_EXIT, request.exitPrice(), request.exitQuantity());
+        plan.applyPositionState(newState);
+        int newCurrentQty = newState.currentQuantity();
 
         // 可选：更新止损/止盈
         if (request.newStopLoss() != null) {
@@ -320,26 +347,33 @@ public class TradeService {
 
         // 若减仓后清仓，创建 TradeExecution 并触发 AI 分析
         if (newCurrentQty == 0) {
+            TradeRuleReview ruleReview = ruleReview(plan);
             TradeExecution execution = TradeExecution.builder()
                     .plan(plan)
                     .exitPrice(request.exitPrice())
                     .realizedPnL(plan.getRealizedPnL())
                     .exitLogic(request.exitLogic() + "（减仓清仓）")
+                    .ruleScore(ruleReview.score())
+                    .ruleFindings(ruleReview.findingsText())
                     .build();
             tradeExecutionRepository.save(execution);
-            aiReviewService.reviewTradeAsync(execution);
+            performanceStatsService.recordExecution(execution);
+            enqueueReview.accept(execution.getId());
         }
 
         log.info("减仓成功: planId={}, stock={}, exitQty={}, chunkPnL={}, 剩余={}",
                 planId, plan.getStockSymbol(), request.exitQuantity(), chunkPnL, newCurrentQty);
-        return toPlanResponse(plan);
+        return plan;
     }
 
     /**
      * 取消计划：将 PENDING 改为 CANCELLED
      */
-    @Transactional
     public void cancelPlan(Long planId) {
+        planMutationExecutor.execute(planId, () -> applyCancelPlan(planId));
+    }
+
+    private TradePlan applyCancelPlan(Long planId) {
         TradePlan plan = tradePlanRepository.findById(planId)
                 .orElseThrow(() -> new IllegalArgumentException("未找到交易计划: " + planId));
 
@@ -350,32 +384,46 @@ public class TradeService {
         plan.setStatus(TradeStatus.CANCELLED);
         tradePlanRepository.save(plan);
         log.info("计划已取消: planId={}, stock={}", planId, plan.getStockSymbol());
+        return plan;
     }
 
     /**
      * 获取所有 OPEN 状态持仓，包含实时行情数据
      * 结合新浪财经接口获取实时价格，计算当前盈亏
      * 
+     * 不开事务：查询在仓库方法的只读事务内完成，行情批量并发获取期间不占数据库连接
+     * 
      * @return 包含实时数据的交易仪表盘DTO列表
      */
-    @Transactional(readOnly = true)
     public List<TradeDashboardDTO> getActiveTradesWithMarketData() {
+        DashboardBuildEvent event = new DashboardBuildEvent();
+        event.begin();
         List<TradePlan> activePlans = tradePlanRepository.findByStatus(TradeStatus.OPEN);
+        List<String> symbols = activePlans.stream().map(TradePlan::getStockSymbol).toList();
+        Map<String, StockMarketService.Quote> quotes = stockMarketService.getQuotes(
+                symbols, Duration.ofMillis(dashboardQuoteDeadlineMs));
         
-        return activePlans.stream()
-                .map(this::toDashboardDTO)
+        List<TradeDashboardDTO> dashboard = activePlans.stream()
+                .map(plan -> toDashboardDTO(plan, quotes.get(plan.getStockSymbol())))
                 .collect(Collectors.toList());
+        event.end();
+        if (event.shouldCommit()) {
+            event.positions = dashboard.size();
+            event.commit();
+        }
+        return dashboard;
     }
 
     /**
      * 将 TradePlan 转换为 TradeDashboardDTO，包含实时行情数据
      * 
      * @param plan 交易计划
+     * @param quote 行情报价，可能为过期报价；无报价时为 null
      * @return 仪表盘DTO
      */
-    private TradeDashboardDTO toDashboardDTO(TradePlan plan) {
-        BigDecimal currentPrice = stockMarketService.getCurrentPrice(plan.getStockSymbol());
-        boolean priceValid = currentPrice.compareTo(BigDecimal.ZERO) > 0;
+    private TradeDashboardDTO toDashboardDTO(TradePlan plan, StockMarketService.Quote quote) {
+        BigDecimal currentPrice = quote != null ? quote.price() : null;
+        boolean priceValid = currentPrice != null && currentPrice.compareTo(BigDecimal.ZERO) > 0;
         if (!priceValid) {
             log.debug("无法获取股票 {} 的实时价格，使用持仓均价作为占位符", plan.getStockSymbol());
             currentPrice = plan.getAvgEntryPrice() != null ? plan.getAvgEntryPrice() : plan.getEntryPrice();
@@ -388,53 +436,25 @@ public class TradeService {
         Integer currentQty = plan.getCurrentQuantity() != null ? plan.getCurrentQuantity() : totalQty;
         BigDecimal realizedPnL = plan.getRealizedPnL() != null ? plan.getRealizedPnL() : BigDecimal.ZERO;
 
-        // 持仓盈亏基于当前剩余仓位 currentQuantity
-        BigDecimal priceDiff;
-        if (plan.getDirection() == TradeDirection.LONG) {
-            priceDiff = currentPrice.subtract(avgEntry);
-        } else {
-            priceDiff = avgEntry.subtract(currentPrice);
-        }
-        
-        BigDecimal pnlAmount = priceDiff
-                .multiply(BigDecimal.valueOf(currentQty))
-                .setScale(2, RoundingMode.HALF_UP);
-
-        BigDecimal pnlPercentage = BigDecimal.ZERO;
-        if (avgEntry.compareTo(BigDecimal.ZERO) > 0) {
-            pnlPercentage = priceDiff
-                    .divide(avgEntry, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .setScale(2, RoundingMode.HALF_UP);
-        }
-
-        // 计算距离止损的价格差
-        BigDecimal distanceToSL;
-        if (plan.getDirection() == TradeDirection.LONG) {
-            // 做多：当前价 - 止损价（负数表示已触发止损）
-            distanceToSL = currentPrice.subtract(stopLoss);
-        } else {
-            // 做空：止损价 - 当前价（负数表示已触发止损）
-            distanceToSL = stopLoss.subtract(currentPrice);
-        }
-        distanceToSL = distanceToSL.setScale(2, RoundingMode.HALF_UP);
-
-        String riskLevel = "SAFE";
-        if (avgEntry.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal riskThreshold = avgEntry.multiply(new BigDecimal("0.02")); // 2%
-            if (distanceToSL.abs().compareTo(riskThreshold) < 0 && distanceToSL.compareTo(BigDecimal.ZERO) > 0) {
-                riskLevel = "DANGER";
-            } else if (distanceToSL.compareTo(BigDecimal.ZERO) <= 0) {
-                // 已触发止损
-                riskLevel = "DANGER";
-            }
-        }
+        // 盈亏与风险在定点值上计算，只在返回时转回 BigDecimal；口径见 PositionRisk
+        long current = FixedPrice.of(currentPrice);
+        long avg = FixedPrice.of(avgEntry);
+        long distance = PositionRisk.distanceToStop(plan.getDirection(), current, FixedPrice.of(stopLoss));
 
-        // 获取股票中文名称（用于前端展示）
+        // 持仓盈亏基于当前剩余仓位 currentQuantity
+        BigDecimal pnlAmount = FixedPrice.toBigDecimal(
+                PositionRisk.pnlAmount(plan.getDirection(), current, avg, currentQty), 2);
+        BigDecimal pnlPercentage = avg > 0
+                ? BigDecimal.valueOf(PositionRisk.pnlPercentBp(plan.getDirection(), current, avg), 2)
+                : BigDecimal.ZERO;
+        // 距离止损的价格差（负数表示已触发止损）
+        BigDecimal distanceToSL = FixedPrice.toBigDecimal(distance, 2);
+        String riskLevel = PositionRisk.isDanger(distance, avg) ? "DANGER" : "SAFE";
+
+        // 股票中文名称（用于前端展示）
         String stockName = "";
-        StockMarketService.StockInfo stockInfo = stockMarketService.getStockInfo(plan.getStockSymbol());
-        if (stockInfo != null) {
-            stockName = stockInfo.getName();
+        if (quote != null && quote.name() != null) {
+            stockName = quote.name();
         }
 
         return new TradeDashboardDTO(
@@ -455,7 +475,8 @@ public class TradeService {
                 distanceToSL,
                 riskLevel,
                 plan.getEntryLogic() != null ? plan.getEntryLogic() : "",
-                plan.getRiskRewardRatio()
+                plan.getRiskRewardRatio(),
+                quote == null || quote.stale()
         );
     }
 
@@ -466,8 +487,149 @@ public class TradeService {
      * SHORT: PnL = (avgEntry - exit) * totalQuantity
      * 记录 FULL_EXIT 流水，更新计划状态为 CLOSED
      */
-    @Transactional
     public TradeExecutionResponse closePlan(Long planId, CloseTradeRequest request) {
+        return traced("closePlan", planId, () -> applyClosePlan(planId, request, aiReviewQueueService::enqueue));
+    }
+
+    /**
+     * 批量交易（调仓日）：按列表顺序执行建仓、加仓、减仓、平仓、撤单，全部成功才提交
+     * - 按 planId 升序持有所有涉及计划的锁，在同一事务内执行，各项沿用单项接口的纪律校验；
+     *   某项校验失败时继续校验其余各项，最后整批回滚并返回逐项结果
+     * - 计划更新在提交时批量刷写（hibernate.jdbc.batch_size）
+     * - 平仓与减仓清仓产生的 AI 复盘任务在最后一步统一入队
+     * 版本冲突时整批重试；股票名称在提交后一次性并发查询
+     */
+    public BatchTradeResponse executeBatch(BatchTradeRequest request) {
+        List<BatchTradeOperation> operations = request.operations();
+        if (operations.size() > maxBatchOperations) {
+            throw new IllegalArgumentException("单次批量操作最多 " + maxBatchOperations + " 项，当前 " + operations.size() + " 项");
+        }
+        List<Long> planIds = operations.stream().map(BatchTradeOperation::planId).toList();
+        try {
+            List<BatchTradeItemResult> results = timed("batch", 0L,
+                    () -> planMutationExecutor.executeAll(planIds, () -> applyBatch(operations)));
+            log.info("批量交易成功: {} 项, 计划 {}", results.size(), planIds.stream().distinct().toList());
+            return new BatchTradeResponse(true, withStockNames(results));
+        } catch (BatchRejectedException e) {
+            List<BatchTradeItemResult> results = e.results.stream()
+                    .map(r -> r.status() == BatchTradeItemResult.Status.APPLIED
+                            ? new BatchTradeItemResult(r.index(), r.type(), r.planId(),
+                                    BatchTradeItemResult.Status.ROLLED_BACK, null, null, null)
+                            : r)
+                    .toList();
+            log.info("批量交易已回滚: {} 项中 {} 项校验失败", results.size(),
+                    results.stream().filter(r -> r.status() == BatchTradeItemResult.Status.FAILED).count());
+            return new BatchTradeResponse(false, results);
+        }
+    }
+
+    private List<BatchTradeItemResult> applyBatch(List<BatchTradeOperation> operations) {
+        List<BatchTradeItemResult> results = new ArrayList<>(operations.size());
+        List<Long> closedExecutionIds = new ArrayList<>();
+        boolean failed = false;
+        for (int i = 0; i < operations.size(); i++) {
+            BatchTradeOperation op = operations.get(i);
+            try {
+                results.add(applyBatchItem(i, op, closedExecutionIds::add));
+            } catch (DisciplineException | IllegalArgumentException | IllegalStateException e) {
+                // 各项在修改实体前完成校验，失败项不会留下半途的修改，可继续校验后续各项
+                failed = true;
+                results.add(new BatchTradeItemResult(i, op.type(), op.planId(),
+                        BatchTradeItemResult.Status.FAILED, e.getMessage(), null, null));
+            }
+        }
+        if (failed) {
+            throw new BatchRejectedException(results);
+        }
+        aiReviewQueueService.enqueueAll(closedExecutionIds);
+        return results;
+    }
+
+    private BatchTradeItemResult applyBatchItem(int index, BatchTradeOperation op, Consumer<Long> enqueueReview) {
+        Long planId = op.planId();
+        TradeExecutionResponse execution = null;
+        TradePlan plan = switch (op.type()) {
+            case EXECUTE -> applyExecutePlan(planId, batchPayload(op.execute(), index, "execute"));
+            case ADD -> applyAddPosition(planId, batchPayload(op.add(), index, "add"));
+            case TRIM -> applyPartialExit(planId, batchPayload(op.trim(), index, "trim"), enqueueReview);
+            case CLOSE -> {
+                execution = applyClosePlan(planId, batchPayload(op.close(), index, "close"), enqueueReview);
+                yield tradePlanRepository.findById(planId).orElseThrow();
+            }
+            case CANCEL -> applyCancelPlan(planId);
+        };
+        // 同一计划可能被后续项继续修改，这里先取本项执行后的快照，名称提交后补齐
+        return new BatchTradeItemResult(index, op.type(), planId, BatchTradeItemResult.Status.APPLIED, null,
+                toPlanResponse(plan, null), execution);
+    }
+
+    private static <T> T batchPayload(T payload, int index, String field) {
+        if (payload == null) {
+            throw new IllegalArgumentException("第 " + (index + 1) + " 项缺少 " + field + " 请求体");
+        }
+        return payload;
+    }
+
+    private List<BatchTradeItemResult> withStockNames(List<BatchTradeItemResult> results) {
+        Map<String, StockMarketService.StockInfo> infos = stockMarketService.getStockInfos(
+                results.stream().map(r -> r.plan().stockSymbol()).toList());
+        return results.stream()
+                .map(r -> {
+                    TradePlanResponse p = r.plan();
+                    StockMarketService.StockInfo info = infos.get(p.stockSymbol());
+                    TradePlanResponse named = new TradePlanResponse(p.id(), p.stockSymbol(),
+                            info != null ? info.getName() : "", p.direction(), p.entryPrice(), p.avgEntryPrice(),
+                            p.positionSize(), p.totalQuantity(), p.currentQuantity(), p.realizedPnL(), p.stopLoss(),
+                            p.takeProfit(), p.riskRewardRatio(), p.entryLogic(), p.status(), p.createdAt());
+                    return new BatchTradeItemResult(r.index(), r.type(), r.planId(), r.status(), r.error(),
+                            named, r.execution());
+                })
+                .toList();
+    }
+
+    /**
+     * 批量中有校验失败的项：抛出以回滚整批事务，携带逐项结果
+     */
+    private static final class BatchRejectedException extends RuntimeException {
+
+        private final transient List<BatchTradeItemResult> results;
+
+        BatchRejectedException(List<BatchTradeItemResult> results) {
+            super("批量交易校验失败", null, false, false);
+            this.results = results;
+        }
+    }
+
+    /**
+     * 经 PlanMutationExecutor 执行修改并提交 JFR 事件 TradeMutationEvent（含等锁与重试耗时）
+     */
+    private <T> T traced(String operation, Long planId, Supplier<T> mutation) {
+        return timed(operation, planId, () -> planMutationExecutor.execute(planId, mutation));
+    }
+
+    /**
+     * 提交 JFR 事件 TradeMutationEvent；批量交易的 planId 记为 0
+     */
+    private <T> T timed(String operation, long planId, Supplier<T> execution) {
+        TradeMutationEvent event = new TradeMutationEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            T result = execution.get();
+            succeeded = true;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.planId = planId;
+                event.succeeded = succeeded;
+                event.commit();
+            }
+        }
+    }
+
+    private TradeExecutionResponse applyClosePlan(Long planId, CloseTradeRequest request, Consumer<Long> enqueueReview) {
         TradePlan plan = tradePlanRepository.findById(planId)
                 .orElseThrow(() -> new IllegalArgumentException("未找到对应的交易计划: " + planId));
 
@@ -476,29 +638,16 @@ public class TradeService {
         }
 
         BigDecimal exitPrice = request.exitPrice();
-        BigDecimal avgEntry = plan.getAvgEntryPrice();
-        int currentQty = plan.getCurrentQuantity() != null ? plan.getCurrentQuantity() : plan.getTotalQuantity();
-        if (avgEntry == null || currentQty <= 0) {
+        PositionState state = plan.positionState();
+        int currentQty = state.currentQuantity();
+        if (state.avgEntryPrice() == null || currentQty <= 0) {
             throw new IllegalStateException("持仓数据异常，无法平仓");
         }
 
-        BigDecimal priceDiff;
-        if (plan.getDirection() == TradeDirection.LONG) {
-            priceDiff = exitPrice.subtract(avgEntry);
-        } else {
-            priceDiff = avgEntry.subtract(exitPrice);
-        }
-
-        // 本次平仓盈亏 = 价差 * 当前剩余持仓
-        BigDecimal closePnL = priceDiff
-                .multiply(BigDecimal.valueOf(currentQty))
-                .setScale(4, RoundingMode.HALF_UP);
-
-        // 累计已实现盈亏（含减仓落袋 + 本次平仓）
-        BigDecimal prevRealized = plan.getRealizedPnL() != null ? plan.getRealizedPnL() : BigDecimal.ZERO;
-        BigDecimal totalRealizedPnL = prevRealized.add(closePnL);
-        plan.setRealizedPnL(totalRealizedPnL);
-        plan.setCurrentQuantity(0);
+        // 本次平仓盈亏 = 价差 * 当前剩余持仓；累计已实现盈亏含减仓落袋 + 本次平仓
+        PositionState closedState = state.apply(plan.getDirection(), TransactionType.FULL_EXIT, exitPrice, currentQty);
+        plan.applyPositionState(closedState);
+        BigDecimal totalRealizedPnL = closedState.realizedPnL();
 
         // 记录清仓流水
         TradeTransaction txn = TradeTransaction.builder()
@@ -510,27 +659,33 @@ public class TradeService {
                 .build();
         tradeTransactionRepository.save(txn);
 
+        TradeRuleReview ruleReview = ruleReview(plan);
         TradeExecution execution = TradeExecution.builder()
                 .plan(plan)
                 .exitPrice(exitPrice)
                 .realizedPnL(totalRealizedPnL)
                 .exitLogic(request.exitLogic())
                 .emotionalState(request.emotionalState())
+                .ruleScore(ruleReview.score())
+                .ruleFindings(ruleReview.findingsText())
                 .build();
 
         TradeExecution savedExec = tradeExecutionRepository.save(execution);
+        performanceStatsService.recordExecution(savedExec);
 
         plan.setStatus(TradeStatus.CLOSED);
         tradePlanRepository.save(plan);
 
-        aiReviewService.reviewTradeAsync(savedExec);
+        enqueueReview.accept(savedExec.getId());
         return new TradeExecutionResponse(
                 savedExec.getId(),
                 plan.getId(),
                 savedExec.getExitPrice(),
                 savedExec.getRealizedPnL(),
                 savedExec.getAiAnalysisScore(),
-                savedExec.getAiAnalysisComment()
+                savedExec.getAiAnalysisComment(),
+                savedExec.getRuleScore(),
+                splitFindings(savedExec.getRuleFindings())
         );
     }
 
@@ -547,21 +702,24 @@ public class TradeService {
             throw new IllegalArgumentException("未找到股票代码为 " + stockSymbol + " 的交易计划");
         }
         
+        deleteExecutions(plans.stream().map(TradePlan::getId).toList());
         tradePlanRepository.deleteAll(plans);
+        afterCommit(() -> plans.forEach(p -> similarTradeIndex.remove(p.getId())));
         log.info("删除股票代码 {} 的交易计划，共 {} 条", stockSymbol, plans.size());
     }
 
     /**
      * 为历史交易触发 AI 分析
-     * 异步执行，不阻塞请求。适用于平仓时 AI 分析失败或历史数据迁移场景
+     * 写入复盘任务队列后立即返回。适用于平仓时 AI 分析失败或历史数据迁移场景
      *
      * @param executionId 交易执行记录 ID
      */
-    @Transactional(readOnly = true)
+    @Transactional
     public void triggerAiReviewForExecution(Long executionId) {
-        TradeExecution execution = tradeExecutionRepository.findById(executionId)
-                .orElseThrow(() -> new IllegalArgumentException("未找到执行记录: " + executionId));
-        aiReviewService.reviewTradeAsync(execution);
+        if (!tradeExecutionRepository.existsById(executionId)) {
+            throw new IllegalArgumentException("未找到执行记录: " + executionId);
+        }
+        aiReviewQueueService.enqueue(executionId);
         log.info("已触发历史交易 AI 分析，执行ID: {}", executionId);
     }
 
@@ -572,29 +730,60 @@ public class TradeService {
     public void deletePlan(Long id) {
         TradePlan plan = tradePlanRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("未找到 ID 为 " + id + " 的交易计划"));
+        deleteExecutions(List.of(id));
         tradePlanRepository.delete(plan);
+        afterCommit(() -> similarTradeIndex.remove(id));
         log.info("删除交易计划 ID: {}, 股票代码: {}", id, plan.getStockSymbol());
     }
 
+    /**
+     * 删除计划的执行记录，并在同一事务内从绩效统计中移除它们
+     */
+    private void deleteExecutions(List<Long> planIds) {
+        List<Long> executionIds = tradeExecutionRepository.findIdsByPlanIdIn(planIds);
+        if (executionIds.isEmpty()) {
+            return;
+        }
+        tradeExecutionRepository.deleteByPlanIdIn(planIds);
+        performanceStatsService.removeExecutions(executionIds);
+    }
+
+    /**
+     * 进程内状态（相似交易索引）只在事务提交后变更；回滚时不执行，删除失败的计划仍可被检索到
+     * 无事务时直接执行
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     /**
      * 获取所有历史交易记录（已平仓的交易）
      * 按平仓时间倒序排列
-     * 必须使用 @Transactional：访问 lazy 关联和 TEXT 字段时，PostgreSQL Large Object 需要事务上下文
+     * 执行记录与计划一次 JOIN FETCH 读出（仓库方法自带只读事务），股票名称在事务外按去重后的代码批量获取
      */
-    @Transactional(readOnly = true)
     public List<TradeHistoryDTO> getTradeHistory() {
-        List<TradeExecution> executions = tradeExecutionRepository.findAll();
+        List<TradeExecution> executions = tradeExecutionRepository.findAllWithPlanOrderByCreatedAtDesc();
+        Map<String, StockMarketService.StockInfo> infos = stockMarketService.getStockInfos(
+                executions.stream().map(e -> e.getPlan().getStockSymbol()).toList());
         
         return executions.stream()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt())) // 按平仓时间倒序
-                .map(this::toHistoryDTO)
+                .map(e -> toHistoryDTO(e, infos.get(e.getPlan().getStockSymbol())))
                 .collect(Collectors.toList());
     }
 
     /**
      * 将 TradeExecution 转换为 TradeHistoryDTO
      */
-    private TradeHistoryDTO toHistoryDTO(TradeExecution execution) {
+    private TradeHistoryDTO toHistoryDTO(TradeExecution execution, StockMarketService.StockInfo stockInfo) {
         TradePlan plan = execution.getPlan();
         BigDecimal avgEntry = plan.getAvgEntryPrice() != null ? plan.getAvgEntryPrice() : plan.getEntryPrice();
         int totalQty = plan.getTotalQuantity() != null ? plan.getTotalQuantity() : plan.getPositionSize();
@@ -610,7 +799,6 @@ public class TradeService {
         }
 
         String stockName = "";
-        StockMarketService.StockInfo stockInfo = stockMarketService.getStockInfo(plan.getStockSymbol());
         if (stockInfo != null) {
             stockName = stockInfo.getName();
         }
@@ -635,14 +823,39 @@ public class TradeService {
                 execution.getEmotionalState(),
                 execution.getAiAnalysisScore(),
                 execution.getAiAnalysisComment(),
+                execution.getRuleScore(),
+                splitFindings(execution.getRuleFindings()),
                 plan.getCreatedAt(),
                 execution.getCreatedAt()
         );
     }
 
+    /**
+     * 清仓时的本地规则预评分：回放该计划全部流水（含本次清仓），在平仓事务内完成
+     */
+    private TradeRuleReview ruleReview(TradePlan plan) {
+        List<TradeRuleReview.Fill> fills = tradeTransactionRepository.findByPlanIdOrderByTransactionTimeAsc(plan.getId()).stream()
+                .map(t -> new TradeRuleReview.Fill(t.getType(), t.getPrice(), t.getQuantity(),
+                        t.getTransactionTime() != null ? t.getTransactionTime() : LocalDateTime.now()))
+                .toList();
+        return TradeRuleReview.evaluate(plan.getDirection(), plan.initialRiskPerShare(), plan.getStopLoss(),
+                plan.getTakeProfit(), plan.getRiskRewardRatio(), fills,
+                plan.getRealizedPnL() != null ? plan.getRealizedPnL() : BigDecimal.ZERO);
+    }
+
+    private List<String> splitFindings(String findings) {
+        return findings == null || findings.isBlank() ? List.of() : List.of(findings.split("\n"));
+    }
+
     private TradePlanResponse toPlanResponse(TradePlan p) {
+        return toPlanResponse(p, stockMarketService.getStockInfo(p.getStockSymbol()));
+    }
+
+    /**
+     * @param stockInfo 股票信息，为 null 时名称为空
+     */
+    private TradePlanResponse toPlanResponse(TradePlan p, StockMarketService.StockInfo stockInfo) {
         String stockName = "";
-        StockMarketService.StockInfo stockInfo = stockMarketService.getStockInfo(p.getStockSymbol());
         if (stockInfo != null) {
             stockName = stockInfo.getName();
         }
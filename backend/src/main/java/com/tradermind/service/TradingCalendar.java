@@ -0,0 +1,57 @@
+package com.tradermind.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A股交易日历
+ * 周一至周五为交易日，排除配置的法定节假日休市日（calendar.holidays，按交易所公告维护）
+ */
+@Component
+public class TradingCalendar {
+
+    /** 交易所所在时区，日终任务与"今天"按此时区计算 */
+    public static final ZoneId MARKET_ZONE = ZoneId.of("Asia/Shanghai");
+
+    private final Set<LocalDate> holidays;
+
+    public TradingCalendar(@Value("${calendar.holidays:}") List<String> holidays) {
+        this.holidays = holidays.stream()
+                .filter(s -> s != null && !s.isBlank())
+                .map(s -> LocalDate.parse(s.strip()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public boolean isTradingDay(LocalDate date) {
+        DayOfWeek dow = date.getDayOfWeek();
+        return dow != DayOfWeek.SATURDAY && dow != DayOfWeek.SUNDAY && !holidays.contains(date);
+    }
+
+    /**
+     * 交易所时区的今天
+     */
+    public LocalDate today() {
+        return LocalDate.now(MARKET_ZONE);
+    }
+
+    /**
+     * [from, to] 区间内的交易日，升序
+     */
+    public List<LocalDate> tradingDaysBetween(LocalDate from, LocalDate to) {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            if (isTradingDay(d)) {
+                days.add(d);
+            }
+        }
+        return days;
+    }
+}
@@ -0,0 +1,27 @@
+-- 纳入 Flyway 之前由 Hibernate 建出的基础表（已是 V2 之后的 TEXT 列）
+-- 仅用于压测与集成测试的空库：执行后以 V2 为基线运行其余迁移，后续迁移新增的列与表不在此重复
+CREATE TABLE trade_plan (
+    id BIGSERIAL PRIMARY KEY,
+    stock_symbol VARCHAR(50) NOT NULL,
+    direction VARCHAR(10) NOT NULL CHECK (direction IN ('LONG', 'SHORT')),
+    entry_price NUMERIC(19, 4) NOT NULL,
+    stop_loss NUMERIC(19, 4) NOT NULL,
+    take_profit NUMERIC(19, 4) NOT NULL,
+    position_size INTEGER NOT NULL,
+    risk_reward_ratio NUMERIC(10, 4),
+    entry_logic TEXT NOT NULL,
+    status VARCHAR(10) NOT NULL CHECK (status IN ('PENDING', 'OPEN', 'CLOSED')),
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE trade_execution (
+    id BIGSERIAL PRIMARY KEY,
+    plan_id BIGINT NOT NULL REFERENCES trade_plan(id),
+    exit_price NUMERIC(19, 4) NOT NULL,
+    realized_pnl NUMERIC(19, 4),
+    exit_logic TEXT NOT NULL,
+    emotional_state VARCHAR(50),
+    ai_analysis_score INTEGER,
+    ai_analysis_comment TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,16 @@
+-- 每日权益快照：每个交易日一行，由日终任务写入或从交易流水回填
+CREATE TABLE IF NOT EXISTS daily_equity (
+    trade_date DATE PRIMARY KEY,
+    realized_pnl NUMERIC(19, 4) NOT NULL,
+    cumulative_realized_pnl NUMERIC(19, 4) NOT NULL,
+    unrealized_pnl NUMERIC(19, 4) NOT NULL,
+    open_risk NUMERIC(19, 4) NOT NULL,
+    open_positions INTEGER NOT NULL,
+    capital NUMERIC(20, 2) NOT NULL,
+    equity NUMERIC(20, 4) NOT NULL,
+    mark_source VARCHAR(10) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 回填按成交时间范围读取流水
+CREATE INDEX IF NOT EXISTS idx_trade_transaction_time ON trade_transaction (transaction_time);
@@ -0,0 +1,23 @@
+-- AI 复盘任务（outbox）：与 trade_execution 同一事务写入，由工作线程池领取执行
+CREATE TABLE IF NOT EXISTS ai_review_job (
+    id BIGSERIAL PRIMARY KEY,
+    execution_id BIGINT NOT NULL REFERENCES trade_execution(id) ON DELETE CASCADE,
+    status VARCHAR(10) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    enqueued_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    CONSTRAINT chk_ai_review_job_status CHECK (status IN ('PENDING', 'RUNNING', 'DONE', 'DEAD'))
+);
+
+-- 领取到期任务：只索引待执行的行
+CREATE INDEX IF NOT EXISTS idx_ai_review_job_due ON ai_review_job (next_attempt_at, id) WHERE status = 'PENDING';
+
+-- 同一执行记录最多一个未完成任务
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ai_review_job_active ON ai_review_job (execution_id) WHERE status IN ('PENDING', 'RUNNING');
+
+-- 历史上调用失败、至今没有评分的平仓记录补入队列
+INSERT INTO ai_review_job (execution_id, status)
+SELECT id, 'PENDING' FROM trade_execution WHERE ai_analysis_score IS NULL;
@@ -0,0 +1,14 @@
+-- AI 质询结果缓存：键为规范化 (模型, 代码, 价格档位, 逻辑) 的 SHA-256
+CREATE TABLE IF NOT EXISTS ai_challenge_cache (
+    cache_key CHAR(64) PRIMARY KEY,
+    stock_symbol VARCHAR(50) NOT NULL,
+    risks TEXT NOT NULL,                 -- JSON 字符串数组
+    latency_ms BIGINT NOT NULL DEFAULT 0,
+    prompt_tokens INTEGER NOT NULL DEFAULT 0,
+    completion_tokens INTEGER NOT NULL DEFAULT 0,
+    hit_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_ai_challenge_cache_expires ON ai_challenge_cache (expires_at);
@@ -0,0 +1,27 @@
+-- AI 复盘批量回填运行记录：last_execution_id 为键集分页检查点
+CREATE TABLE IF NOT EXISTS ai_backfill_run (
+    id BIGSERIAL PRIMARY KEY,
+    status VARCHAR(10) NOT NULL,
+    rescore_all BOOLEAN NOT NULL DEFAULT FALSE,
+    last_execution_id BIGINT NOT NULL DEFAULT 0,
+    max_execution_id BIGINT NOT NULL,
+    scanned_count INTEGER NOT NULL DEFAULT 0,
+    enqueued_count INTEGER NOT NULL DEFAULT 0,
+    skipped_count INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT chk_ai_backfill_run_status CHECK (status IN ('RUNNING', 'COMPLETED', 'CANCELLED', 'FAILED'))
+);
+
+-- 同一时刻只允许一个 RUNNING 的回填：并发发起时后插入者违反唯一约束
+CREATE UNIQUE INDEX IF NOT EXISTS uk_ai_backfill_run_running ON ai_backfill_run (status) WHERE status = 'RUNNING';
+
+-- 复盘任务记录所属回填，用于统计回填吞吐
+ALTER TABLE ai_review_job ADD COLUMN IF NOT EXISTS backfill_run_id BIGINT REFERENCES ai_backfill_run(id) ON DELETE SET NULL;
+CREATE INDEX IF NOT EXISTS idx_ai_review_job_backfill ON ai_review_job (backfill_run_id, status) WHERE backfill_run_id IS NOT NULL;
+
+-- 补评分为空的候选扫描
+CREATE INDEX IF NOT EXISTS idx_trade_execution_unscored ON trade_execution (id) WHERE ai_analysis_score IS NULL;
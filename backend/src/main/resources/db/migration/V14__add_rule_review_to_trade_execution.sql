@@ -0,0 +1,3 @@
+-- 本地规则预评分：平仓事务内计算，大模型复盘在此基础上修正
+ALTER TABLE trade_execution ADD COLUMN IF NOT EXISTS rule_score INTEGER;
+ALTER TABLE trade_execution ADD COLUMN IF NOT EXISTS rule_findings TEXT;
@@ -0,0 +1,15 @@
+-- 大模型调用明细：每次调用一行，由 AICallTelemetry 异步批量写入
+CREATE TABLE IF NOT EXISTS ai_call_log (
+    id BIGSERIAL PRIMARY KEY,
+    called_at TIMESTAMP NOT NULL,
+    operation VARCHAR(32) NOT NULL,       -- challenge / challenge.stream / review / review.batch
+    model VARCHAR(64) NOT NULL,
+    outcome VARCHAR(16) NOT NULL,         -- OK / PARSE_FALLBACK / ERROR
+    latency_ms INTEGER NOT NULL,
+    prompt_tokens INTEGER NOT NULL DEFAULT 0,
+    completion_tokens INTEGER NOT NULL DEFAULT 0,
+    cost NUMERIC(12, 6) NOT NULL DEFAULT 0,
+    error VARCHAR(200)
+);
+
+CREATE INDEX IF NOT EXISTS idx_ai_call_log_called_at ON ai_call_log (called_at);
@@ -0,0 +1,208 @@
+-- 交易日志全文检索
+-- journal_document：计划买入逻辑、平仓逻辑、AI 点评、加仓/减仓流水备注各一行，由触发器与源表保持同步
+-- 中文无空格分词：连续的中日韩汉字展开为重叠二元组（"严格止损" -> "严格 格止 止损"），其余文本交给 simple 解析器，
+-- 查询端用同样的切分构造短语查询（'严格' <-> '格止' <-> '止损'），无需 zhparser 等扩展
+-- 另逐字索引汉字（追加在二元组之后，位置不与二元组相邻），单字查询精确匹配，不依赖前缀：
+-- 前缀 '损:*' 只能匹配以该字开头的二元组，漏掉只作为段尾出现的字（"止损"）
+
+-- 1. 切分函数：汉字段展开为二元组（单字段保留单字），非汉字段原样保留
+CREATE OR REPLACE FUNCTION journal_cjk_bigrams(src TEXT) RETURNS TEXT
+LANGUAGE plpgsql IMMUTABLE PARALLEL SAFE AS $$
+DECLARE
+    parts TEXT[] := '{}';
+    run TEXT;
+    n INT;
+BEGIN
+    IF src IS NULL THEN
+        RETURN '';
+    END IF;
+    FOR run IN SELECT (regexp_matches(src, '[㐀-䶿一-鿿]+|[^㐀-䶿一-鿿]+', 'g'))[1] LOOP
+        IF run ~ '^[㐀-䶿一-鿿]' THEN
+            n := char_length(run);
+            IF n = 1 THEN
+                parts := parts || run;
+            ELSE
+                FOR i IN 1 .. n - 1 LOOP
+                    parts := parts || substr(run, i, 2);
+                END LOOP;
+            END IF;
+        ELSE
+            parts := parts || run;
+        END IF;
+    END LOOP;
+    RETURN array_to_string(parts, ' ');
+END
+$$;
+
+-- 单字：长度 >= 2 的汉字段逐字展开（单字段已原样出现在二元组文本中）
+CREATE OR REPLACE FUNCTION journal_cjk_unigrams(src TEXT) RETURNS TEXT
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT coalesce(string_agg(c, ' '), '')
+    FROM regexp_matches(coalesce(src, ''), '[㐀-䶿一-鿿]{2,}', 'g') AS m(run),
+         LATERAL regexp_split_to_table(m.run[1], '') AS c
+$$;
+
+-- tsvector 拼接时右侧位置整体后移，单字不会与二元组构成相邻短语
+CREATE OR REPLACE FUNCTION journal_to_tsvector(src TEXT) RETURNS TSVECTOR
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT to_tsvector('simple', journal_cjk_bigrams(src)) || to_tsvector('simple', journal_cjk_unigrams(src))
+$$;
+
+-- 2. 查询构造：空白分隔的每个词构成一个短语查询，词与词之间 AND；单个汉字的切分结果即该字，命中单字索引
+CREATE OR REPLACE FUNCTION journal_to_tsquery(q TEXT) RETURNS TSQUERY
+LANGUAGE plpgsql IMMUTABLE PARALLEL SAFE AS $$
+DECLARE
+    result TSQUERY;
+    part TSQUERY;
+    term TEXT;
+BEGIN
+    FOR term IN SELECT t FROM regexp_split_to_table(coalesce(q, ''), '\s+') AS t WHERE t <> '' LOOP
+        part := phraseto_tsquery('simple', journal_cjk_bigrams(term));
+        IF part IS NULL OR numnode(part) = 0 THEN
+            CONTINUE;
+        END IF;
+        result := CASE WHEN result IS NULL THEN part ELSE result && part END;
+    END LOOP;
+    RETURN result;
+END
+$$;
+
+-- 3. 文档表：每个 (来源类型, 来源 ID) 一行；权重 A 买入/平仓逻辑，B 流水备注，C AI 点评
+CREATE TABLE IF NOT EXISTS journal_document (
+    id BIGSERIAL PRIMARY KEY,
+    source_type VARCHAR(20) NOT NULL,      -- ENTRY_LOGIC / EXIT_LOGIC / AI_COMMENT / LOGIC_SNAPSHOT
+    source_id BIGINT NOT NULL,             -- trade_plan / trade_execution / trade_transaction 的 id
+    plan_id BIGINT NOT NULL REFERENCES trade_plan(id) ON DELETE CASCADE,
+    stock_symbol VARCHAR(50) NOT NULL,
+    body TEXT NOT NULL,
+    search_vector TSVECTOR NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_journal_document_source UNIQUE (source_type, source_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_journal_document_search ON journal_document USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_journal_document_symbol ON journal_document (stock_symbol);
+
+CREATE OR REPLACE FUNCTION journal_document_upsert(p_type TEXT, p_source_id BIGINT, p_plan_id BIGINT,
+                                                   p_symbol TEXT, p_body TEXT, p_created_at TIMESTAMP)
+RETURNS VOID
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF p_body IS NULL OR btrim(p_body) = '' THEN
+        DELETE FROM journal_document WHERE source_type = p_type AND source_id = p_source_id;
+        RETURN;
+    END IF;
+    INSERT INTO journal_document (source_type, source_id, plan_id, stock_symbol, body, search_vector, created_at)
+    VALUES (p_type, p_source_id, p_plan_id, p_symbol, p_body,
+            setweight(journal_to_tsvector(p_body),
+                      CASE p_type WHEN 'LOGIC_SNAPSHOT' THEN 'B' WHEN 'AI_COMMENT' THEN 'C' ELSE 'A' END::"char"),
+            coalesce(p_created_at, now()))
+    ON CONFLICT (source_type, source_id) DO UPDATE SET
+        stock_symbol = EXCLUDED.stock_symbol,
+        body = EXCLUDED.body,
+        search_vector = EXCLUDED.search_vector;
+END
+$$;
+
+-- 4. 触发器：仅在被索引的列实际变化时重算
+CREATE OR REPLACE FUNCTION journal_sync_trade_plan() RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        IF OLD.stock_symbol IS DISTINCT FROM NEW.stock_symbol THEN
+            -- 代码变更同步到该计划的全部文档（平仓逻辑、AI 点评、流水备注），否则按代码过滤会漏掉
+            UPDATE journal_document SET stock_symbol = NEW.stock_symbol WHERE plan_id = NEW.id;
+        END IF;
+    END IF;
+    PERFORM journal_document_upsert('ENTRY_LOGIC', NEW.id, NEW.id, NEW.stock_symbol, NEW.entry_logic, NEW.created_at);
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_journal_trade_plan_insert ON trade_plan;
+CREATE TRIGGER trg_journal_trade_plan_insert AFTER INSERT ON trade_plan
+    FOR EACH ROW EXECUTE FUNCTION journal_sync_trade_plan();
+DROP TRIGGER IF EXISTS trg_journal_trade_plan_update ON trade_plan;
+CREATE TRIGGER trg_journal_trade_plan_update AFTER UPDATE ON trade_plan
+    FOR EACH ROW
+    WHEN (OLD.entry_logic IS DISTINCT FROM NEW.entry_logic OR OLD.stock_symbol IS DISTINCT FROM NEW.stock_symbol)
+    EXECUTE FUNCTION journal_sync_trade_plan();
+
+CREATE OR REPLACE FUNCTION journal_sync_trade_execution() RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    symbol TEXT;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        DELETE FROM journal_document WHERE source_type IN ('EXIT_LOGIC', 'AI_COMMENT') AND source_id = OLD.id;
+        RETURN NULL;
+    END IF;
+    SELECT stock_symbol INTO symbol FROM trade_plan WHERE id = NEW.plan_id;
+    IF TG_OP = 'INSERT' OR OLD.exit_logic IS DISTINCT FROM NEW.exit_logic THEN
+        PERFORM journal_document_upsert('EXIT_LOGIC', NEW.id, NEW.plan_id, symbol, NEW.exit_logic, NEW.created_at);
+    END IF;
+    IF TG_OP = 'INSERT' OR OLD.ai_analysis_comment IS DISTINCT FROM NEW.ai_analysis_comment THEN
+        PERFORM journal_document_upsert('AI_COMMENT', NEW.id, NEW.plan_id, symbol, NEW.ai_analysis_comment, NEW.created_at);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_journal_trade_execution ON trade_execution;
+CREATE TRIGGER trg_journal_trade_execution AFTER INSERT OR UPDATE OR DELETE ON trade_execution
+    FOR EACH ROW EXECUTE FUNCTION journal_sync_trade_execution();
+
+-- 流水备注只索引加仓与减仓：首次建仓为固定文本，清仓备注与 trade_execution.exit_logic 重复
+CREATE OR REPLACE FUNCTION journal_sync_trade_transaction() RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    symbol TEXT;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        DELETE FROM journal_document WHERE source_type = 'LOGIC_SNAPSHOT' AND source_id = OLD.id;
+        RETURN NULL;
+    END IF;
+    IF NEW.type NOT IN ('ADD_POSITION', 'PARTIAL_EXIT') THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'UPDATE' AND OLD.logic_snapshot IS NOT DISTINCT FROM NEW.logic_snapshot THEN
+        RETURN NULL;
+    END IF;
+    SELECT stock_symbol INTO symbol FROM trade_plan WHERE id = NEW.plan_id;
+    PERFORM journal_document_upsert('LOGIC_SNAPSHOT', NEW.id, NEW.plan_id, symbol, NEW.logic_snapshot, NEW.transaction_time);
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_journal_trade_transaction ON trade_transaction;
+CREATE TRIGGER trg_journal_trade_transaction AFTER INSERT OR UPDATE OR DELETE ON trade_transaction
+    FOR EACH ROW EXECUTE FUNCTION journal_sync_trade_transaction();
+
+-- 5. 回填已有数据
+INSERT INTO journal_document (source_type, source_id, plan_id, stock_symbol, body, search_vector, created_at)
+SELECT 'ENTRY_LOGIC', p.id, p.id, p.stock_symbol, p.entry_logic,
+       setweight(journal_to_tsvector(p.entry_logic), 'A'), p.created_at
+FROM trade_plan p
+WHERE btrim(coalesce(p.entry_logic, '')) <> ''
+ON CONFLICT (source_type, source_id) DO NOTHING;
+
+INSERT INTO journal_document (source_type, source_id, plan_id, stock_symbol, body, search_vector, created_at)
+SELECT 'EXIT_LOGIC', e.id, e.plan_id, p.stock_symbol, e.exit_logic,
+       setweight(journal_to_tsvector(e.exit_logic), 'A'), e.created_at
+FROM trade_execution e JOIN trade_plan p ON p.id = e.plan_id
+WHERE btrim(coalesce(e.exit_logic, '')) <> ''
+ON CONFLICT (source_type, source_id) DO NOTHING;
+
+INSERT INTO journal_document (source_type, source_id, plan_id, stock_symbol, body, search_vector, created_at)
+SELECT 'AI_COMMENT', e.id, e.plan_id, p.stock_symbol, e.ai_analysis_comment,
+       setweight(journal_to_tsvector(e.ai_analysis_comment), 'C'), e.created_at
+FROM trade_execution e JOIN trade_plan p ON p.id = e.plan_id
+WHERE btrim(coalesce(e.ai_analysis_comment, '')) <> ''
+ON CONFLICT (source_type, source_id) DO NOTHING;
+
+INSERT INTO journal_document (source_type, source_id, plan_id, stock_symbol, body, search_vector, created_at)
+SELECT 'LOGIC_SNAPSHOT', t.id, t.plan_id, p.stock_symbol, t.logic_snapshot,
+       setweight(journal_to_tsvector(t.logic_snapshot), 'B'), t.transaction_time
+FROM trade_transaction t JOIN trade_plan p ON p.id = t.plan_id
+WHERE t.type IN ('ADD_POSITION', 'PARTIAL_EXIT') AND btrim(coalesce(t.logic_snapshot, '')) <> ''
+ON CONFLICT (source_type, source_id) DO NOTHING;
@@ -0,0 +1,27 @@
+-- 初始止损：创建计划时的止损价，之后不再变化
+-- stop_loss 会被减仓时的 newStopLoss 改写（移动止损），R 倍数等“初始风险”口径必须以创建时的止损为准
+ALTER TABLE trade_plan ADD COLUMN IF NOT EXISTS initial_stop_loss NUMERIC(19, 4);
+
+-- 回填（止损只会在减仓时被改写）：
+-- 1. 没有减仓流水的计划，当前止损即初始止损
+-- 2. 有减仓流水、但当前止损与止盈算出的盈亏比仍等于创建时记录的 risk_reward_ratio，视为止损未改动
+-- 3. 其余按创建时的盈亏比反推：初始风险 = |止盈 - 入场| / risk_reward_ratio（假定止盈未改动，移动止损是常见情形）
+UPDATE trade_plan p
+SET initial_stop_loss = CASE
+        WHEN NOT EXISTS (SELECT 1 FROM trade_transaction t WHERE t.plan_id = p.id AND t.type = 'PARTIAL_EXIT')
+            THEN p.stop_loss
+        WHEN p.risk_reward_ratio IS NULL OR p.risk_reward_ratio <= 0 OR p.take_profit = p.entry_price
+            THEN p.stop_loss
+        WHEN p.stop_loss <> p.entry_price
+             AND ROUND(ABS(p.take_profit - p.entry_price) / ABS(p.entry_price - p.stop_loss), 4) = p.risk_reward_ratio
+            THEN p.stop_loss
+        WHEN p.direction = 'SHORT'
+            THEN ROUND(p.entry_price + ABS(p.take_profit - p.entry_price) / p.risk_reward_ratio, 4)
+        ELSE ROUND(p.entry_price - ABS(p.take_profit - p.entry_price) / p.risk_reward_ratio, 4)
+    END
+WHERE p.initial_stop_loss IS NULL;
+
+ALTER TABLE trade_plan ALTER COLUMN initial_stop_loss SET NOT NULL;
+
+-- 绩效汇总中的 R 倍数此前按当前止损计算：删除汇总行，应用启动时发现与执行记录条数不一致，按初始止损全量重建
+DELETE FROM portfolio_stats;
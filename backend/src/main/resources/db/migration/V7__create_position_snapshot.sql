@@ -0,0 +1,13 @@
+-- 持仓账本快照：每个计划保留最新一份由 trade_transaction 折叠得到的持仓状态
+-- 单计划重建时只回放 last_transaction_id 之后的流水
+
+CREATE TABLE IF NOT EXISTS position_snapshot (
+    plan_id BIGINT PRIMARY KEY REFERENCES trade_plan(id) ON DELETE CASCADE,
+    last_transaction_id BIGINT NOT NULL,
+    transaction_count INTEGER NOT NULL,
+    avg_entry_price NUMERIC(19, 4),
+    total_quantity INTEGER NOT NULL,
+    current_quantity INTEGER NOT NULL,
+    realized_pnl NUMERIC(19, 4) NOT NULL,
+    taken_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,2 @@
+-- trade_plan 乐观锁版本号：防止并发加仓/减仓/平仓互相覆盖
+ALTER TABLE trade_plan ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
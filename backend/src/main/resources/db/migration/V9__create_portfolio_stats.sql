@@ -0,0 +1,32 @@
+-- 组合绩效汇总：单行（id=1），平仓时增量更新
+-- pnl_mean / pnl_m2、r_mean / r_m2 为 Welford 在线均值与离差平方和
+CREATE TABLE IF NOT EXISTS portfolio_stats (
+    id INTEGER PRIMARY KEY,
+    trade_count BIGINT NOT NULL DEFAULT 0,
+    win_count BIGINT NOT NULL DEFAULT 0,
+    loss_count BIGINT NOT NULL DEFAULT 0,
+    gross_profit NUMERIC(19, 4) NOT NULL DEFAULT 0,
+    gross_loss NUMERIC(19, 4) NOT NULL DEFAULT 0,
+    pnl_mean DOUBLE PRECISION NOT NULL DEFAULT 0,
+    pnl_m2 DOUBLE PRECISION NOT NULL DEFAULT 0,
+    r_count BIGINT NOT NULL DEFAULT 0,
+    r_mean DOUBLE PRECISION NOT NULL DEFAULT 0,
+    r_m2 DOUBLE PRECISION NOT NULL DEFAULT 0,
+    cumulative_pnl NUMERIC(19, 4) NOT NULL DEFAULT 0,
+    peak_pnl NUMERIC(19, 4) NOT NULL DEFAULT 0,
+    trough_pnl NUMERIC(19, 4) NOT NULL DEFAULT 0,
+    max_drawdown NUMERIC(19, 4) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 初始为空；应用启动时若与 trade_execution 条数不一致会自动全量重建
+INSERT INTO portfolio_stats (id) VALUES (1) ON CONFLICT (id) DO NOTHING;
+
+-- 权益曲线：每笔平仓一个点
+CREATE TABLE IF NOT EXISTS equity_curve_point (
+    execution_id BIGINT PRIMARY KEY REFERENCES trade_execution(id) ON DELETE CASCADE,
+    closed_at TIMESTAMP NOT NULL,
+    realized_pnl NUMERIC(19, 4) NOT NULL,
+    cumulative_pnl NUMERIC(19, 4) NOT NULL,
+    drawdown NUMERIC(19, 4) NOT NULL
+);
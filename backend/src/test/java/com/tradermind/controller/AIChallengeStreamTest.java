@@ -0,0 +1,142 @@
+package com.tradermind.controller;
+
+import com.tradermind.service.AICallTelemetry;
+import com.tradermind.service.LlmClient;
+import com.tradermind.stub.llm.LatencyDistribution;
+import com.tradermind.stub.llm.StubLlmConfig;
+import com.tradermind.stub.llm.StubLlmServer;
+import com.tradermind.support.IntegrationTest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * POST /api/ai/challenge/stream 对接本地大模型桩服务（StubLlmServer）
+ * 桩服务按 1 个字符一片流式输出，片段边界落在 \" \\ \\uXXXX 等转义序列内部；
+ * 验证风险点随片段到达逐条推送，以及非 JSON 回答（malformed 故障）时推送默认提示
+ * 桩服务地址直接改写 LlmClient 字段而不用 @DynamicPropertySource，与其他集成测试共用同一个应用上下文
+ */
+class AIChallengeStreamTest extends IntegrationTest {
+
+    /** 脚本化回答：含转义引号、\\u 转义与反斜杠 */
+    private static final String SCRIPTED = """
+            ["量能不足，\\"假突破\\"概率高", "止损\\u4f4d离支撑过近\\\\容易被扫", "逻辑依赖消息面"]""";
+    private static final long CHUNK_LATENCY_MS = 10;
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE = new ParameterizedTypeReference<>() {};
+
+    private static StubLlmServer scripted;
+    private static StubLlmServer malformed;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private LlmClient llmClient;
+    @Autowired
+    private AICallTelemetry aiCallTelemetry;
+
+    private Object originalApiUrl;
+
+    @BeforeAll
+    static void startStubs() {
+        scripted = start(0, List.of(SCRIPTED));
+        malformed = start(1.0, List.of());
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        scripted.close();
+        malformed.close();
+    }
+
+    @BeforeEach
+    void rememberApiUrl() {
+        originalApiUrl = ReflectionTestUtils.getField(llmTarget(), "aiApiUrl");
+    }
+
+    @AfterEach
+    void restoreApiUrl() {
+        ReflectionTestUtils.setField(llmTarget(), "aiApiUrl", originalApiUrl);
+        // 调用日志在测试内落库：进程退出时内嵌库与应用上下文的关闭钩子并发执行，留到关闭时 flush 会等满连接超时
+        aiCallTelemetry.flush();
+    }
+
+    @Test
+    void streamsEachRiskAsSoonAsItsStringCloses() {
+        useLlm(scripted);
+        List<TimedEvent> events = challenge("600519");
+
+        assertThat(events).extracting(TimedEvent::event).containsExactly("risk", "risk", "risk", "done");
+        assertThat(events).extracting(TimedEvent::data).startsWith(
+                "量能不足，\"假突破\"概率高", "止损位离支撑过近\\容易被扫", "逻辑依赖消息面");
+        // 桩服务逐字符输出，整段约 SCRIPTED.length() * CHUNK_LATENCY_MS；首条风险点应远早于流结束到达
+        long spread = events.get(3).elapsedMs() - events.get(0).elapsedMs();
+        assertThat(spread).isGreaterThan(SCRIPTED.length() * CHUNK_LATENCY_MS / 3);
+        assertThat(events.get(1).elapsedMs()).isGreaterThan(events.get(0).elapsedMs());
+        assertThat(scripted.count("requests.scripted")).isPositive();
+    }
+
+    @Test
+    void malformedAnswerFallsBackToDefaultRisks() {
+        useLlm(malformed);
+        List<TimedEvent> events = challenge("000001");
+
+        assertThat(events).extracting(TimedEvent::event).containsExactly("risk", "risk", "risk", "done");
+        assertThat(events.get(0).data()).isEqualTo("请再次审视你的买入逻辑是否充分考虑了风险");
+        assertThat(malformed.count("injected.malformed")).isPositive();
+    }
+
+    private void useLlm(StubLlmServer stub) {
+        ReflectionTestUtils.setField(llmTarget(), "aiApiUrl", stub.completionsUrl());
+    }
+
+    private LlmClient llmTarget() {
+        return AopTestUtils.getTargetObject(llmClient);
+    }
+
+    private List<TimedEvent> challenge(String symbol) {
+        long start = System.nanoTime();
+        return WebClient.create("http://localhost:" + port)
+                .post()
+                .uri("/api/ai/challenge/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(Map.of("stockSymbol", symbol, "logic", "突破前高，放量", "bypassCache", true))
+                .retrieve()
+                .bodyToFlux(SSE)
+                .map(e -> new TimedEvent(e.event(), e.data() != null ? e.data() : "",
+                        (System.nanoTime() - start) / 1_000_000))
+                .collectList()
+                .block(Duration.ofSeconds(30));
+    }
+
+    private static StubLlmServer start(double malformedRate, List<String> script) {
+        try {
+            return StubLlmServer.start(new StubLlmConfig(0, LatencyDistribution.NONE,
+                    LatencyDistribution.parse("fixed:" + CHUNK_LATENCY_MS), 1,
+                    0, 0, 0, malformedRate, 1000, script, "stub-llm"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record TimedEvent(String event, String data, long elapsedMs) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.tradermind.controller;
+
+import com.tradermind.support.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/export/{table}.csv：StreamingResponseBody 流式输出，异步超时只对导出请求放宽
+ * MockMvc 由已启动的应用上下文构建，与其他集成测试共用同一个上下文
+ */
+class ExportControllerTest extends IntegrationTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Value("${journal.export.timeout-ms:600000}")
+    private long exportTimeoutMs;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void streamsCsvWithExportTimeout() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/export/plans.csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(started.getRequest().getAsyncContext().getTimeout()).isEqualTo(exportTimeoutMs);
+
+        MvcResult done = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+                .andReturn();
+        assertThat(done.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION)).contains("trade_plan_");
+        assertThat(done.getResponse().getContentAsString(StandardCharsets.UTF_8))
+                .startsWith("\uFEFFid,stock_symbol,direction");
+    }
+}
@@ -0,0 +1,117 @@
+package com.tradermind.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 定点计算核与 TradeService 原 BigDecimal 口径逐位一致（数值与 scale）：负价差、.5 恰好居中的舍入，以及随机比对
+ */
+class PositionRiskTest {
+
+    private static final int RANDOM_CASES = 200_000;
+
+    @Test
+    void roundHalfUpMovesTiesAwayFromZero() {
+        assertThat(FixedPrice.roundHalfUp(5, 10)).isEqualTo(1);
+        assertThat(FixedPrice.roundHalfUp(-5, 10)).isEqualTo(-1);
+        assertThat(FixedPrice.roundHalfUp(25, 10)).isEqualTo(3);
+        assertThat(FixedPrice.roundHalfUp(-25, 10)).isEqualTo(-3);
+        assertThat(FixedPrice.roundHalfUp(4, 10)).isZero();
+        assertThat(FixedPrice.roundHalfUp(-4, 10)).isZero();
+        assertThat(FixedPrice.roundHalfUp(-6, 10)).isEqualTo(-1);
+        for (long dividend = -1_000; dividend <= 1_000; dividend++) {
+            for (long divisor : new long[]{1, 2, 3, 7, 10, 100, 20_000}) {
+                assertThat(FixedPrice.roundHalfUp(dividend, divisor)).as("%d / %d", dividend, divisor)
+                        .isEqualTo(BigDecimal.valueOf(dividend)
+                                .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP).longValueExact());
+            }
+        }
+    }
+
+    @Test
+    void tiesMatchBigDecimalChain() {
+        // 均价 2、价差 ±0.0001：比值恰为 ±0.00005，保留 4 位时远离零
+        assertMatches(TradeDirection.LONG, "2.0001", "2.0000", "1.9000", 100);
+        assertMatches(TradeDirection.LONG, "1.9999", "2.0000", "1.9000", 100);
+        assertMatches(TradeDirection.SHORT, "1.9999", "2.0000", "2.1000", 100);
+        // 距止损 ±0.005：保留 2 位后为 ±0.01，决定是否已触发
+        assertMatches(TradeDirection.LONG, "10.0050", "10.0000", "10.0000", 300);
+        assertMatches(TradeDirection.LONG, "9.9950", "10.0000", "10.0000", 300);
+        assertMatches(TradeDirection.SHORT, "10.0050", "10.0000", "10.0100", 300);
+        assertMatches(TradeDirection.SHORT, "9.9950", "10.0000", "9.9900", 300);
+        // 盈亏金额 ±0.005
+        assertMatches(TradeDirection.LONG, "10.0001", "10.0000", "9.0000", 50);
+        assertMatches(TradeDirection.LONG, "9.9999", "10.0000", "9.0000", 50);
+        // 距止损恰为均价的 2%
+        assertMatches(TradeDirection.LONG, "10.2000", "10.0000", "10.0000", 100);
+        assertMatches(TradeDirection.SHORT, "9.8000", "10.0000", "10.0000", 100);
+        // 均价为 0
+        assertMatches(TradeDirection.LONG, "1.0000", "0.0000", "0.5000", 100);
+    }
+
+    @Test
+    void randomPositionsMatchBigDecimalChain() {
+        SplittableRandom random = new SplittableRandom(20260318L);
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            // 一半用数千元以内的常规价格，一半挤在很小的区间里以频繁命中 .5 居中
+            long span = i % 2 == 0 ? 50_000_000L : 40L;
+            long avg = random.nextLong(1, span);
+            long current = Math.max(0, avg + random.nextLong(-span / 4 - 1, span / 4 + 1));
+            long stop = Math.max(0, avg + random.nextLong(-span / 4 - 1, span / 4 + 1));
+            TradeDirection direction = random.nextBoolean() ? TradeDirection.LONG : TradeDirection.SHORT;
+            int quantity = random.nextInt(1, 1_000_000);
+            assertMatches(direction, FixedPrice.toBigDecimal(current), FixedPrice.toBigDecimal(avg),
+                    FixedPrice.toBigDecimal(stop), quantity);
+        }
+    }
+
+    private static void assertMatches(TradeDirection direction, String current, String avgEntry, String stopLoss,
+                                      int quantity) {
+        assertMatches(direction, new BigDecimal(current), new BigDecimal(avgEntry), new BigDecimal(stopLoss), quantity);
+    }
+
+    /**
+     * 左边为 TradeService.toDashboardDTO 改用定点值之前的 BigDecimal 计算，右边为现在的定点计算
+     */
+    private static void assertMatches(TradeDirection direction, BigDecimal currentPrice, BigDecimal avgEntry,
+                                      BigDecimal stopLoss, int quantity) {
+        BigDecimal priceDiff = direction == TradeDirection.LONG
+                ? currentPrice.subtract(avgEntry)
+                : avgEntry.subtract(currentPrice);
+        BigDecimal expectedPnl = priceDiff.multiply(BigDecimal.valueOf(quantity)).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal expectedPercent = BigDecimal.ZERO;
+        if (avgEntry.compareTo(BigDecimal.ZERO) > 0) {
+            expectedPercent = priceDiff.divide(avgEntry, 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100))
+                    .setScale(2, RoundingMode.HALF_UP);
+        }
+        BigDecimal expectedDistance = (direction == TradeDirection.LONG
+                ? currentPrice.subtract(stopLoss)
+                : stopLoss.subtract(currentPrice)).setScale(2, RoundingMode.HALF_UP);
+        boolean expectedDanger = false;
+        if (avgEntry.compareTo(BigDecimal.ZERO) > 0) {
+            BigDecimal threshold = avgEntry.multiply(new BigDecimal("0.02"));
+            expectedDanger = expectedDistance.compareTo(BigDecimal.ZERO) <= 0
+                    || expectedDistance.abs().compareTo(threshold) < 0;
+        }
+
+        long current = FixedPrice.of(currentPrice);
+        long avg = FixedPrice.of(avgEntry);
+        long distance = PositionRisk.distanceToStop(direction, current, FixedPrice.of(stopLoss));
+        BigDecimal pnl = FixedPrice.toBigDecimal(PositionRisk.pnlAmount(direction, current, avg, quantity), 2);
+        BigDecimal percent = avg > 0
+                ? BigDecimal.valueOf(PositionRisk.pnlPercentBp(direction, current, avg), 2)
+                : BigDecimal.ZERO;
+
+        String input = "%s current=%s avg=%s stop=%s qty=%d".formatted(direction, currentPrice, avgEntry, stopLoss, quantity);
+        assertThat(pnl).as("盈亏金额 %s", input).isEqualTo(expectedPnl);
+        assertThat(percent).as("盈亏百分比 %s", input).isEqualTo(expectedPercent);
+        assertThat(FixedPrice.toBigDecimal(distance, 2)).as("距止损 %s", input).isEqualTo(expectedDistance);
+        assertThat(PositionRisk.isDanger(distance, avg)).as("风险 %s", input).isEqualTo(expectedDanger);
+    }
+}
@@ -0,0 +1,48 @@
+package com.tradermind.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 移动止损后的实现 R：分母按初始风险，止损执行按当前止损
+ */
+class TradeRuleReviewTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 2, 9, 30);
+
+    /** 入场 10、初始止损 9、止盈 12：减仓 500 股于 11 后止损上移到 10.5，剩余 500 股在 10.5 止损离场 */
+    private static final List<TradeRuleReview.Fill> TRAILED = List.of(
+            new TradeRuleReview.Fill(TransactionType.INITIAL_ENTRY, new BigDecimal("10.00"), 1000, T0),
+            new TradeRuleReview.Fill(TransactionType.PARTIAL_EXIT, new BigDecimal("11.00"), 500, T0.plusDays(1)),
+            new TradeRuleReview.Fill(TransactionType.FULL_EXIT, new BigDecimal("10.50"), 500, T0.plusDays(2)));
+
+    @Test
+    void realizedRUsesInitialRiskAfterTrailingStop() {
+        // 已实现 500 * 1 + 500 * 0.5 = 750，初始风险 1 * 1000，实现 0.75R
+        TradeRuleReview review = TradeRuleReview.evaluate(TradeDirection.LONG, new BigDecimal("1.0000"),
+                new BigDecimal("10.5000"), new BigDecimal("12.0000"), new BigDecimal("2.0000"),
+                TRAILED, new BigDecimal("750.00"));
+
+        assertThat(review.findings()).contains("按计划在止损价离场", "过早止盈：仅实现 0.75R，计划盈亏比 2");
+        // 按当前止损 10.5 计算会得出 1.5R，不应出现
+        assertThat(review.findings()).noneMatch(f -> f.contains("1.5"));
+    }
+
+    @Test
+    void stopExecutionStillChecksCurrentStop() {
+        List<TradeRuleReview.Fill> fills = List.of(TRAILED.get(0), TRAILED.get(1),
+                new TradeRuleReview.Fill(TransactionType.FULL_EXIT, new BigDecimal("10.20"), 500, T0.plusDays(2)));
+
+        TradeRuleReview review = TradeRuleReview.evaluate(TradeDirection.LONG, new BigDecimal("1.0000"),
+                new BigDecimal("10.5000"), new BigDecimal("12.0000"), new BigDecimal("2.0000"),
+                fills, new BigDecimal("600.00"));
+
+        assertThat(review.findings()).anyMatch(f -> f.startsWith("止损执行滞后"));
+        assertThat(review.findings()).contains("过早止盈：仅实现 0.6R，计划盈亏比 2");
+    }
+}
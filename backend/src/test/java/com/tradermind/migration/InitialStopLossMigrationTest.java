@@ -0,0 +1,60 @@
+package com.tradermind.migration;
+
+import com.tradermind.support.TestDatabase;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * V17 回填 initial_stop_loss：在 V16 的库上造出止损被移动过 / 未移动过的计划，再执行 V17
+ */
+class InitialStopLossMigrationTest {
+
+    @Test
+    void backfillsInitialStopFromCreationRiskReward() throws Exception {
+        DataSource ds = TestDatabase.get().createDatabase("initial_stop_loss_migration");
+        TestDatabase.flyway(ds).target(MigrationVersion.fromVersion("16")).load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+
+        // 入场 10、止盈 12、初始止损 9：盈亏比 2
+        long untouched = plan(jdbc, "LONG", "9.0000", "12.0000", "2.0000", false);
+        long trimmedSameStop = plan(jdbc, "LONG", "9.3000", "12.0000", "2.8571", true);
+        long trailedLong = plan(jdbc, "LONG", "10.5000", "12.0000", "2.0000", true);
+        // 做空：入场 10、止盈 8、初始止损 11，减仓后止损下移到 9.5
+        long trailedShort = plan(jdbc, "SHORT", "9.5000", "8.0000", "2.0000", true);
+        jdbc.update("INSERT INTO portfolio_stats (id, trade_count) VALUES (1, 3) ON CONFLICT (id) DO UPDATE SET trade_count = 3");
+
+        TestDatabase.flyway(ds).load().migrate();
+
+        assertThat(initialStop(jdbc, untouched)).isEqualByComparingTo("9");
+        assertThat(initialStop(jdbc, trimmedSameStop)).isEqualByComparingTo("9.3");
+        assertThat(initialStop(jdbc, trailedLong)).isEqualByComparingTo("9");
+        assertThat(initialStop(jdbc, trailedShort)).isEqualByComparingTo("11");
+        // 按旧口径累计的汇总行被删除，启动时全量重建
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM portfolio_stats", Long.class)).isZero();
+    }
+
+    private static long plan(JdbcTemplate jdbc, String direction, String stopLoss, String takeProfit,
+                             String riskReward, boolean trimmed) {
+        Long id = jdbc.queryForObject("""
+                        INSERT INTO trade_plan (stock_symbol, direction, entry_price, stop_loss, take_profit, position_size,
+                                                risk_reward_ratio, entry_logic, status, created_at)
+                        VALUES ('600519', ?, 10.0000, ?, ?, 1000, ?, '迁移测试', 'OPEN', now())
+                        RETURNING id
+                        """, Long.class,
+                direction, new BigDecimal(stopLoss), new BigDecimal(takeProfit), new BigDecimal(riskReward));
+        if (trimmed) {
+            jdbc.update("INSERT INTO trade_transaction (plan_id, type, price, quantity) VALUES (?, 'PARTIAL_EXIT', 11, 500)", id);
+        }
+        return id;
+    }
+
+    private static BigDecimal initialStop(JdbcTemplate jdbc, long planId) {
+        return jdbc.queryForObject("SELECT initial_stop_loss FROM trade_plan WHERE id = ?", BigDecimal.class, planId);
+    }
+}
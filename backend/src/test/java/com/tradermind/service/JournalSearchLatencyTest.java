@@ -0,0 +1,122 @@
+package com.tradermind.service;
+
+import com.tradermind.dto.JournalSearchResultDTO;
+import com.tradermind.service.JournalSearchService.SortOrder;
+import com.tradermind.support.TestDatabase;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 10 万条文档（2.5 万计划 × 4 种来源）下的日志检索耗时：高频词、短语、单字、多词、按代码过滤，两种排序各取第一页 20 条
+ * 只输出 p50 / p95，不对耗时断言：墙钟耗时随机器负载波动，属于 perf 分组，默认测试不运行，
+ * 用 mvn test -pl backend -Pperf -Dtest=JournalSearchLatencyTest 单独执行
+ */
+@Tag("perf")
+@Slf4j
+class JournalSearchLatencyTest {
+
+    /** 造数词表：每条文档从中随机拼 3~6 句 */
+    private static final List<String> PHRASES = List.of(
+            "放量突破前高", "缩量回踩均线", "严格止损", "止损位设在前低下方", "分时均线支撑有效", "板块轮动加速",
+            "北向资金连续流入", "业绩预告超预期", "高位放量滞涨", "跌破箱体下沿", "底部背离确认", "消息面利好兑现",
+            "追高买入后被套", "计划外加仓", "减仓锁定利润", "移动止损保护盈利", "情绪化交易", "开盘竞价异动",
+            "尾盘抢筹", "筹码集中度提升", "MACD 金叉", "KDJ 超买", "成交额创新高", "换手率过高",
+            "逻辑被证伪后离场", "耐心持有等待目标", "未按计划执行", "复盘发现入场过早", "量价配合良好", "龙头股走弱");
+    private static final int PLANS = 25_000;
+    private static final int WARMUP = 5;
+    private static final int SAMPLES = 30;
+
+    private static HikariDataSource ds;
+    private static JournalSearchService service;
+
+    @BeforeAll
+    static void seed() throws Exception {
+        DataSource raw = TestDatabase.get().createDatabase("journal_search_latency");
+        TestDatabase.flyway(raw).load().migrate();
+        // 与后端一样经连接池访问：每次检索新建连接的开销（数毫秒）会淹没查询本身的耗时
+        HikariConfig pool = new HikariConfig();
+        pool.setDataSource(raw);
+        pool.setMaximumPoolSize(2);
+        ds = new HikariDataSource(pool);
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        service = new JournalSearchService(jdbc);
+        ReflectionTestUtils.setField(service, "maxPageSize", 100);
+        ReflectionTestUtils.setField(service, "snippetChars", 120);
+        ReflectionTestUtils.setField(service, "slowQueryMs", Long.MAX_VALUE);
+
+        // 每条文档从词表随机拼 3~6 句；每个计划四条文档（买入逻辑、减仓备注、平仓逻辑、AI 点评），经由触发器写入 journal_document
+        jdbc.execute("""
+                CREATE FUNCTION seed_journal_text() RETURNS TEXT LANGUAGE sql VOLATILE AS $$
+                    SELECT string_agg(v[1 + floor(random() * array_length(v, 1))::int], '，')
+                    FROM (SELECT ARRAY[%s] AS v) vocab, generate_series(1, 3 + (random() * 3)::int)
+                $$
+                """.formatted(String.join(", ", PHRASES.stream().map(p -> "'" + p + "'").toList())));
+        jdbc.execute("SELECT setseed(0.42)");
+        jdbc.update("""
+                INSERT INTO trade_plan (stock_symbol, direction, entry_price, stop_loss, initial_stop_loss, take_profit,
+                                        position_size, risk_reward_ratio, entry_logic, status, created_at)
+                SELECT (600000 + g % 500)::text, 'LONG', 10, 9, 9, 12, 1000, 2, seed_journal_text(), 'CLOSED',
+                       now() - make_interval(mins => g)
+                FROM generate_series(1, ?) AS g
+                """, PLANS);
+        jdbc.update("""
+                INSERT INTO trade_transaction (plan_id, type, price, quantity, transaction_time, logic_snapshot)
+                SELECT id, 'PARTIAL_EXIT', 11, 500, created_at, seed_journal_text() FROM trade_plan
+                """);
+        jdbc.update("""
+                INSERT INTO trade_execution (plan_id, exit_price, realized_pnl, exit_logic, ai_analysis_comment, created_at)
+                SELECT id, 11, 1000, seed_journal_text(), seed_journal_text(), created_at FROM trade_plan
+                """);
+        jdbc.execute("ANALYZE journal_document");
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM journal_document", Long.class)).isGreaterThanOrEqualTo(100_000);
+    }
+
+    @AfterAll
+    static void closePool() {
+        ds.close();
+    }
+
+    @Test
+    void firstPageLatencyOn100kDocuments() {
+        record Case(String q, String symbol) {}
+        List<Case> cases = List.of(
+                new Case("止损", null),
+                new Case("移动止损保护盈利", null),
+                new Case("损", null),
+                new Case("放量 突破", null),
+                new Case("MACD 金叉", null),
+                new Case("龙头股走弱", "600123"));
+        for (SortOrder sort : SortOrder.values()) {
+            for (Case c : cases) {
+                for (int i = 0; i < WARMUP; i++) {
+                    service.search(c.q(), c.symbol(), sort, 0, 20);
+                }
+                long[] micros = new long[SAMPLES];
+                long total = 0;
+                for (int i = 0; i < SAMPLES; i++) {
+                    long start = System.nanoTime();
+                    JournalSearchResultDTO result = service.search(c.q(), c.symbol(), sort, 0, 20);
+                    micros[i] = (System.nanoTime() - start) / 1_000;
+                    total = result.total();
+                }
+                Arrays.sort(micros);
+                log.info("日志检索耗时 sort={} q='{}' symbol={}: 命中 {} 条, p50={}ms, p95={}ms", sort, c.q(), c.symbol(),
+                        total, micros[SAMPLES / 2] / 1000.0, micros[(int) Math.ceil(SAMPLES * 0.95) - 1] / 1000.0);
+                assertThat(total).isPositive();
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.tradermind.service;
+
+import com.tradermind.dto.JournalSearchResultDTO;
+import com.tradermind.service.JournalSearchService.SortOrder;
+import com.tradermind.support.TestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 交易日志检索（V16）在真实 PostgreSQL 上的行为：触发器同步、中文切分与单字查询、排序与计数
+ * 使用独立的库，造数不影响其他集成测试；10 万条文档下的耗时见 JournalSearchLatencyTest（perf 分组）
+ */
+class JournalSearchServiceTest {
+
+    private static JdbcTemplate jdbc;
+    private static JournalSearchService service;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        jdbc = new JdbcTemplate(TestDatabase.get().createDatabase("journal_search"));
+        TestDatabase.flyway(jdbc.getDataSource()).load().migrate();
+        service = new JournalSearchService(jdbc);
+        ReflectionTestUtils.setField(service, "maxPageSize", 100);
+        ReflectionTestUtils.setField(service, "snippetChars", 120);
+        ReflectionTestUtils.setField(service, "slowQueryMs", 50L);
+    }
+
+    @Test
+    void triggersKeepDocumentsAndSymbolInSync() {
+        Long planId = plan("000001", "触发器同步测试：鹊桥仙");
+        jdbc.update("INSERT INTO trade_transaction (plan_id, type, price, quantity, logic_snapshot) VALUES (?, 'PARTIAL_EXIT', 11, 500, '减仓备注鹊桥仙')", planId);
+        jdbc.update("INSERT INTO trade_execution (plan_id, exit_price, exit_logic, ai_analysis_comment) VALUES (?, 11, '平仓鹊桥仙', '点评鹊桥仙')", planId);
+        assertThat(documents(planId)).containsExactlyInAnyOrder(
+                "ENTRY_LOGIC 000001", "LOGIC_SNAPSHOT 000001", "EXIT_LOGIC 000001", "AI_COMMENT 000001");
+
+        jdbc.update("UPDATE trade_plan SET stock_symbol = '000002' WHERE id = ?", planId);
+
+        assertThat(documents(planId)).containsExactlyInAnyOrder(
+                "ENTRY_LOGIC 000002", "LOGIC_SNAPSHOT 000002", "EXIT_LOGIC 000002", "AI_COMMENT 000002");
+        assertThat(service.search("鹊桥仙", "000002", SortOrder.RELEVANCE, 0, 10).total()).isEqualTo(4);
+        assertThat(service.search("鹊桥仙", "000001", SortOrder.RELEVANCE, 0, 10).total()).isZero();
+
+        jdbc.update("UPDATE trade_execution SET ai_analysis_comment = NULL WHERE plan_id = ?", planId);
+        assertThat(documents(planId)).doesNotContain("AI_COMMENT 000002");
+    }
+
+    @Test
+    void singleCjkCharacterMatchesAtEndOfRun() {
+        Long planId = plan("000003", "仓位过重，必须果断斩");
+
+        // "斩" 只出现在段尾，不是任何二元组的首字；前缀查询 '斩:*' 会漏掉
+        assertThat(planIds(service.search("斩", null, SortOrder.RELEVANCE, 0, 100))).contains(planId);
+        assertThat(planIds(service.search("果断斩", null, SortOrder.RELEVANCE, 0, 100))).contains(planId);
+        assertThat(planIds(service.search("断斩", "000003", SortOrder.RELEVANCE, 0, 100))).containsExactly(planId);
+        assertThat(service.search("斩果", "000003", SortOrder.RELEVANCE, 0, 100).total()).isZero();
+        assertThat(service.search("仓位 斩", "000003", SortOrder.RELEVANCE, 0, 10).hits().get(0).snippet())
+                .isEqualTo("<mark>仓位</mark>过重，必须果断<mark>斩</mark>");
+    }
+
+    /**
+     * 一年前的买入逻辑（权重 A、三次命中）之后又有 1200 条减仓备注（权重 B、一次命中）：
+     * relevance 在全部命中内排序，旧文档排第一；recent 按时间倒序，旧文档在最后；total 为精确命中数
+     */
+    @Test
+    void relevanceRanksAcrossAllMatchesAndRecentSortsByTime() {
+        Long old = jdbc.queryForObject("""
+                INSERT INTO trade_plan (stock_symbol, direction, entry_price, stop_loss, initial_stop_loss, take_profit,
+                                        position_size, risk_reward_ratio, entry_logic, status, created_at)
+                VALUES ('000004', 'LONG', 10, 9, 9, 12, 1000, 2, '换手率异常放大，换手率过高，换手率见顶', 'CLOSED',
+                        now() - interval '365 days')
+                RETURNING id
+                """, Long.class);
+        Long recent = plan("000004", "无关的买入逻辑");
+        jdbc.update("""
+                INSERT INTO trade_transaction (plan_id, type, price, quantity, transaction_time, logic_snapshot)
+                SELECT ?, 'PARTIAL_EXIT', 11, 100, now() - make_interval(mins => g), '减仓：换手率一般'
+                FROM generate_series(1, 1200) AS g
+                """, recent);
+
+        JournalSearchResultDTO relevance = service.search("换手率", "000004", SortOrder.RELEVANCE, 0, 20);
+        assertThat(relevance.total()).isEqualTo(1201);
+        assertThat(relevance.sort()).isEqualTo("relevance");
+        assertThat(relevance.hits().get(0).planId()).isEqualTo(old);
+        assertThat(relevance.hits().get(0).rank()).isGreaterThan(relevance.hits().get(1).rank());
+
+        JournalSearchResultDTO newest = service.search("换手率", "000004", SortOrder.RECENT, 0, 20);
+        assertThat(newest.total()).isEqualTo(1201);
+        assertThat(newest.hits()).extracting(JournalSearchResultDTO.Hit::createdAt).isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(newest.hits()).extracting(JournalSearchResultDTO.Hit::sourceType).containsOnly("LOGIC_SNAPSHOT");
+        JournalSearchResultDTO lastPage = service.search("换手率", "000004", SortOrder.RECENT, 60, 20);
+        assertThat(lastPage.hits()).extracting(JournalSearchResultDTO.Hit::planId).containsExactly(old);
+
+        // 越过末页：没有结果行，total 单独计数
+        JournalSearchResultDTO beyond = service.search("换手率", "000004", SortOrder.RELEVANCE, 100, 20);
+        assertThat(beyond.hits()).isEmpty();
+        assertThat(beyond.total()).isEqualTo(1201);
+    }
+
+    @Test
+    void sortParamIsCaseInsensitiveAndValidated() {
+        assertThat(SortOrder.fromParam("Recent")).isEqualTo(SortOrder.RECENT);
+        assertThatThrownBy(() -> SortOrder.fromParam("newest")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Long plan(String symbol, String entryLogic) {
+        return jdbc.queryForObject("""
+                INSERT INTO trade_plan (stock_symbol, direction, entry_price, stop_loss, initial_stop_loss, take_profit,
+                                        position_size, risk_reward_ratio, entry_logic, status, created_at)
+                VALUES (?, 'LONG', 10, 9, 9, 12, 1000, 2, ?, 'OPEN', now())
+                RETURNING id
+                """, Long.class, symbol, entryLogic);
+    }
+
+    private static List<String> documents(long planId) {
+        return jdbc.queryForList("SELECT source_type || ' ' || stock_symbol FROM journal_document WHERE plan_id = ?",
+                String.class, planId);
+    }
+
+    private static List<Long> planIds(JournalSearchResultDTO result) {
+        return result.hits().stream().map(JournalSearchResultDTO.Hit::planId).distinct().toList();
+    }
+}
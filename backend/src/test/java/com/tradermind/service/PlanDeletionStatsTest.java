@@ -0,0 +1,96 @@
+package com.tradermind.service;
+
+import com.tradermind.domain.TradeDirection;
+import com.tradermind.dto.CloseTradeRequest;
+import com.tradermind.dto.CreateTradePlanRequest;
+import com.tradermind.dto.ExecutePlanRequest;
+import com.tradermind.dto.PortfolioStatsDTO;
+import com.tradermind.support.IntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 删除已平仓计划：执行记录随计划删除，绩效汇总与权益曲线在同一事务内移除其贡献，结果与全量重建一致
+ */
+class PlanDeletionStatsTest extends IntegrationTest {
+
+    @Autowired
+    private TradeService tradeService;
+    @Autowired
+    private PerformanceStatsService performanceStatsService;
+    @Autowired
+    private AIReviewQueueService aiReviewQueueService;
+
+    private Object originalSlots;
+
+    /**
+     * 平仓会入队 AI 复盘：测试期间没有空闲工作线程，调度器不领取任务；
+     * 否则大模型外呼的重试会拖到上下文关闭之后，访问已停止的数据库
+     */
+    @BeforeEach
+    void pauseReviewDispatch() {
+        originalSlots = ReflectionTestUtils.getField(aiReviewQueueService, "slots");
+        ReflectionTestUtils.setField(aiReviewQueueService, "slots", new Semaphore(0));
+    }
+
+    @AfterEach
+    void resumeReviewDispatch() {
+        ReflectionTestUtils.setField(aiReviewQueueService, "slots", originalSlots);
+    }
+
+    @Test
+    void deletingClosedPlansRemovesTheirContribution() {
+        PortfolioStatsDTO before = performanceStatsService.getStats();
+        int curveBefore = performanceStatsService.getEquityCurve().size();
+
+        long winner = closedPlan("600100", "11.00");
+        closedPlan("600101", "9.50");
+        PortfolioStatsDTO both = performanceStatsService.getStats();
+        assertThat(both.tradeCount()).isEqualTo(before.tradeCount() + 2);
+        assertThat(both.totalRealizedPnL()).isEqualByComparingTo(before.totalRealizedPnL().add(new BigDecimal("500")));
+
+        tradeService.deletePlan(winner);
+
+        PortfolioStatsDTO afterDelete = performanceStatsService.getStats();
+        assertThat(afterDelete.tradeCount()).isEqualTo(before.tradeCount() + 1);
+        assertThat(afterDelete.winCount()).isEqualTo(before.winCount());
+        assertThat(afterDelete.lossCount()).isEqualTo(before.lossCount() + 1);
+        assertThat(afterDelete.totalRealizedPnL()).isEqualByComparingTo(before.totalRealizedPnL().subtract(new BigDecimal("500")));
+        assertThat(performanceStatsService.getEquityCurve()).hasSize(curveBefore + 1);
+        assertSameStats(afterDelete, performanceStatsService.rebuild());
+
+        tradeService.deletePlanByStockSymbol("600101");
+
+        PortfolioStatsDTO afterBoth = performanceStatsService.getStats();
+        assertThat(afterBoth.tradeCount()).isEqualTo(before.tradeCount());
+        assertThat(afterBoth.totalRealizedPnL()).isEqualByComparingTo(before.totalRealizedPnL());
+        assertThat(performanceStatsService.getEquityCurve()).hasSize(curveBefore);
+    }
+
+    /**
+     * 入场 10、止损 9、1000 股，按 exitPrice 全部平仓
+     */
+    private long closedPlan(String symbol, String exitPrice) {
+        long planId = tradeService.createTradePlan(new CreateTradePlanRequest(
+                symbol, TradeDirection.LONG, new BigDecimal("10.00"), new BigDecimal("9.00"),
+                new BigDecimal("12.00"), 1000, "删除计划测试")).id();
+        tradeService.executePlan(planId, new ExecutePlanRequest(new BigDecimal("10.00"), 1000));
+        tradeService.closePlan(planId, new CloseTradeRequest(new BigDecimal(exitPrice), "删除计划测试平仓", null));
+        return planId;
+    }
+
+    private static void assertSameStats(PortfolioStatsDTO actual, PortfolioStatsDTO rebuilt) {
+        assertThat(actual).usingRecursiveComparison()
+                .ignoringFields("updatedAt")
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(rebuilt);
+    }
+}
@@ -0,0 +1,145 @@
+package com.tradermind.service;
+
+import com.tradermind.domain.PositionState;
+import com.tradermind.domain.TradeDirection;
+import com.tradermind.dto.AddPositionRequest;
+import com.tradermind.dto.CreateTradePlanRequest;
+import com.tradermind.dto.ExecutePlanRequest;
+import com.tradermind.dto.LedgerMismatch;
+import com.tradermind.dto.PositionLedgerDTO;
+import com.tradermind.dto.TrimPositionRequest;
+import com.tradermind.entity.PositionSnapshot;
+import com.tradermind.entity.TradePlan;
+import com.tradermind.entity.TradeTransaction;
+import com.tradermind.repository.PositionSnapshotRepository;
+import com.tradermind.repository.TradePlanRepository;
+import com.tradermind.repository.TradeTransactionRepository;
+import com.tradermind.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 同一计划上大量并发加仓 / 减仓：验证计划锁 + 乐观锁下不丢更新，
+ * 结束后 trade_plan 上的持仓状态、从头回放 trade_transaction 的结果与 position_snapshot 三者一致
+ */
+class PlanMutationConcurrencyTest extends IntegrationTest {
+
+    private static final int OPERATIONS = 2000;
+    private static final int CLIENTS = 32;
+    private static final int INITIAL_QUANTITY = 1_000_000;
+
+    @Autowired
+    private TradeService tradeService;
+    @Autowired
+    private PositionLedgerService positionLedgerService;
+    @Autowired
+    private TradePlanRepository tradePlanRepository;
+    @Autowired
+    private TradeTransactionRepository tradeTransactionRepository;
+    @Autowired
+    private PositionSnapshotRepository positionSnapshotRepository;
+
+    @Test
+    void interleavedAddAndTrimKeepLedgerConsistent() throws Exception {
+        Long planId = tradeService.createTradePlan(new CreateTradePlanRequest(
+                "600519", TradeDirection.LONG, new BigDecimal("10.00"), new BigDecimal("9.00"),
+                new BigDecimal("12.00"), 1000, "并发压力测试")).id();
+        tradeService.executePlan(planId, new ExecutePlanRequest(new BigDecimal("10.00"), INITIAL_QUANTITY));
+
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger trimmed = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService clients = Executors.newFixedThreadPool(CLIENTS)) {
+            // 压测期间持续读取账本，使快照在并发修改中途刷新
+            Future<?> auditor = clients.submit(() -> {
+                while (running.get()) {
+                    positionLedgerService.project(planId);
+                }
+                return null;
+            });
+            for (int i = 0; i < OPERATIONS; i++) {
+                futures.add(clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    BigDecimal price = BigDecimal.valueOf(random.nextLong(900, 1100), 2);
+                    int quantity = 100 * random.nextInt(1, 4);
+                    if (random.nextBoolean()) {
+                        tradeService.addPosition(planId, new AddPositionRequest(price, quantity, null));
+                        added.addAndGet(quantity);
+                    } else {
+                        tradeService.executePartialExit(planId,
+                                new TrimPositionRequest(price, quantity, "分批止盈", null, null));
+                        trimmed.addAndGet(quantity);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+            running.set(false);
+            auditor.get();
+        }
+
+        TradePlan plan = tradePlanRepository.findById(planId).orElseThrow();
+        PositionState stored = plan.positionState();
+        List<TradeTransaction> txns = tradeTransactionRepository.findByPlanIdAndIdGreaterThanOrderByIdAsc(planId, 0L);
+
+        assertThat(txns).hasSize(OPERATIONS + 1);
+        assertThat(stored.currentQuantity()).isEqualTo(INITIAL_QUANTITY + added.get() - trimmed.get());
+        assertThat(stored.totalQuantity()).isEqualTo(INITIAL_QUANTITY + added.get());
+
+        // 从头回放全部流水
+        PositionState replayed = replay(plan.getDirection(), txns, Long.MAX_VALUE);
+        assertSameState(replayed, stored);
+
+        // 快照：等于回放到快照末条流水为止的状态，且从快照继续回放尾部得到同样的结果
+        PositionSnapshot snapshot = positionSnapshotRepository.findById(planId).orElseThrow();
+        PositionState upToSnapshot = replay(plan.getDirection(), txns, snapshot.getLastTransactionId());
+        assertSameState(new PositionState(snapshot.getAvgEntryPrice(), snapshot.getTotalQuantity(),
+                snapshot.getCurrentQuantity(), snapshot.getRealizedPnL()), upToSnapshot);
+        assertThat(snapshot.getTransactionCount())
+                .isEqualTo((int) txns.stream().filter(t -> t.getId() <= snapshot.getLastTransactionId()).count());
+
+        PositionLedgerDTO projected = positionLedgerService.project(planId);
+        assertThat(projected.fromSnapshot()).isTrue();
+        assertThat(projected.transactionCount()).isEqualTo(txns.size());
+        assertSameState(new PositionState(projected.avgEntryPrice(), projected.totalQuantity(),
+                projected.currentQuantity(), projected.realizedPnL()), stored);
+
+        List<LedgerMismatch> mismatches = positionLedgerService.rebuildAll(false).mismatches().stream()
+                .filter(m -> m.planId().equals(planId))
+                .toList();
+        assertThat(mismatches).isEmpty();
+    }
+
+    private static PositionState replay(TradeDirection direction, List<TradeTransaction> txns, long upToId) {
+        PositionState state = PositionState.EMPTY;
+        for (TradeTransaction t : txns) {
+            if (t.getId() > upToId) {
+                break;
+            }
+            state = state.apply(direction, t.getType(), t.getPrice(), t.getQuantity());
+        }
+        return state;
+    }
+
+    private static void assertSameState(PositionState actual, PositionState expected) {
+        assertThat(actual.avgEntryPrice()).isEqualByComparingTo(expected.avgEntryPrice());
+        assertThat(actual.totalQuantity()).isEqualTo(expected.totalQuantity());
+        assertThat(actual.currentQuantity()).isEqualTo(expected.currentQuantity());
+        assertThat(actual.realizedPnL()).isEqualByComparingTo(expected.realizedPnL());
+    }
+}
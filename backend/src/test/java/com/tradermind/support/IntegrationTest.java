@@ -0,0 +1,28 @@
+package com.tradermind.support;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * 集成测试基类：以随机端口完整启动后端，连接内嵌 PostgreSQL（{@link TestDatabase}）
+ * 行情与大模型地址指向本机不可达端口，外呼立即失败而不会访问公网（行情失败日志关闭）；需要大模型响应的测试自行启动桩服务并覆盖 ai.api.url
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "market.sina.url=http://127.0.0.1:9/list=",
+        "ai.api.url=http://127.0.0.1:9/v1/chat/completions",
+        "ai.api.key=test",
+        "spring.devtools.restart.enabled=false",
+        "jfr.streaming.enabled=false",
+        "logging.level.com.tradermind.service.StockMarketService=OFF"
+})
+public abstract class IntegrationTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase db = TestDatabase.get();
+        registry.add("spring.datasource.url", db::jdbcUrl);
+        registry.add("spring.datasource.username", db::user);
+        registry.add("spring.datasource.password", db::password);
+    }
+}
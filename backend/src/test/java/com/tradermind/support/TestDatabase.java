@@ -0,0 +1,100 @@
+package com.tradermind.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 集成测试共用的内嵌 PostgreSQL：每个测试 JVM 启动一次，进程退出时销毁
+ * 建表方式与压测相同：先执行 db/base_tables.sql 建出 Flyway 之前的基础表，再以 V2 为基线执行其余迁移，
+ * 因此每次测试运行都会在真实 PostgreSQL 上完整执行一遍全部迁移脚本
+ */
+public final class TestDatabase {
+
+    /** 与后端 datasource.url 相同的连接参数 */
+    private static final String JDBC_PARAMS = "stringtype=unspecified&defaultAutoCommit=false";
+
+    private static TestDatabase instance;
+
+    private final EmbeddedPostgres embedded;
+    private final String jdbcUrl;
+
+    private TestDatabase(EmbeddedPostgres embedded) {
+        this.embedded = embedded;
+        this.jdbcUrl = "jdbc:postgresql://localhost:" + embedded.getPort() + "/postgres?" + JDBC_PARAMS;
+    }
+
+    public static synchronized TestDatabase get() {
+        if (instance == null) {
+            try {
+                TestDatabase db = new TestDatabase(EmbeddedPostgres.builder().start());
+                db.migrate();
+                instance = db;
+            } catch (IOException e) {
+                throw new UncheckedIOException("内嵌 PostgreSQL 启动失败", e);
+            } catch (SQLException e) {
+                throw new IllegalStateException("测试库建表失败", e);
+            }
+        }
+        return instance;
+    }
+
+    public String jdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public String user() {
+        return "postgres";
+    }
+
+    public String password() {
+        return "postgres";
+    }
+
+    public DataSource dataSource() {
+        return embedded.getPostgresDatabase();
+    }
+
+    /**
+     * 在同一实例上新建一个只含基础表的空库，供迁移测试按版本逐步执行
+     *
+     * @param name 库名，同一 JVM 内不可重复
+     */
+    public DataSource createDatabase(String name) throws SQLException {
+        try (Connection conn = dataSource().getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE DATABASE " + name);
+        }
+        DataSource ds = embedded.getDatabase(user(), name);
+        try (Connection conn = ds.getConnection()) {
+            ScriptUtils.executeSqlScript(conn, new ClassPathResource("db/base_tables.sql"));
+        }
+        return ds;
+    }
+
+    /**
+     * 以 V2 为基线的 Flyway 配置（基础表由 db/base_tables.sql 建出）
+     */
+    public static FluentConfiguration flyway(DataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("2");
+    }
+
+    private void migrate() throws SQLException {
+        try (Connection conn = dataSource().getConnection()) {
+            ScriptUtils.executeSqlScript(conn, new ClassPathResource("db/base_tables.sql"));
+        }
+        flyway(dataSource()).load().migrate();
+    }
+}
@@ -0,0 +1,105 @@
+package com.tradermind.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 比较两次 JMH JSON 结果（基线 vs 本次），逐个基准输出耗时与每次操作分配字节数的变化
+ * 耗时变慢或分配增加超过阈值（且超出两次结果误差之和）记为回退，存在回退时以退出码 1 结束，可直接用于 CI
+ *
+ * 用法：java -cp target/benchmarks.jar com.tradermind.bench.BaselineComparator baseline/results.json target/jmh-result.json [阈值百分比，默认 10]
+ */
+public final class BaselineComparator {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    /** 分配量在该字节数以内的变化视为噪声（如逃逸分析差异带来的少量对象） */
+    private static final double ALLOC_NOISE_BYTES = 16;
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: BaselineComparator <基线 JSON> <本次 JSON> [阈值百分比]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+        Map<String, Sample> baseline = load(new File(args[0]));
+        Map<String, Sample> current = load(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %8s %12s %12s%n", "基准", "基线", "本次", "变化", "基线 B/op", "本次 B/op");
+        for (Map.Entry<String, Sample> e : current.entrySet()) {
+            Sample cur = e.getValue();
+            Sample base = baseline.get(e.getKey());
+            if (base == null) {
+                System.out.printf("%-70s %14s %14s %8s %12s %12.0f  (新增)%n",
+                        e.getKey(), "-", format(cur), "-", "-", cur.allocBytes());
+                continue;
+            }
+            double change = (cur.score() - base.score()) / base.score();
+            boolean slower = change > threshold && cur.score() - base.score() > cur.error() + base.error();
+            boolean moreAlloc = cur.allocBytes() - base.allocBytes() > Math.max(ALLOC_NOISE_BYTES, base.allocBytes() * threshold);
+            String flag = slower && moreAlloc ? "  <- 变慢且分配增加"
+                    : slower ? "  <- 变慢"
+                    : moreAlloc ? "  <- 分配增加"
+                    : "";
+            if (!flag.isEmpty()) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14s %14s %+7.1f%% %12.0f %12.0f%s%n",
+                    e.getKey(), format(base), format(cur), change * 100, base.allocBytes(), cur.allocBytes(), flag);
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-70s  (本次未运行)%n", name);
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d 个基准超过 %.0f%% 阈值%n", regressions, threshold * 100);
+            System.exit(1);
+        }
+        System.out.println("未发现回退");
+    }
+
+    /**
+     * 基准名（含参数）-> 主指标与分配量
+     */
+    private static Map<String, Sample> load(File file) throws IOException {
+        Map<String, Sample> samples = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder name = new StringBuilder(run.path("benchmark").asText());
+            run.path("params").fields().forEachRemaining(p ->
+                    name.append(name.indexOf(":") < 0 ? ":" : ",").append(p.getKey()).append('=').append(p.getValue().asText()));
+            JsonNode primary = run.path("primaryMetric");
+            JsonNode alloc = run.path("secondaryMetrics").path(ALLOC_NORM);
+            samples.put(name.toString(), new Sample(
+                    primary.path("score").asDouble(),
+                    errorOrZero(primary.path("scoreError")),
+                    primary.path("scoreUnit").asText(),
+                    alloc.isMissingNode() ? 0 : alloc.path("score").asDouble()));
+        }
+        return samples;
+    }
+
+    /**
+     * 迭代次数不足时 JMH 把误差写为 "NaN"
+     */
+    private static double errorOrZero(JsonNode node) {
+        double error = node.asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String format(Sample s) {
+        return String.format("%.2f %s", s.score(), s.unit());
+    }
+
+    private record Sample(double score, double error, String unit, double allocBytes) {}
+}
@@ -0,0 +1,34 @@
+package com.tradermind.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 按基线口径运行全部基准：开启 GC 分配剖析（gc.alloc.rate.norm 即每次操作分配字节数），结果写为 JMH JSON
+ *
+ * 用法：java -cp target/benchmarks.jar com.tradermind.bench.BenchmarkRunner [输出文件] [基准名正则]
+ * 默认输出 target/jmh-result.json，默认运行 com.tradermind.bench 下全部基准
+ * 与基线比较见 BaselineComparator；更新基线时把输出文件写到 baseline/results.json
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String output = args.length > 0 ? args[0] : "target/jmh-result.json";
+        String include = args.length > 1 ? args[1] : "com\\.tradermind\\.bench\\..*";
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output);
+        new Runner(options.build()).run();
+        System.out.println("基准结果已写入 " + output);
+    }
+}
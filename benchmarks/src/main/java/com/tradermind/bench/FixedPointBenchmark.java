@@ -0,0 +1,106 @@
+package com.tradermind.bench;
+
+import com.tradermind.domain.FixedPrice;
+import com.tradermind.domain.PositionRisk;
+import com.tradermind.domain.TradeDirection;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逐笔行情重算一组持仓的盈亏、盈亏百分比、距止损与风险等级：BigDecimal 与定点 long 两种实现对比
+ * - bigDecimal：原 toDashboardDTO 的 BigDecimal 计算口径
+ * - fixedPoint：PositionRisk 定点计算核，价格预先转为定点值
+ * 每次操作重算整组 POSITIONS 个持仓，报告的耗时与分配量按单个持仓折算
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FixedPointBenchmark {
+
+    private static final int POSITIONS = 256;
+    private static final BigDecimal RISK_RATIO = new BigDecimal("0.02");
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final TradeDirection[] directions = new TradeDirection[POSITIONS];
+    private final int[] quantities = new int[POSITIONS];
+
+    private final BigDecimal[] prices = new BigDecimal[POSITIONS];
+    private final BigDecimal[] avgEntries = new BigDecimal[POSITIONS];
+    private final BigDecimal[] stopLosses = new BigDecimal[POSITIONS];
+
+    private final long[] fixedPrices = new long[POSITIONS];
+    private final long[] fixedAvgEntries = new long[POSITIONS];
+    private final long[] fixedStopLosses = new long[POSITIONS];
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < POSITIONS; i++) {
+            directions[i] = random.nextInt(5) == 0 ? TradeDirection.SHORT : TradeDirection.LONG;
+            quantities[i] = 100 * (1 + random.nextInt(50));
+            long avg = 50_000 + random.nextLong(20_000_000);
+            long price = avg + random.nextLong(-avg / 10, avg / 10);
+            long stop = directions[i] == TradeDirection.LONG ? avg - avg / 20 : avg + avg / 20;
+            // 行情价 2 位小数，均价与止损 4 位，与库表和新浪报价一致
+            price -= price % 100;
+
+            fixedPrices[i] = price;
+            fixedAvgEntries[i] = avg;
+            fixedStopLosses[i] = stop;
+            prices[i] = FixedPrice.toBigDecimal(price, 2);
+            avgEntries[i] = FixedPrice.toBigDecimal(avg);
+            stopLosses[i] = FixedPrice.toBigDecimal(stop);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public long bigDecimal() {
+        long acc = 0;
+        for (int i = 0; i < POSITIONS; i++) {
+            BigDecimal current = prices[i];
+            BigDecimal avgEntry = avgEntries[i];
+            boolean isLong = directions[i] == TradeDirection.LONG;
+
+            BigDecimal priceDiff = isLong ? current.subtract(avgEntry) : avgEntry.subtract(current);
+            BigDecimal pnlAmount = priceDiff.multiply(BigDecimal.valueOf(quantities[i])).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal pnlPercentage = priceDiff.divide(avgEntry, 4, RoundingMode.HALF_UP)
+                    .multiply(HUNDRED)
+                    .setScale(2, RoundingMode.HALF_UP);
+            BigDecimal distanceToSL = (isLong ? current.subtract(stopLosses[i]) : stopLosses[i].subtract(current))
+                    .setScale(2, RoundingMode.HALF_UP);
+            BigDecimal riskThreshold = avgEntry.multiply(RISK_RATIO);
+            boolean danger = distanceToSL.signum() <= 0 || distanceToSL.abs().compareTo(riskThreshold) < 0;
+
+            acc += pnlAmount.unscaledValue().longValue() + pnlPercentage.unscaledValue().longValue()
+                    + distanceToSL.unscaledValue().longValue() + (danger ? 1 : 0);
+        }
+        return acc;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public long fixedPoint() {
+        long acc = 0;
+        for (int i = 0; i < POSITIONS; i++) {
+            long current = fixedPrices[i];
+            long avgEntry = fixedAvgEntries[i];
+            TradeDirection direction = directions[i];
+
+            long pnlAmount = FixedPrice.roundHalfUp(PositionRisk.pnlAmount(direction, current, avgEntry, quantities[i]), 100);
+            long pnlPercentBp = PositionRisk.pnlPercentBp(direction, current, avgEntry);
+            long distance = PositionRisk.distanceToStop(direction, current, fixedStopLosses[i]);
+            boolean danger = PositionRisk.isDanger(distance, avgEntry);
+
+            acc += pnlAmount + pnlPercentBp + FixedPrice.roundHalfUp(distance, 100) + (danger ? 1 : 0);
+        }
+        return acc;
+    }
+}
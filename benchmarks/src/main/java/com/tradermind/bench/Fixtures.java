@@ -0,0 +1,75 @@
+package com.tradermind.bench;
+
+import com.tradermind.entity.AppSettings;
+import com.tradermind.repository.AppSettingsRepository;
+import com.tradermind.service.AppSettingsService;
+import com.tradermind.service.StockMarketService;
+import com.tradermind.service.TradeService;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * 不启动 Spring 容器、不连数据库和行情接口，直接构造被测的后端对象
+ * - 设置仓库用动态代理返回固定设置
+ * - 行情以固定报价作为参数传入，不发起 HTTP 请求
+ * - 私有方法通过 MethodHandle 调用（static final 字段持有，JIT 可内联）
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static AppSettingsService appSettingsService(BigDecimal totalCapital, BigDecimal riskPercent) {
+        AppSettings settings = AppSettings.builder()
+                .id(1)
+                .totalCapital(totalCapital)
+                .riskPercent(riskPercent)
+                .build();
+        AppSettingsRepository repository = (AppSettingsRepository) Proxy.newProxyInstance(
+                Fixtures.class.getClassLoader(),
+                new Class<?>[]{AppSettingsRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findById")) {
+                        return Optional.of(settings);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return new AppSettingsService(repository);
+    }
+
+    /**
+     * 只注入基准用到的依赖，其余构造参数为 null
+     */
+    static TradeService tradeService(AppSettingsService appSettingsService, StockMarketService stockMarketService) {
+        try {
+            Constructor<?> constructor = TradeService.class.getDeclaredConstructors()[0];
+            Class<?>[] types = constructor.getParameterTypes();
+            Object[] args = new Object[types.length];
+            for (int i = 0; i < types.length; i++) {
+                if (types[i] == AppSettingsService.class) {
+                    args[i] = appSettingsService;
+                } else if (types[i] == StockMarketService.class) {
+                    args[i] = stockMarketService;
+                }
+            }
+            return (TradeService) constructor.newInstance(args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法构造 TradeService", e);
+        }
+    }
+
+    static MethodHandle privateMethod(Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            return MethodHandles.privateLookupIn(owner, MethodHandles.lookup())
+                    .findVirtual(owner, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("找不到方法 " + owner.getSimpleName() + "." + name, e);
+        }
+    }
+}
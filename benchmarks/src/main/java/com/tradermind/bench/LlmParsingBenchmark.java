@@ -0,0 +1,44 @@
+package com.tradermind.bench;
+
+import com.tradermind.service.LlmClient;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大模型响应预处理：剥离 markdown 代码块（复盘对象、质询数组、批量复盘数组）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LlmParsingBenchmark {
+
+    private String fencedReview;
+    private String plainRisks;
+    private String fencedBatch;
+
+    @Setup
+    public void setUp() {
+        fencedReview = Payloads.load("llm_review_markdown.txt");
+        plainRisks = Payloads.load("llm_risks_plain.txt");
+        fencedBatch = Payloads.load("llm_batch_markdown.txt");
+    }
+
+    @Benchmark
+    public String stripMarkdownFencedReview() {
+        return LlmClient.stripMarkdownJsonBlock(fencedReview);
+    }
+
+    @Benchmark
+    public String stripMarkdownPlainRisks() {
+        return LlmClient.stripMarkdownJsonBlock(plainRisks);
+    }
+
+    @Benchmark
+    public String stripMarkdownFencedBatch() {
+        return LlmClient.stripMarkdownJsonBlock(fencedBatch);
+    }
+}
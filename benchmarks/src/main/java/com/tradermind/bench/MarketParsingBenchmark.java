@@ -0,0 +1,91 @@
+package com.tradermind.bench;
+
+import com.tradermind.service.StockMarketService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 行情接口解析：新浪报价解析、代码加市场前缀、腾讯搜索结果的 Unicode 解码
+ * 输入为 payloads 目录下录制的原始响应
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarketParsingBenchmark {
+
+    private static final MethodHandle PARSE_PRICE = Fixtures.privateMethod(
+            StockMarketService.class, "parsePrice", BigDecimal.class, String.class, String.class);
+    private static final MethodHandle ADD_PREFIX = Fixtures.privateMethod(
+            StockMarketService.class, "addPrefix", String.class, String.class);
+    private static final MethodHandle DECODE_UNICODE = Fixtures.privateMethod(
+            StockMarketService.class, "decodeUnicode", String.class, String.class);
+
+    /** 覆盖上证、深证、创业板、港股、美股几种分支 */
+    private static final String[] CODES = {"600519", "000001", "300750", "00700", "AAPL", "sh601318", "002594", "688981"};
+
+    private StockMarketService service;
+    private String sinaAShare;
+    private String sinaChiNext;
+    private String sinaUs;
+    private String[] tencentNames;
+
+    @Setup
+    public void setUp() {
+        service = new StockMarketService(new SimpleMeterRegistry());
+        sinaAShare = Payloads.load("sina_hq_sh600519.txt");
+        sinaChiNext = Payloads.load("sina_hq_sz300750.txt");
+        sinaUs = Payloads.load("sina_hq_gb_aapl.txt");
+
+        // 与 tryTencentSearch 相同的切分：引号内按 ^ 分项，每项第 3 段为 \\uXXXX 编码的名称
+        String body = Payloads.load("tencent_search_unicode.txt");
+        String[] items = body.substring(body.indexOf('"') + 1, body.lastIndexOf('"')).split("\\^");
+        tencentNames = new String[items.length];
+        for (int i = 0; i < items.length; i++) {
+            tencentNames[i] = items[i].split("~")[2];
+        }
+    }
+
+    @Benchmark
+    public BigDecimal parsePriceAShare() throws Throwable {
+        return (BigDecimal) PARSE_PRICE.invoke(service, sinaAShare, "600519");
+    }
+
+    @Benchmark
+    public BigDecimal parsePriceChiNext() throws Throwable {
+        return (BigDecimal) PARSE_PRICE.invoke(service, sinaChiNext, "300750");
+    }
+
+    @Benchmark
+    public BigDecimal parsePriceUs() throws Throwable {
+        return (BigDecimal) PARSE_PRICE.invoke(service, sinaUs, "AAPL");
+    }
+
+    /**
+     * 每次调用处理全部 8 个代码
+     */
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void addPrefix(Blackhole bh) throws Throwable {
+        for (String code : CODES) {
+            bh.consume((String) ADD_PREFIX.invoke(service, code));
+        }
+    }
+
+    /**
+     * 每次调用解码一页搜索结果（5 个名称）
+     */
+    @Benchmark
+    public void decodeUnicodeSearchPage(Blackhole bh) throws Throwable {
+        for (String name : tencentNames) {
+            bh.consume((String) DECODE_UNICODE.invoke(service, name));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.tradermind.bench;
+
+import com.tradermind.domain.PositionState;
+import com.tradermind.domain.TradeDirection;
+import com.tradermind.domain.TradeStatus;
+import com.tradermind.domain.TransactionType;
+import com.tradermind.dto.TradeDashboardDTO;
+import com.tradermind.entity.TradePlan;
+import com.tradermind.service.StockMarketService;
+import com.tradermind.service.TradeService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易核心计算：仓位计算、加仓加权均价、持仓仪表盘盈亏与风险
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TradingCoreBenchmark {
+
+    private static final MethodHandle TO_DASHBOARD_DTO = Fixtures.privateMethod(
+            TradeService.class, "toDashboardDTO", TradeDashboardDTO.class,
+            TradePlan.class, StockMarketService.Quote.class);
+
+    private TradeService tradeService;
+    private TradePlan openPlan;
+    private PositionState position;
+    private StockMarketService.Quote quote;
+
+    private BigDecimal entryPrice;
+    private BigDecimal stopLoss;
+    private BigDecimal addPrice;
+
+    @Setup
+    public void setUp() {
+        tradeService = Fixtures.tradeService(
+                Fixtures.appSettingsService(new BigDecimal("1000000"), new BigDecimal("0.01")), null);
+        quote = new StockMarketService.Quote("贵州茅台", new BigDecimal("1712.35"), false);
+
+        entryPrice = new BigDecimal("1700.00");
+        stopLoss = new BigDecimal("1650.00");
+        addPrice = new BigDecimal("1725.50");
+
+        openPlan = TradePlan.builder()
+                .id(1L)
+                .stockSymbol("600519")
+                .direction(TradeDirection.LONG)
+                .entryPrice(entryPrice)
+                .avgEntryPrice(new BigDecimal("1706.3333"))
+                .stopLoss(stopLoss)
+                .initialStopLoss(stopLoss)
+                .takeProfit(new BigDecimal("1850.00"))
+                .positionSize(200)
+                .totalQuantity(300)
+                .currentQuantity(200)
+                .realizedPnL(new BigDecimal("1520.0000"))
+                .riskRewardRatio(new BigDecimal("3.0000"))
+                .entryLogic("放量突破前高，MACD 金叉，板块龙头")
+                .status(TradeStatus.OPEN)
+                .version(0L)
+                .build();
+        position = openPlan.positionState();
+    }
+
+    @Benchmark
+    public int calculatePositionSize() {
+        return tradeService.calculatePositionSize(entryPrice, stopLoss);
+    }
+
+    /**
+     * addPosition 中的加权均价：((avg * qty) + (addPrice * addQty)) / (qty + addQty)
+     */
+    @Benchmark
+    public PositionState addPositionWeightedAverage() {
+        return position.apply(TradeDirection.LONG, TransactionType.ADD_POSITION, addPrice, 100);
+    }
+
+    /**
+     * toDashboardDTO：持仓盈亏、盈亏百分比、距止损距离与风险等级（行情为固定报价）
+     */
+    @Benchmark
+    public TradeDashboardDTO dashboardPnlAndRisk() throws Throwable {
+        return (TradeDashboardDTO) TO_DASHBOARD_DTO.invoke(tradeService, openPlan, quote);
+    }
+}
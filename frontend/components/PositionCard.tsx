@@ -62,6 +62,7 @@ export default function PositionCard({ plan, onClose }: Props) {
     : null;
   const pnlPercentage = isDashboard ? (plan as TradeDashboard).pnlPercentage : null;
   const riskLevel = isDashboard ? (plan as TradeDashboard).riskLevel : "SAFE";
+  const priceStale = isDashboard && (plan as TradeDashboard).stale === true;
 
   // 获取 planId（兼容两种类型）
   const planId =
@@ -184,7 +185,13 @@ export default function PositionCard({ plan, onClose }: Props) {
         <div className="space-y-1.5">
           <div className="flex justify-between text-xs text-slate-500">
             <span className="font-mono tabular-nums">{stopLoss}</span>
-            <span className="font-mono font-medium text-slate-300 tabular-nums">{currentPrice}</span>
+            <span
+              className={`font-mono font-medium tabular-nums ${priceStale ? "text-slate-500" : "text-slate-300"}`}
+              title={priceStale ? "行情超时，显示最近一次报价" : undefined}
+            >
+              {currentPrice}
+              {priceStale && <span className="ml-1 text-[10px] text-amber-400/80">延迟</span>}
+            </span>
             <span className="font-mono tabular-nums">{takeProfit}</span>
           </div>
           <div className="relative h-2 w-full rounded-full bg-white/[0.06] overflow-visible">
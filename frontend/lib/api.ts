@@ -50,6 +50,7 @@ export interface TradeDashboard {
   riskLevel: "SAFE" | "DANGER";
   entryLogic?: string;  // 买入逻辑
   riskRewardRatio?: number;  // 盈亏比
+  stale?: boolean;  // 行情超时，currentPrice 为最近一次报价
 }
 
 export interface TrimPositionPayload {
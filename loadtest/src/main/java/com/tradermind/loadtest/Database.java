@@ -0,0 +1,108 @@
+package com.tradermind.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 压测数据库：未指定 --jdbc-url 时启动内嵌 PostgreSQL（进程退出即销毁），否则连接已有库
+ *
+ * 空库建表：基础表（trade_plan / trade_execution）历史上由 Hibernate 建出，V1 / V2 是对旧表的修补，
+ * 空库上直接执行 Flyway 会在 V1 失败。因此先执行后端的 db/base_tables.sql 建出基础表，
+ * 再以 V2 为基线执行其余迁移，得到与线上一致的表结构
+ */
+@Slf4j
+class Database implements AutoCloseable {
+
+    /** 与后端 datasource.url 相同的连接参数 */
+    private static final String JDBC_PARAMS = "stringtype=unspecified&defaultAutoCommit=false";
+
+    private final EmbeddedPostgres embedded;
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+    private final DataSource dataSource;
+
+    private Database(EmbeddedPostgres embedded, String jdbcUrl, String user, String password) {
+        this.embedded = embedded;
+        this.jdbcUrl = jdbcUrl;
+        this.user = user;
+        this.password = password;
+        DriverManagerDataSource ds = new DriverManagerDataSource(jdbcUrl, user, password);
+        ds.setDriverClassName("org.postgresql.Driver");
+        this.dataSource = ds;
+    }
+
+    static Database start(LoadTestConfig config) throws IOException {
+        if (!config.embeddedDatabase()) {
+            log.info("使用已有数据库: {}", config.jdbcUrl());
+            return new Database(null, config.jdbcUrl(), config.jdbcUser(), config.jdbcPassword());
+        }
+        EmbeddedPostgres pg = EmbeddedPostgres.builder().start();
+        String url = "jdbc:postgresql://localhost:" + pg.getPort() + "/postgres?" + JDBC_PARAMS;
+        log.info("内嵌 PostgreSQL 已启动: {}", url);
+        return new Database(pg, url, "postgres", "postgres");
+    }
+
+    String jdbcUrl() {
+        return jdbcUrl;
+    }
+
+    String user() {
+        return user;
+    }
+
+    String password() {
+        return password;
+    }
+
+    DataSource dataSource() {
+        return dataSource;
+    }
+
+    /**
+     * 空库时建出完整表结构；已有表的库交给后端启动时的 Flyway 处理
+     */
+    void ensureSchema() throws SQLException {
+        if (tableExists("trade_plan")) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            ScriptUtils.executeSqlScript(conn, new ClassPathResource("db/base_tables.sql"));
+            conn.commit();
+        }
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("2")
+                .load()
+                .migrate();
+        log.info("空库建表完成，耗时 {}ms", System.currentTimeMillis() - start);
+    }
+
+    private boolean tableExists(String table) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             ResultSet rs = conn.getMetaData().getTables(null, null, table, new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (embedded != null) {
+            embedded.close();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.tradermind.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 闭环压测驱动：clients 个虚拟线程各自循环请求，收到响应后立即发下一个
+ * - 每个客户端从不同接口开始，按顺序轮流请求各接口，各接口的并发大致均分
+ * - 预热结束时清空直方图与计数，只统计计量阶段
+ * - 延迟以微秒记入每个接口的 HdrHistogram Recorder（3 位有效数字，上限 5 分钟）
+ * 闭环模型下请求变慢会同时降低发送速率，报告的是服务时间而非固定到达率下的响应时间
+ */
+@Slf4j
+class LoadDriver {
+
+    private static final long MAX_LATENCY_MICROS = Duration.ofMinutes(5).toNanos() / 1000;
+
+    private final String baseUrl;
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    LoadDriver(String baseUrl, LoadTestConfig config) {
+        this.baseUrl = baseUrl;
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        for (String endpoint : config.endpoints()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    /**
+     * 预热 + 计量，返回各接口计量阶段的结果
+     */
+    List<EndpointResult> run() throws InterruptedException {
+        List<String> endpoints = config.endpoints();
+        List<HttpRequest> requests = endpoints.stream()
+                .map(e -> HttpRequest.newBuilder(URI.create(baseUrl + e)).timeout(Duration.ofSeconds(config.requestTimeoutSeconds())).GET().build())
+                .toList();
+
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(config.warmupSeconds()).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(config.durationSeconds()).toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < config.clients(); c++) {
+                int first = c % endpoints.size();
+                executor.submit(() -> clientLoop(endpoints, requests, first, end));
+            }
+            log.info("{} 个客户端已启动，预热 {}s", config.clients(), config.warmupSeconds());
+            sleepUntil(warmupEnd);
+            stats.values().forEach(EndpointStats::reset);
+            long measureStart = System.nanoTime();
+            log.info("开始计量 {}s", config.durationSeconds());
+            sleepUntil(end);
+            // 计量截止即取快照；仍在途的请求稍后完成，不计入
+            double seconds = (System.nanoTime() - measureStart) / 1e9;
+            List<EndpointResult> results = new ArrayList<>();
+            stats.forEach((endpoint, s) -> results.add(s.snapshot(endpoint, seconds)));
+            return results;
+        }
+    }
+
+    private void clientLoop(List<String> endpoints, List<HttpRequest> requests, int first, long end) {
+        int i = first;
+        while (System.nanoTime() < end) {
+            EndpointStats s = stats.get(endpoints.get(i));
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(requests.get(i), HttpResponse.BodyHandlers.discarding());
+                long micros = (System.nanoTime() - start) / 1000;
+                if (response.statusCode() / 100 == 2) {
+                    s.recorder.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+                } else {
+                    s.errors.increment();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                s.errors.increment();
+            }
+            i = (i + 1) % endpoints.size();
+        }
+    }
+
+    private static void sleepUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            Thread.sleep(Math.max(1, remaining / 1_000_000));
+        }
+    }
+
+    private static final class EndpointStats {
+        private final Recorder recorder = new Recorder(1, MAX_LATENCY_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+
+        void reset() {
+            recorder.reset();
+            errors.reset();
+        }
+
+        EndpointResult snapshot(String endpoint, double seconds) {
+            Histogram histogram = recorder.getIntervalHistogram();
+            return new EndpointResult(endpoint, histogram, errors.sum(), seconds);
+        }
+    }
+
+    /**
+     * 单个接口的计量结果；histogram 单位为微秒，只含 2xx 响应
+     */
+    record EndpointResult(String endpoint, Histogram histogram, long errors, double seconds) {
+
+        double throughput() {
+            return histogram.getTotalCount() / seconds;
+        }
+
+        double percentileMs(double p) {
+            return histogram.getValueAtPercentile(p) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.tradermind.loadtest;
+
+import com.tradermind.TraderMindApplication;
+import com.tradermind.stub.llm.StubLlmConfig;
+import com.tradermind.stub.llm.StubLlmServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 仪表盘与历史接口的端到端压测
+ * 1. 启动本地行情桩服务（新浪格式）与大模型桩服务，延迟分布可配置
+ * 2. 启动内嵌 PostgreSQL（或连接 --jdbc-url），空库时建表，批量造数
+ * 3. 在本进程内启动后端（随机端口，行情与大模型地址指向桩服务）；给出 --target-url 时改为压测已启动的后端
+ * 4. 虚拟线程客户端闭环请求，输出每个接口的 HDR 直方图报告
+ * --threads=virtual,platform 时依次以虚拟线程、Tomcat 平台线程池启动后端各压一轮；
+ * 配合 --ramp=50,100,200,400 逐档加并发，报告每种线程模型在 p99 ≤ --slo-p99-ms 内的最大并发用户数
+ *
+ * 用法：java -jar loadtest/target/tradermind-loadtest.jar --plans=500 --executions=20000 --clients=64 --duration-seconds=60
+ * 客户端、后端与桩服务共用一个 JVM，绝对吞吐受本机 CPU 限制，适合同一台机器上前后对比
+ */
+@Slf4j
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        // JDK HttpServer 默认不关 Nagle，响应头与响应体分两次写出，遇到客户端延迟确认时每个请求多等约 40ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        StubLlmConfig llmDefaults = StubLlmConfig.defaults();
+        StubLlmConfig llmConfig = new StubLlmConfig(0, config.llmLatency(), llmDefaults.chunkLatency(),
+                llmDefaults.chunkChars(), 0, 0, 0, 0, llmDefaults.hangMs(), List.of(), llmDefaults.model());
+
+        try (StubSinaServer sina = StubSinaServer.start(config.sinaLatency());
+             StubLlmServer llm = StubLlmServer.start(llmConfig);
+             Database db = Database.start(config)) {
+            log.info("行情桩服务: {}（延迟 {}），大模型桩服务: {}（延迟 {}）",
+                    sina.listUrl(), config.sinaLatency(), llm.completionsUrl(), config.llmLatency());
+
+            db.ensureSchema();
+            new Seeder(db.dataSource(), config).seed();
+
+            List<LoadTestReport.RampStep> steps = new ArrayList<>();
+            for (String threadMode : config.threadModes()) {
+                ConfigurableApplicationContext backend = null;
+                String baseUrl = config.targetUrl();
+                if (config.embeddedBackend()) {
+                    backend = SpringApplication.run(TraderMindApplication.class,
+                            "--server.port=0",
+                            "--spring.threads.virtual.enabled=" + "virtual".equals(threadMode),
+                            "--spring.datasource.url=" + db.jdbcUrl(),
+                            "--spring.datasource.username=" + db.user(),
+                            "--spring.datasource.password=" + db.password(),
+                            "--market.sina.url=" + sina.listUrl(),
+                            "--ai.api.url=" + llm.completionsUrl(),
+                            "--ai.api.key=stub",
+                            "--logging.level.com.tradermind=WARN",
+                            "--logging.level.com.tradermind.loadtest=INFO");
+                    int port = ((WebServerApplicationContext) backend).getWebServer().getPort();
+                    baseUrl = "http://localhost:" + port;
+                    log.info("后端已启动: {}（{} 线程）", baseUrl, threadMode);
+                }
+
+                try {
+                    if (config.rampClients().isEmpty()) {
+                        long sinaBefore = sina.requests();
+                        List<LoadDriver.EndpointResult> results = new LoadDriver(baseUrl, config).run();
+                        // 压测外部后端时它不一定指向本地桩服务，不报告行情请求数
+                        LoadTestReport.write(config, threadMode, results,
+                                config.embeddedBackend() ? sina.requests() - sinaBefore : -1);
+                    } else {
+                        for (int clients : config.rampClients()) {
+                            log.info("阶梯 {} 线程 / {} 个客户端", threadMode, clients);
+                            steps.add(new LoadTestReport.RampStep(threadMode, clients,
+                                    new LoadDriver(baseUrl, config.withClients(clients)).run()));
+                        }
+                    }
+                } finally {
+                    if (backend != null) {
+                        backend.close();
+                    }
+                }
+            }
+            if (!steps.isEmpty()) {
+                LoadTestReport.writeRamp(config, steps);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.tradermind.loadtest;
+
+import com.tradermind.stub.llm.LatencyDistribution;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 压测配置
+ *
+ * @param plans           造数：持仓中（OPEN）的计划数，即仪表盘每次请求要估值的持仓数
+ * @param executions      造数：已平仓交易数（每笔一个 CLOSED 计划 + 一条执行记录），即历史接口返回的条数
+ * @param clients         并发客户端数（每个客户端一个虚拟线程，闭环：收到响应后立即发下一个请求）
+ * @param warmupSeconds   预热时长，期间的请求不计入报告
+ * @param durationSeconds 计量时长
+ * @param endpoints       压测的 GET 接口，客户端按顺序轮流请求
+ * @param requestTimeoutSeconds 单个请求的超时，超时计为错误
+ * @param sinaLatency     行情桩服务的响应延迟
+ * @param llmLatency      大模型桩服务的响应延迟
+ * @param jdbcUrl         已有 PostgreSQL 的连接串；为空时启动内嵌 PostgreSQL
+ * @param jdbcUser        数据库用户
+ * @param jdbcPassword    数据库密码
+ * @param reset           库中已有交易数据时是否清空后重新造数（默认拒绝，避免误清本地开发库）
+ * @param targetUrl       已启动后端的地址；为空时在本进程内启动后端（自动指向桩服务）
+ * @param reportDir       报告输出目录
+ * @param seed            造数随机种子
+ * @param threadModes     内置后端的请求线程模型，依次运行：virtual（虚拟线程）/ platform（Tomcat 平台线程池）
+ * @param rampClients     阶梯并发：依次以这些客户端数各跑一轮预热 + 计量，为空时只按 clients 跑一轮
+ * @param sloP99Ms        阶梯模式下判定「可承载」的 p99 上限，求最大并发用户数
+ */
+public record LoadTestConfig(
+        int plans,
+        int executions,
+        int clients,
+        int warmupSeconds,
+        int durationSeconds,
+        List<String> endpoints,
+        int requestTimeoutSeconds,
+        LatencyDistribution sinaLatency,
+        LatencyDistribution llmLatency,
+        String jdbcUrl,
+        String jdbcUser,
+        String jdbcPassword,
+        boolean reset,
+        String targetUrl,
+        String reportDir,
+        long seed,
+        List<String> threadModes,
+        List<Integer> rampClients,
+        double sloP99Ms
+) {
+
+    public static LoadTestConfig defaults() {
+        return new LoadTestConfig(100, 1000, 16, 10, 30,
+                List.of("/api/plans/active/dashboard", "/api/plans/closed"), 120,
+                LatencyDistribution.parse("lognormal:30:0.4"), LatencyDistribution.parse("lognormal:800:0.5"),
+                "", "tradermind", "tradermind", false, "", "loadtest-report", 42,
+                List.of("virtual"), List.of(), 2000);
+    }
+
+    /**
+     * 阶梯模式下某一档的配置
+     */
+    public LoadTestConfig withClients(int n) {
+        return new LoadTestConfig(plans, executions, n, warmupSeconds, durationSeconds, endpoints,
+                requestTimeoutSeconds, sinaLatency, llmLatency, jdbcUrl, jdbcUser, jdbcPassword, reset, targetUrl,
+                reportDir, seed, threadModes, rampClients, sloP99Ms);
+    }
+
+    /**
+     * 解析命令行参数（--key=value），未给出的项使用默认值
+     * --plans --executions --clients --warmup-seconds --duration-seconds --endpoints（逗号分隔）--request-timeout-seconds
+     * --sina-latency --llm-latency --jdbc-url --jdbc-user --jdbc-password --reset --target-url --report-dir --seed
+     * --threads（逗号分隔，virtual / platform）--ramp（逗号分隔的客户端数）--slo-p99-ms
+     */
+    public static LoadTestConfig fromArgs(String[] args) {
+        LoadTestConfig c = defaults();
+        int plans = c.plans;
+        int executions = c.executions;
+        int clients = c.clients;
+        int warmupSeconds = c.warmupSeconds;
+        int durationSeconds = c.durationSeconds;
+        List<String> endpoints = c.endpoints;
+        int requestTimeoutSeconds = c.requestTimeoutSeconds;
+        LatencyDistribution sinaLatency = c.sinaLatency;
+        LatencyDistribution llmLatency = c.llmLatency;
+        String jdbcUrl = c.jdbcUrl;
+        String jdbcUser = c.jdbcUser;
+        String jdbcPassword = c.jdbcPassword;
+        boolean reset = c.reset;
+        String targetUrl = c.targetUrl;
+        String reportDir = c.reportDir;
+        long seed = c.seed;
+        List<String> threadModes = c.threadModes;
+        List<Integer> rampClients = c.rampClients;
+        double sloP99Ms = c.sloP99Ms;
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("参数格式应为 --key=value: " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (key) {
+                case "plans" -> plans = Integer.parseInt(value);
+                case "executions" -> executions = Integer.parseInt(value);
+                case "clients" -> clients = Integer.parseInt(value);
+                case "warmup-seconds" -> warmupSeconds = Integer.parseInt(value);
+                case "duration-seconds" -> durationSeconds = Integer.parseInt(value);
+                case "endpoints" -> endpoints = splitList(value);
+                case "request-timeout-seconds" -> requestTimeoutSeconds = Integer.parseInt(value);
+                case "sina-latency" -> sinaLatency = LatencyDistribution.parse(value);
+                case "llm-latency" -> llmLatency = LatencyDistribution.parse(value);
+                case "jdbc-url" -> jdbcUrl = value;
+                case "jdbc-user" -> jdbcUser = value;
+                case "jdbc-password" -> jdbcPassword = value;
+                case "reset" -> reset = Boolean.parseBoolean(value);
+                case "target-url" -> targetUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "report-dir" -> reportDir = value;
+                case "seed" -> seed = Long.parseLong(value);
+                case "threads" -> threadModes = splitList(value);
+                case "ramp" -> rampClients = splitList(value).stream().map(Integer::parseInt).toList();
+                case "slo-p99-ms" -> sloP99Ms = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("未知参数: " + key);
+            }
+        }
+        if (plans < 0 || executions < 0) {
+            throw new IllegalArgumentException("plans 与 executions 不能为负数");
+        }
+        if (clients <= 0 || durationSeconds <= 0 || requestTimeoutSeconds <= 0 || warmupSeconds < 0) {
+            throw new IllegalArgumentException("clients、duration-seconds 与 request-timeout-seconds 必须为正数，warmup-seconds 不能为负数");
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("endpoints 不能为空");
+        }
+        if (threadModes.isEmpty() || !List.of("virtual", "platform").containsAll(threadModes)) {
+            throw new IllegalArgumentException("threads 只能是 virtual、platform 或二者逗号分隔");
+        }
+        if (!targetUrl.isBlank() && threadModes.size() > 1) {
+            throw new IllegalArgumentException("压测外部后端（--target-url）时无法切换线程模型，--threads 只能给一个");
+        }
+        if (rampClients.stream().anyMatch(n -> n <= 0)) {
+            throw new IllegalArgumentException("ramp 中的客户端数必须为正数");
+        }
+        return new LoadTestConfig(plans, executions, clients, warmupSeconds, durationSeconds, endpoints,
+                requestTimeoutSeconds, sinaLatency, llmLatency, jdbcUrl, jdbcUser, jdbcPassword, reset, targetUrl, reportDir, seed,
+                threadModes, rampClients, sloP99Ms);
+    }
+
+    private static List<String> splitList(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::strip)
+                .filter(s -> !s.isEmpty())
+                .toList();
+    }
+
+    public boolean embeddedDatabase() {
+        return jdbcUrl.isBlank();
+    }
+
+    public boolean embeddedBackend() {
+        return targetUrl.isBlank();
+    }
+}
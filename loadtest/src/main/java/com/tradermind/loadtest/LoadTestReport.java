@@ -0,0 +1,103 @@
+package com.tradermind.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压测报告
+ * - summary.txt：运行参数与各接口吞吐、p50 / p90 / p99 / p99.9 / 最大延迟（与控制台输出相同）
+ * - {接口}.hgrm：完整百分位分布（毫秒），可在 HdrHistogram 在线绘图工具中叠加比较多次运行
+ * - ramp.txt（阶梯模式）：每种线程模型、每档并发的吞吐与延迟，以及满足 p99 SLO 的最大并发用户数
+ */
+final class LoadTestReport {
+
+    private LoadTestReport() {
+    }
+
+    /**
+     * 单轮报告；多种线程模型时每种写入 reportDir 下的同名子目录
+     */
+    static void write(LoadTestConfig config, String threadMode, List<LoadDriver.EndpointResult> results, long sinaRequests)
+            throws IOException {
+        Path dir = config.threadModes().size() > 1 ? Path.of(config.reportDir(), threadMode) : Path.of(config.reportDir());
+        Files.createDirectories(dir);
+
+        try (PrintStream file = new PrintStream(Files.newOutputStream(dir.resolve("summary.txt")), true, StandardCharsets.UTF_8)) {
+            print(System.out, config, results, sinaRequests);
+            print(file, config, results, sinaRequests);
+        }
+        for (LoadDriver.EndpointResult r : results) {
+            String name = r.endpoint().replaceAll("^/+", "").replaceAll("[^A-Za-z0-9]+", "_") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(name)), true, StandardCharsets.UTF_8)) {
+                r.histogram().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.println("报告已写入 " + dir.toAbsolutePath());
+    }
+
+    /**
+     * 阶梯模式报告：某档所有接口 p99 ≤ SLO 且无错误即视为可承载，取每种线程模型可承载的最大客户端数
+     */
+    static void writeRamp(LoadTestConfig config, List<RampStep> steps) throws IOException {
+        Path dir = Path.of(config.reportDir());
+        Files.createDirectories(dir);
+        try (PrintStream file = new PrintStream(Files.newOutputStream(dir.resolve("ramp.txt")), true, StandardCharsets.UTF_8)) {
+            printRamp(System.out, config, steps);
+            printRamp(file, config, steps);
+        }
+        System.out.println("报告已写入 " + dir.toAbsolutePath());
+    }
+
+    private static void printRamp(PrintStream out, LoadTestConfig config, List<RampStep> steps) {
+        out.printf("持仓计划 %d, 已平仓交易 %d, 每档预热 %ds / 计量 %ds, 行情延迟 %s, SLO p99 ≤ %.0fms%n",
+                config.plans(), config.executions(), config.warmupSeconds(), config.durationSeconds(),
+                config.sinaLatency(), config.sloP99Ms());
+        out.printf("%-9s %8s %-32s %9s %7s %10s %9s %9s %9s%n",
+                "threads", "clients", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        Map<String, Integer> maxClients = new LinkedHashMap<>();
+        for (RampStep step : steps) {
+            maxClients.putIfAbsent(step.threadMode(), 0);
+            boolean withinSlo = true;
+            for (LoadDriver.EndpointResult r : step.results()) {
+                out.printf("%-9s %8d %-32s %9d %7d %10.1f %9.1f %9.1f %9.1f%n",
+                        step.threadMode(), step.clients(), r.endpoint(), r.histogram().getTotalCount(), r.errors(),
+                        r.throughput(), r.percentileMs(50), r.percentileMs(99), r.histogram().getMaxValue() / 1000.0);
+                withinSlo &= r.errors() == 0 && r.histogram().getTotalCount() > 0 && r.percentileMs(99) <= config.sloP99Ms();
+            }
+            if (withinSlo) {
+                maxClients.merge(step.threadMode(), step.clients(), Math::max);
+            }
+        }
+        maxClients.forEach((mode, n) -> out.printf("%s 线程：满足 SLO 的最大并发用户数 %s%n",
+                mode, n > 0 ? n : "无（最低一档即超出）"));
+    }
+
+    /**
+     * 阶梯模式中的一档
+     */
+    record RampStep(String threadMode, int clients, List<LoadDriver.EndpointResult> results) {}
+
+    private static void print(PrintStream out, LoadTestConfig config, List<LoadDriver.EndpointResult> results,
+                              long sinaRequests) {
+        out.printf("持仓计划 %d, 已平仓交易 %d, 客户端 %d, 预热 %ds, 计量 %ds, 行情延迟 %s, 大模型延迟 %s%n",
+                config.plans(), config.executions(), config.clients(), config.warmupSeconds(),
+                config.durationSeconds(), config.sinaLatency(), config.llmLatency());
+        out.printf("%-32s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (LoadDriver.EndpointResult r : results) {
+            out.printf("%-32s %9d %7d %10.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    r.endpoint(), r.histogram().getTotalCount(), r.errors(), r.throughput(),
+                    r.percentileMs(50), r.percentileMs(90), r.percentileMs(99), r.percentileMs(99.9),
+                    r.histogram().getMaxValue() / 1000.0);
+        }
+        if (sinaRequests >= 0) {
+            out.printf("行情桩服务累计请求 %d 次%n", sinaRequests);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.tradermind.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 直接用 JDBC 批量写入压测数据（不经过后端接口，万级数据秒级完成）
+ * - plans 个 OPEN 计划：INITIAL_ENTRY 流水
+ * - executions 笔已平仓交易：CLOSED 计划 + INITIAL_ENTRY / FULL_EXIT 流水 + trade_execution（含 AI 与规则评分）
+ * 价格围绕 StubSinaServer.basePrice 生成，与桩服务报价一致；同一 seed 生成的数据相同
+ * 绩效汇总、持仓快照等派生表不写入，压测接口不读取它们
+ */
+@Slf4j
+@RequiredArgsConstructor
+class Seeder {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] SETUPS = {
+            "放量突破前高，MACD 金叉", "回踩 20 日均线企稳，缩量", "底部放量长阳，板块轮动", "业绩超预期，高开不补缺口",
+            "箱体下沿支撑，RSI 超卖", "龙头首板，题材发酵", "周线级别突破，均线多头排列", "跌破颈线，反抽不过",
+            "北向资金连续流入", "缩量回调至斐波那契 0.618"};
+    private static final String[] EXIT_REASONS = {
+            "触及止盈位分批离场", "跌破止损严格执行", "逻辑证伪主动离场", "持仓过久无表现，时间止损", "冲高回落放量，落袋为安"};
+    private static final String[] EMOTIONS = {"冷静", "贪婪", "恐惧", "犹豫", "自信"};
+
+    private final DataSource dataSource;
+    private final LoadTestConfig config;
+
+    void seed() throws SQLException {
+        long start = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(config.seed());
+        List<String> symbols = symbols(random);
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            prepare(conn);
+            for (int done = 0; done < config.plans(); done += BATCH_SIZE) {
+                insertBatch(conn, random, symbols, Math.min(BATCH_SIZE, config.plans() - done), false);
+                conn.commit();
+            }
+            for (int done = 0; done < config.executions(); done += BATCH_SIZE) {
+                insertBatch(conn, random, symbols, Math.min(BATCH_SIZE, config.executions() - done), true);
+                conn.commit();
+            }
+            try (Statement st = conn.createStatement()) {
+                st.execute("ANALYZE trade_plan");
+                st.execute("ANALYZE trade_execution");
+                st.execute("ANALYZE trade_transaction");
+            }
+            conn.commit();
+        }
+        log.info("造数完成: {} 个持仓计划, {} 笔已平仓交易, 耗时 {}ms",
+                config.plans(), config.executions(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 库中已有交易数据时，只有 --reset=true 才清空
+     */
+    private void prepare(Connection conn) throws SQLException {
+        long existing;
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM trade_plan")) {
+            rs.next();
+            existing = rs.getLong(1);
+        }
+        if (existing == 0) {
+            return;
+        }
+        if (!config.reset()) {
+            throw new IllegalStateException("数据库中已有 " + existing + " 个交易计划；确认可以清空时加 --reset=true");
+        }
+        try (Statement st = conn.createStatement()) {
+            // CASCADE 一并清空流水、执行记录、快照、复盘任务与日志索引
+            st.execute("TRUNCATE trade_plan RESTART IDENTITY CASCADE");
+        }
+        conn.commit();
+        log.info("已清空 {} 个交易计划及关联数据", existing);
+    }
+
+    private void insertBatch(Connection conn, SplittableRandom random, List<String> symbols, int count, boolean closed)
+            throws SQLException {
+        List<Trade> trades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            trades.add(trade(random, symbols.get(random.nextInt(symbols.size())), closed));
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("""
+                INSERT INTO trade_plan (stock_symbol, direction, entry_price, avg_entry_price, total_quantity,
+                                        current_quantity, realized_pnl, stop_loss, initial_stop_loss, take_profit,
+                                        position_size, risk_reward_ratio, entry_logic, status, created_at, version)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)
+                """, new String[]{"id"})) {
+            for (Trade t : trades) {
+                ps.setString(1, t.symbol);
+                ps.setString(2, t.direction);
+                ps.setBigDecimal(3, t.entryPrice);
+                ps.setBigDecimal(4, t.entryPrice);
+                ps.setInt(5, t.quantity);
+                ps.setInt(6, closed ? 0 : t.quantity);
+                ps.setBigDecimal(7, closed ? t.pnl : BigDecimal.ZERO);
+                ps.setBigDecimal(8, t.stopLoss);
+                ps.setBigDecimal(9, t.stopLoss);
+                ps.setBigDecimal(10, t.takeProfit);
+                ps.setInt(11, t.quantity);
+                ps.setBigDecimal(12, t.riskReward);
+                ps.setString(13, t.entryLogic);
+                ps.setString(14, closed ? "CLOSED" : "OPEN");
+                ps.setTimestamp(15, Timestamp.valueOf(t.openedAt));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (Trade t : trades) {
+                    keys.next();
+                    t.planId = keys.getLong(1);
+                }
+            }
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("""
+                INSERT INTO trade_transaction (plan_id, type, price, quantity, transaction_time, logic_snapshot)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """)) {
+            for (Trade t : trades) {
+                addTransaction(ps, t.planId, "INITIAL_ENTRY", t.entryPrice, t.quantity, t.openedAt, t.entryLogic);
+                if (closed) {
+                    addTransaction(ps, t.planId, "FULL_EXIT", t.exitPrice, t.quantity, t.closedAt, t.exitLogic);
+                }
+            }
+            ps.executeBatch();
+        }
+
+        if (closed) {
+            try (PreparedStatement ps = conn.prepareStatement("""
+                    INSERT INTO trade_execution (plan_id, exit_price, realized_pnl, exit_logic, emotional_state,
+                                                 ai_analysis_score, ai_analysis_comment, rule_score, created_at)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """)) {
+                for (Trade t : trades) {
+                    int score = 40 + random.nextInt(56);
+                    ps.setLong(1, t.planId);
+                    ps.setBigDecimal(2, t.exitPrice);
+                    ps.setBigDecimal(3, t.pnl);
+                    ps.setString(4, t.exitLogic);
+                    ps.setString(5, EMOTIONS[random.nextInt(EMOTIONS.length)]);
+                    ps.setInt(6, score);
+                    ps.setString(7, score >= 70 ? "计划执行到位，止损止盈纪律良好" : "入场依据不足，离场偏情绪化");
+                    ps.setInt(8, Math.max(0, Math.min(100, score + random.nextInt(-10, 11))));
+                    ps.setTimestamp(9, Timestamp.valueOf(t.closedAt));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+    }
+
+    private static void addTransaction(PreparedStatement ps, long planId, String type, BigDecimal price, int quantity,
+                                       LocalDateTime time, String logic) throws SQLException {
+        ps.setLong(1, planId);
+        ps.setString(2, type);
+        ps.setBigDecimal(3, price);
+        ps.setInt(4, quantity);
+        ps.setTimestamp(5, Timestamp.valueOf(time));
+        ps.setString(6, logic);
+        ps.addBatch();
+    }
+
+    private static Trade trade(SplittableRandom random, String symbol, boolean closed) {
+        Trade t = new Trade();
+        t.symbol = symbol;
+        boolean isLong = random.nextInt(5) > 0;
+        t.direction = isLong ? "LONG" : "SHORT";
+        BigDecimal base = StubSinaServer.basePrice(symbol);
+        t.entryPrice = scale(base.multiply(BigDecimal.valueOf(1 + random.nextDouble(-0.05, 0.05))));
+        BigDecimal risk = scale(t.entryPrice.multiply(BigDecimal.valueOf(random.nextDouble(0.03, 0.10))));
+        BigDecimal reward = scale(risk.multiply(BigDecimal.valueOf(random.nextDouble(1.5, 4.0))));
+        t.stopLoss = isLong ? t.entryPrice.subtract(risk) : t.entryPrice.add(risk);
+        t.takeProfit = isLong ? t.entryPrice.add(reward) : t.entryPrice.subtract(reward);
+        t.riskReward = reward.divide(risk, 4, RoundingMode.HALF_UP);
+        t.quantity = 100 * (1 + random.nextInt(20));
+        t.entryLogic = SETUPS[random.nextInt(SETUPS.length)] + "，" + SETUPS[random.nextInt(SETUPS.length)];
+        t.openedAt = LocalDateTime.now().minusDays(closed ? 30 + random.nextInt(700) : random.nextInt(30))
+                .minusMinutes(random.nextInt(24 * 60));
+        if (closed) {
+            t.exitPrice = scale(t.entryPrice.multiply(BigDecimal.valueOf(1 + random.nextDouble(-0.12, 0.18))));
+            BigDecimal diff = isLong ? t.exitPrice.subtract(t.entryPrice) : t.entryPrice.subtract(t.exitPrice);
+            t.pnl = diff.multiply(BigDecimal.valueOf(t.quantity)).setScale(4, RoundingMode.HALF_UP);
+            t.exitLogic = EXIT_REASONS[random.nextInt(EXIT_REASONS.length)];
+            t.closedAt = t.openedAt.plusDays(1 + random.nextInt(25));
+        }
+        return t;
+    }
+
+    /**
+     * 沪深各板块混合的代码池，约 80 只
+     */
+    private static List<String> symbols(SplittableRandom random) {
+        String[] boards = {"600", "601", "603", "000", "002", "300", "688"};
+        List<String> symbols = new ArrayList<>();
+        for (String board : boards) {
+            for (int i = 0; i < 12; i++) {
+                symbols.add(board + String.format("%03d", random.nextInt(1000)));
+            }
+        }
+        return symbols;
+    }
+
+    private static BigDecimal scale(BigDecimal v) {
+        return v.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static final class Trade {
+        String symbol;
+        String direction;
+        BigDecimal entryPrice;
+        BigDecimal stopLoss;
+        BigDecimal takeProfit;
+        BigDecimal riskReward;
+        int quantity;
+        String entryLogic;
+        LocalDateTime openedAt;
+        BigDecimal exitPrice;
+        BigDecimal pnl;
+        String exitLogic;
+        LocalDateTime closedAt;
+        long planId;
+    }
+}
@@ -0,0 +1,133 @@
+package com.tradermind.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tradermind.stub.llm.LatencyDistribution;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 新浪行情接口桩服务：GET /list=sh600519[,sz000001...]，按新浪格式（GBK）逐行返回 var hq_str_xxx="..."
+ * - A 股 / 港股：字段 [0] 名称、[1] 今开、[2] 昨收、[3] 现价；美股（gb_）：字段 [1] 现价
+ * - 现价以代码的固定基准价为中心 ±2% 随机波动，造数时用同一基准价，持仓盈亏处在合理范围
+ * 响应前按配置的延迟分布等待，模拟外网行情接口耗时
+ */
+public class StubSinaServer implements AutoCloseable {
+
+    private static final Charset GBK = Charset.forName("GBK");
+
+    private final LatencyDistribution latency;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder quotes = new LongAdder();
+
+    private StubSinaServer(LatencyDistribution latency) throws IOException {
+        this.latency = latency;
+        this.server = HttpServer.create(new InetSocketAddress(0), 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public static StubSinaServer start(LatencyDistribution latency) throws IOException {
+        StubSinaServer stub = new StubSinaServer(latency);
+        stub.server.start();
+        return stub;
+    }
+
+    /**
+     * 后端 market.sina.url 的取值（代码直接拼在末尾）
+     */
+    public String listUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/list=";
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long quotes() {
+        return quotes.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * 代码的固定基准价（5.00 ~ 204.99），与前缀、大小写无关
+     */
+    public static BigDecimal basePrice(String code) {
+        String bare = code.toLowerCase().replaceFirst("^(sh|sz|rt_hk|gb_)", "");
+        int bucket = Math.floorMod(bare.hashCode() * 0x9E3779B9, 20_000);
+        return BigDecimal.valueOf(500 + bucket, 2);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            String path = exchange.getRequestURI().getPath();
+            int idx = path.indexOf("list=");
+            if (idx < 0) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            StringBuilder body = new StringBuilder();
+            for (String code : path.substring(idx + 5).split(",")) {
+                if (!code.isBlank()) {
+                    body.append(quoteLine(code.strip()));
+                    quotes.increment();
+                }
+            }
+            sleep(latency.sample());
+            byte[] bytes = body.toString().getBytes(GBK);
+            exchange.getResponseHeaders().set("Content-Type", "application/javascript; charset=GBK");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String quoteLine(String code) {
+        BigDecimal base = basePrice(code);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BigDecimal price = drift(base, random.nextDouble(-0.02, 0.02));
+        String data;
+        if (code.startsWith("gb_")) {
+            data = String.join(",", code.substring(3).toUpperCase(), price.toPlainString(), "0.52",
+                    "2026-10-16 16:00:00", "1.10", base.toPlainString(), drift(base, 0.025).toPlainString(),
+                    drift(base, -0.025).toPlainString());
+        } else {
+            data = String.join(",", "压测股票" + code.substring(code.length() - 4), base.toPlainString(),
+                    drift(base, -0.005).toPlainString(), price.toPlainString(), drift(base, 0.025).toPlainString(),
+                    drift(base, -0.025).toPlainString(), price.toPlainString(), price.toPlainString(),
+                    "1234567", "98765432.00", "2026-10-16", "15:00:00", "00");
+        }
+        return "var hq_str_" + code + "=\"" + data + "\";\n";
+    }
+
+    private static BigDecimal drift(BigDecimal base, double pct) {
+        return base.multiply(BigDecimal.valueOf(1 + pct)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static void sleep(long ms) throws InterruptedException {
+        if (ms > 0) {
+            Thread.sleep(ms);
+        }
+    }
+}
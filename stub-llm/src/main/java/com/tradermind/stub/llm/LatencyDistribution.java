@@ -0,0 +1,62 @@
+package com.tradermind.stub.llm;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 模拟延迟分布（毫秒）
+ * 文本格式（命令行参数）：
+ * - fixed:800                 固定 800ms
+ * - uniform:200:1500          [200, 1500) 均匀分布
+ * - normal:800:200            均值 800、标准差 200 的正态分布（截断到 >= 0）
+ * - lognormal:800:0.6         中位数 800、对数标准差 0.6 的对数正态分布（长尾，接近真实大模型延迟）
+ * - none / 0                  无延迟
+ */
+public record LatencyDistribution(Kind kind, double a, double b) {
+
+    public enum Kind { NONE, FIXED, UNIFORM, NORMAL, LOGNORMAL }
+
+    public static final LatencyDistribution NONE = new LatencyDistribution(Kind.NONE, 0, 0);
+
+    public static LatencyDistribution parse(String spec) {
+        String s = spec.trim().toLowerCase();
+        if (s.isEmpty() || s.equals("none") || s.equals("0")) {
+            return NONE;
+        }
+        String[] parts = s.split(":");
+        try {
+            return switch (parts[0]) {
+                case "fixed" -> new LatencyDistribution(Kind.FIXED, Double.parseDouble(parts[1]), 0);
+                case "uniform" -> new LatencyDistribution(Kind.UNIFORM, Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                case "normal" -> new LatencyDistribution(Kind.NORMAL, Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                case "lognormal" -> new LatencyDistribution(Kind.LOGNORMAL, Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                default -> new LatencyDistribution(Kind.FIXED, Double.parseDouble(parts[0]), 0);
+            };
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("无法解析延迟分布: " + spec);
+        }
+    }
+
+    /**
+     * 采样一次延迟（毫秒）
+     */
+    public long sample() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double ms = switch (kind) {
+            case NONE -> 0;
+            case FIXED -> a;
+            case UNIFORM -> b > a ? random.nextDouble(a, b) : a;
+            case NORMAL -> a + random.nextGaussian() * b;
+            case LOGNORMAL -> a * Math.exp(random.nextGaussian() * b);
+        };
+        return Math.max(0, Math.round(ms));
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case NONE -> "none";
+            case FIXED -> "fixed:" + a;
+            default -> kind.name().toLowerCase() + ":" + a + ":" + b;
+        };
+    }
+}
@@ -0,0 +1,136 @@
+package com.tradermind.stub.llm;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按请求内容生成与后端解析逻辑匹配的响应内容（choices[0].message.content）
+ * - 批量复盘（用户内容含 "executionId="）：[{ "executionId": int, "score": int, "comment": string }]
+ * - 单笔复盘（系统提示要求 "score"）：{ "score": int, "comment": string }
+ * - 其余视为魔鬼代言人：["风险点1", "风险点2", "风险点3"]
+ * 配置了脚本时按顺序轮流返回脚本内容，不区分请求类型
+ * 不解析完整 JSON，只在原始请求体上做关键字识别，保持零依赖
+ */
+public class ResponseGenerator {
+
+    public enum Kind { CHALLENGE, REVIEW, BATCH_REVIEW, SCRIPTED }
+
+    private static final Pattern EXECUTION_ID = Pattern.compile("executionId=(\\d+)");
+
+    private static final String[] RISKS = {
+            "成交量未放大，突破可能是假信号",
+            "板块整体处于下降趋势，逆势做多胜率低",
+            "止损位离支撑过近，容易被正常波动扫掉",
+            "逻辑依赖消息面，利好兑现后可能高开低走",
+            "仓位相对账户过重，单笔亏损将超过风险预算",
+            "临近财报或解禁，存在跳空风险",
+            "估值已处于历史高位，安全边际不足",
+            "流动性不足，止损时可能无法按计划价成交"
+    };
+
+    private static final String[] COMMENTS = {
+            "执行基本遵守计划，但离场理由偏情绪化。",
+            "止损没有按计划执行，典型的亏损扛单。",
+            "止盈过早，盈亏比被主动压缩。",
+            "严格按计划执行，纪律性良好。",
+            "入场逻辑清晰，但仓位管理随意。",
+            "恐惧驱动离场，下次请让价格碰到计划位。"
+    };
+
+    private final List<String> scripted;
+    private final AtomicLong scriptCursor = new AtomicLong();
+
+    public ResponseGenerator(List<String> scripted) {
+        this.scripted = List.copyOf(scripted);
+    }
+
+    public Kind classify(String requestBody) {
+        if (!scripted.isEmpty()) {
+            return Kind.SCRIPTED;
+        }
+        if (requestBody.contains("executionId=")) {
+            return Kind.BATCH_REVIEW;
+        }
+        // 请求体是 JSON，系统提示中的 "score" 以转义引号出现
+        if (requestBody.contains("\\\"score\\\"")) {
+            return Kind.REVIEW;
+        }
+        return Kind.CHALLENGE;
+    }
+
+    public String generate(Kind kind, String requestBody) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (kind) {
+            case SCRIPTED -> scripted.get((int) (scriptCursor.getAndIncrement() % scripted.size()));
+            case CHALLENGE -> {
+                List<String> risks = new ArrayList<>();
+                Set<Integer> picked = new LinkedHashSet<>();
+                while (picked.size() < 3) {
+                    picked.add(random.nextInt(RISKS.length));
+                }
+                for (int i : picked) {
+                    risks.add(quote(RISKS[i]));
+                }
+                yield "[" + String.join(", ", risks) + "]";
+            }
+            case REVIEW -> reviewObject(null);
+            case BATCH_REVIEW -> {
+                Set<String> ids = new LinkedHashSet<>();
+                Matcher m = EXECUTION_ID.matcher(requestBody);
+                while (m.find()) {
+                    ids.add(m.group(1));
+                }
+                List<String> items = new ArrayList<>();
+                for (String id : ids) {
+                    items.add(reviewObject(id));
+                }
+                yield "[" + String.join(", ", items) + "]";
+            }
+        };
+    }
+
+    /**
+     * 不是 JSON 的回答，用于触发后端的解析回退路径
+     */
+    public String malformed() {
+        return "抱歉，我暂时无法按要求的格式回答这个问题。";
+    }
+
+    private String reviewObject(String executionId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String body = "\"score\": " + random.nextInt(30, 96)
+                + ", \"comment\": " + quote(COMMENTS[random.nextInt(COMMENTS.length)]);
+        return executionId == null ? "{" + body + "}" : "{\"executionId\": " + executionId + ", " + body + "}";
+    }
+
+    /**
+     * 转为 JSON 字符串字面量
+     */
+    static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
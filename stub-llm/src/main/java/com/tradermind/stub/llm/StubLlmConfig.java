@@ -0,0 +1,99 @@
+package com.tradermind.stub.llm;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 桩服务配置
+ *
+ * @param port           监听端口，0 表示随机端口（嵌入测试时使用）
+ * @param latency        非流式：整个响应的延迟；流式：首个片段前的延迟（TTFT）
+ * @param chunkLatency   流式：相邻片段之间的延迟
+ * @param chunkChars     流式：每个片段的字符数
+ * @param errorRate      返回 500 的概率
+ * @param rateLimitRate  返回 429（带 Retry-After）的概率
+ * @param timeoutRate    挂起 hangMs 后才响应的概率，用于触发客户端超时
+ * @param malformedRate  返回 200 但内容不是 JSON 的概率，用于触发解析回退
+ * @param hangMs         超时注入时的挂起时长
+ * @param scripted       脚本化响应：非空时按顺序轮流返回，忽略请求类型
+ * @param model          响应中的 model 字段
+ */
+public record StubLlmConfig(
+        int port,
+        LatencyDistribution latency,
+        LatencyDistribution chunkLatency,
+        int chunkChars,
+        double errorRate,
+        double rateLimitRate,
+        double timeoutRate,
+        double malformedRate,
+        long hangMs,
+        List<String> scripted,
+        String model
+) {
+
+    public static StubLlmConfig defaults() {
+        return new StubLlmConfig(8090, LatencyDistribution.parse("lognormal:800:0.5"), LatencyDistribution.parse("fixed:30"),
+                8, 0, 0, 0, 0, 120_000, List.of(), "stub-llm");
+    }
+
+    /**
+     * 解析命令行参数（--key=value），未给出的项使用默认值
+     * --port --latency --chunk-latency --chunk-chars --error-rate --rate-limit-rate
+     * --timeout-rate --malformed-rate --hang-ms --script（每行一条响应内容的文件） --model
+     */
+    public static StubLlmConfig fromArgs(String[] args) throws IOException {
+        StubLlmConfig c = defaults();
+        int port = c.port;
+        LatencyDistribution latency = c.latency;
+        LatencyDistribution chunkLatency = c.chunkLatency;
+        int chunkChars = c.chunkChars;
+        double errorRate = c.errorRate;
+        double rateLimitRate = c.rateLimitRate;
+        double timeoutRate = c.timeoutRate;
+        double malformedRate = c.malformedRate;
+        long hangMs = c.hangMs;
+        List<String> scripted = c.scripted;
+        String model = c.model;
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("参数格式应为 --key=value: " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (key) {
+                case "port" -> port = Integer.parseInt(value);
+                case "latency" -> latency = LatencyDistribution.parse(value);
+                case "chunk-latency" -> chunkLatency = LatencyDistribution.parse(value);
+                case "chunk-chars" -> chunkChars = Integer.parseInt(value);
+                case "error-rate" -> errorRate = rate(key, value);
+                case "rate-limit-rate" -> rateLimitRate = rate(key, value);
+                case "timeout-rate" -> timeoutRate = rate(key, value);
+                case "malformed-rate" -> malformedRate = rate(key, value);
+                case "hang-ms" -> hangMs = Long.parseLong(value);
+                case "script" -> scripted = Files.readAllLines(Path.of(value), StandardCharsets.UTF_8).stream()
+                        .filter(line -> !line.isBlank())
+                        .toList();
+                case "model" -> model = value;
+                default -> throw new IllegalArgumentException("未知参数: " + key);
+            }
+        }
+        if (errorRate + rateLimitRate + timeoutRate + malformedRate > 1.0) {
+            throw new IllegalArgumentException("各注入概率之和不能超过 1");
+        }
+        return new StubLlmConfig(port, latency, chunkLatency, Math.max(1, chunkChars), errorRate, rateLimitRate,
+                timeoutRate, malformedRate, hangMs, scripted, model);
+    }
+
+    private static double rate(String key, String value) {
+        double r = Double.parseDouble(value);
+        if (r < 0 || r > 1) {
+            throw new IllegalArgumentException(key + " 必须在 [0, 1] 之间");
+        }
+        return r;
+    }
+}
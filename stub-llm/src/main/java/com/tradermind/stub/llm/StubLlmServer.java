@@ -0,0 +1,239 @@
+package com.tradermind.stub.llm;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OpenAI 兼容的大模型桩服务，用于离线联调与压测 AI 路径
+ * - POST /v1/chat/completions：支持非流式与 stream: true（SSE，以 data: [DONE] 结束）
+ * - GET  /health：存活检查
+ * - GET  /stats：按请求类型与结果的计数
+ * 响应内容由 ResponseGenerator 按请求类型生成，延迟与故障由 StubLlmConfig 注入
+ *
+ * 独立运行：java -jar tradermind-stub-llm.jar --port=8090 --latency=lognormal:800:0.5 --error-rate=0.05
+ * 嵌入使用：try (StubLlmServer stub = StubLlmServer.start(config)) { stub.completionsUrl() ... }
+ * 后端指向桩服务：--ai.api.url=http://localhost:8090/v1/chat/completions
+ */
+public class StubLlmServer implements AutoCloseable {
+
+    private final StubLlmConfig config;
+    private final ResponseGenerator generator;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private enum Fault { NONE, ERROR, RATE_LIMIT, TIMEOUT, MALFORMED }
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private StubLlmServer(StubLlmConfig config) throws IOException {
+        this.config = config;
+        this.generator = new ResponseGenerator(config.scripted());
+        this.server = HttpServer.create(new InetSocketAddress(config.port()), 0);
+        // 每个请求一个虚拟线程：注入的延迟与挂起不占用平台线程，压测时可承受大量并发
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/v1/chat/completions", this::handleCompletions);
+        server.createContext("/health", exchange -> respond(exchange, 200, "application/json", "{\"status\":\"UP\"}"));
+        server.createContext("/stats", this::handleStats);
+    }
+
+    public static StubLlmServer start(StubLlmConfig config) throws IOException {
+        StubLlmServer stub = new StubLlmServer(config);
+        stub.server.start();
+        return stub;
+    }
+
+    public static void main(String[] args) throws IOException {
+        StubLlmConfig config = StubLlmConfig.fromArgs(args);
+        StubLlmServer stub = start(config);
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+        System.out.printf("Stub LLM 已启动: %s (latency=%s, chunk-latency=%s, error=%.3f, 429=%.3f, timeout=%.3f, malformed=%.3f, scripted=%d)%n",
+                stub.completionsUrl(), config.latency(), config.chunkLatency(), config.errorRate(),
+                config.rateLimitRate(), config.timeoutRate(), config.malformedRate(), config.scripted().size());
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String completionsUrl() {
+        return "http://localhost:" + port() + "/v1/chat/completions";
+    }
+
+    public long count(String key) {
+        LongAdder adder = counters.get(key);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleCompletions(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "application/json", error("method not allowed"));
+                return;
+            }
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            boolean stream = body.replace(" ", "").contains("\"stream\":true");
+            ResponseGenerator.Kind kind = generator.classify(body);
+            increment("requests." + kind.name().toLowerCase());
+
+            Fault fault = rollFault();
+            if (fault != Fault.NONE) {
+                increment("injected." + fault.name().toLowerCase());
+            }
+            switch (fault) {
+                case ERROR -> {
+                    sleep(config.latency().sample());
+                    respond(exchange, 500, "application/json", error("stub injected server error"));
+                    return;
+                }
+                case RATE_LIMIT -> {
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    respond(exchange, 429, "application/json", error("stub injected rate limit"));
+                    return;
+                }
+                case TIMEOUT -> sleep(config.hangMs());
+                default -> { }
+            }
+
+            boolean malformed = fault == Fault.MALFORMED;
+            String content = malformed ? generator.malformed() : generator.generate(kind, body);
+            int promptTokens = estimateTokens(body);
+            int completionTokens = estimateTokens(content);
+
+            if (stream) {
+                streamResponse(exchange, content);
+            } else {
+                sleep(config.latency().sample());
+                respond(exchange, 200, "application/json", completionJson(content, promptTokens, completionTokens));
+            }
+            increment("responses.ok");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 故障注入：按各注入概率的累积区间选择一种结果
+     */
+    private Fault rollFault() {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        double threshold = config.errorRate();
+        if (roll < threshold) return Fault.ERROR;
+        threshold += config.rateLimitRate();
+        if (roll < threshold) return Fault.RATE_LIMIT;
+        threshold += config.timeoutRate();
+        if (roll < threshold) return Fault.TIMEOUT;
+        threshold += config.malformedRate();
+        if (roll < threshold) return Fault.MALFORMED;
+        return Fault.NONE;
+    }
+
+    /**
+     * SSE 流式响应：首片段前等待 latency（TTFT），之后每 chunkChars 个字符一个片段、间隔 chunkLatency
+     */
+    private void streamResponse(HttpExchange exchange, String content) throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        sleep(config.latency().sample());
+        exchange.sendResponseHeaders(200, 0);
+        String id = "chatcmpl-" + UUID.randomUUID();
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < content.length(); i += config.chunkChars()) {
+                if (i > 0) {
+                    sleep(config.chunkLatency().sample());
+                }
+                String delta = content.substring(i, Math.min(content.length(), i + config.chunkChars()));
+                String event = "{\"id\":\"" + id + "\",\"object\":\"chat.completion.chunk\",\"model\":"
+                        + ResponseGenerator.quote(config.model())
+                        + ",\"choices\":[{\"index\":0,\"delta\":{\"content\":" + ResponseGenerator.quote(delta)
+                        + "},\"finish_reason\":null}]}";
+                writeEvent(out, event);
+            }
+            writeEvent(out, "[DONE]");
+        }
+    }
+
+    private void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private String completionJson(String content, int promptTokens, int completionTokens) {
+        return "{\"id\":\"chatcmpl-" + UUID.randomUUID() + "\",\"object\":\"chat.completion\","
+                + "\"created\":" + System.currentTimeMillis() / 1000 + ","
+                + "\"model\":" + ResponseGenerator.quote(config.model()) + ","
+                + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":"
+                + ResponseGenerator.quote(content) + "},\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":" + promptTokens + ",\"completion_tokens\":" + completionTokens
+                + ",\"total_tokens\":" + (promptTokens + completionTokens) + "}}";
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            StringBuilder sb = new StringBuilder("{");
+            counters.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(e -> sb.append(sb.length() > 1 ? "," : "")
+                            .append(ResponseGenerator.quote(e.getKey())).append(':').append(e.getValue().sum()));
+            respond(exchange, 200, "application/json", sb.append('}').toString());
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":{\"message\":" + ResponseGenerator.quote(message) + ",\"type\":\"stub_error\"}}";
+    }
+
+    private void increment(String key) {
+        counters.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    private static void sleep(long ms) throws InterruptedException {
+        if (ms > 0) {
+            Thread.sleep(ms);
+        }
+    }
+
+    /**
+     * 与后端相同的估算口径：ASCII 约 4 字符 1 token，非 ASCII 约 1 字符 0.7 token
+     */
+    private static int estimateTokens(String text) {
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 128) ascii++;
+            else other++;
+        }
+        return (int) Math.ceil(ascii / 4.0 + other * 0.7);
+    }
+}